@@ -171,7 +171,7 @@ public class BugzillaClient {
 
 	protected String characterEncoding;
 
-	private boolean loggedIn;
+	private volatile boolean loggedIn;
 
 	private final Map<String, String> configParameters;
 
@@ -181,9 +181,9 @@ public class BugzillaClient {
 
 	private final BugzillaLanguageSettings bugzillaLanguageSettings;
 
-	private RepositoryConfiguration repositoryConfiguration;
+	private volatile RepositoryConfiguration repositoryConfiguration;
 
-	private HostConfiguration hostConfiguration;
+	private final Object configurationLock = new Object();
 
 	private final AbstractWebLocation location;
 
@@ -202,6 +202,8 @@ public class BugzillaClient {
 		this.connector = connector;
 		this.proxy = location.getProxyForHost(location.getUrl(), IProxyData.HTTP_PROXY_TYPE);
 		WebUtil.configureHttpClient(httpClient, USER_AGENT);
+		// Resolves bug#195113, set once since the client is shared by concurrent requests
+		httpClient.getParams().setParameter("http.protocol.single-cookie-header", true); //$NON-NLS-1$
 	}
 
 	public BugzillaClient(AbstractWebLocation location, TaskRepository taskRepository,
@@ -300,7 +302,7 @@ public class BugzillaClient {
 	private GzipGetMethod connectInternal(String requestURL, boolean gzip, IProgressMonitor monitor, String eTagValue)
 			throws IOException, CoreException {
 		monitor = Policy.monitorFor(monitor);
-		hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
+		HostConfiguration hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
 
 		for (int attempt = 0; attempt < 2; attempt++) {
 			// force authentication
@@ -317,9 +319,6 @@ public class BugzillaClient {
 			if (eTagValue != null && eTagValue.compareTo("") != 0) { //$NON-NLS-1$
 				getMethod.setRequestHeader("If-None-Match", eTagValue); //$NON-NLS-1$
 			}
-			// Resolves bug#195113
-			httpClient.getParams().setParameter("http.protocol.single-cookie-header", true); //$NON-NLS-1$
-
 			// WARNING!! Setting browser compatibility breaks Bugzilla
 			// authentication
 			// getMethod.getParams().setCookiePolicy(CookiePolicy.BROWSER_COMPATIBILITY);
@@ -398,7 +397,10 @@ public class BugzillaClient {
 		return zipped;
 	}
 
-	public void authenticate(IProgressMonitor monitor) throws CoreException {
+	/**
+	 * Synchronized to avoid concurrent logins when tasks are retrieved by multiple threads.
+	 */
+	public synchronized void authenticate(IProgressMonitor monitor) throws CoreException {
 		if (loggedIn || (!hasAuthenticationCredentials() && !hasHTTPAuthenticationCredentials())) {
 			return;
 		}
@@ -409,7 +411,7 @@ public class BugzillaClient {
 
 		try {
 
-			hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
+			HostConfiguration hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
 
 			NameValuePair[] formData = new NameValuePair[2];
 			AuthenticationCredentials credentials = location.getCredentials(AuthenticationType.REPOSITORY);
@@ -814,9 +816,11 @@ public class BugzillaClient {
 
 	public void getAttachmentData(String attachmentId, OutputStream out, IProgressMonitor monitor) throws IOException,
 			CoreException {
+		monitor = Policy.monitorFor(monitor);
 		String url = repositoryUrl + IBugzillaConstants.URL_GET_ATTACHMENT_DOWNLOAD + attachmentId;
 		GetMethod method = connectInternal(url, false, monitor, null);//getConnectGzip(url, monitor);
 		try {
+			HostConfiguration hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
 			int status = WebUtil.execute(httpClient, hostConfiguration, method, monitor);
 			if (status == HttpStatus.SC_OK) {
 				//copy the response
@@ -884,7 +888,7 @@ public class BugzillaClient {
 					Messages.BugzillaClient_description_required_when_submitting_attachments));
 		}
 
-		hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
+		HostConfiguration hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
 		authenticate(monitor);
 		GzipPostMethod postMethod = null;
 
@@ -1029,14 +1033,14 @@ public class BugzillaClient {
 
 		GzipPostMethod postMethod = null;
 		monitor = Policy.monitorFor(monitor);
-		hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
+		HostConfiguration hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
 		authenticate(monitor);
 
 		postMethod = new GzipPostMethod(WebUtil.getRequestPath(repositoryUrl.toString() + formUrl), true);
 		postMethod.setRequestHeader(
 				"Content-Type", "application/x-www-form-urlencoded; charset=" + getCharacterEncoding()); //$NON-NLS-1$ //$NON-NLS-2$
 
-		httpClient.getHttpConnectionManager().getParams().setSoTimeout(WebUtil.getConnectionTimeout());
+		postMethod.getParams().setSoTimeout(WebUtil.getConnectionTimeout());
 
 		postMethod.setRequestBody(formData);
 		postMethod.setDoAuthentication(true);
@@ -1241,11 +1245,10 @@ public class BugzillaClient {
 		if (!loggedIn) {
 			authenticate(new SubProgressMonitor(monitor, 1));
 		}
-		hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
+		HostConfiguration hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
 
 		GzipGetMethod getMethod = new GzipGetMethod(WebUtil.getRequestPath(bugUrl), false);
 		getMethod.setRequestHeader("Content-Type", "text/xml; charset=" + getCharacterEncoding()); //$NON-NLS-1$ //$NON-NLS-2$ 
-		httpClient.getParams().setParameter("http.protocol.single-cookie-header", true); //$NON-NLS-1$
 		getMethod.setDoAuthentication(true);
 
 		int code;
@@ -1784,12 +1787,11 @@ public class BugzillaClient {
 	private HtmlInformation getHtmlOnlyInformation(TaskData taskData, IProgressMonitor monitor) throws CoreException {
 		HtmlInformation htmlInfo = new HtmlInformation();
 		authenticate(new SubProgressMonitor(monitor, 1));
-		hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
+		HostConfiguration hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
 
 		String bugUrl = taskData.getRepositoryUrl() + IBugzillaConstants.URL_GET_SHOW_BUG + taskData.getTaskId();
 		GzipGetMethod getMethod = new GzipGetMethod(WebUtil.getRequestPath(bugUrl), false);
 		getMethod.setRequestHeader("Content-Type", "text/xml; charset=" + getCharacterEncoding()); //$NON-NLS-1$ //$NON-NLS-2$ 
-		httpClient.getParams().setParameter("http.protocol.single-cookie-header", true); //$NON-NLS-1$
 		getMethod.setDoAuthentication(true);
 
 		int code;
@@ -2109,8 +2111,13 @@ public class BugzillaClient {
 			final IProgressMonitor monitor) throws IOException, CoreException {
 
 		if (repositoryConfiguration == null) {
-			getRepositoryConfiguration(new SubProgressMonitor(monitor, 1), null);
-			connector.addRepositoryConfiguration(repositoryConfiguration);
+			// tasks may be retrieved concurrently, only request the configuration once
+			synchronized (configurationLock) {
+				if (repositoryConfiguration == null) {
+					getRepositoryConfiguration(new SubProgressMonitor(monitor, 1), null);
+					connector.addRepositoryConfiguration(repositoryConfiguration);
+				}
+			}
 		}
 
 		GzipPostMethod method = null;
@@ -2244,7 +2251,7 @@ public class BugzillaClient {
 	}
 
 	private HeadMethod connectHead(String requestURL, IProgressMonitor monitor) throws IOException, CoreException {
-		hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
+		HostConfiguration hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, monitor);
 		for (int attempt = 0; attempt < 2; attempt++) {
 			// force authentication
 			authenticate(monitor);
@@ -12,10 +12,7 @@
 package org.eclipse.mylyn.internal.bugzilla.core;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
 import java.text.ParseException;
@@ -33,39 +30,111 @@ import org.eclipse.mylyn.commons.net.HtmlTag;
  */
 public class XmlCleaner {
 
-	public static BufferedReader clean(Reader in, File tempFile) {
+	private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"; //$NON-NLS-1$
 
-		HtmlStreamTokenizer tokenizer = new HtmlStreamTokenizer(in, null);
-		try {
-			BufferedWriter content = new BufferedWriter(new FileWriter(tempFile));
-			// Hack since HtmlStreamTokenizer not familiar with xml tag.
-			content.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"); //$NON-NLS-1$
-			for (Token token = tokenizer.nextToken(); token.getType() != Token.EOF; token = tokenizer.nextToken()) {
-
-				if (token.getType() == Token.TAG) {
-					HtmlTag tag = (HtmlTag) token.getValue();
-					if (tag.getAttribute("resource") != null) { //$NON-NLS-1$
-						String resourceID = tag.getAttribute("resource"); //$NON-NLS-1$
-						tag.setAttribute("resource", resourceID.replace("&", "&amp;")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-					}
-					if (tag.getAttribute("rdf:about") != null) { //$NON-NLS-1$
-						String resourceID = tag.getAttribute("rdf:about"); //$NON-NLS-1$
-						tag.setAttribute("rdf:about", resourceID.replace("&", "&amp;")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-					}
+	/**
+	 * Cleans the content read from <code>in</code> as it is consumed from the returned reader.
+	 */
+	private static class CleaningReader extends Reader {
+
+		private final Reader in;
+
+		private final HtmlStreamTokenizer tokenizer;
+
+		// Hack since HtmlStreamTokenizer not familiar with xml tag.
+		private String text = XML_DECLARATION;
+
+		private int position;
+
+		private boolean eof;
+
+		public CleaningReader(Reader in) {
+			this.in = (in instanceof BufferedReader) ? in : new BufferedReader(in);
+			this.tokenizer = new HtmlStreamTokenizer(this.in, null);
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			int count = 0;
+			while (count < len) {
+				if (position == text.length() && !nextToken()) {
+					break;
 				}
-				if (!token.toString().startsWith("<?xml")) { //$NON-NLS-1$
-					content.append(token.toString());
+				int n = Math.min(len - count, text.length() - position);
+				text.getChars(position, position + n, cbuf, off + count);
+				position += n;
+				count += n;
+			}
+			return (count == 0) ? -1 : count;
+		}
+
+		private boolean nextToken() throws IOException {
+			while (!eof) {
+				Token token;
+				try {
+					token = tokenizer.nextToken();
+				} catch (ParseException e) {
+					IOException ioe = new IOException("Failed to parse content: " + e.getMessage()); //$NON-NLS-1$
+					ioe.initCause(e);
+					throw ioe;
+				}
+				if (token.getType() == Token.EOF) {
+					eof = true;
+				} else {
+					String value = cleanToken(token);
+					if (value.length() > 0) {
+						text = value;
+						position = 0;
+						return true;
+					}
 				}
 			}
-			content.flush();
-			content.close();
-			return new BufferedReader(new FileReader(tempFile));
-		} catch (IOException e) {
+			return false;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+
+	}
 
-		} catch (ParseException e) {
+	/**
+	 * Returns a reader that provides the content of <code>in</code> with <code>&amp;</code> characters escaped in the
+	 * resource and rdf:about attributes. The content is cleaned as it is read.
+	 */
+	public static Reader clean(Reader in) {
+		return new CleaningReader(in);
+	}
+
+	/**
+	 * @deprecated use {@link #clean(Reader)} instead, <code>tempFile</code> is no longer used
+	 */
+	@Deprecated
+	public static BufferedReader clean(Reader in, File tempFile) {
+		return new BufferedReader(clean(in));
+	}
 
+	private static String cleanToken(Token token) {
+		if (token.getType() == Token.TAG) {
+			HtmlTag tag = (HtmlTag) token.getValue();
+			if (tag.getAttribute("resource") != null) { //$NON-NLS-1$
+				String resourceID = tag.getAttribute("resource"); //$NON-NLS-1$
+				tag.setAttribute("resource", resourceID.replace("&", "&amp;")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			if (tag.getAttribute("rdf:about") != null) { //$NON-NLS-1$
+				String resourceID = tag.getAttribute("rdf:about"); //$NON-NLS-1$
+				tag.setAttribute("rdf:about", resourceID.replace("&", "&amp;")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+		String value = token.toString();
+		if (value.startsWith("<?xml")) { //$NON-NLS-1$
+			return ""; //$NON-NLS-1$
 		}
-		return null;
+		return value;
 	}
 
 }
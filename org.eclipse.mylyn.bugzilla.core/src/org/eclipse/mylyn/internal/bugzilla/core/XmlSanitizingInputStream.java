@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.bugzilla.core;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Removes bytes that correspond to characters that are not valid in XML documents, e.g. control characters that
+ * Bugzilla does not escape in comments. Bytes are filtered in blocks as they are read which avoids the overhead of
+ * passing each byte through {@link #read()} when the stream is consumed by a decoder.
+ */
+public class XmlSanitizingInputStream extends FilterInputStream {
+
+	private static final boolean[] VALID = new boolean[256];
+
+	static {
+		for (int i = 0; i < VALID.length; i++) {
+			VALID[i] = isValid((char) i);
+		}
+	}
+
+	@SuppressWarnings("restriction")
+	private static boolean isValid(char c) {
+		return org.eclipse.mylyn.internal.commons.core.XmlStringConverter.isValid(c);
+	}
+
+	public XmlSanitizingInputStream(InputStream in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		int c;
+		while ((c = in.read()) != -1) {
+			if (VALID[c]) {
+				return c;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		int count;
+		do {
+			count = in.read(b, off, len);
+			if (count == -1) {
+				return -1;
+			}
+			count = filter(b, off, count);
+		} while (count == 0);
+		return count;
+	}
+
+	/**
+	 * Removes invalid bytes from <code>b</code> in place and returns the number of remaining bytes.
+	 */
+	private int filter(byte[] b, int off, int len) {
+		int end = off + len;
+		int i = off;
+		// skip the common case of a block without invalid bytes
+		while (i < end && VALID[b[i] & 0xFF]) {
+			i++;
+		}
+		int j = i;
+		for (; i < end; i++) {
+			if (VALID[b[i] & 0xFF]) {
+				b[j++] = b[i];
+			}
+		}
+		return j - off;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n <= 0) {
+			return 0;
+		}
+		// skip filtered bytes to be consistent with read()
+		byte[] buffer = new byte[(int) Math.min(n, 2048)];
+		long remaining = n;
+		while (remaining > 0) {
+			int count = read(buffer, 0, (int) Math.min(remaining, buffer.length));
+			if (count == -1) {
+				break;
+			}
+			remaining -= count;
+		}
+		return n - remaining;
+	}
+
+	@Override
+	public int available() throws IOException {
+		// the number of valid bytes is not known without reading ahead
+		return 0;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		// not supported
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("mark/reset not supported"); //$NON-NLS-1$
+	}
+
+}
@@ -15,6 +15,8 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 
 import junit.framework.TestCase;
 
@@ -102,6 +104,26 @@ public class BugzillaConfigurationTest extends TestCase {
 //        StringBuffer result = XmlCleaner.clean(new StringReader(incoming.toString()));
 //	}
 
+	public void testXmlCleanerEscapesAmpersands() throws Exception {
+		String content = "<?xml version=\"1.0\"?><RDF><li><bz:product rdf:about=\"p?a=1&b=2\" resource=\"r?c=3&d=4\">"
+				+ "Product</bz:product></li></RDF>";
+		Reader in = XmlCleaner.clean(new StringReader(content));
+		StringBuilder sb = new StringBuilder();
+		char[] buffer = new char[7];
+		int count;
+		while ((count = in.read(buffer)) != -1) {
+			sb.append(buffer, 0, count);
+		}
+		in.close();
+
+		String result = sb.toString();
+		assertTrue(result, result.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?><RDF>"));
+		assertEquals(0, result.lastIndexOf("<?xml"));
+		assertTrue(result, result.contains("p?a=1&amp;b=2"));
+		assertTrue(result, result.contains("r?c=3&amp;d=4"));
+		assertTrue(result, result.endsWith("</RDF>"));
+	}
+
 	/**
 	 * Can use this to test config data submitted by users. Be sure not to commit user's config file though. The file
 	 * included (rdfconfig218.txt) is from mylyn.eclipse.org/bugs218
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.bugzilla.tests.core;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.internal.bugzilla.core.XmlSanitizingInputStream;
+
+public class XmlSanitizingInputStreamTest extends TestCase {
+
+	/**
+	 * The byte-at-a-time filter previously used by AbstractReportFactory, kept for comparison.
+	 */
+	private static class SingleByteSanitizingInputStream extends InputStream {
+
+		private final InputStream in;
+
+		public SingleByteSanitizingInputStream(InputStream in) {
+			this.in = new BufferedInputStream(in, 1024);
+		}
+
+		@SuppressWarnings("restriction")
+		@Override
+		public int read() throws IOException {
+			int c;
+			while ((c = in.read()) != -1) {
+				if (org.eclipse.mylyn.internal.commons.core.XmlStringConverter.isValid((char) c)) {
+					return c;
+				}
+			}
+			return -1;
+		}
+
+	}
+
+	public void testReadSingleBytes() throws Exception {
+		InputStream in = new XmlSanitizingInputStream(new ByteArrayInputStream(new byte[] { 'a', 0x00, 0x01, 'b',
+				0x0B, 0x0C, '\n', 0x1F }));
+		assertEquals('a', in.read());
+		assertEquals('b', in.read());
+		assertEquals('\n', in.read());
+		assertEquals(-1, in.read());
+	}
+
+	public void testReadBlock() throws Exception {
+		byte[] data = new byte[] { 0x00, 'a', 0x01, 0x02, 'b', '\t', 'c', 0x1F };
+		InputStream in = new XmlSanitizingInputStream(new ByteArrayInputStream(data));
+		byte[] buffer = new byte[16];
+		assertEquals(4, in.read(buffer, 2, 14));
+		assertEquals("ab\tc", new String(buffer, 2, 4, "US-ASCII"));
+		assertEquals(-1, in.read(buffer, 0, buffer.length));
+	}
+
+	public void testReadBlockOfInvalidBytes() throws Exception {
+		byte[] data = new byte[] { 0x00, 0x01, 0x02, 0x03, 'a' };
+		InputStream in = new XmlSanitizingInputStream(new ByteArrayInputStream(data) {
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				// return one byte at a time to force a block that only contains invalid bytes
+				return super.read(b, off, Math.min(len, 1));
+			}
+		});
+		byte[] buffer = new byte[4];
+		assertEquals(1, in.read(buffer, 0, buffer.length));
+		assertEquals('a', buffer[0]);
+		assertEquals(-1, in.read(buffer, 0, buffer.length));
+	}
+
+	public void testSkip() throws Exception {
+		byte[] data = new byte[] { 0x00, 'a', 0x01, 'b', 'c' };
+		InputStream in = new XmlSanitizingInputStream(new ByteArrayInputStream(data));
+		assertEquals(2, in.skip(2));
+		assertEquals('c', in.read());
+		assertEquals(0, in.skip(2));
+	}
+
+	public void testReadMultiByteCharacters() throws Exception {
+		String text = "<bug>\u00E4\u20AC\uD834\uDD1E\u0001</bug>";
+		String result = read(new XmlSanitizingInputStream(new ByteArrayInputStream(text.getBytes("UTF-8"))));
+		assertEquals("<bug>\u00E4\u20AC\uD834\uDD1E</bug>", result);
+	}
+
+	/**
+	 * Compares the result of the single byte and block-based filters when decoding a large multi-bug response.
+	 */
+	public void testReadMultiBugResponse() throws Exception {
+		byte[] data = createMultiBugResponse(200);
+		String expected = read(new SingleByteSanitizingInputStream(new ByteArrayInputStream(data)));
+		String actual = read(new XmlSanitizingInputStream(new ByteArrayInputStream(data)));
+		assertEquals(expected, actual);
+		assertFalse(actual.contains("\u0001"));
+	}
+
+	private String read(InputStream in) throws IOException {
+		Reader reader = new InputStreamReader(in, "UTF-8");
+		StringBuilder sb = new StringBuilder();
+		char[] buffer = new char[4096];
+		int count;
+		while ((count = reader.read(buffer)) != -1) {
+			sb.append(buffer, 0, count);
+		}
+		return sb.toString();
+	}
+
+	private byte[] createMultiBugResponse(int bugs) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\" ?>\n");
+		sb.append("<bugzilla version=\"4.2\" urlbase=\"http://mylyn.org/bugs/\" maintainer=\"admin@mylyn.org\">\n");
+		for (int i = 0; i < bugs; i++) {
+			sb.append("<bug>\n<bug_id>").append(i).append("</bug_id>\n");
+			sb.append("<short_desc>Summary of bug ").append(i).append(" \u00E4\u00F6\u00FC</short_desc>\n");
+			sb.append("<bug_status>NEW</bug_status>\n<priority>P3</priority>\n");
+			for (int j = 0; j < 5; j++) {
+				sb.append("<long_desc isprivate=\"0\">\n<who name=\"Tests\">tests@mylyn.org</who>\n");
+				sb.append("<bug_when>2013-01-01 12:00:00 -0800</bug_when>\n<thetext>");
+				sb.append("Comment ").append(j).append(" with a stack trace\n");
+				for (int k = 0; k < 10; k++) {
+					sb.append("\tat org.eclipse.mylyn.internal.Example.method(Example.java:").append(k).append(")\n");
+				}
+				if (j == 2) {
+					// control characters that are occasionally found in comments
+					sb.append("\u0001\u001B[0m");
+				}
+				sb.append("</thetext>\n</long_desc>\n");
+			}
+			sb.append("</bug>\n");
+		}
+		sb.append("</bugzilla>\n");
+		return sb.toString().getBytes("UTF-8");
+	}
+
+}
@@ -37,6 +37,11 @@ public interface IRepositoryConstants {
 
 	public static final String PROPERTY_DELIM = ":"; //$NON-NLS-1$
 
+	/**
+	 * Maximum number of requests that are sent concurrently when synchronizing multiple tasks of a repository.
+	 */
+	public static final String PROPERTY_SYNC_CONCURRENCY = "syncconcurrency"; //$NON-NLS-1$
+
 	public static final String KIND_UNKNOWN = "<unknown>"; //$NON-NLS-1$
 
 	public static final String CATEGORY_TASKS = "org.eclipse.mylyn.category.tasks"; //$NON-NLS-1$
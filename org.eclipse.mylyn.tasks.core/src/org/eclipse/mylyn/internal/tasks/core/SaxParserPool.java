@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.Assert;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+/**
+ * A thread-safe pool of SAX parsers. Looking up and configuring an {@link XMLReader} through {@link XMLReaderFactory}
+ * is expensive compared to parsing the small documents that are read during synchronization, hence parsers are
+ * recycled after use.
+ * <p>
+ * Parsers handed out by {@link #acquire()} have validation disabled and resolve all external entities to an empty
+ * document. Clients may replace the handlers of an acquired parser, these are reset when the parser is returned to the
+ * pool through {@link #release(XMLReader)}. A parser must not be used after it has been released.
+ */
+public class SaxParserPool {
+
+	public static final int DEFAULT_MAX_IDLE = 8;
+
+	private static final String FEATURE_VALIDATION = "http://xml.org/sax/features/validation"; //$NON-NLS-1$
+
+	private static final SaxParserPool instance = new SaxParserPool(DEFAULT_MAX_IDLE);
+
+	public static SaxParserPool getDefault() {
+		return instance;
+	}
+
+	/**
+	 * Ignores all content and resolves external entities, e.g. DTDs, to an empty document instead of retrieving them.
+	 * Errors are reported as for a parser without handlers: fatal errors are thrown and other problems are ignored.
+	 */
+	private static class DefaultParserHandler extends DefaultHandler {
+
+		@Override
+		public InputSource resolveEntity(String publicId, String systemId) throws IOException, SAXException {
+			InputSource source = new InputSource();
+			source.setCharacterStream(new StringReader("")); //$NON-NLS-1$
+			return source;
+		}
+
+	}
+
+	private final DefaultParserHandler defaultHandler = new DefaultParserHandler();
+
+	private final List<XMLReader> idleParsers = new ArrayList<XMLReader>();
+
+	private final int maxIdle;
+
+	private int createdCount;
+
+	private int reusedCount;
+
+	/**
+	 * @param maxIdle
+	 *            the maximum number of parsers that are retained for reuse
+	 */
+	public SaxParserPool(int maxIdle) {
+		Assert.isLegal(maxIdle >= 0);
+		this.maxIdle = maxIdle;
+	}
+
+	/**
+	 * Returns a configured parser. Callers must pass the parser to {@link #release(XMLReader)} when done.
+	 */
+	public XMLReader acquire() throws SAXException {
+		synchronized (idleParsers) {
+			if (!idleParsers.isEmpty()) {
+				reusedCount++;
+				return idleParsers.remove(idleParsers.size() - 1);
+			}
+		}
+		XMLReader parser = XMLReaderFactory.createXMLReader();
+		parser.setFeature(FEATURE_VALIDATION, false);
+		reset(parser);
+		synchronized (idleParsers) {
+			createdCount++;
+		}
+		return parser;
+	}
+
+	/**
+	 * Resets the handlers of <code>parser</code> and returns it to the pool.
+	 */
+	public void release(XMLReader parser) {
+		Assert.isNotNull(parser);
+		// do not retain references to handlers that may hold on to parsed content
+		reset(parser);
+		synchronized (idleParsers) {
+			if (idleParsers.size() < maxIdle) {
+				idleParsers.add(parser);
+			}
+		}
+	}
+
+	/**
+	 * Parses <code>source</code> with a pooled parser that reports content to <code>handler</code>.
+	 */
+	public void parse(InputSource source, ContentHandler handler) throws IOException, SAXException {
+		XMLReader parser = acquire();
+		try {
+			parser.setContentHandler(handler);
+			parser.parse(source);
+		} finally {
+			release(parser);
+		}
+	}
+
+	/**
+	 * Returns the number of parsers that were created by this pool.
+	 */
+	public int getCreatedCount() {
+		synchronized (idleParsers) {
+			return createdCount;
+		}
+	}
+
+	/**
+	 * Returns the number of times {@link #acquire()} returned a previously released parser.
+	 */
+	public int getReusedCount() {
+		synchronized (idleParsers) {
+			return reusedCount;
+		}
+	}
+
+	/**
+	 * Returns the number of parsers that are available for reuse.
+	 */
+	public int getIdleCount() {
+		synchronized (idleParsers) {
+			return idleParsers.size();
+		}
+	}
+
+	private void reset(XMLReader parser) {
+		parser.setContentHandler(defaultHandler);
+		parser.setDTDHandler(defaultHandler);
+		parser.setEntityResolver(defaultHandler);
+		parser.setErrorHandler(defaultHandler);
+	}
+
+}
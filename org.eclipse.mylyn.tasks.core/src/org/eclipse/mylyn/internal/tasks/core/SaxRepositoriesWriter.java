@@ -15,6 +15,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
 
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -164,14 +165,13 @@ public class SaxRepositoriesWriter {
 			for (TaskRepository repository : new ArrayList<TaskRepository>(repositories)) {
 
 				AttributesImpl ieAttributes = new AttributesImpl();
-				for (String key : repository.getProperties().keySet()) {
+				for (Map.Entry<String, String> entry : repository.getProperties().entrySet()) {
 					ieAttributes.addAttribute(
 							"", //$NON-NLS-1$
-							key,
-							key,
+							entry.getKey(),
+							entry.getKey(),
 							"", //$NON-NLS-1$
-							org.eclipse.mylyn.internal.commons.core.XmlStringConverter.convertToXmlString(repository.getProperties()
-									.get(key)));
+							org.eclipse.mylyn.internal.commons.core.XmlStringConverter.convertToXmlString(entry.getValue()));
 				}
 
 				handler.startElement("", TaskRepositoriesExternalizer.ELEMENT_TASK_REPOSITORY, //$NON-NLS-1$
@@ -17,7 +17,9 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -46,7 +48,7 @@ public class TaskList implements ITaskList, ITransferList {
 
 	private static String DEFAULT_HANDLE_PREFIX = "handle-"; //$NON-NLS-1$
 
-	private static ILock lock = Job.getJobManager().newLock();
+	private final ILock lock = Job.getJobManager().newLock();
 
 	private Map<String, AbstractTaskCategory> categories;
 
@@ -64,6 +66,17 @@ public class TaskList implements ITaskList, ITransferList {
 
 	private Map<String, AbstractTask> tasks;
 
+	/**
+	 * Tasks and queries partitioned by repository url. Shards are only modified while holding the lock and can be read
+	 * without locking. Shards are created when the first task or query of a repository is added and removed when they
+	 * become empty.
+	 */
+	private ConcurrentMap<String, RepositoryShard> repositoryShards;
+
+	private final AtomicInteger rootElementsVersion = new AtomicInteger();
+
+	private volatile RootElements rootElements;
+
 	private Set<TaskContainerDelta> delta;
 
 	private int nextHandle = 1;
@@ -81,6 +94,7 @@ public class TaskList implements ITaskList, ITransferList {
 						+ " already exists in task list"); //$NON-NLS-1$
 			}
 			categories.put(category.getHandleIdentifier(), category);
+			rootElementsChanged();
 			delta.add(new TaskContainerDelta(category, TaskContainerDelta.Kind.ADDED));
 		} finally {
 			unlock();
@@ -117,6 +131,8 @@ public class TaskList implements ITaskList, ITransferList {
 						+ " already exists in task list"); //$NON-NLS-1$
 			}
 			queries.put(query.getHandleIdentifier(), query);
+			addToShard(query);
+			rootElementsChanged();
 			delta.add(new TaskContainerDelta(query, TaskContainerDelta.Kind.ADDED));
 		} finally {
 			unlock();
@@ -204,12 +220,14 @@ public class TaskList implements ITaskList, ITransferList {
 		unmatchedMap.put(orphanedTasksContainer.getRepositoryUrl(), orphanedTasksContainer);
 		unsubmittedTasksMap.put(orphanedTasksContainer.getRepositoryUrl(), new UnsubmittedTaskContainer(
 				orphanedTasksContainer.getConnectorKind(), orphanedTasksContainer.getRepositoryUrl()));
+		rootElementsChanged();
 	}
 
 	public void deleteCategory(AbstractTaskCategory category) {
 		try {
 			lock();
 			categories.remove(category.getHandleIdentifier());
+			rootElementsChanged();
 			for (ITask task : category.getChildren()) {
 				((AbstractTask) task).removeParentContainer(category);
 				addToUnmatched((AbstractTask) task, delta);
@@ -225,6 +243,8 @@ public class TaskList implements ITaskList, ITransferList {
 		try {
 			lock();
 			queries.remove(query.getHandleIdentifier());
+			removeFromShard(query, query.getRepositoryUrl());
+			rootElementsChanged();
 			for (ITask task : query.getChildren()) {
 				((AbstractTask) task).removeParentContainer(query);
 				addToUnmatched((AbstractTask) task, delta);
@@ -258,6 +278,7 @@ public class TaskList implements ITaskList, ITransferList {
 			}
 
 			tasks.remove(task.getHandleIdentifier());
+			removeFromShard(task, task.getRepositoryUrl());
 			delta.add(new TaskContainerDelta(task, TaskContainerDelta.Kind.REMOVED));
 			delta.add(new TaskContainerDelta(task, TaskContainerDelta.Kind.DELETED));
 		} finally {
@@ -325,6 +346,7 @@ public class TaskList implements ITaskList, ITransferList {
 		if (task == null) {
 			tasks.put(taskListElement.getHandleIdentifier(), taskListElement);
 			task = taskListElement;
+			addToShard(task);
 			if (task instanceof LocalTask) {
 				try {
 					int taskId = Integer.parseInt(task.getTaskId());
@@ -337,26 +359,98 @@ public class TaskList implements ITaskList, ITransferList {
 		return task;
 	}
 
+	private RepositoryShard getOrCreateShard(String repositoryUrl) {
+		RepositoryShard shard = repositoryShards.get(repositoryUrl);
+		if (shard == null) {
+			shard = new RepositoryShard();
+			RepositoryShard existingShard = repositoryShards.putIfAbsent(repositoryUrl, shard);
+			if (existingShard != null) {
+				shard = existingShard;
+			}
+		}
+		return shard;
+	}
+
+	private void addToShard(AbstractTask task) {
+		String repositoryUrl = task.getRepositoryUrl();
+		if (repositoryUrl == null) {
+			return;
+		}
+		RepositoryShard shard = getOrCreateShard(repositoryUrl);
+		shard.tasks.put(task, Boolean.TRUE);
+		String taskKey = task.getTaskKey();
+		if (taskKey != null) {
+			shard.tasksByKey.put(taskKey, task);
+		}
+	}
+
+	private void removeFromShard(AbstractTask task, String repositoryUrl) {
+		if (repositoryUrl == null) {
+			return;
+		}
+		RepositoryShard shard = repositoryShards.get(repositoryUrl);
+		if (shard != null) {
+			shard.tasks.remove(task);
+			String taskKey = task.getTaskKey();
+			if (taskKey != null) {
+				shard.tasksByKey.remove(taskKey, task);
+			}
+			removeIfEmpty(repositoryUrl, shard);
+		}
+	}
+
+	private void addToShard(RepositoryQuery query) {
+		if (query.getRepositoryUrl() != null) {
+			getOrCreateShard(query.getRepositoryUrl()).queries.add(query);
+		}
+	}
+
+	private void removeFromShard(RepositoryQuery query, String repositoryUrl) {
+		if (repositoryUrl != null) {
+			RepositoryShard shard = repositoryShards.get(repositoryUrl);
+			if (shard != null) {
+				shard.queries.remove(query);
+				removeIfEmpty(repositoryUrl, shard);
+			}
+		}
+	}
+
+	private void removeIfEmpty(String repositoryUrl, RepositoryShard shard) {
+		if (shard.tasks.isEmpty() && shard.queries.isEmpty()) {
+			repositoryShards.remove(repositoryUrl, shard);
+		}
+	}
+
 	public Set<RepositoryQuery> getQueries() {
 		return Collections.unmodifiableSet(new HashSet<RepositoryQuery>(queries.values()));
 	}
 
 	/**
 	 * return all queries for the given repository url
+	 * <p>
+	 * The returned set is an unmodifiable live view that reflects queries that are added or removed later on as long
+	 * as the repository has tasks or queries. Callers that require a snapshot need to copy the set.
 	 */
 	public Set<RepositoryQuery> getRepositoryQueries(String repositoryUrl) {
 		Assert.isNotNull(repositoryUrl);
 
-		Set<RepositoryQuery> repositoryQueries = new HashSet<RepositoryQuery>();
-		for (RepositoryQuery query : queries.values()) {
-			if (query.getRepositoryUrl().equals(repositoryUrl)) {
-				repositoryQueries.add(query);
-			}
+		RepositoryShard shard = repositoryShards.get(repositoryUrl);
+		if (shard == null) {
+			return Collections.emptySet();
 		}
-		return repositoryQueries;
+		return Collections.unmodifiableSet(shard.queries);
 	}
 
+	/**
+	 * Returns an unmodifiable set of the root elements. The set is cached until root elements are added or removed.
+	 */
 	public Set<AbstractTaskContainer> getRootElements() {
+		int version = rootElementsVersion.get();
+		RootElements cachedRootElements = rootElements;
+		if (cachedRootElements != null && cachedRootElements.version == version) {
+			return cachedRootElements.elements;
+		}
+
 		Set<AbstractTaskContainer> roots = new HashSet<AbstractTaskContainer>();
 		roots.add(defaultCategory);
 		for (AbstractTaskCategory cat : categories.values()) {
@@ -371,9 +465,18 @@ public class TaskList implements ITaskList, ITransferList {
 		for (UnsubmittedTaskContainer unsubmitedTaskContainer : unsubmittedTasksMap.values()) {
 			roots.add(unsubmitedTaskContainer);
 		}
+		roots = Collections.unmodifiableSet(roots);
+		rootElements = new RootElements(version, roots);
 		return roots;
 	}
 
+	/**
+	 * Must be invoked after the root elements were modified.
+	 */
+	private void rootElementsChanged() {
+		rootElementsVersion.incrementAndGet();
+	}
+
 	/**
 	 * TODO: consider removing, if everything becomes a repository task
 	 * 
@@ -397,16 +500,37 @@ public class TaskList implements ITaskList, ITransferList {
 	}
 
 	public AbstractTask getTaskByKey(String repositoryUrl, String taskKey) {
-		for (AbstractTask task : tasks.values()) {
-			String currentTaskKey = task.getTaskKey();
-			if (currentTaskKey != null && currentTaskKey.equals(taskKey)
-					&& task.getRepositoryUrl().equals(repositoryUrl)) {
-				return task;
+		if (repositoryUrl == null || taskKey == null) {
+			return null;
+		}
+		RepositoryShard shard = repositoryShards.get(repositoryUrl);
+		if (shard == null) {
+			return null;
+		}
+
+		AbstractTask task = shard.tasksByKey.get(taskKey);
+		if (task != null && isIndexedTask(task, repositoryUrl, taskKey)) {
+			return task;
+		}
+
+		// the key of a task may change after it was added, fall back to scanning the tasks of the repository
+		for (AbstractTask candidate : shard.tasks.keySet()) {
+			if (isIndexedTask(candidate, repositoryUrl, taskKey)) {
+				shard.tasksByKey.put(taskKey, candidate);
+				return candidate;
 			}
 		}
+		if (task != null) {
+			shard.tasksByKey.remove(taskKey, task);
+		}
 		return null;
 	}
 
+	private boolean isIndexedTask(AbstractTask task, String repositoryUrl, String taskKey) {
+		return taskKey.equals(task.getTaskKey()) && repositoryUrl.equals(task.getRepositoryUrl())
+				&& tasks.get(task.getHandleIdentifier()) == task;
+	}
+
 	public Set<AbstractTaskCategory> getTaskCategories() {
 		Set<AbstractTaskCategory> containers = new HashSet<AbstractTaskCategory>();
 		for (AbstractTaskCategory container : categories.values()) {
@@ -419,17 +543,18 @@ public class TaskList implements ITaskList, ITransferList {
 
 	/**
 	 * Returns all tasks for the given repository url.
+	 * <p>
+	 * The returned set is an unmodifiable live view that reflects tasks that are added or removed later on as long as
+	 * the repository has tasks or queries. Callers that require a snapshot need to copy the set.
 	 */
 	public Set<ITask> getTasks(String repositoryUrl) {
-		Set<ITask> repositoryTasks = new HashSet<ITask>();
 		if (repositoryUrl != null) {
-			for (ITask task : tasks.values()) {
-				if (task.getRepositoryUrl().equals(repositoryUrl)) {
-					repositoryTasks.add(task);
-				}
+			RepositoryShard shard = repositoryShards.get(repositoryUrl);
+			if (shard != null) {
+				return Collections.<ITask> unmodifiableSet(shard.tasks.keySet());
 			}
 		}
-		return repositoryTasks;
+		return Collections.emptySet();
 	}
 
 	public AbstractTaskContainer getUnmatchedContainer(String repositoryUrl) {
@@ -523,8 +648,10 @@ public class TaskList implements ITaskList, ITransferList {
 			for (AbstractTask task : tasks.values()) {
 				if (oldRepositoryUrl.equals(RepositoryTaskHandleUtil.getRepositoryUrl(task.getHandleIdentifier()))) {
 					tasks.remove(task.getHandleIdentifier());
+					removeFromShard(task, task.getRepositoryUrl());
 					task.setRepositoryUrl(newRepositoryUrl);
 					tasks.put(task.getHandleIdentifier(), task);
+					addToShard(task);
 					String taskUrl = task.getUrl();
 					if (taskUrl != null && taskUrl.startsWith(oldRepositoryUrl)) {
 						task.setUrl(newRepositoryUrl + taskUrl.substring(oldRepositoryUrl.length()));
@@ -537,7 +664,9 @@ public class TaskList implements ITaskList, ITransferList {
 
 			for (RepositoryQuery query : queries.values()) {
 				if (query.getRepositoryUrl().equals(oldRepositoryUrl)) {
+					removeFromShard(query, oldRepositoryUrl);
 					query.setRepositoryUrl(newRepositoryUrl);
+					addToShard(query);
 					delta.add(new TaskContainerDelta(query, TaskContainerDelta.Kind.CONTENT));
 				}
 			}
@@ -560,6 +689,7 @@ public class TaskList implements ITaskList, ITransferList {
 					delta.add(new TaskContainerDelta(unsubmitted, TaskContainerDelta.Kind.CONTENT));
 				}
 			}
+			rootElementsChanged();
 		} finally {
 			unlock();
 		}
@@ -641,6 +771,7 @@ public class TaskList implements ITaskList, ITransferList {
 		try {
 			lock();
 			tasks = new ConcurrentHashMap<String, AbstractTask>();
+			repositoryShards = new ConcurrentHashMap<String, RepositoryShard>();
 
 			unmatchedMap = new ConcurrentHashMap<String, UnmatchedTaskContainer>();
 			unsubmittedTasksMap = new ConcurrentHashMap<String, UnsubmittedTaskContainer>();
@@ -651,6 +782,7 @@ public class TaskList implements ITaskList, ITransferList {
 
 			maxLocalTaskId = 0;
 			categories.put(defaultCategory.getHandleIdentifier(), defaultCategory);
+			rootElementsChanged();
 		} finally {
 			unlock();
 		}
@@ -745,4 +877,33 @@ public class TaskList implements ITaskList, ITransferList {
 		return unsubmittedTasksMap.get(repositoryUrl);
 	}
 
+	/**
+	 * Tasks, tasks keys and queries of a single repository.
+	 */
+	private static class RepositoryShard {
+
+		private final Map<AbstractTask, Boolean> tasks = new ConcurrentHashMap<AbstractTask, Boolean>();
+
+		/**
+		 * Maps task keys to tasks. Task keys may change after a task was added, entries are validated on lookup.
+		 */
+		private final ConcurrentMap<String, AbstractTask> tasksByKey = new ConcurrentHashMap<String, AbstractTask>();
+
+		private final Set<RepositoryQuery> queries = new CopyOnWriteArraySet<RepositoryQuery>();
+
+	}
+
+	private static class RootElements {
+
+		private final int version;
+
+		private final Set<AbstractTaskContainer> elements;
+
+		public RootElements(int version, Set<AbstractTaskContainer> elements) {
+			this.version = version;
+			this.elements = elements;
+		}
+
+	}
+
 }
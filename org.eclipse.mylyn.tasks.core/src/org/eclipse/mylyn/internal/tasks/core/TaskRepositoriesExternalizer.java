@@ -28,8 +28,6 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.xml.sax.InputSource;
-import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.XMLReaderFactory;
 
 /**
  * @author Rob Elves
@@ -112,9 +110,7 @@ public class TaskRepositoriesExternalizer {
 			}
 
 			SaxRepositoriesContentHandler contentHandler = new SaxRepositoriesContentHandler();
-			XMLReader reader = XMLReaderFactory.createXMLReader();
-			reader.setContentHandler(contentHandler);
-			reader.parse(new InputSource(inputStream));
+			SaxParserPool.getDefault().parse(new InputSource(inputStream), contentHandler);
 			return contentHandler.getRepositories();
 		} catch (Throwable e) {
 			file.renameTo(new File(file.getAbsolutePath() + "-save")); //$NON-NLS-1$
@@ -62,6 +62,9 @@ public class TaskRepositoryManager implements IRepositoryManager {
 	// connector kinds to corresponding repositories
 	private final Map<String, Set<TaskRepository>> repositoryMap = new HashMap<String, Set<TaskRepository>>();
 
+	// snapshot of repositoryMap for lookups by url, replaced whenever repositoryMap changes
+	private volatile RepositoryIndex repositoryIndex = new RepositoryIndex();
+
 	private final Set<IRepositoryListener> listeners = new CopyOnWriteArraySet<IRepositoryListener>();
 
 	private final Set<TaskRepository> orphanedRepositories = new HashSet<TaskRepository>();
@@ -74,6 +77,9 @@ public class TaskRepositoryManager implements IRepositoryManager {
 
 	private final PropertyChangeListener PROPERTY_CHANGE_LISTENER = new PropertyChangeListener() {
 		public void propertyChange(PropertyChangeEvent evt) {
+			if (IRepositoryConstants.PROPERTY_URL.equals(evt.getPropertyName())) {
+				updateRepositoryIndex();
+			}
 			TaskRepositoryManager.this.notifyRepositorySettingsChanged((TaskRepository) evt.getSource(),
 					new TaskRepositoryDelta(Type.PROPERTY, evt.getPropertyName()));
 		}
@@ -83,6 +89,66 @@ public class TaskRepositoryManager implements IRepositoryManager {
 
 	private List<AbstractRepositoryMigrator> migrators;
 
+	/**
+	 * An immutable index of repositories by normalized url. Entries record the url of the repository at the time the
+	 * index was built since {@link TaskRepository#setRepositoryUrl(String)} does not notify listeners.
+	 */
+	private static class RepositoryIndex {
+
+		private static class Entry {
+
+			final TaskRepository repository;
+
+			final String url;
+
+			Entry(TaskRepository repository) {
+				this.repository = repository;
+				this.url = repository.getRepositoryUrl();
+			}
+
+			boolean isValid() {
+				return url.equals(repository.getRepositoryUrl());
+			}
+
+		}
+
+		// connector kind to normalized url to repository
+		final Map<String, Map<String, Entry>> entryByKindAndUrl;
+
+		final Map<String, Entry> entryByUrl;
+
+		final TaskRepository[] repositories;
+
+		RepositoryIndex() {
+			this.entryByKindAndUrl = Collections.emptyMap();
+			this.entryByUrl = Collections.emptyMap();
+			this.repositories = new TaskRepository[0];
+		}
+
+		RepositoryIndex(Map<String, Set<TaskRepository>> repositoryMap) {
+			this.entryByKindAndUrl = new HashMap<String, Map<String, Entry>>();
+			this.entryByUrl = new HashMap<String, Entry>();
+			List<TaskRepository> repositories = new ArrayList<TaskRepository>();
+			for (Map.Entry<String, Set<TaskRepository>> kindEntry : repositoryMap.entrySet()) {
+				Map<String, Entry> entryByUrl = new HashMap<String, Entry>();
+				for (TaskRepository repository : kindEntry.getValue()) {
+					String url = stripSlashes(repository.getRepositoryUrl());
+					Entry entry = new Entry(repository);
+					if (!entryByUrl.containsKey(url)) {
+						entryByUrl.put(url, entry);
+					}
+					if (!this.entryByUrl.containsKey(url)) {
+						this.entryByUrl.put(url, entry);
+					}
+					repositories.add(repository);
+				}
+				entryByKindAndUrl.put(kindEntry.getKey(), entryByUrl);
+			}
+			this.repositories = repositories.toArray(new TaskRepository[repositories.size()]);
+		}
+
+	}
+
 	public TaskRepositoryManager() {
 		this.migrators = Collections.emptyList();
 		Category catTasks = new Category(IRepositoryConstants.CATEGORY_TASKS, "Tasks", 0); //$NON-NLS-1$
@@ -139,6 +205,7 @@ public class TaskRepositoryManager implements IRepositoryManager {
 			}
 
 			repository.addChangeListener(PROPERTY_CHANGE_LISTENER);
+			updateRepositoryIndex();
 		}
 
 		for (final IRepositoryListener listener : listeners) {
@@ -169,6 +236,7 @@ public class TaskRepositoryManager implements IRepositoryManager {
 			}
 			repository.flushAuthenticationCredentials();
 			repository.removeChangeListener(PROPERTY_CHANGE_LISTENER);
+			updateRepositoryIndex();
 		}
 		for (final IRepositoryListener listener : listeners) {
 			SafeRunner.run(new ISafeRunnable() {
@@ -195,11 +263,21 @@ public class TaskRepositoryManager implements IRepositoryManager {
 	/* Public for testing. */
 	public static String stripSlashes(String url) {
 		Assert.isNotNull(url);
-		StringBuilder sb = new StringBuilder(url.trim());
-		while (sb.length() > 0 && sb.charAt(sb.length() - 1) == '/') {
-			sb.setLength(sb.length() - 1);
+		// trim() and substring() return the same instance if there is nothing to remove
+		String trimmed = url.trim();
+		int end = trimmed.length();
+		while (end > 0 && trimmed.charAt(end - 1) == '/') {
+			end--;
 		}
-		return sb.toString();
+		return trimmed.substring(0, end);
+	}
+
+	/**
+	 * Rebuilds the index used by {@link #getRepository(String)} and {@link #getRepository(String, String)}. Needs to be
+	 * invoked whenever {@link #repositoryMap} or the url of a managed repository changes.
+	 */
+	private synchronized void updateRepositoryIndex() {
+		repositoryIndex = new RepositoryIndex(repositoryMap);
 	}
 
 	public Category getCategory(String id) {
@@ -219,16 +297,15 @@ public class TaskRepositoryManager implements IRepositoryManager {
 		Assert.isNotNull(kind);
 		Assert.isNotNull(urlString);
 		urlString = stripSlashes(urlString);
-		synchronized (this) {
-			if (repositoryMap.containsKey(kind)) {
-				for (TaskRepository repository : repositoryMap.get(kind)) {
-					if (stripSlashes(repository.getRepositoryUrl()).equals(urlString)) {
-						return repository;
-					}
-				}
+		RepositoryIndex index = repositoryIndex;
+		Map<String, RepositoryIndex.Entry> entryByUrl = index.entryByKindAndUrl.get(kind);
+		if (entryByUrl != null) {
+			RepositoryIndex.Entry entry = entryByUrl.get(urlString);
+			if (entry != null && entry.isValid()) {
+				return entry.repository;
 			}
 		}
-		return null;
+		return findRepository(index, kind, urlString);
 	}
 
 	/**
@@ -237,13 +314,24 @@ public class TaskRepositoryManager implements IRepositoryManager {
 	public TaskRepository getRepository(String urlString) {
 		Assert.isNotNull(urlString);
 		urlString = stripSlashes(urlString);
-		synchronized (this) {
-			for (String kind : repositoryMap.keySet()) {
-				for (TaskRepository repository : repositoryMap.get(kind)) {
-					if (stripSlashes(repository.getRepositoryUrl()).equals(urlString)) {
-						return repository;
-					}
-				}
+		RepositoryIndex index = repositoryIndex;
+		RepositoryIndex.Entry entry = index.entryByUrl.get(urlString);
+		if (entry != null && entry.isValid()) {
+			return entry.repository;
+		}
+		return findRepository(index, null, urlString);
+	}
+
+	/**
+	 * Searches all repositories of <code>index</code> in case the url of a repository was changed without notifying the
+	 * manager and updates the index if a repository is found.
+	 */
+	private TaskRepository findRepository(RepositoryIndex index, String kind, String urlString) {
+		for (TaskRepository repository : index.repositories) {
+			if ((kind == null || kind.equals(repository.getConnectorKind()))
+					&& stripSlashes(repository.getRepositoryUrl()).equals(urlString)) {
+				updateRepositoryIndex();
+				return repository;
 			}
 		}
 		return null;
@@ -308,12 +396,13 @@ public class TaskRepositoryManager implements IRepositoryManager {
 		return null;
 	}
 
-	Map<String, Set<TaskRepository>> readRepositories(String repositoriesFilePath) {
+	synchronized Map<String, Set<TaskRepository>> readRepositories(String repositoriesFilePath) {
 
 		repositoryMap.clear();
 		orphanedRepositories.clear();
 
 		loadRepositories(repositoriesFilePath);
+		updateRepositoryIndex();
 
 //		for (IRepositoryListener listener : listeners) {
 //			try {
@@ -443,6 +532,7 @@ public class TaskRepositoryManager implements IRepositoryManager {
 		synchronized (this) {
 			repositoryMap.clear();
 			orphanedRepositories.clear();
+			updateRepositoryIndex();
 		}
 	}
 
@@ -503,6 +593,7 @@ public class TaskRepositoryManager implements IRepositoryManager {
 	 *            previous url for this repository
 	 */
 	public void notifyRepositoryUrlChanged(final TaskRepository repository, final String oldUrl) {
+		updateRepositoryIndex();
 		for (final IRepositoryListener listener : listeners) {
 			SafeRunner.run(new ISafeRunnable() {
 				public void handleException(Throwable e) {
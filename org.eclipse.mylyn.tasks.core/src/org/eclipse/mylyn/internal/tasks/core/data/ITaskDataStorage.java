@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Persists serialized task data states for {@link TaskDataStore}. States are identified by the file that
+ * {@link TaskDataManager} computes for a task, implementations are not required to create that file.
+ */
+public interface ITaskDataStorage {
+
+	public abstract boolean exists(File file);
+
+	/**
+	 * Returns a stream for reading the serialized state or <code>null</code> if no state is stored for
+	 * <code>file</code>.
+	 */
+	public abstract InputStream openInputStream(File file) throws IOException;
+
+	/**
+	 * Returns a stream for writing the serialized state. The state replaces a previously stored state when the stream
+	 * is closed.
+	 */
+	public abstract OutputStream openOutputStream(File file) throws IOException;
+
+	public abstract boolean delete(File file);
+
+	/**
+	 * Forces pending writes to disk.
+	 */
+	public abstract void flush() throws IOException;
+
+	/**
+	 * Flushes pending writes and releases resources. The storage may be used again after it was closed.
+	 */
+	public abstract void close() throws IOException;
+
+}
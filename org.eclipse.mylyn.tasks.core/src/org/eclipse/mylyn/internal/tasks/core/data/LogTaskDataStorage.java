@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+
+/**
+ * Stores task data states in append-only logs, one log per directory. Zip files written by
+ * {@link ZipTaskDataStorage} are migrated into the log when a directory is first accessed and are kept as backups with
+ * the extension <code>.zip.migrated</code>.
+ *
+ * @see TaskDataLog
+ */
+public class LogTaskDataStorage implements ITaskDataStorage {
+
+	public static final long DEFAULT_MAX_SEGMENT_SIZE = 32 * 1024 * 1024;
+
+	public static final long DEFAULT_COMPACTION_THRESHOLD = 4 * 1024 * 1024;
+
+	private static class RecordOutputStream extends ByteArrayOutputStream {
+
+		private final TaskDataLog log;
+
+		private final String key;
+
+		private boolean closed;
+
+		public RecordOutputStream(TaskDataLog log, String key) {
+			super(8192);
+			this.log = log;
+			this.key = key;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!closed) {
+				closed = true;
+				log.put(key, toByteArray());
+			}
+		}
+
+	}
+
+	private final Map<File, TaskDataLog> logByDirectory = new HashMap<File, TaskDataLog>();
+
+	private final long maxSegmentSize;
+
+	private final long compactionThreshold;
+
+	public LogTaskDataStorage() {
+		this(DEFAULT_MAX_SEGMENT_SIZE, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	public LogTaskDataStorage(long maxSegmentSize, long compactionThreshold) {
+		this.maxSegmentSize = maxSegmentSize;
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	public boolean exists(File file) {
+		try {
+			TaskDataLog log = getLog(file, false);
+			return log != null && log.contains(file.getName());
+		} catch (IOException e) {
+			StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Error reading task data log for \"" + file + "\"", e)); //$NON-NLS-1$ //$NON-NLS-2$
+			return false;
+		}
+	}
+
+	public InputStream openInputStream(File file) throws IOException {
+		TaskDataLog log = getLog(file, false);
+		return (log != null) ? log.read(file.getName()) : null;
+	}
+
+	public OutputStream openOutputStream(File file) throws IOException {
+		return new RecordOutputStream(getLog(file, true), file.getName());
+	}
+
+	public boolean delete(File file) {
+		try {
+			TaskDataLog log = getLog(file, false);
+			return log != null && log.delete(file.getName());
+		} catch (IOException e) {
+			StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Error deleting task data for \"" + file + "\"", e)); //$NON-NLS-1$ //$NON-NLS-2$
+			return false;
+		}
+	}
+
+	public void flush() throws IOException {
+		for (TaskDataLog log : getLogs()) {
+			log.flush();
+		}
+	}
+
+	public synchronized void close() throws IOException {
+		try {
+			for (TaskDataLog log : logByDirectory.values()) {
+				log.close();
+			}
+		} finally {
+			logByDirectory.clear();
+		}
+	}
+
+	/**
+	 * Compacts all open logs.
+	 */
+	public void compact() throws IOException {
+		for (TaskDataLog log : getLogs()) {
+			log.compact();
+		}
+	}
+
+	private synchronized List<TaskDataLog> getLogs() {
+		return new ArrayList<TaskDataLog>(logByDirectory.values());
+	}
+
+	private synchronized TaskDataLog getLog(File file, boolean create) throws IOException {
+		File directory = file.getAbsoluteFile().getParentFile();
+		TaskDataLog log = logByDirectory.get(directory);
+		if (log == null) {
+			if (!directory.exists()) {
+				if (!create) {
+					return null;
+				}
+				directory.mkdirs();
+			}
+			log = new TaskDataLog(directory, maxSegmentSize, compactionThreshold);
+			log.open();
+			logByDirectory.put(directory, log);
+		}
+		return log;
+	}
+
+}
@@ -0,0 +1,394 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.AbstractTaskDataHandler;
+import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+
+/**
+ * Reads and writes task data states in a compact binary format. Compared to the XML format written by
+ * {@link TaskDataStateWriter} the format avoids markup and escaping: lengths and counts are encoded as variable length
+ * integers and attribute ids, option and meta data keys and values are stored once per state in a string table that
+ * is built while writing and referenced by index afterwards.
+ * <p>
+ * A state starts with {@link #MAGIC} followed by the format version. Use {@link #isBinary(InputStream)} to distinguish
+ * binary states from XML states.
+ */
+public class TaskDataBinaryCodec {
+
+	/**
+	 * Leading bytes of a binary state. XML states start with a '<' or a byte order mark.
+	 */
+	static final byte[] MAGIC = new byte[] { 0, 'M', 'T', 'D' };
+
+	static final int VERSION = 1;
+
+	private static final int MAX_LENGTH = 64 * 1024 * 1024;
+
+	private static final int NULL = 0;
+
+	private static final int LITERAL = 1;
+
+	private static final int REFERENCE_OFFSET = 2;
+
+	private final IRepositoryManager repositoryManager;
+
+	public TaskDataBinaryCodec(IRepositoryManager repositoryManager) {
+		this.repositoryManager = repositoryManager;
+	}
+
+	/**
+	 * Returns true, if <code>in</code> is positioned at the start of a binary state. The stream is reset to its
+	 * original position.
+	 *
+	 * @param in
+	 *            a stream that supports mark and reset
+	 */
+	public static boolean isBinary(InputStream in) throws IOException {
+		in.mark(MAGIC.length);
+		try {
+			for (byte element : MAGIC) {
+				if (in.read() != (element & 0xFF)) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			in.reset();
+		}
+	}
+
+	public TaskDataState read(InputStream in) throws IOException {
+		return new Reader(in).readState();
+	}
+
+	public void write(OutputStream out, ITaskDataWorkingCopy state) throws IOException {
+		new Writer(out).writeState(state);
+	}
+
+	private TaskAttributeMapper getAttributeMapper(String connectorKind, String repositoryUrl) throws IOException {
+		AbstractRepositoryConnector connector = repositoryManager.getRepositoryConnector(connectorKind);
+		if (connector == null) {
+			throw new IOException("No repository connector for kind \"" + connectorKind + "\" found"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		TaskRepository taskRepository = repositoryManager.getRepository(connectorKind, repositoryUrl);
+		if (taskRepository == null) {
+			throw new IOException("Repository \"" + repositoryUrl + "\" not found for kind \"" + connectorKind + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		AbstractTaskDataHandler taskDataHandler = connector.getTaskDataHandler();
+		if (taskDataHandler != null) {
+			return taskDataHandler.getAttributeMapper(taskRepository);
+		} else {
+			return new TaskAttributeMapper(taskRepository);
+		}
+	}
+
+	private static class Writer {
+
+		private final OutputStream out;
+
+		private final Map<String, Integer> indexByString = new HashMap<String, Integer>();
+
+		private byte[] buffer = new byte[256];
+
+		public Writer(OutputStream out) {
+			this.out = new BufferedOutputStream(out, 8192);
+		}
+
+		public void writeState(ITaskDataWorkingCopy state) throws IOException {
+			out.write(MAGIC);
+			writeInt(VERSION);
+			writeString(state.getConnectorKind());
+			writeString(state.getRepositoryUrl());
+			writeString(state.getTaskId());
+			writeTaskData(state.getRepositoryData());
+			writeTaskData(state.getLastReadData());
+			writeTaskData(state.getEditsData());
+			out.flush();
+		}
+
+		private void writeTaskData(TaskData taskData) throws IOException {
+			if (taskData == null) {
+				out.write(0);
+			} else {
+				out.write(1);
+				writeString(taskData.getVersion());
+				writeAttribute(taskData.getRoot());
+			}
+		}
+
+		private void writeAttribute(TaskAttribute attribute) throws IOException {
+			List<String> values = attribute.getValues();
+			writeInt(values.size());
+			for (String value : values) {
+				writeString(value);
+			}
+			writeMap(attribute.getOptions());
+			writeMap(attribute.getMetaData().getValues());
+			Map<String, TaskAttribute> children = attribute.getAttributes();
+			writeInt(children.size());
+			for (TaskAttribute child : children.values()) {
+				writeSymbol(child.getId());
+				writeAttribute(child);
+			}
+		}
+
+		private void writeMap(Map<String, String> map) throws IOException {
+			writeInt(map.size());
+			for (Map.Entry<String, String> entry : map.entrySet()) {
+				writeSymbol(entry.getKey());
+				writeSymbol(entry.getValue());
+			}
+		}
+
+		/**
+		 * Writes a string that is likely to repeat within a state as a reference into the string table.
+		 */
+		private void writeSymbol(String value) throws IOException {
+			if (value == null) {
+				writeInt(NULL);
+				return;
+			}
+			Integer index = indexByString.get(value);
+			if (index != null) {
+				writeInt(index.intValue() + REFERENCE_OFFSET);
+			} else {
+				indexByString.put(value, indexByString.size());
+				writeInt(LITERAL);
+				writeString(value);
+			}
+		}
+
+		private void writeString(String value) throws IOException {
+			if (value == null) {
+				writeInt(0);
+				return;
+			}
+			int length = value.length();
+			if (buffer.length < length * 3) {
+				buffer = new byte[length * 3];
+			}
+			// encode modified UTF-8 inline to avoid allocating an intermediate array per string
+			int count = 0;
+			for (int i = 0; i < length; i++) {
+				char c = value.charAt(i);
+				if (c >= 0x0001 && c <= 0x007F) {
+					buffer[count++] = (byte) c;
+				} else if (c <= 0x07FF) {
+					buffer[count++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+					buffer[count++] = (byte) (0x80 | (c & 0x3F));
+				} else {
+					buffer[count++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+					buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+					buffer[count++] = (byte) (0x80 | (c & 0x3F));
+				}
+			}
+			writeInt(count + 1);
+			out.write(buffer, 0, count);
+		}
+
+		private void writeInt(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.write((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.write(value);
+		}
+
+	}
+
+	private class Reader {
+
+		private final InputStream in;
+
+		private final List<String> strings = new ArrayList<String>();
+
+		private byte[] buffer = new byte[256];
+
+		private char[] chars = new char[256];
+
+		public Reader(InputStream in) {
+			this.in = (in instanceof BufferedInputStream) ? in : new BufferedInputStream(in, 8192);
+		}
+
+		public TaskDataState readState() throws IOException {
+			for (byte element : MAGIC) {
+				if (readByte() != (element & 0xFF)) {
+					throw new IOException("Invalid task data header"); //$NON-NLS-1$
+				}
+			}
+			int version = readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported task data version " + version); //$NON-NLS-1$
+			}
+			String connectorKind = readRequiredString();
+			String repositoryUrl = readRequiredString();
+			String taskId = readRequiredString();
+			TaskAttributeMapper attributeMapper = getAttributeMapper(connectorKind, repositoryUrl);
+			TaskDataState state = new TaskDataState(connectorKind, repositoryUrl, taskId);
+			state.setRepositoryData(readTaskData(state, attributeMapper));
+			state.setLastReadData(readTaskData(state, attributeMapper));
+			state.setEditsData(readTaskData(state, attributeMapper));
+			return state;
+		}
+
+		private TaskData readTaskData(TaskDataState state, TaskAttributeMapper attributeMapper) throws IOException {
+			if (readByte() == 0) {
+				return null;
+			}
+			TaskData taskData = new TaskData(attributeMapper, state.getConnectorKind(), state.getRepositoryUrl(),
+					state.getTaskId());
+			String version = readString();
+			if (version != null) {
+				taskData.setVersion(version);
+			}
+			readAttribute(taskData.getRoot());
+			return taskData;
+		}
+
+		private void readAttribute(TaskAttribute attribute) throws IOException {
+			int count = readCount();
+			for (int i = 0; i < count; i++) {
+				attribute.addValue(readRequiredString());
+			}
+			count = readCount();
+			for (int i = 0; i < count; i++) {
+				attribute.putOption(readRequiredSymbol(), readRequiredSymbol());
+			}
+			count = readCount();
+			for (int i = 0; i < count; i++) {
+				attribute.getMetaData().putValue(readRequiredSymbol(), readRequiredSymbol());
+			}
+			count = readCount();
+			for (int i = 0; i < count; i++) {
+				TaskAttribute child = attribute.createAttribute(readRequiredSymbol());
+				readAttribute(child);
+			}
+		}
+
+		private String readRequiredSymbol() throws IOException {
+			int reference = readInt();
+			if (reference == NULL) {
+				throw new IOException("Unexpected null value in task data"); //$NON-NLS-1$
+			} else if (reference == LITERAL) {
+				String value = readRequiredString();
+				strings.add(value);
+				return value;
+			} else {
+				int index = reference - REFERENCE_OFFSET;
+				if (index < 0 || index >= strings.size()) {
+					throw new IOException("Invalid string reference in task data"); //$NON-NLS-1$
+				}
+				return strings.get(index);
+			}
+		}
+
+		private String readRequiredString() throws IOException {
+			String value = readString();
+			if (value == null) {
+				throw new IOException("Unexpected null value in task data"); //$NON-NLS-1$
+			}
+			return value;
+		}
+
+		private String readString() throws IOException {
+			int length = readInt();
+			if (length == 0) {
+				return null;
+			}
+			length--;
+			if (length < 0 || length > MAX_LENGTH) {
+				throw new IOException("Invalid string length in task data"); //$NON-NLS-1$
+			}
+			if (buffer.length < length) {
+				buffer = new byte[length];
+				chars = new char[length];
+			}
+			readFully(buffer, length);
+			int count = 0;
+			for (int i = 0; i < length;) {
+				int b = buffer[i++] & 0xFF;
+				if (b < 0x80) {
+					chars[count++] = (char) b;
+				} else if ((b & 0xE0) == 0xC0 && i < length) {
+					chars[count++] = (char) (((b & 0x1F) << 6) | (buffer[i++] & 0x3F));
+				} else if ((b & 0xF0) == 0xE0 && i + 1 < length) {
+					chars[count++] = (char) (((b & 0x0F) << 12) | ((buffer[i] & 0x3F) << 6) | (buffer[i + 1] & 0x3F));
+					i += 2;
+				} else {
+					throw new IOException("Invalid string encoding in task data"); //$NON-NLS-1$
+				}
+			}
+			return new String(chars, 0, count);
+		}
+
+		private int readCount() throws IOException {
+			int count = readInt();
+			if (count < 0 || count > MAX_LENGTH) {
+				throw new IOException("Invalid element count in task data"); //$NON-NLS-1$
+			}
+			return count;
+		}
+
+		private int readInt() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				int b = readByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Invalid integer in task data"); //$NON-NLS-1$
+		}
+
+		private int readByte() throws IOException {
+			int b = in.read();
+			if (b == -1) {
+				throw new EOFException();
+			}
+			return b;
+		}
+
+		private void readFully(byte[] b, int length) throws IOException {
+			int offset = 0;
+			while (offset < length) {
+				int read = in.read(b, offset, length - offset);
+				if (read == -1) {
+					throw new EOFException();
+				}
+				offset += read;
+			}
+		}
+
+	}
+
+}
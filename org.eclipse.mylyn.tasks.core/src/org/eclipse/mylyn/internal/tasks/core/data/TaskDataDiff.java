@@ -22,6 +22,7 @@ import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.ITaskAttributeDiff;
 import org.eclipse.mylyn.tasks.core.data.ITaskDataDiff;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 
 /**
@@ -98,25 +99,49 @@ public class TaskDataDiff implements ITaskDataDiff {
 			addChangedAttribute(oldAttribute, newAttribute, true);
 		}
 
-		// other attributes that have changed on newTaskData
+		// other attributes that have changed on newTaskData, attributes are matched by id which avoids mapping keys
+		TaskAttribute oldRoot = (oldTaskData != null) ? oldTaskData.getRoot() : null;
+		int matchedCount = 0;
 		for (TaskAttribute newAttribute : newTaskData.getRoot().getAttributes().values()) {
 			TaskAttribute oldAttribute = null;
-			if (oldTaskData != null) {
-				oldAttribute = oldTaskData.getRoot().getMappedAttribute(newAttribute.getPath());
+			if (oldRoot != null) {
+				oldAttribute = oldRoot.getAttribute(newAttribute.getId());
+				if (oldAttribute != null) {
+					matchedCount++;
+				}
 			}
 			addChangedAttribute(oldAttribute, newAttribute, false);
 		}
-		// other attributes that have been removed from newTaskData
-		if (oldTaskData != null) {
-			for (TaskAttribute oldAttribute : oldTaskData.getRoot().getAttributes().values()) {
-				TaskAttribute newAttribute = newTaskData.getRoot().getMappedAttribute(oldAttribute.getPath());
-				if (newAttribute == null) {
-					addChangedAttribute(oldAttribute, newAttribute, false);
+		// other attributes that have been removed from newTaskData, unless all attributes were matched
+		if (oldRoot != null && matchedCount < oldRoot.getAttributes().size()) {
+			TaskAttribute newRoot = newTaskData.getRoot();
+			for (TaskAttribute oldAttribute : oldRoot.getAttributes().values()) {
+				if (newRoot.getAttribute(oldAttribute.getId()) == null) {
+					addChangedAttribute(oldAttribute, null, false);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Returns false, if both attributes have identical values and options and are mapped by the same kind of mapper for
+	 * the same repository. In that case the value labels that are compared by {@link TaskAttributeDiff} are derived
+	 * from the same input and computing them, which may require a lookup in the repository configuration, is skipped.
+	 */
+	private static boolean mayHaveChanged(TaskAttribute oldAttribute, TaskAttribute newAttribute) {
+		if (oldAttribute == null || newAttribute == null) {
+			return true;
+		}
+		TaskAttributeMapper oldMapper = oldAttribute.getTaskData().getAttributeMapper();
+		TaskAttributeMapper newMapper = newAttribute.getTaskData().getAttributeMapper();
+		if (oldMapper.getClass() != newMapper.getClass()
+				|| oldMapper.getTaskRepository() != newMapper.getTaskRepository()) {
+			return true;
+		}
+		return !oldAttribute.getValues().equals(newAttribute.getValues())
+				|| !oldAttribute.getOptions().equals(newAttribute.getOptions());
+	}
+
 	private void addChangedAttribute(TaskAttribute oldAttribute, TaskAttribute newAttribute, boolean ignoreKind) {
 		TaskAttribute attribute;
 		if (newAttribute != null) {
@@ -129,7 +154,8 @@ public class TaskDataDiff implements ITaskDataDiff {
 			addChangedComment(oldAttribute, newAttribute);
 		} else if (TaskAttribute.TYPE_OPERATION.equals(type)) {
 			// ignore
-		} else if (ignoreKind || attribute.getMetaData().getKind() != null) {
+		} else if ((ignoreKind || attribute.getMetaData().getKind() != null)
+				&& mayHaveChanged(oldAttribute, newAttribute)) {
 			TaskAttributeDiff diff = new TaskAttributeDiff(oldAttribute, newAttribute);
 			if (diff.hasChanges()) {
 				changedAttributes.add(diff);
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Caches summaries of the differences between the repository data and the last read data of tasks by task handle.
+ * Summaries are created from the diff that is computed when new repository data is stored during synchronization and
+ * reused for notifications and tool tips instead of reading the task data state again. Entries must be removed through
+ * {@link #remove(String)} whenever the repository data or the last read data of a task changes.
+ * <p>
+ * Each modification of an entry records a new version for its handle. Clients that compute a summary outside of the
+ * task list lock pass the version obtained before reading the task data to
+ * {@link #put(String, TaskDataDiffSummary, long)} which discards the summary if the entry was modified in the meantime
+ * since the summary may have been computed from stale data.
+ */
+public class TaskDataDiffCache {
+
+	public static final int DEFAULT_CAPACITY = 1000;
+
+	private final int capacity;
+
+	private final Map<String, TaskDataDiffSummary> summaryByHandle;
+
+	private final Map<String, Long> versionByHandle = new HashMap<String, Long>();
+
+	private long lastVersion;
+
+	/**
+	 * The version of the last invocation of {@link #clear()} which invalidates the versions of all handles.
+	 */
+	private long clearVersion;
+
+	private int hitCount;
+
+	private int missCount;
+
+	public TaskDataDiffCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public TaskDataDiffCache(int capacity) {
+		Assert.isLegal(capacity > 0);
+		this.capacity = capacity;
+		this.summaryByHandle = new LinkedHashMap<String, TaskDataDiffSummary>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, TaskDataDiffSummary> eldest) {
+				return size() > TaskDataDiffCache.this.capacity;
+			}
+
+		};
+	}
+
+	public synchronized TaskDataDiffSummary get(String handle) {
+		TaskDataDiffSummary summary = summaryByHandle.get(handle);
+		if (summary != null) {
+			hitCount++;
+		} else {
+			missCount++;
+		}
+		return summary;
+	}
+
+	/**
+	 * Caches <code>summary</code> for the current repository data of the task identified by <code>handle</code>.
+	 */
+	public synchronized void put(String handle, TaskDataDiffSummary summary) {
+		Assert.isNotNull(handle);
+		Assert.isNotNull(summary);
+		versionByHandle.put(handle, ++lastVersion);
+		summaryByHandle.put(handle, summary);
+	}
+
+	/**
+	 * Caches <code>summary</code> unless the entry for <code>handle</code> was modified after
+	 * <code>expectedVersion</code> was obtained from {@link #getVersion(String)}.
+	 *
+	 * @return true, if <code>summary</code> was cached
+	 */
+	public synchronized boolean put(String handle, TaskDataDiffSummary summary, long expectedVersion) {
+		if (getVersion(handle) != expectedVersion) {
+			return false;
+		}
+		put(handle, summary);
+		return true;
+	}
+
+	public synchronized void remove(String handle) {
+		versionByHandle.put(handle, ++lastVersion);
+		summaryByHandle.remove(handle);
+	}
+
+	public synchronized void clear() {
+		clearVersion = ++lastVersion;
+		versionByHandle.clear();
+		summaryByHandle.clear();
+	}
+
+	/**
+	 * Returns the version of the entry for <code>handle</code> which changes whenever the entry is modified.
+	 */
+	public synchronized long getVersion(String handle) {
+		Long version = versionByHandle.get(handle);
+		return (version != null) ? Math.max(version, clearVersion) : clearVersion;
+	}
+
+	public synchronized int size() {
+		return summaryByHandle.size();
+	}
+
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.mylyn.tasks.core.IRepositoryPerson;
+import org.eclipse.mylyn.tasks.core.ITaskComment;
+import org.eclipse.mylyn.tasks.core.data.ITaskAttributeDiff;
+
+/**
+ * A compact summary of a {@link TaskDataDiff} that is retained for notifications and tool tips. Unlike the diff, the
+ * summary only holds the labels and values of changed attributes and the ids of new comments and does not reference
+ * the task data that was compared. The author and text are only retained for the first and the newest new comment.
+ */
+public class TaskDataDiffSummary {
+
+	public static class AttributeChange {
+
+		private final String label;
+
+		private final List<String> removedValues;
+
+		private final List<String> addedValues;
+
+		public AttributeChange(String label, List<String> removedValues, List<String> addedValues) {
+			this.label = label;
+			this.removedValues = removedValues;
+			this.addedValues = addedValues;
+		}
+
+		public String getLabel() {
+			return label;
+		}
+
+		public List<String> getRemovedValues() {
+			return removedValues;
+		}
+
+		public List<String> getAddedValues() {
+			return addedValues;
+		}
+
+	}
+
+	public static class Comment {
+
+		private final String id;
+
+		private final String author;
+
+		private final String text;
+
+		public Comment(String id, String author, String text) {
+			this.id = id;
+			this.author = author;
+			this.text = text;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * Returns the name or id of the author or <code>null</code>, if the author is not known.
+		 */
+		public String getAuthor() {
+			return author;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+	}
+
+	private final boolean hasChanged;
+
+	private final List<AttributeChange> changedAttributes;
+
+	private final List<String> newCommentIds;
+
+	private final Comment firstNewComment;
+
+	private final Comment newestNewComment;
+
+	public TaskDataDiffSummary(boolean hasChanged, List<AttributeChange> changedAttributes,
+			List<String> newCommentIds, Comment firstNewComment, Comment newestNewComment) {
+		Assert.isNotNull(changedAttributes);
+		Assert.isNotNull(newCommentIds);
+		this.hasChanged = hasChanged;
+		this.changedAttributes = Collections.unmodifiableList(changedAttributes);
+		this.newCommentIds = Collections.unmodifiableList(newCommentIds);
+		this.firstNewComment = firstNewComment;
+		this.newestNewComment = newestNewComment;
+	}
+
+	public static TaskDataDiffSummary create(TaskDataDiff diff) {
+		Assert.isNotNull(diff);
+		List<AttributeChange> changedAttributes = new ArrayList<AttributeChange>(diff.getChangedAttributes().size());
+		for (ITaskAttributeDiff changedAttribute : diff.getChangedAttributes()) {
+			TaskAttributeDiff attributeDiff = (TaskAttributeDiff) changedAttribute;
+			String label = attributeDiff.getLabel();
+			if (label != null) {
+				changedAttributes.add(new AttributeChange(label, attributeDiff.getRemovedValues(),
+						attributeDiff.getAddedValues()));
+			}
+		}
+		List<String> newCommentIds = new ArrayList<String>(diff.getNewComments().size());
+		Comment firstNewComment = null;
+		Comment newestNewComment = null;
+		for (ITaskComment comment : diff.getNewComments()) {
+			newCommentIds.add(comment.getTaskAttribute().getId());
+			if (firstNewComment == null) {
+				firstNewComment = createComment(comment);
+			}
+			newestNewComment = comment;
+		}
+		return new TaskDataDiffSummary(diff.hasChanged(), changedAttributes, newCommentIds, firstNewComment,
+				(newCommentIds.size() > 1) ? createComment(newestNewComment) : firstNewComment);
+	}
+
+	private static Comment createComment(ITaskComment comment) {
+		IRepositoryPerson author = comment.getAuthor();
+		String authorName = null;
+		if (author != null) {
+			authorName = (author.getName() != null) ? author.getName() : author.getPersonId();
+		}
+		return new Comment(comment.getTaskAttribute().getId(), authorName, comment.getText());
+	}
+
+	public boolean hasChanged() {
+		return hasChanged;
+	}
+
+	/**
+	 * Returns the changed attributes that have a label.
+	 */
+	public List<AttributeChange> getChangedAttributes() {
+		return changedAttributes;
+	}
+
+	public List<String> getNewCommentIds() {
+		return newCommentIds;
+	}
+
+	/**
+	 * Returns the first new comment or <code>null</code>, if no comments were added.
+	 */
+	public Comment getFirstNewComment() {
+		return firstNewComment;
+	}
+
+	/**
+	 * Returns the newest new comment or <code>null</code>, if no comments were added.
+	 */
+	public Comment getNewestNewComment() {
+		return newestNewComment;
+	}
+
+}
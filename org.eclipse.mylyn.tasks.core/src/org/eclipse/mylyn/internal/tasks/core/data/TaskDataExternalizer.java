@@ -27,6 +27,7 @@ import javax.xml.transform.stream.StreamResult;
 
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.mylyn.internal.tasks.core.SaxParserPool;
 import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
 import org.eclipse.mylyn.tasks.core.IRepositoryManager;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
@@ -35,8 +36,6 @@ import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.XMLReaderFactory;
 
 /**
  * @author Steffen Pingel
@@ -129,8 +128,11 @@ public class TaskDataExternalizer {
 
 	private final IRepositoryManager taskRepositoryManager;
 
+	private final TaskDataBinaryCodec binaryCodec;
+
 	public TaskDataExternalizer(IRepositoryManager taskRepositoryManager) {
 		this.taskRepositoryManager = taskRepositoryManager;
+		this.binaryCodec = new TaskDataBinaryCodec(taskRepositoryManager);
 	}
 
 	private void migrate(final TaskDataState taskDataState) throws IOException {
@@ -177,10 +179,8 @@ public class TaskDataExternalizer {
 	}
 
 	public TaskDataState readState(InputStream in) throws IOException, SAXException {
-		XMLReader parser = XMLReaderFactory.createXMLReader();
 		TaskDataStateReader handler = new TaskDataStateReader(taskRepositoryManager);
-		parser.setContentHandler(handler);
-		parser.parse(new InputSource(in));
+		SaxParserPool.getDefault().parse(new InputSource(in), handler);
 		TaskDataState taskDataState = handler.getTaskDataState();
 		if (taskDataState != null) {
 			migrate(taskDataState);
@@ -188,6 +188,27 @@ public class TaskDataExternalizer {
 		return taskDataState;
 	}
 
+	/**
+	 * Reads a state written by {@link #writeBinaryState(OutputStream, ITaskDataWorkingCopy)}.
+	 * 
+	 * @see TaskDataBinaryCodec#isBinary(InputStream)
+	 */
+	public TaskDataState readBinaryState(InputStream in) throws IOException {
+		TaskDataState taskDataState = binaryCodec.read(in);
+		if (taskDataState != null) {
+			migrate(taskDataState);
+		}
+		return taskDataState;
+	}
+
+	/**
+	 * Writes <code>state</code> in the binary format that is used for local storage. Use
+	 * {@link #writeState(OutputStream, ITaskDataWorkingCopy)} for data that is exchanged with other applications.
+	 */
+	public void writeBinaryState(OutputStream out, ITaskDataWorkingCopy state) throws IOException {
+		binaryCodec.write(out, state);
+	}
+
 	public void writeState(OutputStream out, ITaskDataWorkingCopy state) throws IOException {
 		try {
 			SAXTransformerFactory transformerFactory = (SAXTransformerFactory) TransformerFactory.newInstance();
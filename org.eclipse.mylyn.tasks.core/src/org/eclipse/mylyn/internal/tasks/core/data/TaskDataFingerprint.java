@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+
+/**
+ * A digest of the persisted content of a {@link TaskData} object. Two task data objects have the same fingerprint if
+ * they are written identically by {@link TaskDataExternalizer}, i.e. if the identity of the task, the version and the
+ * ids, values, options, meta data and children of all attributes including their order are the same.
+ */
+public final class TaskDataFingerprint {
+
+	private static final String ALGORITHM = "SHA-1"; //$NON-NLS-1$
+
+	private static final int NULL = -1;
+
+	/**
+	 * Computes the fingerprint of <code>taskData</code>.
+	 *
+	 * @return the fingerprint or null, if <code>taskData</code> is null
+	 */
+	public static TaskDataFingerprint compute(TaskData taskData) {
+		if (taskData == null) {
+			return null;
+		}
+		Digester digester = new Digester();
+		digester.update(taskData.getConnectorKind());
+		digester.update(taskData.getRepositoryUrl());
+		digester.update(taskData.getTaskId());
+		digester.update(taskData.getVersion());
+		digester.update(taskData.getRoot());
+		return new TaskDataFingerprint(digester.digest());
+	}
+
+	private static class Digester {
+
+		private final MessageDigest digest;
+
+		private byte[] buffer = new byte[256];
+
+		public Digester() {
+			try {
+				digest = MessageDigest.getInstance(ALGORITHM);
+			} catch (NoSuchAlgorithmException e) {
+				// every Java platform is required to support SHA-1
+				throw new IllegalStateException(e);
+			}
+		}
+
+		public byte[] digest() {
+			return digest.digest();
+		}
+
+		public void update(TaskAttribute attribute) {
+			List<String> values = attribute.getValues();
+			update(values.size());
+			for (String value : values) {
+				update(value);
+			}
+			update(attribute.getOptions());
+			update(attribute.getMetaData().getValues());
+			Map<String, TaskAttribute> children = attribute.getAttributes();
+			update(children.size());
+			for (TaskAttribute child : children.values()) {
+				update(child.getId());
+				update(child);
+			}
+		}
+
+		private void update(Map<String, String> map) {
+			update(map.size());
+			for (Map.Entry<String, String> entry : map.entrySet()) {
+				update(entry.getKey());
+				update(entry.getValue());
+			}
+		}
+
+		/**
+		 * Adds the length of <code>value</code> followed by its characters to prevent ambiguous concatenations.
+		 */
+		public void update(String value) {
+			if (value == null) {
+				update(NULL);
+				return;
+			}
+			int length = value.length();
+			update(length);
+			if (buffer.length < length * 2) {
+				buffer = new byte[length * 2];
+			}
+			for (int i = 0; i < length; i++) {
+				char c = value.charAt(i);
+				buffer[i * 2] = (byte) (c >>> 8);
+				buffer[i * 2 + 1] = (byte) c;
+			}
+			digest.update(buffer, 0, length * 2);
+		}
+
+		private void update(int value) {
+			digest.update((byte) (value >>> 24));
+			digest.update((byte) (value >>> 16));
+			digest.update((byte) (value >>> 8));
+			digest.update((byte) value);
+		}
+
+	}
+
+	private final byte[] digest;
+
+	private TaskDataFingerprint(byte[] digest) {
+		this.digest = digest;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof TaskDataFingerprint)) {
+			return false;
+		}
+		return MessageDigest.isEqual(digest, ((TaskDataFingerprint) obj).digest);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(digest);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(digest.length * 2);
+		for (byte b : digest) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+			sb.append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,613 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipInputStream;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+
+/**
+ * An append-only log of serialized task data states for all tasks stored in one directory. Records are appended to
+ * segment files and an in-memory index maps each key to its most recent record. Segments that are no longer written
+ * to are memory-mapped for reading. The log is compacted when more than half of the stored bytes have been superseded.
+ * <p>
+ * Compaction rewrites live records to new segments and deletes the previous segments. A segment that can not be
+ * deleted, e.g. since it is still mapped, is replayed before the compacted segments when the log is opened. Compaction
+ * therefore preserves tombstones of deleted keys until all segments that precede them have been deleted.
+ * <p>
+ * Record format: magic, key length, data length (-1 for deletions), CRC32 of key and data, key (UTF-8), data.
+ */
+class TaskDataLog {
+
+	static final String SEGMENT_EXTENSION = ".log"; //$NON-NLS-1$
+
+	private static final String SEGMENT_PREFIX = "segment-"; //$NON-NLS-1$
+
+	private static final String ZIP_EXTENSION = ".zip"; //$NON-NLS-1$
+
+	/**
+	 * Appended to the names of zip files that were imported into the log. The files are kept as a backup since states
+	 * that are stored in the log are not visible to {@link ZipTaskDataStorage}.
+	 */
+	private static final String MIGRATED_EXTENSION = ".migrated"; //$NON-NLS-1$
+
+	private static final String CHARSET = "UTF-8"; //$NON-NLS-1$
+
+	private static final int RECORD_MAGIC = 0x4d79546c;
+
+	private static final int HEADER_SIZE = 16;
+
+	private static final int TOMBSTONE = -1;
+
+	private static class Segment {
+
+		private final File file;
+
+		private final int number;
+
+		/**
+		 * Only open for the segment that is currently appended to.
+		 */
+		private FileChannel channel;
+
+		/**
+		 * Set when the segment is sealed.
+		 */
+		private MappedByteBuffer buffer;
+
+		private long size;
+
+		public Segment(File file, int number) {
+			this.file = file;
+			this.number = number;
+		}
+
+	}
+
+	private static class Location {
+
+		private final Segment segment;
+
+		private final long offset;
+
+		private final int keyLength;
+
+		private final int dataLength;
+
+		public Location(Segment segment, long offset, int keyLength, int dataLength) {
+			this.segment = segment;
+			this.offset = offset;
+			this.keyLength = keyLength;
+			this.dataLength = dataLength;
+		}
+
+		public long getDataOffset() {
+			return offset + HEADER_SIZE + keyLength;
+		}
+
+		public int getRecordSize() {
+			return HEADER_SIZE + keyLength + Math.max(dataLength, 0);
+		}
+
+	}
+
+	/**
+	 * Reads from a memory-mapped region without copying it.
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		public ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+
+		@Override
+		public int read() {
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			return buffer.get() & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+			return len;
+		}
+
+		@Override
+		public long skip(long n) {
+			int skip = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + skip);
+			return skip;
+		}
+
+	}
+
+	private final File directory;
+
+	private final long maxSegmentSize;
+
+	private final long compactionThreshold;
+
+	private final Map<String, Location> index = new HashMap<String, Location>();
+
+	private final List<Segment> segments = new ArrayList<Segment>();
+
+	private Segment activeSegment;
+
+	private int lastSegmentNumber;
+
+	/**
+	 * Keys that were deleted and for which an older record may still exist in a segment file.
+	 */
+	private final Set<String> deletedKeys = new HashSet<String>();
+
+	/**
+	 * Segments that were compacted but could not be deleted yet.
+	 */
+	private final List<File> obsoleteFiles = new ArrayList<File>();
+
+	private long liveBytes;
+
+	private long garbageBytes;
+
+	private boolean open;
+
+	public TaskDataLog(File directory, long maxSegmentSize, long compactionThreshold) {
+		this.directory = directory;
+		this.maxSegmentSize = maxSegmentSize;
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	public synchronized void open() throws IOException {
+		if (open) {
+			return;
+		}
+		File[] files = directory.listFiles(new FileFilter() {
+			public boolean accept(File file) {
+				return getSegmentNumber(file) != -1;
+			}
+		});
+		if (files != null) {
+			List<Segment> existingSegments = new ArrayList<Segment>(files.length);
+			for (File file : files) {
+				existingSegments.add(new Segment(file, getSegmentNumber(file)));
+			}
+			Collections.sort(existingSegments, new Comparator<Segment>() {
+				public int compare(Segment o1, Segment o2) {
+					return o1.number - o2.number;
+				}
+			});
+			for (int i = 0; i < existingSegments.size(); i++) {
+				Segment segment = existingSegments.get(i);
+				load(segment, i == existingSegments.size() - 1);
+				segments.add(segment);
+				lastSegmentNumber = segment.number;
+			}
+		}
+		open = true;
+		importZipFiles();
+	}
+
+	public synchronized boolean contains(String key) {
+		return index.containsKey(key);
+	}
+
+	public synchronized InputStream read(String key) throws IOException {
+		Location location = index.get(key);
+		if (location == null) {
+			return null;
+		}
+		if (location.segment.buffer != null) {
+			ByteBuffer buffer = location.segment.buffer.duplicate();
+			buffer.position((int) location.getDataOffset());
+			buffer.limit((int) location.getDataOffset() + location.dataLength);
+			return new ByteBufferInputStream(buffer);
+		}
+		return new ByteArrayInputStream(readData(location));
+	}
+
+	public synchronized void put(String key, byte[] data) throws IOException {
+		Location location = append(key, data);
+		Location oldLocation = index.put(key, location);
+		if (oldLocation != null) {
+			liveBytes -= oldLocation.getRecordSize();
+			garbageBytes += oldLocation.getRecordSize();
+		}
+		liveBytes += location.getRecordSize();
+		deletedKeys.remove(key);
+		compactIfNeeded();
+	}
+
+	public synchronized boolean delete(String key) throws IOException {
+		Location oldLocation = index.get(key);
+		if (oldLocation == null) {
+			return false;
+		}
+		Location tombstone = append(key, null);
+		index.remove(key);
+		deletedKeys.add(key);
+		liveBytes -= oldLocation.getRecordSize();
+		garbageBytes += oldLocation.getRecordSize() + tombstone.getRecordSize();
+		compactIfNeeded();
+		return true;
+	}
+
+	public synchronized void flush() throws IOException {
+		if (activeSegment != null) {
+			activeSegment.channel.force(false);
+		}
+	}
+
+	public synchronized void close() throws IOException {
+		if (activeSegment != null) {
+			try {
+				activeSegment.channel.force(false);
+			} finally {
+				activeSegment.channel.close();
+				activeSegment = null;
+			}
+		}
+		deleteObsoleteFiles();
+		segments.clear();
+		index.clear();
+		deletedKeys.clear();
+		obsoleteFiles.clear();
+		lastSegmentNumber = 0;
+		liveBytes = 0;
+		garbageBytes = 0;
+		open = false;
+	}
+
+	/**
+	 * Rewrites all live records and the tombstones of deleted keys to new segments and deletes the previous segments.
+	 */
+	public synchronized void compact() throws IOException {
+		List<Segment> oldSegments = new ArrayList<Segment>(segments);
+		if (activeSegment != null) {
+			seal(activeSegment);
+			activeSegment = null;
+		}
+
+		Map<String, Location> compactedIndex = new HashMap<String, Location>();
+		long compactedBytes = 0;
+		for (Map.Entry<String, Location> entry : index.entrySet()) {
+			Location location = append(entry.getKey(), readData(entry.getValue()));
+			compactedIndex.put(entry.getKey(), location);
+			compactedBytes += location.getRecordSize();
+		}
+		// old segments that survive deletion are replayed before the compacted segments, keep the tombstones to
+		// prevent deleted records from being resurrected
+		long tombstoneBytes = 0;
+		for (String key : deletedKeys) {
+			tombstoneBytes += append(key, null).getRecordSize();
+		}
+		flush();
+
+		index.clear();
+		index.putAll(compactedIndex);
+		liveBytes = compactedBytes + tombstoneBytes;
+		garbageBytes = 0;
+
+		for (Segment segment : oldSegments) {
+			segments.remove(segment);
+			segment.buffer = null;
+			obsoleteFiles.add(segment.file);
+		}
+		deleteObsoleteFiles();
+		if (obsoleteFiles.isEmpty()) {
+			// no record precedes the tombstones anymore
+			deletedKeys.clear();
+			liveBytes -= tombstoneBytes;
+			garbageBytes += tombstoneBytes;
+		}
+	}
+
+	/**
+	 * Deletes compacted segments. Segments that are still in use, e.g. since a mapped buffer has not been released
+	 * yet, are retried on the next compaction or when the log is closed.
+	 */
+	private void deleteObsoleteFiles() {
+		for (Iterator<File> it = obsoleteFiles.iterator(); it.hasNext();) {
+			File file = it.next();
+			if (file.delete() || !file.exists()) {
+				it.remove();
+			}
+		}
+	}
+
+	private void compactIfNeeded() {
+		if (garbageBytes > compactionThreshold && garbageBytes > liveBytes) {
+			try {
+				compact();
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+						"Compaction of task data in \"" + directory + "\" failed", e)); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	private Location append(String key, byte[] data) throws IOException {
+		byte[] keyBytes = key.getBytes(CHARSET);
+		int dataLength = (data != null) ? data.length : TOMBSTONE;
+		int recordSize = HEADER_SIZE + keyBytes.length + ((data != null) ? data.length : 0);
+
+		if (activeSegment == null) {
+			activeSegment = createSegment();
+		} else if (activeSegment.size > 0 && activeSegment.size + recordSize > maxSegmentSize) {
+			seal(activeSegment);
+			activeSegment = createSegment();
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(keyBytes);
+		if (data != null) {
+			crc.update(data);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(recordSize);
+		buffer.putInt(RECORD_MAGIC);
+		buffer.putInt(keyBytes.length);
+		buffer.putInt(dataLength);
+		buffer.putInt((int) crc.getValue());
+		buffer.put(keyBytes);
+		if (data != null) {
+			buffer.put(data);
+		}
+		buffer.flip();
+
+		long offset = activeSegment.size;
+		try {
+			long position = offset;
+			while (buffer.hasRemaining()) {
+				position += activeSegment.channel.write(buffer, position);
+			}
+		} catch (IOException e) {
+			// discard partially written record
+			activeSegment.channel.truncate(offset);
+			throw e;
+		}
+		activeSegment.size += recordSize;
+		return new Location(activeSegment, offset, keyBytes.length, dataLength);
+	}
+
+	private byte[] readData(Location location) throws IOException {
+		byte[] data = new byte[location.dataLength];
+		if (location.segment.buffer != null) {
+			ByteBuffer buffer = location.segment.buffer.duplicate();
+			buffer.position((int) location.getDataOffset());
+			buffer.get(data);
+		} else {
+			readFully(location.segment.channel, ByteBuffer.wrap(data), location.getDataOffset());
+		}
+		return data;
+	}
+
+	private Segment createSegment() throws IOException {
+		// numbers are never reused to ensure that segments that could not be deleted are replayed first
+		int number = ++lastSegmentNumber;
+		Segment segment = new Segment(new File(directory, getSegmentName(number)), number);
+		segment.channel = new RandomAccessFile(segment.file, "rw").getChannel(); //$NON-NLS-1$
+		segment.channel.truncate(0);
+		segments.add(segment);
+		return segment;
+	}
+
+	private void seal(Segment segment) throws IOException {
+		try {
+			segment.channel.force(false);
+			segment.buffer = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+		} finally {
+			segment.channel.close();
+			segment.channel = null;
+		}
+	}
+
+	/**
+	 * Rebuilds the index from <code>segment</code>. Checksums are only verified for the last segment since sealed
+	 * segments have been forced to disk before a subsequent segment was created.
+	 */
+	private void load(Segment segment, boolean last) throws IOException {
+		segment.channel = new RandomAccessFile(segment.file, "rw").getChannel(); //$NON-NLS-1$
+		long fileSize = segment.channel.size();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		long position = 0;
+		while (position + HEADER_SIZE <= fileSize) {
+			header.clear();
+			readFully(segment.channel, header, position);
+			header.flip();
+			int magic = header.getInt();
+			int keyLength = header.getInt();
+			int dataLength = header.getInt();
+			int checksum = header.getInt();
+			if (magic != RECORD_MAGIC || keyLength <= 0 || dataLength < TOMBSTONE) {
+				break;
+			}
+			Location location = new Location(segment, position, keyLength, dataLength);
+			if (position + location.getRecordSize() > fileSize) {
+				break;
+			}
+			ByteBuffer content = ByteBuffer.allocate((last) ? keyLength + Math.max(dataLength, 0) : keyLength);
+			readFully(segment.channel, content, position + HEADER_SIZE);
+			if (last) {
+				CRC32 crc = new CRC32();
+				crc.update(content.array());
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+			}
+
+			String key = new String(content.array(), 0, keyLength, CHARSET);
+			Location oldLocation;
+			if (dataLength == TOMBSTONE) {
+				oldLocation = index.remove(key);
+				garbageBytes += location.getRecordSize();
+				deletedKeys.add(key);
+			} else {
+				oldLocation = index.put(key, location);
+				liveBytes += location.getRecordSize();
+				deletedKeys.remove(key);
+			}
+			if (oldLocation != null) {
+				liveBytes -= oldLocation.getRecordSize();
+				garbageBytes += oldLocation.getRecordSize();
+			}
+			position += location.getRecordSize();
+		}
+		segment.size = position;
+
+		if (position < fileSize) {
+			StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN, "Discarding " //$NON-NLS-1$
+					+ (fileSize - position) + " bytes of incomplete task data in \"" + segment.file + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		if (last) {
+			if (position < fileSize) {
+				segment.channel.truncate(position);
+			}
+			activeSegment = segment;
+		} else {
+			try {
+				segment.buffer = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+			} finally {
+				segment.channel.close();
+				segment.channel = null;
+			}
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		long offset = position;
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, offset);
+			if (read == -1) {
+				throw new EOFException();
+			}
+			offset += read;
+		}
+	}
+
+	/**
+	 * Migrates task data stored in zip files by {@link ZipTaskDataStorage} to the log and deletes the zip files.
+	 */
+	private void importZipFiles() throws IOException {
+		File[] files = directory.listFiles(new FileFilter() {
+			public boolean accept(File file) {
+				return file.isFile() && file.getName().endsWith(ZIP_EXTENSION);
+			}
+		});
+		if (files == null || files.length == 0) {
+			return;
+		}
+
+		List<File> importedFiles = new ArrayList<File>(files.length);
+		for (File file : files) {
+			try {
+				put(file.getName(), readZipFile(file));
+				importedFiles.add(file);
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+						"Failed to migrate task data from \"" + file + "\"", e)); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		flush();
+		for (File file : importedFiles) {
+			// keep the imported file but ensure that it is not imported again when the log is opened next
+			File migratedFile = new File(directory, file.getName() + MIGRATED_EXTENSION);
+			migratedFile.delete();
+			if (!file.renameTo(migratedFile)) {
+				file.delete();
+			}
+		}
+		if (!importedFiles.isEmpty()) {
+			StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN, "Migrated " //$NON-NLS-1$
+					+ importedFiles.size() + " task data files in \"" + directory //$NON-NLS-1$
+					+ "\" to the task data log. The original files were renamed to *" + ZIP_EXTENSION //$NON-NLS-1$
+					+ MIGRATED_EXTENSION + " and are not updated with changes stored in the log.")); //$NON-NLS-1$
+		}
+	}
+
+	private byte[] readZipFile(File file) throws IOException {
+		ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.getNextEntry() == null) {
+				throw new IOException("No entry found"); //$NON-NLS-1$
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				out.write(buffer, 0, len);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+	private static String getSegmentName(int number) {
+		return SEGMENT_PREFIX + String.format("%08d", number) + SEGMENT_EXTENSION; //$NON-NLS-1$
+	}
+
+	private static int getSegmentNumber(File file) {
+		String name = file.getName();
+		if (file.isFile() && name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_EXTENSION)) {
+			try {
+				return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length()
+						- SEGMENT_EXTENSION.length()));
+			} catch (NumberFormatException e) {
+				// ignore
+			}
+		}
+		return -1;
+	}
+
+}
@@ -23,6 +23,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.commons.core.CoreUtil;
@@ -77,6 +78,8 @@ public class TaskDataManager implements ITaskDataManager {
 
 	private final SynchronizationManger synchronizationManger;
 
+	private final TaskDataDiffCache diffCache = new TaskDataDiffCache();
+
 	public TaskDataManager(TaskDataStore taskDataStore, IRepositoryManager repositoryManager, TaskList taskList,
 			TaskActivityManager taskActivityManager, SynchronizationManger synchronizationManger) {
 		this.taskDataStore = taskDataStore;
@@ -142,6 +145,7 @@ public class TaskDataManager implements ITaskDataManager {
 						break;
 					}
 					task.setMarkReadPending(true);
+					diffCache.remove(task.getHandleIdentifier());
 				}
 				result[0] = state;
 			}
@@ -217,6 +221,7 @@ public class TaskDataManager implements ITaskDataManager {
 
 					if (taskDataChanged) {
 						String suppressIncoming = null;
+						TaskDataDiff diff = null;
 						if (synchronizationManger.hasParticipants(task.getConnectorKind())) {
 							// determine whether to show an incoming
 							if (state == null) {
@@ -224,8 +229,17 @@ public class TaskDataManager implements ITaskDataManager {
 								state = taskDataStore.getTaskDataState(ensurePathExists(file));
 							}
 							TaskData lastReadData = (state != null) ? state.getLastReadData() : null;
-							TaskDataDiff diff = synchronizationManger.createDiff(taskData, lastReadData, monitor);
+							diff = synchronizationManger.createDiff(taskData, lastReadData, monitor);
 							suppressIncoming = Boolean.toString(!diff.hasChanged());
+						} else if (state != null) {
+							// the last read data is already in memory, avoid reading it again for notifications
+							diff = synchronizationManger.createDiff(taskData, state.getLastReadData(), monitor);
+						}
+						if (diff != null && !taskData.isPartial()) {
+							// only retain a summary since the diff references the complete task data
+							diffCache.put(task.getHandleIdentifier(), TaskDataDiffSummary.create(diff));
+						} else {
+							diffCache.remove(task.getHandleIdentifier());
 						}
 
 						switch (task.getSynchronizationState()) {
@@ -239,6 +253,8 @@ public class TaskDataManager implements ITaskDataManager {
 
 						// if an incoming was previously suppressed it may need to show now
 						task.setAttribute(ITasksCoreConstants.ATTRIBUTE_TASK_SUPPRESS_INCOMING, suppressIncoming);
+					} else if (state != null) {
+						diffCache.remove(task.getHandleIdentifier());
 					}
 					if (task.isSynchronizing()) {
 						task.setSynchronizing(false);
@@ -294,9 +310,9 @@ public class TaskDataManager implements ITaskDataManager {
 		Assert.isNotNull(task);
 		Assert.isNotNull(kind);
 		File file = getFile(task, kind);
-		if (!file.exists()) {
+		if (!taskDataStore.hasTaskData(file)) {
 			File oldFile = getFile10(task, kind);
-			if (oldFile.exists()) {
+			if (taskDataStore.hasTaskData(oldFile)) {
 				TaskDataState state = taskDataStore.getTaskDataState(oldFile);
 				// save migrated task data right away
 				taskDataStore.putTaskData(ensurePathExists(file), state);
@@ -313,9 +329,10 @@ public class TaskDataManager implements ITaskDataManager {
 		taskList.run(new ITaskListRunnable() {
 			public void execute(IProgressMonitor monitor) throws CoreException {
 				File dataFile = getFile(task, kind);
-				if (dataFile.exists()) {
+				if (taskDataStore.hasTaskData(dataFile)) {
 					taskDataStore.discardEdits(dataFile);
 				}
+				diffCache.remove(task.getHandleIdentifier());
 				switch (task.getSynchronizationState()) {
 				case OUTGOING:
 					task.setSynchronizationState(SynchronizationState.SYNCHRONIZED);
@@ -336,7 +353,7 @@ public class TaskDataManager implements ITaskDataManager {
 
 	private File findFile(ITask task, String kind) {
 		File file = getFile(task, kind);
-		if (file.exists()) {
+		if (taskDataStore.hasTaskData(file)) {
 			return file;
 		}
 		return getFile10(task, kind);
@@ -404,7 +421,36 @@ public class TaskDataManager implements ITaskDataManager {
 	public boolean hasTaskData(ITask task) {
 		Assert.isNotNull(task);
 		final String kind = task.getConnectorKind();
-		return findFile(task, kind).exists();
+		return taskDataStore.hasTaskData(findFile(task, kind));
+	}
+
+	/**
+	 * Returns a summary of the differences between the repository data and the last read data of <code>task</code>.
+	 * Summaries are cached when changed task data is stored and until the task data of <code>task</code> is updated or
+	 * the task is marked read.
+	 * 
+	 * @return the summary or null, if no task data is available for <code>task</code>
+	 */
+	public TaskDataDiffSummary getDiff(ITask task) throws CoreException {
+		Assert.isNotNull(task);
+		String handle = task.getHandleIdentifier();
+		TaskDataDiffSummary summary = diffCache.get(handle);
+		if (summary == null) {
+			long version = diffCache.getVersion(handle);
+			TaskDataState state = getTaskDataState(task);
+			if (state == null || state.getRepositoryData() == null) {
+				return null;
+			}
+			TaskDataDiff diff = synchronizationManger.createDiff(state.getRepositoryData(), state.getLastReadData(),
+					new NullProgressMonitor());
+			summary = TaskDataDiffSummary.create(diff);
+			diffCache.put(handle, summary, version);
+		}
+		return summary;
+	}
+
+	public TaskDataDiffCache getDiffCache() {
+		return diffCache;
 	}
 
 	public void putSubmittedTaskData(final ITask itask, final TaskData taskData, IDelegatingProgressMonitor monitor)
@@ -425,6 +471,7 @@ public class TaskDataManager implements ITaskDataManager {
 					taskDataStore.setTaskData(ensurePathExists(file), taskData);
 					task.setMarkReadPending(false);
 					event.setTaskDataUpdated(true);
+					diffCache.remove(task.getHandleIdentifier());
 				}
 
 				boolean taskChanged = updateTaskFromTaskData(taskData, task, connector, repository);
@@ -444,10 +491,11 @@ public class TaskDataManager implements ITaskDataManager {
 		taskList.run(new ITaskListRunnable() {
 			public void execute(IProgressMonitor monitor) throws CoreException {
 				File file = getFile(task, task.getConnectorKind());
-				if (file.exists()) {
+				if (taskDataStore.hasTaskData(file)) {
 					taskDataStore.deleteTaskData(file);
 					task.setSynchronizationState(SynchronizationState.SYNCHRONIZED);
 				}
+				diffCache.remove(task.getHandleIdentifier());
 			}
 		});
 		taskList.notifyElementChanged(task);
@@ -470,6 +518,7 @@ public class TaskDataManager implements ITaskDataManager {
 		try {
 			taskList.run(new ITaskListRunnable() {
 				public void execute(IProgressMonitor monitor) throws CoreException {
+					diffCache.remove(task.getHandleIdentifier());
 					if (read) {
 						switch (task.getSynchronizationState()) {
 						case INCOMING:
@@ -577,8 +626,9 @@ public class TaskDataManager implements ITaskDataManager {
 		final String kind = task.getConnectorKind();
 		taskList.run(new ITaskListRunnable() {
 			public void execute(IProgressMonitor monitor) throws CoreException {
+				diffCache.remove(task.getHandleIdentifier());
 				File file = getMigratedFile(task, kind);
-				if (file.exists()) {
+				if (taskDataStore.hasTaskData(file)) {
 					TaskDataState oldState = taskDataStore.getTaskDataState(file);
 					if (oldState != null) {
 						File newFile = getFile(newStorageRepositoryUrl, task, kind);
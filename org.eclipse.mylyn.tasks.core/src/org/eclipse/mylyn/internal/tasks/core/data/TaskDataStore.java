@@ -12,19 +12,26 @@
 package org.eclipse.mylyn.internal.tasks.core.data;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataExternalizer.Xml11InputStream;
 import org.eclipse.mylyn.tasks.core.IRepositoryManager;
@@ -32,46 +39,175 @@ import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.xml.sax.SAXException;
 
 /**
+ * Reads and writes task data states. Operations on different files proceed concurrently: each file is guarded by one
+ * of a fixed number of read-write locks that is selected by the hash code of the file. Reading a state only requires
+ * the read lock whereas operations that modify a state hold the write lock from reading the previous state until the
+ * new state has been written.
+ * <p>
+ * If a write delay is set states stored through {@link #putTaskData(File, TaskData, boolean, boolean)} are queued and
+ * written in batches by a background job. Repeated updates of the same task are coalesced into a single write. Queued
+ * states are returned by all read operations and are written when the store is flushed or closed unless they are
+ * discarded through {@link #clearPending()}.
+ * 
  * @author Steffen Pingel
  */
 public class TaskDataStore {
 
-	private static final String FILE_NAME_INTERNAL = "data.xml"; //$NON-NLS-1$
+	public static final int DEFAULT_LOCK_STRIPES = 32;
+
+	/**
+	 * The number of queued states that causes the write job to run without waiting for the write delay to expire.
+	 */
+	public static final int MAX_PENDING_WRITES = 500;
+
+	private class WriteJob extends Job {
+
+		public WriteJob() {
+			super("Writing Task Data"); //$NON-NLS-1$
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			// states that are queued from now on require another run
+			writeScheduled.set(false);
+			try {
+				flush();
+			} catch (CoreException e) {
+				StatusHandler.log(e.getStatus());
+			}
+			return Status.OK_STATUS;
+		}
+
+	}
 
 	private final TaskDataExternalizer externalizer;
 
+	private final ITaskDataStorage storage;
+
+	private final ReadWriteLock[] locks;
+
+	private volatile boolean binaryFormat;
+
+	private final AtomicInteger writeCount = new AtomicInteger();
+
+	private final AtomicInteger skippedWriteCount = new AtomicInteger();
+
+	private final Map<File, TaskDataState> pendingStates = new ConcurrentHashMap<File, TaskDataState>();
+
+	private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+	private final WriteJob writeJob = new WriteJob();
+
+	private volatile long writeDelay;
+
 	public TaskDataStore(IRepositoryManager taskRepositoryManager) {
+		this(taskRepositoryManager, new ZipTaskDataStorage());
+	}
+
+	public TaskDataStore(IRepositoryManager taskRepositoryManager, ITaskDataStorage storage) {
+		this(taskRepositoryManager, storage, DEFAULT_LOCK_STRIPES);
+	}
+
+	public TaskDataStore(IRepositoryManager taskRepositoryManager, ITaskDataStorage storage, int lockStripes) {
+		Assert.isNotNull(storage);
+		Assert.isLegal(lockStripes > 0);
 		this.externalizer = new TaskDataExternalizer(taskRepositoryManager);
+		this.storage = storage;
+		this.locks = new ReadWriteLock[lockStripes];
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new ReentrantReadWriteLock();
+		}
+	}
+
+	/**
+	 * Returns true, if states are written using {@link TaskDataBinaryCodec}. States are always read in either format.
+	 */
+	public boolean isBinaryFormat() {
+		return binaryFormat;
+	}
+
+	/**
+	 * Specifies whether states are written in the compact binary format or in XML. Disabled by default since states in
+	 * the binary format can not be read by earlier versions.
+	 */
+	public void setBinaryFormat(boolean binaryFormat) {
+		this.binaryFormat = binaryFormat;
+	}
+
+	/**
+	 * Returns the maximum time in milliseconds that states are queued before they are written.
+	 */
+	public long getWriteDelay() {
+		return writeDelay;
 	}
 
-	public synchronized TaskDataState discardEdits(File file) throws CoreException {
-		TaskDataState state = readState(file);
-		if (state != null) {
-			state.setEditsData(null);
+	/**
+	 * Specifies the maximum time in milliseconds that states stored during synchronization are queued before they are
+	 * written. If set to 0, which is the default, states are written immediately.
+	 */
+	public void setWriteDelay(long writeDelay) {
+		Assert.isLegal(writeDelay >= 0);
+		this.writeDelay = writeDelay;
+	}
+
+	public TaskDataState discardEdits(File file) throws CoreException {
+		Lock lock = getLock(file).writeLock();
+		lock.lock();
+		try {
+			TaskDataState state = readState(file);
+			if (state != null) {
+				state.setEditsData(null);
+			}
+			writeState(file, state);
+			return state;
+		} finally {
+			lock.unlock();
 		}
-		writeState(file, state);
-		return state;
 	}
 
-	public synchronized TaskDataState getTaskDataState(File file) throws CoreException {
-		return readState(file);
+	public TaskDataState getTaskDataState(File file) throws CoreException {
+		Lock lock = getLock(file).readLock();
+		lock.lock();
+		try {
+			return readState(file);
+		} finally {
+			lock.unlock();
+		}
 	}
 
-	public synchronized void putEdits(File file, TaskData data) throws CoreException {
+	public void putEdits(File file, TaskData data) throws CoreException {
 		Assert.isNotNull(file);
 		Assert.isNotNull(data);
-		TaskDataState state = readState(file);
-		if (state == null) {
-			state = new TaskDataState(data.getConnectorKind(), data.getRepositoryUrl(), data.getTaskId());
+		Lock lock = getLock(file).writeLock();
+		lock.lock();
+		try {
+			TaskDataState state = readState(file);
+			if (state == null) {
+				state = new TaskDataState(data.getConnectorKind(), data.getRepositoryUrl(), data.getTaskId());
+			}
+			state.setEditsData(data);
+			writeState(file, state);
+		} finally {
+			lock.unlock();
 		}
-		state.setEditsData(data);
-		writeState(file, state);
 	}
 
-	public synchronized TaskDataState putTaskData(File file, TaskData data, boolean setLastRead, boolean user)
+	public TaskDataState putTaskData(File file, TaskData data, boolean setLastRead, boolean user)
 			throws CoreException {
 		Assert.isNotNull(file);
 		Assert.isNotNull(data);
+		Lock lock = getLock(file).writeLock();
+		lock.lock();
+		try {
+			return putTaskDataInternal(file, data, setLastRead, user);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private TaskDataState putTaskDataInternal(File file, TaskData data, boolean setLastRead, boolean user)
+			throws CoreException {
 		TaskDataState state = null;
 		try {
 			state = readState(file);
@@ -87,16 +223,36 @@ public class TaskDataStore {
 		}
 		if (state == null) {
 			state = new TaskDataState(data.getConnectorKind(), data.getRepositoryUrl(), data.getTaskId());
+		} else if (isUnchanged(state, data, setLastRead)) {
+			// the stored state already has the same content, avoid serializing and compressing it again
+			skippedWriteCount.incrementAndGet();
+			state.setRepositoryData(data);
+			return state;
 		}
 		if (setLastRead) {
 			state.setLastReadData(state.getRepositoryData());
 		}
 		state.setRepositoryData(data);
-		writeState(file, state);
+		if (queueState(file, state)) {
+			// clients may modify the returned state while the queued state is being written
+			return copyState(state);
+		}
 		return state;
 	}
 
-	public synchronized TaskDataState setTaskData(File file, TaskData data) throws CoreException {
+	/**
+	 * Returns true, if storing <code>data</code> as the repository data of <code>state</code> would not change the
+	 * content that is written to disk.
+	 */
+	private boolean isUnchanged(TaskDataState state, TaskData data, boolean setLastRead) {
+		TaskDataFingerprint fingerprint = TaskDataFingerprint.compute(state.getRepositoryData());
+		if (fingerprint == null || !fingerprint.equals(TaskDataFingerprint.compute(data))) {
+			return false;
+		}
+		return !setLastRead || fingerprint.equals(TaskDataFingerprint.compute(state.getLastReadData()));
+	}
+
+	public TaskDataState setTaskData(File file, TaskData data) throws CoreException {
 		Assert.isNotNull(file);
 		Assert.isNotNull(data);
 
@@ -106,14 +262,20 @@ public class TaskDataStore {
 		state.setRepositoryData(data);
 		state.setEditsData(null);
 		state.setLastReadData(data);
-		writeState(file, state);
+		putTaskData(file, state);
 		return state;
 	}
 
 	private TaskDataState readStateInternal(File file, boolean xml11) throws IOException, SAXException {
-		ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)));
+		InputStream in = storage.openInputStream(file);
+		if (in == null) {
+			return null;
+		}
 		try {
-			in.getNextEntry();
+			in = new BufferedInputStream(in);
+			if (TaskDataBinaryCodec.isBinary(in)) {
+				return externalizer.readBinaryState(in);
+			}
 			// bug 268456: When TaskData that contains C0 control characters is written to disk using XML 1.0 reading it back 
 			// in fails with a SAXException. The XML 1.1 standard allows C0 entities but fails if C1 entities. If C0 control 
 			// characters are detected while parsing file as XML 1.0 a second attempt is made using XML 1.1. If the file contains 
@@ -129,8 +291,13 @@ public class TaskDataStore {
 	}
 
 	private TaskDataState readState(File file) throws CoreException {
+		TaskDataState pendingState = pendingStates.get(file);
+		if (pendingState != null) {
+			// clients may modify the returned state and edits while the queued state is being written
+			return copyState(pendingState);
+		}
 		try {
-			if (file.exists()) {
+			if (storage.exists(file)) {
 				try {
 					try {
 						return readStateInternal(file, false);
@@ -155,16 +322,76 @@ public class TaskDataStore {
 		}
 	}
 
+	private TaskDataState copyState(TaskDataState source) {
+		TaskDataState state = new TaskDataState(source.getConnectorKind(), source.getRepositoryUrl(),
+				source.getTaskId());
+		state.setRepositoryData(source.getRepositoryData());
+		state.setLastReadData(source.getLastReadData());
+		state.setEditsData(TaskDataState.createCopy(source.getEditsData()));
+		return state;
+	}
+
+	/**
+	 * Queues <code>state</code> to be written by the write job or writes it immediately if no write delay is set.
+	 * Callers must hold the write lock for <code>file</code>.
+	 * 
+	 * @return true, if <code>state</code> was queued; false, if it was written
+	 */
+	private boolean queueState(File file, TaskDataState state) throws CoreException {
+		long delay = writeDelay;
+		if (delay == 0) {
+			writeState(file, state);
+			return false;
+		}
+		pendingStates.put(file, state);
+		if (writeScheduled.compareAndSet(false, true)) {
+			writeJob.schedule(delay);
+		} else if (pendingStates.size() >= MAX_PENDING_WRITES) {
+			writeJob.wakeUp();
+		}
+		return true;
+	}
+
+	/**
+	 * Writes all queued states. Callers must not hold any lock.
+	 */
+	private void writePendingStates() throws CoreException {
+		CoreException failure = null;
+		for (File file : new ArrayList<File>(pendingStates.keySet())) {
+			Lock lock = getLock(file).writeLock();
+			lock.lock();
+			try {
+				TaskDataState state = pendingStates.get(file);
+				if (state != null) {
+					writeState(file, state);
+				}
+			} catch (CoreException e) {
+				if (failure == null) {
+					failure = e;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Writes <code>state</code> immediately replacing a queued state for <code>file</code>. The queued state is kept if
+	 * writing fails. Callers must hold the write lock for <code>file</code>.
+	 */
 	private void writeState(File file, TaskDataState state) throws CoreException {
+		writeCount.incrementAndGet();
 		try {
-			ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			OutputStream out = storage.openOutputStream(file);
 			try {
-				out.setMethod(ZipOutputStream.DEFLATED);
-
-				ZipEntry entry = new ZipEntry(FILE_NAME_INTERNAL);
-				out.putNextEntry(entry);
-
-				externalizer.writeState(out, state);
+				if (binaryFormat) {
+					externalizer.writeBinaryState(out, state);
+				} else {
+					externalizer.writeState(out, state);
+				}
 			} finally {
 				out.close();
 			}
@@ -172,6 +399,8 @@ public class TaskDataStore {
 			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Error writing task data", //$NON-NLS-1$
 					e));
 		}
+		// the state was read including queued changes and supersedes the queued state
+		pendingStates.remove(file);
 	}
 
 //	public synchronized void putLastRead(File file, TaskData data) throws CoreException {
@@ -186,12 +415,126 @@ public class TaskDataStore {
 //		writeState(file, state);
 //	}
 
-	public synchronized void putTaskData(File file, TaskDataState state) throws CoreException {
-		writeState(file, state);
+	public void putTaskData(File file, TaskDataState state) throws CoreException {
+		Lock lock = getLock(file).writeLock();
+		lock.lock();
+		try {
+			writeState(file, state);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of states that were written.
+	 */
+	public int getWriteCount() {
+		return writeCount.get();
+	}
+
+	/**
+	 * Returns the number of times {@link #putTaskData(File, TaskData, boolean, boolean)} did not write a state since
+	 * the stored content was unchanged.
+	 */
+	public int getSkippedWriteCount() {
+		return skippedWriteCount.get();
+	}
+
+	public boolean deleteTaskData(File file) {
+		Lock lock = getLock(file).writeLock();
+		lock.lock();
+		try {
+			boolean removed = pendingStates.remove(file) != null;
+			return storage.delete(file) || removed;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public boolean hasTaskData(File file) {
+		Lock lock = getLock(file).readLock();
+		lock.lock();
+		try {
+			return pendingStates.containsKey(file) || storage.exists(file);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of states that are queued for writing.
+	 */
+	public int getPendingWriteCount() {
+		return pendingStates.size();
+	}
+
+	/**
+	 * Discards all queued states without writing them. Invoked when the files of the store are replaced, e.g. when a
+	 * backup is restored, to avoid overwriting the replaced files with outdated states.
+	 */
+	public void clearPending() {
+		for (File file : new ArrayList<File>(pendingStates.keySet())) {
+			Lock lock = getLock(file).writeLock();
+			lock.lock();
+			try {
+				pendingStates.remove(file);
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Writes all queued states and forces pending writes to disk.
+	 */
+	public void flush() throws CoreException {
+		writePendingStates();
+		try {
+			storage.flush();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Error flushing task data", e)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Writes all queued states and closes the storage which is reopened on the next access. Invoked when data sources
+	 * are reinitialized to read states that were restored or changed externally rather than cached states.
+	 */
+	public void reset() throws CoreException {
+		writePendingStates();
+		closeStorage();
 	}
 
-	public synchronized boolean deleteTaskData(File file) {
-		return file.delete();
+	/**
+	 * Waits for all running operations to complete and closes the storage.
+	 */
+	public void close() throws CoreException {
+		writeJob.cancel();
+		writePendingStates();
+		closeStorage();
+	}
+
+	private void closeStorage() throws CoreException {
+		// acquire locks in a fixed order, other operations never hold more than one lock
+		for (ReadWriteLock lock : locks) {
+			lock.writeLock().lock();
+		}
+		try {
+			storage.close();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Error closing task data store", e)); //$NON-NLS-1$
+		} finally {
+			for (ReadWriteLock lock : locks) {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	private ReadWriteLock getLock(File file) {
+		Assert.isNotNull(file);
+		return locks[(file.hashCode() & 0x7fffffff) % locks.length];
 	}
 
 }
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants.MutexSchedulingRule;
+import org.eclipse.mylyn.internal.tasks.core.externalization.ExternalizationManager;
+import org.eclipse.mylyn.internal.tasks.core.externalization.IExternalizationContext;
+import org.eclipse.mylyn.internal.tasks.core.externalization.IExternalizationParticipant;
+
+/**
+ * Writes the task data states that are queued by a {@link TaskDataStore} when the task list is saved. This ensures
+ * that queued states are written when {@link ExternalizationManager#stop()} is invoked on shutdown.
+ */
+public class TaskDataStoreExternalizationParticipant implements IExternalizationParticipant {
+
+	private final ISchedulingRule schedulingRule = new MutexSchedulingRule();
+
+	private final TaskDataStore taskDataStore;
+
+	public TaskDataStoreExternalizationParticipant(TaskDataStore taskDataStore) {
+		Assert.isNotNull(taskDataStore);
+		this.taskDataStore = taskDataStore;
+	}
+
+	public boolean isDirty() {
+		return taskDataStore.getPendingWriteCount() > 0;
+	}
+
+	public boolean isDirty(boolean full) {
+		return isDirty();
+	}
+
+	public ISchedulingRule getSchedulingRule() {
+		return schedulingRule;
+	}
+
+	public void execute(IExternalizationContext context, IProgressMonitor monitor) throws CoreException {
+		Assert.isNotNull(context);
+		switch (context.getKind()) {
+		case SAVE:
+			taskDataStore.flush();
+			break;
+		default:
+			// states are read on demand
+			break;
+		}
+	}
+
+	public String getDescription() {
+		return "Task Data"; //$NON-NLS-1$
+	}
+
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Stores each task data state as a deflated entry in a separate zip file.
+ */
+public class ZipTaskDataStorage implements ITaskDataStorage {
+
+	static final String FILE_NAME_INTERNAL = "data.xml"; //$NON-NLS-1$
+
+	public boolean exists(File file) {
+		return file.exists();
+	}
+
+	public InputStream openInputStream(File file) throws IOException {
+		if (!file.exists()) {
+			return null;
+		}
+		ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			in.getNextEntry();
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+		return in;
+	}
+
+	public OutputStream openOutputStream(File file) throws IOException {
+		ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.setMethod(ZipOutputStream.DEFLATED);
+
+			ZipEntry entry = new ZipEntry(FILE_NAME_INTERNAL);
+			out.putNextEntry(entry);
+		} catch (IOException e) {
+			out.close();
+			throw e;
+		}
+		return out;
+	}
+
+	public boolean delete(File file) {
+		return file.delete();
+	}
+
+	public void flush() {
+		// every state is written to its own file
+	}
+
+	public void close() {
+		// no resources to release
+	}
+
+}
@@ -56,10 +56,12 @@ import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.ITask.PriorityLevel;
 import org.eclipse.mylyn.tasks.core.ITask.SynchronizationState;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 
 /**
  * Subclass externalizers must override the get*TagName() methods for the types of externalized items they support to
@@ -173,6 +175,8 @@ public final class DelegatingTaskExternalizer {
 
 	static final String NODE_TASK = "Task"; //$NON-NLS-1$
 
+	private static final String CDATA = "CDATA"; //$NON-NLS-1$
+
 	static final String KEY_KEY = "Key"; //$NON-NLS-1$
 
 	// 2.0 -> 3.0 migration holds tasks to category handles 
@@ -203,139 +207,147 @@ public final class DelegatingTaskExternalizer {
 		this.migrators = migrators;
 	}
 
-	public Element createCategoryElement(AbstractTaskCategory category, Document doc, Element parent) {
-		Element node = doc.createElement(getCategoryTagName());
-		node.setAttribute(DelegatingTaskExternalizer.KEY_HANDLE, category.getHandleIdentifier());
-		node.setAttribute(DelegatingTaskExternalizer.KEY_NAME, category.getSummary());
-		parent.appendChild(node);
+	public void writeCategoryElement(AbstractTaskCategory category, ContentHandler handler) throws SAXException {
+		AttributesImpl atts = new AttributesImpl();
+		addAttribute(atts, KEY_HANDLE, category.getHandleIdentifier());
+		addAttribute(atts, KEY_NAME, category.getSummary());
+		handler.startElement("", "", getCategoryTagName(), atts); //$NON-NLS-1$ //$NON-NLS-2$
 		for (ITask task : category.getChildren()) {
-			createTaskReference(KEY_TASK_REFERENCE, task, doc, node);
+			writeTaskReference(KEY_TASK_REFERENCE, task, handler);
 		}
-		return node;
+		handler.endElement("", "", getCategoryTagName()); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
+	/**
+	 * Writes the element for <code>task</code> to <code>handler</code>.
+	 * 
+	 * @return false, if the task type is not supported
+	 */
 	@SuppressWarnings("deprecation")
-	public Element createTaskElement(final AbstractTask task, Document doc, Element parent) {
-		final Element node;
-		if (task.getClass() == TaskTask.class || task instanceof LocalTask) {
-			node = doc.createElement(NODE_TASK);
-		} else {
+	public boolean writeTaskElement(final AbstractTask task, ContentHandler handler) throws SAXException {
+		if (task.getClass() != TaskTask.class && !(task instanceof LocalTask)) {
 			errors.add(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN, "No externalizer for task: " + task)); //$NON-NLS-1$
-			return null;
+			return false;
 		}
 
-		node.setAttribute(KEY_CONNECTOR_KIND, task.getConnectorKind());
-		node.setAttribute(KEY_REPOSITORY_URL, task.getRepositoryUrl());
-		node.setAttribute(KEY_TASK_ID, task.getTaskId());
+		AttributesImpl atts = new AttributesImpl();
+		addAttribute(atts, KEY_CONNECTOR_KIND, task.getConnectorKind());
+		addAttribute(atts, KEY_REPOSITORY_URL, task.getRepositoryUrl());
+		addAttribute(atts, KEY_TASK_ID, task.getTaskId());
 		if (task.getTaskKey() != null) {
-			node.setAttribute(KEY_KEY, task.getTaskKey());
+			addAttribute(atts, KEY_KEY, task.getTaskKey());
 		}
-		node.setAttribute(KEY_HANDLE, task.getHandleIdentifier());
-		node.setAttribute(KEY_LABEL, stripControlCharacters(task.getSummary()));
+		addAttribute(atts, KEY_HANDLE, task.getHandleIdentifier());
+		addAttribute(atts, KEY_LABEL, stripControlCharacters(task.getSummary()));
 
-		node.setAttribute(KEY_PRIORITY, task.getPriority());
-		node.setAttribute(KEY_KIND, task.getTaskKind());
+		addAttribute(atts, KEY_PRIORITY, task.getPriority());
+		addAttribute(atts, KEY_KIND, task.getTaskKind());
 
-		if (task.isActive()) {
-			node.setAttribute(KEY_ACTIVE, VAL_TRUE);
-		} else {
-			node.setAttribute(KEY_ACTIVE, VAL_FALSE);
-		}
+		addAttribute(atts, KEY_ACTIVE, task.isActive());
 
 		if (task.getUrl() != null) {
-			node.setAttribute(KEY_ISSUEURL, task.getUrl());
-		}
-		node.setAttribute(KEY_NOTES, stripControlCharacters(task.getNotes()));
-		node.setAttribute(KEY_TIME_ESTIMATED, "" + task.getEstimatedTimeHours()); //$NON-NLS-1$
-		node.setAttribute(KEY_DATE_END, formatExternDate(task.getCompletionDate()));
-		node.setAttribute(KEY_DATE_CREATION, formatExternDate(task.getCreationDate()));
-		node.setAttribute(KEY_DATE_MODIFICATION, formatExternDate(task.getModificationDate()));
-		node.setAttribute(KEY_DATE_DUE, formatExternDate(task.getDueDate()));
+			addAttribute(atts, KEY_ISSUEURL, task.getUrl());
+		}
+		addAttribute(atts, KEY_NOTES, stripControlCharacters(task.getNotes()));
+		addAttribute(atts, KEY_TIME_ESTIMATED, "" + task.getEstimatedTimeHours()); //$NON-NLS-1$
+		addAttribute(atts, KEY_DATE_END, formatExternDate(task.getCompletionDate()));
+		addAttribute(atts, KEY_DATE_CREATION, formatExternDate(task.getCreationDate()));
+		addAttribute(atts, KEY_DATE_MODIFICATION, formatExternDate(task.getModificationDate()));
+		addAttribute(atts, KEY_DATE_DUE, formatExternDate(task.getDueDate()));
 		if (task.getScheduledForDate() != null) {
-			node.setAttribute(KEY_DATE_SCHEDULED_START, formatExternCalendar(task.getScheduledForDate().getStartDate()));
-			node.setAttribute(KEY_DATE_SCHEDULED_END, formatExternCalendar(task.getScheduledForDate().getEndDate()));
-		}
-		if (task.isReminded()) {
-			node.setAttribute(KEY_REMINDED, VAL_TRUE);
-		} else {
-			node.setAttribute(KEY_REMINDED, VAL_FALSE);
-		}
-		if (task.isStale()) {
-			node.setAttribute(KEY_STALE, VAL_TRUE);
-		} else {
-			node.setAttribute(KEY_STALE, VAL_FALSE);
-		}
-		if (task.isMarkReadPending()) {
-			node.setAttribute(KEY_MARK_READ_PENDING, VAL_TRUE);
-		} else {
-			node.setAttribute(KEY_MARK_READ_PENDING, VAL_FALSE);
+			addAttribute(atts, KEY_DATE_SCHEDULED_START, formatExternCalendar(task.getScheduledForDate().getStartDate()));
+			addAttribute(atts, KEY_DATE_SCHEDULED_END, formatExternCalendar(task.getScheduledForDate().getEndDate()));
 		}
+		addAttribute(atts, KEY_REMINDED, task.isReminded());
+		addAttribute(atts, KEY_STALE, task.isStale());
+		addAttribute(atts, KEY_MARK_READ_PENDING, task.isMarkReadPending());
 		if (task.getLastReadTimeStamp() != null) {
-			node.setAttribute(KEY_LAST_MOD_DATE, task.getLastReadTimeStamp());
-		}
-		if (task.isNotified()) {
-			node.setAttribute(KEY_NOTIFIED_INCOMING, VAL_TRUE);
-		} else {
-			node.setAttribute(KEY_NOTIFIED_INCOMING, VAL_FALSE);
+			addAttribute(atts, KEY_LAST_MOD_DATE, task.getLastReadTimeStamp());
 		}
+		addAttribute(atts, KEY_NOTIFIED_INCOMING, task.isNotified());
 		if (task.getSynchronizationState() != null) {
-			node.setAttribute(KEY_SYNC_STATE, task.getSynchronizationState().name());
+			addAttribute(atts, KEY_SYNC_STATE, task.getSynchronizationState().name());
 		} else {
-			node.setAttribute(KEY_SYNC_STATE, SynchronizationState.SYNCHRONIZED.name());
+			addAttribute(atts, KEY_SYNC_STATE, SynchronizationState.SYNCHRONIZED.name());
 		}
 		if (task.getOwner() != null) {
-			node.setAttribute(KEY_OWNER, task.getOwner());
+			addAttribute(atts, KEY_OWNER, task.getOwner());
 		}
-		createAttributes(task, doc, node);
+
+		handler.startElement("", "", NODE_TASK, atts); //$NON-NLS-1$ //$NON-NLS-2$
+		writeAttributes(task, handler);
 		for (ITask t : task.getChildren()) {
-			createTaskReference(KEY_SUBTASK, t, doc, node);
+			writeTaskReference(KEY_SUBTASK, t, handler);
 		}
+		handler.endElement("", "", NODE_TASK); //$NON-NLS-1$ //$NON-NLS-2$
+		return true;
+	}
 
-		parent.appendChild(node);
-		return node;
+	private void addAttribute(AttributesImpl atts, String name, String value) {
+		// unset values are written as empty attributes
+		atts.addAttribute("", "", name, CDATA, (value != null) ? value : ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 	}
 
-	private void createAttributes(IAttributeContainer container, Document doc, Element parent) {
+	private void addAttribute(AttributesImpl atts, String name, boolean value) {
+		addAttribute(atts, name, (value) ? VAL_TRUE : VAL_FALSE);
+	}
+
+	private void writeAttributes(IAttributeContainer container, ContentHandler handler) throws SAXException {
 		Map<String, String> attributes = container.getAttributes();
 		for (Map.Entry<String, String> entry : attributes.entrySet()) {
-			Element node = doc.createElement(NODE_ATTRIBUTE);
-			node.setAttribute(KEY_KEY, entry.getKey());
-			node.setTextContent(entry.getValue());
-			parent.appendChild(node);
+			AttributesImpl atts = new AttributesImpl();
+			addAttribute(atts, KEY_KEY, entry.getKey());
+			handler.startElement("", "", NODE_ATTRIBUTE, atts); //$NON-NLS-1$ //$NON-NLS-2$
+			String value = entry.getValue();
+			handler.characters(value.toCharArray(), 0, value.length());
+			handler.endElement("", "", NODE_ATTRIBUTE); //$NON-NLS-1$ //$NON-NLS-2$
 		}
-
 	}
 
 	/**
-	 * creates nested task reference nodes named nodeName which include a handle to the task
-	 * 
-	 * @return
+	 * Writes a task reference element named <code>nodeName</code> which includes the handle of <code>task</code>.
 	 */
-	public Element createTaskReference(String nodeName, ITask task, Document doc, Element parent) {
-		Element node = doc.createElement(nodeName);
-		node.setAttribute(KEY_HANDLE, task.getHandleIdentifier());
-		parent.appendChild(node);
-		return node;
+	public void writeTaskReference(String nodeName, ITask task, ContentHandler handler) throws SAXException {
+		AttributesImpl atts = new AttributesImpl();
+		addAttribute(atts, KEY_HANDLE, task.getHandleIdentifier());
+		handler.startElement("", "", nodeName, atts); //$NON-NLS-1$ //$NON-NLS-2$
+		handler.endElement("", "", nodeName); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
 	/**
 	 * create tasks from the nodes provided and places them within the given container
 	 */
 	public void readTaskReferences(AbstractTaskContainer task, NodeList nodes, ITransferList tasklist) {
+		readTaskReferences(task, getTaskReferences(nodes), tasklist);
+	}
+
+	/**
+	 * Adds the tasks identified by <code>handles</code> to <code>task</code>.
+	 */
+	public void readTaskReferences(AbstractTaskContainer task, List<String> handles, ITransferList tasklist) {
+		for (String handle : handles) {
+			AbstractTask subTask = tasklist.getTask(handle);
+			if (subTask != null) {
+				tasklist.addTask(subTask, task);
+			} else {
+				errors.add(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+						"Failed to add subtask with handle \"" + handle + "\" to \"" + task + "\"")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+	}
+
+	/**
+	 * Returns the handles of the task reference elements in <code>nodes</code>.
+	 */
+	public List<String> getTaskReferences(NodeList nodes) {
+		List<String> handles = new ArrayList<String>();
 		for (int j = 0; j < nodes.getLength(); j++) {
 			Node child = nodes.item(j);
-			Element element = (Element) child;
-			if (element.hasAttribute(KEY_HANDLE)) {
-				String handle = element.getAttribute(KEY_HANDLE);
-				AbstractTask subTask = tasklist.getTask(handle);
-				if (subTask != null) {
-					tasklist.addTask(subTask, task);
-				} else {
-					errors.add(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
-							"Failed to add subtask with handle \"" + handle + "\" to \"" + task + "\"")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-				}
+			if (child instanceof Element && ((Element) child).hasAttribute(KEY_HANDLE)) {
+				handles.add(((Element) child).getAttribute(KEY_HANDLE));
 			}
 		}
+		return handles;
 	}
 
 	@SuppressWarnings({ "restriction" })
@@ -653,31 +665,34 @@ public final class DelegatingTaskExternalizer {
 		return KEY_TASK_CATEGORY;
 	}
 
-	public Element createQueryElement(final RepositoryQuery query, Document doc, Element parent) {
-		final Element node;
-		if (query.getClass() == RepositoryQuery.class) {
-			node = doc.createElement(NODE_QUERY);
-		} else {
+	/**
+	 * Writes the element for <code>query</code> to <code>handler</code>.
+	 * 
+	 * @return false, if the query type is not supported
+	 */
+	public boolean writeQueryElement(final RepositoryQuery query, ContentHandler handler) throws SAXException {
+		if (query.getClass() != RepositoryQuery.class) {
 			errors.add(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
 					"Missing factory to externalize query \"" + query + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
-			return null;
+			return false;
 		}
 
-		node.setAttribute(KEY_HANDLE, query.getHandleIdentifier());
-		node.setAttribute(KEY_CONNECTOR_KIND, query.getConnectorKind());
-		node.setAttribute(KEY_NAME, query.getSummary());
-		node.setAttribute(KEY_QUERY_STRING, query.getUrl());
-		node.setAttribute(KEY_REPOSITORY_URL, query.getRepositoryUrl());
+		AttributesImpl atts = new AttributesImpl();
+		addAttribute(atts, KEY_HANDLE, query.getHandleIdentifier());
+		addAttribute(atts, KEY_CONNECTOR_KIND, query.getConnectorKind());
+		addAttribute(atts, KEY_NAME, query.getSummary());
+		addAttribute(atts, KEY_QUERY_STRING, query.getUrl());
+		addAttribute(atts, KEY_REPOSITORY_URL, query.getRepositoryUrl());
 		if (query.getLastSynchronizedTimeStamp() != null) {
-			node.setAttribute(KEY_LAST_REFRESH, query.getLastSynchronizedTimeStamp());
+			addAttribute(atts, KEY_LAST_REFRESH, query.getLastSynchronizedTimeStamp());
 		}
-		createAttributes(query, doc, node);
+		handler.startElement("", "", NODE_QUERY, atts); //$NON-NLS-1$ //$NON-NLS-2$
+		writeAttributes(query, handler);
 		for (ITask hit : query.getChildren()) {
-			createTaskReference(KEY_QUERY_HIT, hit, doc, node);
+			writeTaskReference(KEY_QUERY_HIT, hit, handler);
 		}
-
-		parent.appendChild(node);
-		return node;
+		handler.endElement("", "", NODE_QUERY); //$NON-NLS-1$ //$NON-NLS-2$
+		return true;
 	}
 
 	public Map<AbstractTask, String> getLegacyParentCategoryMap() {
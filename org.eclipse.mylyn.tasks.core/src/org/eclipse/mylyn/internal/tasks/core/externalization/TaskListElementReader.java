@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.externalization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads a task list document one top-level element at a time. Each child of the root element is built as a detached
+ * DOM element, including its descendants, and passed to {@link #handleElement(Element)}. Since elements are not
+ * attached to a document they can be reclaimed once they have been handled, which keeps memory consumption independent
+ * of the number of elements in the task list while elements retain the format expected by
+ * {@link DelegatingTaskExternalizer} and {@link org.eclipse.mylyn.tasks.core.AbstractTaskListMigrator}s.
+ */
+abstract class TaskListElementReader extends DefaultHandler {
+
+	private final Document document;
+
+	private final List<Element> stack = new ArrayList<Element>();
+
+	private boolean inRoot;
+
+	public TaskListElementReader() throws ParserConfigurationException {
+		this.document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+	}
+
+	/**
+	 * Invoked for the root element of the task list.
+	 */
+	protected abstract void startTaskList(String name, Attributes attributes) throws SAXException;
+
+	/**
+	 * Invoked for each child of the root element after the child has been read completely.
+	 */
+	protected abstract void handleElement(Element element) throws SAXException;
+
+	@Override
+	public void startElement(String uri, String localName, String name, Attributes attributes) throws SAXException {
+		if (!inRoot) {
+			inRoot = true;
+			startTaskList(name, attributes);
+			return;
+		}
+
+		Element element = document.createElement(name);
+		for (int i = 0; i < attributes.getLength(); i++) {
+			element.setAttribute(attributes.getQName(i), attributes.getValue(i));
+		}
+		if (!stack.isEmpty()) {
+			stack.get(stack.size() - 1).appendChild(element);
+		}
+		stack.add(element);
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String name) throws SAXException {
+		if (stack.isEmpty()) {
+			// end of root element
+			return;
+		}
+		Element element = stack.remove(stack.size() - 1);
+		if (stack.isEmpty()) {
+			handleElement(element);
+		}
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		if (!stack.isEmpty()) {
+			Element element = stack.get(stack.size() - 1);
+			Node last = element.getLastChild();
+			if (last != null && last.getNodeType() == Node.TEXT_NODE) {
+				// parsers may report text in several chunks
+				last.setNodeValue(last.getNodeValue() + new String(ch, start, length));
+			} else {
+				element.appendChild(document.createTextNode(new String(ch, start, length)));
+			}
+		}
+	}
+
+}
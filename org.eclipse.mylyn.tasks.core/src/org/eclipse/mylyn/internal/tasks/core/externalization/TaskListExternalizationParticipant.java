@@ -12,20 +12,33 @@
 package org.eclipse.mylyn.internal.tasks.core.externalization;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.commons.net.Policy;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTaskCategory;
+import org.eclipse.mylyn.internal.tasks.core.AutomaticRepositoryTaskContainer;
 import org.eclipse.mylyn.internal.tasks.core.ITaskListChangeListener;
 import org.eclipse.mylyn.internal.tasks.core.ITaskListRunnable;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.LocalRepositoryConnector;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryModel;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
 import org.eclipse.mylyn.internal.tasks.core.TaskContainerDelta;
 import org.eclipse.mylyn.internal.tasks.core.TaskList;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
 import org.eclipse.mylyn.internal.tasks.core.UnmatchedTaskContainer;
+import org.eclipse.mylyn.tasks.core.IRepositoryElement;
 import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.ITaskActivationListener;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
@@ -38,6 +51,11 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 
 	private static final String DESCRIPTION = Messages.TaskListExternalizationParticipant_Task_List;
 
+	/**
+	 * The journal is compacted into a full save when it grows beyond the size of the task list file or this size.
+	 */
+	private static final long MIN_JOURNAL_COMPACTION_SIZE = 512 * 1024;
+
 	private final ExternalizationManager manager;
 
 	private final TaskListExternalizer taskListWriter;
@@ -50,6 +68,18 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 
 	private final RepositoryModel repositoryModel;
 
+	/**
+	 * Elements that were changed, added or removed since the last save.
+	 */
+	private final Set<IRepositoryElement> changedElements = new HashSet<IRepositoryElement>();
+
+	/**
+	 * Set if changes were made that can not be recorded in the journal or the file was not written in this session.
+	 */
+	private boolean fullSaveRequired = true;
+
+	private boolean incremental;
+
 	public TaskListExternalizationParticipant(RepositoryModel repositoryModel, TaskList taskList,
 			TaskListExternalizer taskListExternalizer, ExternalizationManager manager,
 			TaskRepositoryManager repositoryManager) {
@@ -70,12 +100,29 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 		return dirty;
 	}
 
+	/**
+	 * If enabled, changes to the task list are appended to a journal on save and the task list file is only written
+	 * when the journal grows too large.
+	 */
+	public synchronized void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	public synchronized boolean isIncremental() {
+		return incremental;
+	}
+
 	@Override
 	public void load(final File sourceFile, IProgressMonitor monitor) throws CoreException {
 		ITaskListRunnable loadRunnable = new ITaskListRunnable() {
 			public void execute(IProgressMonitor monitor) throws CoreException {
 				resetTaskList();
 				taskListWriter.readTaskList(taskList, sourceFile);
+				synchronized (TaskListExternalizationParticipant.this) {
+					changedElements.clear();
+					// compact the journal that was applied on load with the first save
+					fullSaveRequired = true;
+				}
 			}
 		};
 
@@ -101,6 +148,26 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 		return false;
 	}
 
+	/**
+	 * Moves the journal together with the task list file to keep the snapshot complete. The snapshot is loaded with its
+	 * journal if the task list file can not be read.
+	 */
+	@Override
+	protected boolean takeSnapshot(File file) {
+		if (super.takeSnapshot(file)) {
+			File journalFile = TaskListJournal.getJournalFile(file);
+			File snapshotJournalFile = TaskListJournal.getJournalFile(new File(file.getParentFile(), SNAPSHOT_PREFIX
+					+ file.getName()));
+			snapshotJournalFile.delete();
+			if (journalFile.exists() && !journalFile.renameTo(snapshotJournalFile)) {
+				StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+						"Failed to move task list journal \"" + journalFile.getAbsolutePath() + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			return true;
+		}
+		return false;
+	}
+
 	/**
 	 * public for tests
 	 */
@@ -119,12 +186,27 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 		}
 	}
 
+	@Override
+	public void execute(IExternalizationContext context, IProgressMonitor monitor) throws CoreException {
+		Assert.isNotNull(context);
+		if (context.getKind() == IExternalizationContext.Kind.SAVE && isIncremental()) {
+			monitor = Policy.monitorFor(monitor);
+			File dataFile = getFile(context.getRootPath());
+			if (dataFile != null && saveIncremental(dataFile, monitor)) {
+				return;
+			}
+		}
+		super.execute(context, monitor);
+	}
+
 	@Override
 	public void save(final File targetFile, IProgressMonitor monitor) throws CoreException {
 		ITaskListRunnable saveRunnable = new ITaskListRunnable() {
 			public void execute(IProgressMonitor monitor) throws CoreException {
 				synchronized (TaskListExternalizationParticipant.this) {
 					dirty = false;
+					changedElements.clear();
+					fullSaveRequired = false;
 				}
 				taskListWriter.writeTaskList(taskList, targetFile);
 			}
@@ -133,6 +215,48 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 		taskList.run(saveRunnable, monitor);
 	}
 
+	/**
+	 * Appends the elements that changed since the last save to the journal of <code>targetFile</code>.
+	 * 
+	 * @return false, if a full save is required
+	 */
+	private boolean saveIncremental(final File targetFile, IProgressMonitor monitor) throws CoreException {
+		final boolean[] saved = new boolean[1];
+		ITaskListRunnable saveRunnable = new ITaskListRunnable() {
+			public void execute(IProgressMonitor monitor) throws CoreException {
+				List<IRepositoryElement> elements;
+				synchronized (TaskListExternalizationParticipant.this) {
+					if (fullSaveRequired || !targetFile.exists()) {
+						return;
+					}
+					long journalSize = TaskListJournal.getJournalFile(targetFile).length();
+					if (journalSize >= Math.max(MIN_JOURNAL_COMPACTION_SIZE, targetFile.length())) {
+						return;
+					}
+					elements = new ArrayList<IRepositoryElement>(changedElements);
+					changedElements.clear();
+					dirty = false;
+				}
+				if (!elements.isEmpty()) {
+					try {
+						taskListWriter.writeTaskListJournal(taskList, targetFile, elements);
+					} catch (CoreException e) {
+						StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+								"Failed to write task list journal, saving full task list", e)); //$NON-NLS-1$
+						synchronized (TaskListExternalizationParticipant.this) {
+							fullSaveRequired = true;
+						}
+						return;
+					}
+				}
+				saved[0] = true;
+			}
+		};
+
+		taskList.run(saveRunnable, monitor);
+		return saved[0];
+	}
+
 	@Override
 	public String getDescription() {
 		return DESCRIPTION;
@@ -144,14 +268,35 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 	}
 
 	public void containersChanged(Set<TaskContainerDelta> containers) {
-		for (TaskContainerDelta taskContainerDelta : containers) {
-			if (!taskContainerDelta.isTransient()) {
-				synchronized (TaskListExternalizationParticipant.this) {
-					dirty = true;
+		boolean changed = false;
+		synchronized (TaskListExternalizationParticipant.this) {
+			for (TaskContainerDelta taskContainerDelta : containers) {
+				if (!taskContainerDelta.isTransient()) {
+					changed = true;
+					if (taskContainerDelta.getKind() == TaskContainerDelta.Kind.ROOT
+							&& taskContainerDelta.getElement() == null) {
+						// unknown changes
+						fullSaveRequired = true;
+					} else {
+						// elements that are no longer in the task list are recorded as removed on save
+						addChangedElement(taskContainerDelta.getElement());
+						addChangedElement(taskContainerDelta.getParent());
+					}
 				}
-				manager.requestSave();
-				return;
 			}
+			if (changed) {
+				dirty = true;
+			}
+		}
+		if (changed) {
+			manager.requestSave();
+		}
+	}
+
+	private void addChangedElement(Object element) {
+		if (element instanceof AbstractTask || element instanceof RepositoryQuery
+				|| (element instanceof AbstractTaskCategory && !(element instanceof AutomaticRepositoryTaskContainer))) {
+			changedElements.add((IRepositoryElement) element);
 		}
 	}
 
@@ -168,6 +313,7 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 	public void taskActivated(ITask task) {
 		synchronized (TaskListExternalizationParticipant.this) {
 			dirty = true;
+			addChangedElement(task);
 		}
 		manager.requestSave();
 		return;
@@ -176,6 +322,7 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 	public void taskDeactivated(ITask task) {
 		synchronized (TaskListExternalizationParticipant.this) {
 			dirty = true;
+			addChangedElement(task);
 		}
 		manager.requestSave();
 		return;
@@ -13,6 +13,7 @@
 
 package org.eclipse.mylyn.internal.tasks.core.externalization;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -20,9 +21,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -30,12 +36,10 @@ import java.util.zip.ZipOutputStream;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Result;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 
 import org.eclipse.core.runtime.CoreException;
@@ -48,19 +52,151 @@ import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITransferList;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryModel;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
+import org.eclipse.mylyn.internal.tasks.core.SaxParserPool;
 import org.eclipse.mylyn.tasks.core.AbstractTaskListMigrator;
+import org.eclipse.mylyn.tasks.core.IRepositoryElement;
 import org.eclipse.mylyn.tasks.core.IRepositoryManager;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 
 /**
+ * Reads and writes the task list. The task list is streamed through SAX to avoid building a document for the entire
+ * task list, only individual elements are materialized as DOM elements while reading to support
+ * {@link AbstractTaskListMigrator}s.
+ * 
  * @author Mik Kersten
  * @author Rob Elves
  */
 public class TaskListExternalizer {
 
+	/**
+	 * Reads the elements of a task list and applies the changes recorded in the journal of the task list file.
+	 */
+	private class TaskListReader extends TaskListElementReader {
+
+		private final ITransferList taskList;
+
+		private final Map<String, Element> journalElements;
+
+		private final Map<AbstractTask, List<String>> subtasksByTask = new LinkedHashMap<AbstractTask, List<String>>();
+
+		private final Map<RepositoryQuery, List<String>> hitsByQuery = new LinkedHashMap<RepositoryQuery, List<String>>();
+
+		private final List<Element> categoryElements = new ArrayList<Element>();
+
+		public TaskListReader(ITransferList taskList, Map<String, Element> journalElements)
+				throws ParserConfigurationException {
+			this.taskList = taskList;
+			this.journalElements = journalElements;
+		}
+
+		@Override
+		protected void startTaskList(String name, Attributes attributes) throws SAXException {
+			String version = attributes.getValue(ATTRIBUTE_VERSION);
+			readVersion = (version != null) ? version : ""; //$NON-NLS-1$
+			if (readVersion.equals(VALUE_VERSION_1_0_0)) {
+				throw new SAXException(new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+						"Task list version \"" + readVersion + "\" not supported"))); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+
+		@Override
+		protected void handleElement(Element element) throws SAXException {
+			if (!journalElements.isEmpty()) {
+				String key = TaskListJournal.getKey(element);
+				if (journalElements.containsKey(key)) {
+					element = journalElements.remove(key);
+					if (element == null) {
+						// removed after the task list was written
+						return;
+					}
+				}
+			}
+			try {
+				readElement(element);
+			} catch (CoreException e) {
+				throw new SAXException(e);
+			}
+		}
+
+		private void readElement(Element element) throws CoreException {
+			String name = element.getNodeName();
+			if (name.endsWith(DelegatingTaskExternalizer.KEY_CATEGORY)) {
+				// categories are read after all tasks
+				categoryElements.add(element);
+			} else if (name.endsWith(DelegatingTaskExternalizer.KEY_QUERY)) {
+				RepositoryQuery query = delegatingExternalizer.readQuery(element);
+				if (query != null) {
+					taskList.addQuery(query);
+					List<String> hits = delegatingExternalizer.getTaskReferences(element.getChildNodes());
+					if (!hits.isEmpty()) {
+						hitsByQuery.put(query, hits);
+					}
+				} else {
+					addOrphan(element);
+				}
+			} else {
+				AbstractTask task = delegatingExternalizer.readTask(element, null, null);
+				if (task != null) {
+					taskList.addTask(task);
+					List<String> subtasks = delegatingExternalizer.getTaskReferences(element.getChildNodes());
+					if (!subtasks.isEmpty()) {
+						subtasksByTask.put(task, subtasks);
+					}
+				} else {
+					addOrphan(element);
+				}
+			}
+		}
+
+		/**
+		 * Reads elements that were added in the journal and establishes references between elements.
+		 */
+		public void finish() throws CoreException {
+			for (Element element : journalElements.values()) {
+				if (element != null) {
+					readElement(element);
+				}
+			}
+			journalElements.clear();
+
+			// create subtask hierarchy
+			for (Map.Entry<AbstractTask, List<String>> entry : subtasksByTask.entrySet()) {
+				delegatingExternalizer.readTaskReferences(entry.getKey(), entry.getValue(), taskList);
+			}
+
+			// read query hits
+			for (Map.Entry<RepositoryQuery, List<String>> entry : hitsByQuery.entrySet()) {
+				delegatingExternalizer.readTaskReferences(entry.getKey(), entry.getValue(), taskList);
+			}
+
+			// read categories
+			for (Element element : categoryElements) {
+				delegatingExternalizer.readCategory(element, taskList);
+			}
+
+			// legacy migration for task nodes that have the old Category handle on the element
+			Map<AbstractTask, String> legacyParentCategoryMap = delegatingExternalizer.getLegacyParentCategoryMap();
+			if (legacyParentCategoryMap.size() > 0) {
+				for (AbstractTask task : legacyParentCategoryMap.keySet()) {
+					AbstractTaskCategory category = taskList.getContainerForHandle(legacyParentCategoryMap.get(task));
+					if (category != null) {
+						taskList.addTask(task, category);
+					}
+				}
+			}
+		}
+
+	}
+
 	private static final String ERROR_TASKLIST_READ = "Failed to load Task List"; //$NON-NLS-1$
 
 	private static final String TRANSFORM_PROPERTY_VERSION = "version"; //$NON-NLS-1$
@@ -69,6 +205,10 @@ public class TaskListExternalizer {
 	// Result was an infinite loop within the parser
 	private static final String XML_VERSION = "1.0"; //$NON-NLS-1$
 
+	private static final String CDATA = "CDATA"; //$NON-NLS-1$
+
+	private static final String TEMP_FILE_SUFFIX = ".tmp"; //$NON-NLS-1$
+
 	public static final String ATTRIBUTE_VERSION = "Version"; //$NON-NLS-1$
 
 	public static final String ELEMENT_TASK_LIST = "TaskList"; //$NON-NLS-1$
@@ -89,6 +229,18 @@ public class TaskListExternalizer {
 
 	private String readVersion = ""; //$NON-NLS-1$
 
+	/**
+	 * The task list file that was last read or written and its checksum which binds journal records to the file. The
+	 * length and modification time of the file are recorded to detect when the file is replaced.
+	 */
+	private File checksumFile;
+
+	private long checksumFileLength;
+
+	private long checksumFileModified;
+
+	private long checksum;
+
 	public TaskListExternalizer(RepositoryModel repositoryModel, IRepositoryManager repositoryManager) {
 		this.delegatingExternalizer = new DelegatingTaskExternalizer(repositoryModel, repositoryManager);
 		try {
@@ -105,18 +257,21 @@ public class TaskListExternalizer {
 	}
 
 	public void writeTaskList(ITransferList taskList, File outFile) throws CoreException {
+		// the task list is streamed while it is written, write to a temporary file to keep the previous file intact if
+		// writing fails
+		File tempFile = new File(outFile.getPath() + TEMP_FILE_SUFFIX);
+		CRC32 fileChecksum = new CRC32();
+		boolean written = false;
 		try {
-			FileOutputStream outStream = new FileOutputStream(outFile);
+			OutputStream outStream = new CheckedOutputStream(new FileOutputStream(tempFile), fileChecksum);
 			try {
-				Document doc = createTaskListDocument(taskList);
-
 				ZipOutputStream zipOutStream = new ZipOutputStream(outStream);
 
 				ZipEntry zipEntry = new ZipEntry(ITasksCoreConstants.OLD_TASK_LIST_FILE);
 				zipOutStream.putNextEntry(zipEntry);
 				zipOutStream.setMethod(ZipOutputStream.DEFLATED);
 
-				writeDocument(doc, zipOutStream);
+				writeTaskList(taskList, zipOutStream);
 
 				zipOutStream.flush();
 				zipOutStream.closeEntry();
@@ -124,59 +279,191 @@ public class TaskListExternalizer {
 			} finally {
 				outStream.close();
 			}
+			written = true;
 		} catch (IOException e) {
 			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Saving Task List failed", //$NON-NLS-1$
 					e));
+		} finally {
+			if (!written) {
+				tempFile.delete();
+			}
+		}
+
+		if ((outFile.exists() && !outFile.delete()) || !tempFile.renameTo(outFile)) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Saving Task List failed, could not replace \"" + outFile.getAbsolutePath() + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
 		}
-	}
 
-	private Document createTaskListDocument(ITransferList taskList) throws CoreException {
-		Document doc = createDocument();
+		setChecksum(outFile, fileChecksum.getValue());
 
+		// the file now contains all changes that were recorded in the journal
+		TaskListJournal journal = new TaskListJournal(TaskListJournal.getJournalFile(outFile));
+		if (!journal.delete()) {
+			StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+					"Failed to delete task list journal \"" + journal.getFile().getAbsolutePath() + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private void writeTaskList(ITransferList taskList, OutputStream outputStream) throws CoreException {
 		delegatingExternalizer.clearErrorStatus();
 
-		Element root = doc.createElement(ELEMENT_TASK_LIST);
-		root.setAttribute(ATTRIBUTE_VERSION, VALUE_VERSION);
-		doc.appendChild(root);
+		try {
+			TransformerHandler handler = createTransformerHandler(outputStream);
+			handler.startDocument();
+			AttributesImpl atts = new AttributesImpl();
+			atts.addAttribute("", "", ATTRIBUTE_VERSION, CDATA, VALUE_VERSION); //$NON-NLS-1$ //$NON-NLS-2$
+			handler.startElement("", "", ELEMENT_TASK_LIST, atts); //$NON-NLS-1$ //$NON-NLS-2$
+
+			// write task nodes...
+			for (AbstractTask task : taskList.getAllTasks()) {
+				delegatingExternalizer.writeTaskElement(task, handler);
+			}
 
-		// create task nodes...
-		for (AbstractTask task : taskList.getAllTasks()) {
-			delegatingExternalizer.createTaskElement(task, doc, root);
-		}
+			// write the category nodes...
+			for (AbstractTaskCategory category : taskList.getCategories()) {
+				delegatingExternalizer.writeCategoryElement(category, handler);
+			}
 
-		// create the category nodes...
-		for (AbstractTaskCategory category : taskList.getCategories()) {
-			delegatingExternalizer.createCategoryElement(category, doc, root);
+			// write query nodes...
+			for (RepositoryQuery query : taskList.getQueries()) {
+				delegatingExternalizer.writeQueryElement(query, handler);
+			}
+
+			// Persist orphaned tasks...
+			for (Node node : orphanedNodes) {
+				writeNode(node, handler);
+			}
+
+			handler.endElement("", "", ELEMENT_TASK_LIST); //$NON-NLS-1$ //$NON-NLS-2$
+			handler.endDocument();
+		} catch (SAXException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Failed write task list", //$NON-NLS-1$
+					e));
 		}
 
-		// create query nodes...
-		for (RepositoryQuery query : taskList.getQueries()) {
-			delegatingExternalizer.createQueryElement(query, doc, root);
+		if (delegatingExternalizer.getErrorStatus() != null) {
+			StatusHandler.log(delegatingExternalizer.getErrorStatus());
 		}
+	}
+
+	/**
+	 * Appends the current state of <code>elements</code> to the journal of <code>taskListFile</code> instead of
+	 * writing the entire task list. Elements that are no longer part of <code>taskList</code> are recorded as removed.
+	 * 
+	 * @see TaskListJournal
+	 */
+	public void writeTaskListJournal(ITransferList taskList, File taskListFile,
+			Collection<? extends IRepositoryElement> elements) throws CoreException {
+		delegatingExternalizer.clearErrorStatus();
 
-		// Persist orphaned tasks...
-		for (Node node : orphanedNodes) {
-			Node tempNode = doc.importNode(node, true);
-			if (tempNode != null) {
-				root.appendChild(tempNode);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			TransformerHandler handler = createTransformerHandler(out);
+			handler.startDocument();
+			AttributesImpl atts = new AttributesImpl();
+			atts.addAttribute("", "", ATTRIBUTE_VERSION, CDATA, VALUE_VERSION); //$NON-NLS-1$ //$NON-NLS-2$
+			handler.startElement("", "", TaskListJournal.ELEMENT_JOURNAL, atts); //$NON-NLS-1$ //$NON-NLS-2$
+
+			Set<AbstractTaskCategory> categories = taskList.getCategories();
+			Set<RepositoryQuery> queries = taskList.getQueries();
+			for (IRepositoryElement element : elements) {
+				if (element instanceof AbstractTask) {
+					AbstractTask task = (AbstractTask) element;
+					if (taskList.getTask(task.getHandleIdentifier()) == task) {
+						delegatingExternalizer.writeTaskElement(task, handler);
+					} else {
+						writeRemovedElement(TaskListJournal.TYPE_TASK, element, handler);
+					}
+				} else if (element instanceof RepositoryQuery) {
+					if (queries.contains(element)) {
+						delegatingExternalizer.writeQueryElement((RepositoryQuery) element, handler);
+					} else {
+						writeRemovedElement(TaskListJournal.TYPE_QUERY, element, handler);
+					}
+				} else if (element instanceof AbstractTaskCategory) {
+					if (categories.contains(element)) {
+						delegatingExternalizer.writeCategoryElement((AbstractTaskCategory) element, handler);
+					} else {
+						writeRemovedElement(TaskListJournal.TYPE_CATEGORY, element, handler);
+					}
+				}
 			}
+
+			handler.endElement("", "", TaskListJournal.ELEMENT_JOURNAL); //$NON-NLS-1$ //$NON-NLS-2$
+			handler.endDocument();
+		} catch (SAXException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Failed write task list journal", e)); //$NON-NLS-1$
 		}
 
 		if (delegatingExternalizer.getErrorStatus() != null) {
 			StatusHandler.log(delegatingExternalizer.getErrorStatus());
 		}
 
-		return doc;
+		new TaskListJournal(TaskListJournal.getJournalFile(taskListFile)).append(out.toByteArray(),
+				getChecksum(taskListFile));
+	}
+
+	private synchronized void setChecksum(File file, long checksum) {
+		this.checksumFile = file.getAbsoluteFile();
+		this.checksumFileLength = file.length();
+		this.checksumFileModified = file.lastModified();
+		this.checksum = checksum;
+	}
+
+	private synchronized long getChecksum(File file) throws CoreException {
+		if (!file.getAbsoluteFile().equals(checksumFile) || file.length() != checksumFileLength
+				|| file.lastModified() != checksumFileModified) {
+			try {
+				setChecksum(file, TaskListJournal.computeChecksum(file));
+			} catch (IOException e) {
+				throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+						"Failed to read task list file \"" + file.getAbsolutePath() + "\"", e)); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		return checksum;
+	}
+
+	private void writeRemovedElement(String type, IRepositoryElement element, ContentHandler handler)
+			throws SAXException {
+		AttributesImpl atts = new AttributesImpl();
+		atts.addAttribute("", "", TaskListJournal.ATTRIBUTE_TYPE, CDATA, type); //$NON-NLS-1$ //$NON-NLS-2$
+		atts.addAttribute("", "", DelegatingTaskExternalizer.KEY_HANDLE, CDATA, element.getHandleIdentifier()); //$NON-NLS-1$ //$NON-NLS-2$
+		handler.startElement("", "", TaskListJournal.ELEMENT_REMOVED, atts); //$NON-NLS-1$ //$NON-NLS-2$
+		handler.endElement("", "", TaskListJournal.ELEMENT_REMOVED); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Writes an element that was read from a task list, e.g. an orphaned node, including its descendants.
+	 */
+	private void writeNode(Node node, ContentHandler handler) throws SAXException {
+		if (node instanceof Element) {
+			AttributesImpl atts = new AttributesImpl();
+			NamedNodeMap attributes = node.getAttributes();
+			for (int i = 0; i < attributes.getLength(); i++) {
+				Node attribute = attributes.item(i);
+				atts.addAttribute("", "", attribute.getNodeName(), CDATA, attribute.getNodeValue()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			handler.startElement("", "", node.getNodeName(), atts); //$NON-NLS-1$ //$NON-NLS-2$
+			NodeList children = node.getChildNodes();
+			for (int i = 0; i < children.getLength(); i++) {
+				writeNode(children.item(i), handler);
+			}
+			handler.endElement("", "", node.getNodeName()); //$NON-NLS-1$ //$NON-NLS-2$
+		} else if (node.getNodeType() == Node.TEXT_NODE || node.getNodeType() == Node.CDATA_SECTION_NODE) {
+			String text = node.getNodeValue();
+			handler.characters(text.toCharArray(), 0, text.length());
+		}
 	}
 
-	private void writeDocument(Document doc, OutputStream outputStream) throws CoreException {
-		Source source = new DOMSource(doc);
-		Result result = new StreamResult(outputStream);
+	private TransformerHandler createTransformerHandler(OutputStream outputStream) throws CoreException {
 		try {
-			Transformer xformer = TransformerFactory.newInstance().newTransformer();
-			xformer.setOutputProperty(TRANSFORM_PROPERTY_VERSION, XML_VERSION);
-			xformer.transform(source, result);
-		} catch (TransformerException e) {
+			SAXTransformerFactory transformerFactory = (SAXTransformerFactory) TransformerFactory.newInstance();
+			TransformerHandler handler = transformerFactory.newTransformerHandler();
+			handler.getTransformer().setOutputProperty(TRANSFORM_PROPERTY_VERSION, XML_VERSION);
+			handler.setResult(new StreamResult(outputStream));
+			return handler;
+		} catch (TransformerConfigurationException e) {
 			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Failed write task list", //$NON-NLS-1$
 					e));
 		}
@@ -214,71 +501,37 @@ public class TaskListExternalizer {
 					"Failed to create document for orphaned nodes", e)); //$NON-NLS-1$
 		}
 
-		Document doc = openTaskList(inFile);
-		Element root = doc.getDocumentElement();
-		readVersion = root.getAttribute(ATTRIBUTE_VERSION);
-		if (readVersion.equals(VALUE_VERSION_1_0_0)) {
-			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Task list version \"" //$NON-NLS-1$
-					+ readVersion + "\" not supported")); //$NON-NLS-1$
-		}
-
-		NodeList list = root.getChildNodes();
-
-		// read tasks
-		Map<AbstractTask, NodeList> tasksWithSubtasks = new HashMap<AbstractTask, NodeList>();
-		for (int i = 0; i < list.getLength(); i++) {
-			Node child = list.item(i);
-			if (!child.getNodeName().endsWith(DelegatingTaskExternalizer.KEY_CATEGORY)
-					&& !child.getNodeName().endsWith(DelegatingTaskExternalizer.KEY_QUERY)) {
-				AbstractTask task = delegatingExternalizer.readTask(child, null, null);
-				if (task != null) {
-					taskList.addTask(task);
-					if (child.getChildNodes() != null && child.getChildNodes().getLength() > 0) {
-						tasksWithSubtasks.put(task, child.getChildNodes());
-					}
-				} else {
-					addOrphan(child);
-				}
-			}
-		}
-		// create subtask hierarchy
-		for (AbstractTask task : tasksWithSubtasks.keySet()) {
-			NodeList nodes = tasksWithSubtasks.get(task);
-			delegatingExternalizer.readTaskReferences(task, nodes, taskList);
-		}
-
-		// read queries
-		for (int i = 0; i < list.getLength(); i++) {
-			Node child = list.item(i);
-			if (child.getNodeName().endsWith(DelegatingTaskExternalizer.KEY_QUERY)) {
-				RepositoryQuery query = delegatingExternalizer.readQuery(child);
-				if (query != null) {
-					taskList.addQuery(query);
-					if (child.getChildNodes() != null && child.getChildNodes().getLength() > 0) {
-						delegatingExternalizer.readTaskReferences(query, child.getChildNodes(), taskList);
-					}
-				} else {
-					addOrphan(child);
-				}
+		Map<String, Element> journalElements = Collections.emptyMap();
+		TaskListJournal journal = new TaskListJournal(TaskListJournal.getJournalFile(inFile));
+		if (journal.exists()) {
+			try {
+				journalElements = journal.read(getChecksum(inFile));
+			} catch (CoreException e) {
+				StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+						"Failed to apply task list journal \"" + journal.getFile().getAbsolutePath() + "\"", e)); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 		}
 
-		// Read Categories
-		for (int i = 0; i < list.getLength(); i++) {
-			Node child = list.item(i);
-			if (child.getNodeName().endsWith(DelegatingTaskExternalizer.KEY_CATEGORY)) {
-				delegatingExternalizer.readCategory(child, taskList);
+		InputStream in = openTaskList(inFile);
+		try {
+			TaskListReader reader = new TaskListReader(taskList, journalElements);
+			SaxParserPool.getDefault().parse(new InputSource(in), reader);
+			reader.finish();
+		} catch (SAXException e) {
+			if (e.getException() instanceof CoreException) {
+				throw (CoreException) e.getException();
 			}
-		}
-
-		// Legacy migration for task nodes that have the old Category handle on the element
-		Map<AbstractTask, String> legacyParentCategoryMap = delegatingExternalizer.getLegacyParentCategoryMap();
-		if (legacyParentCategoryMap.size() > 0) {
-			for (AbstractTask task : legacyParentCategoryMap.keySet()) {
-				AbstractTaskCategory category = taskList.getContainerForHandle(legacyParentCategoryMap.get(task));
-				if (category != null) {
-					taskList.addTask(task, category);
-				}
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, ERROR_TASKLIST_READ, e));
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, ERROR_TASKLIST_READ, e));
+		} catch (ParserConfigurationException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, ERROR_TASKLIST_READ, e));
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+						"Failed to close task list", e)); //$NON-NLS-1$
 			}
 		}
 
@@ -297,13 +550,10 @@ public class TaskListExternalizer {
 	}
 
 	/**
-	 * Opens the specified XML file and parses it into a DOM Document. Filename - the name of the file to open Return -
-	 * the Document built from the XML file Throws - XMLException if the file cannot be parsed as XML - IOException if
-	 * the file cannot be opened
-	 * 
-	 * @throws CoreException
+	 * Opens the specified task list file and positions the returned stream at the beginning of the task list
+	 * document.
 	 */
-	private Document openTaskList(File inputFile) throws CoreException {
+	private InputStream openTaskList(File inputFile) throws CoreException {
 		InputStream in = null;
 		try {
 			if (inputFile.getName().endsWith(ITasksCoreConstants.FILE_EXTENSION)) {
@@ -316,27 +566,23 @@ public class TaskListExternalizer {
 					entry = ((ZipInputStream) in).getNextEntry();
 				}
 				if (entry == null) {
+					in.close();
 					throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
 							"Task list file contains no entry for the task list")); //$NON-NLS-1$
 				}
+				return in;
 			} else {
-				in = new FileInputStream(inputFile);
+				return new FileInputStream(inputFile);
 			}
-
-			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			DocumentBuilder builder = factory.newDocumentBuilder();
-			return builder.parse(in);
-		} catch (Exception e) {
-			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, ERROR_TASKLIST_READ, e));
-		} finally {
+		} catch (IOException e) {
 			if (in != null) {
 				try {
 					in.close();
-				} catch (IOException e) {
-					StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
-							"Failed to close task list", e)); //$NON-NLS-1$
+				} catch (IOException e1) {
+					// ignore
 				}
 			}
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, ERROR_TASKLIST_READ, e));
 		}
 	}
 
@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.externalization;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Records changes to the task list that were made after the task list file was written. The journal is stored next to
+ * the task list file and consists of a sequence of records, each of which is an XML document that contains the
+ * elements of tasks, categories and queries that were changed and removed in a save. Elements have the same format as
+ * in the task list file.
+ * <p>
+ * When the task list is read, records are combined in the order they were written and applied to the elements of the
+ * task list file. Elements replace the element with the same handle and type and <code>Removed</code> elements delete
+ * the element that they reference. Each record is stored with its length and checksum, an incomplete record at the
+ * end of the journal, e.g. after a crash, is ignored.
+ * <p>
+ * The journal starts with the checksum of the task list file it was recorded against. A journal that does not match
+ * the task list file, e.g. since the task list file was rewritten but the journal could not be deleted, is ignored
+ * when reading and discarded by the next append.
+ */
+public class TaskListJournal {
+
+	static final String ELEMENT_JOURNAL = "TaskListJournal"; //$NON-NLS-1$
+
+	static final String ELEMENT_REMOVED = "Removed"; //$NON-NLS-1$
+
+	static final String ATTRIBUTE_TYPE = "Type"; //$NON-NLS-1$
+
+	static final String TYPE_TASK = "Task"; //$NON-NLS-1$
+
+	static final String TYPE_CATEGORY = DelegatingTaskExternalizer.KEY_CATEGORY;
+
+	static final String TYPE_QUERY = DelegatingTaskExternalizer.KEY_QUERY;
+
+	private static final String FILE_SUFFIX = ".journal"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x544C4A31; // TLJ1
+
+	private static final int FILE_HEADER_LENGTH = 12;
+
+	private static final int HEADER_LENGTH = 12;
+
+	private static final int MAX_RECORD_LENGTH = 256 * 1024 * 1024;
+
+	/**
+	 * Returns the journal that records changes to <code>taskListFile</code>.
+	 */
+	public static File getJournalFile(File taskListFile) {
+		return new File(taskListFile.getParentFile(), taskListFile.getName() + FILE_SUFFIX);
+	}
+
+	/**
+	 * Returns the key of a task list element that identifies the element across records.
+	 */
+	static String getKey(Element element) {
+		return getKey(getType(element), element);
+	}
+
+	private static String getKey(String type, Element element) {
+		return type + ":" + element.getAttribute(DelegatingTaskExternalizer.KEY_HANDLE); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the type of a task list element which is used to distinguish handles of tasks, categories and queries.
+	 */
+	static String getType(Node node) {
+		String name = node.getNodeName();
+		if (name.endsWith(DelegatingTaskExternalizer.KEY_CATEGORY)) {
+			return TYPE_CATEGORY;
+		} else if (name.endsWith(DelegatingTaskExternalizer.KEY_QUERY)) {
+			return TYPE_QUERY;
+		}
+		return TYPE_TASK;
+	}
+
+	/**
+	 * Returns the checksum of the contents of <code>taskListFile</code> that binds a journal to the task list file.
+	 */
+	public static long computeChecksum(File taskListFile) throws IOException {
+		CRC32 checksum = new CRC32();
+		InputStream in = new FileInputStream(taskListFile);
+		try {
+			byte[] buffer = new byte[8192];
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				checksum.update(buffer, 0, count);
+			}
+		} finally {
+			in.close();
+		}
+		return checksum.getValue();
+	}
+
+	private final File file;
+
+	public TaskListJournal(File file) {
+		this.file = file;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public boolean exists() {
+		return file.exists();
+	}
+
+	/**
+	 * Returns the size of the journal in bytes.
+	 */
+	public long length() {
+		return file.length();
+	}
+
+	public boolean delete() {
+		return !file.exists() || file.delete();
+	}
+
+	/**
+	 * Appends a record that consists of the serialized journal document <code>record</code>. If the journal was
+	 * recorded against a different task list file it is discarded before the record is appended.
+	 * 
+	 * @param taskListChecksum
+	 *            the checksum of the task list file that the record applies to
+	 * @see #computeChecksum(File)
+	 */
+	public void append(byte[] record, long taskListChecksum) throws CoreException {
+		CRC32 checksum = new CRC32();
+		checksum.update(record);
+		try {
+			boolean append = file.exists() && matches(taskListChecksum);
+			int offset = (append) ? 0 : FILE_HEADER_LENGTH;
+			// write header and record with a single call to keep the window for partial records small
+			byte[] data = new byte[offset + HEADER_LENGTH + record.length];
+			if (!append) {
+				writeInt(data, 0, MAGIC);
+				writeLong(data, 4, taskListChecksum);
+			}
+			writeInt(data, offset, record.length);
+			writeLong(data, offset + 4, checksum.getValue());
+			System.arraycopy(record, 0, data, offset + HEADER_LENGTH, record.length);
+			FileOutputStream out = new FileOutputStream(file, append);
+			try {
+				out.write(data);
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Failed to write task list journal", e)); //$NON-NLS-1$
+		}
+	}
+
+	private static void writeInt(byte[] b, int offset, int value) {
+		b[offset] = (byte) (value >>> 24);
+		b[offset + 1] = (byte) (value >>> 16);
+		b[offset + 2] = (byte) (value >>> 8);
+		b[offset + 3] = (byte) value;
+	}
+
+	private static void writeLong(byte[] b, int offset, long value) {
+		writeInt(b, offset, (int) (value >>> 32));
+		writeInt(b, offset + 4, (int) value);
+	}
+
+	private static int readInt(byte[] b, int offset) {
+		return ((b[offset] & 0xFF) << 24) | ((b[offset + 1] & 0xFF) << 16) | ((b[offset + 2] & 0xFF) << 8)
+				| (b[offset + 3] & 0xFF);
+	}
+
+	private static long readLong(byte[] b, int offset) {
+		return ((long) readInt(b, offset) << 32) | (readInt(b, offset + 4) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns true, if the journal was recorded against the task list file with <code>taskListChecksum</code>.
+	 */
+	private boolean matches(long taskListChecksum) throws IOException {
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			return matches(in, taskListChecksum);
+		} finally {
+			in.close();
+		}
+	}
+
+	private boolean matches(DataInputStream in, long taskListChecksum) throws IOException {
+		byte[] header = new byte[FILE_HEADER_LENGTH];
+		try {
+			in.readFully(header);
+		} catch (EOFException e) {
+			return false;
+		}
+		return readInt(header, 0) == MAGIC && readLong(header, 4) == taskListChecksum;
+	}
+
+	/**
+	 * Reads all records of the journal. If the journal ends with an incomplete record it is truncated to the last
+	 * complete record to allow appending further records. A journal that was recorded against a different task list
+	 * file is ignored.
+	 * 
+	 * @param taskListChecksum
+	 *            the checksum of the task list file that the journal is applied to
+	 * @return the latest element for each key in the order the keys were first recorded; removed elements are mapped
+	 *         to null
+	 * @see #getKey(Element)
+	 * @see #computeChecksum(File)
+	 */
+	public Map<String, Element> read(long taskListChecksum) throws CoreException {
+		Map<String, Element> elementByKey = new LinkedHashMap<String, Element>();
+		try {
+			DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+			long validLength = FILE_HEADER_LENGTH;
+			boolean incomplete = false;
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (!matches(in, taskListChecksum)) {
+					StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+							"Ignored task list journal that does not match the task list file \"" //$NON-NLS-1$
+									+ file.getAbsolutePath() + "\"")); //$NON-NLS-1$
+					return elementByKey;
+				}
+				byte[] record;
+				while ((record = readRecord(in)) != null) {
+					Element root = builder.parse(new ByteArrayInputStream(record)).getDocumentElement();
+					read(root, elementByKey);
+					validLength += HEADER_LENGTH + record.length;
+				}
+				incomplete = validLength < file.length();
+			} finally {
+				in.close();
+			}
+			if (incomplete) {
+				StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+						"Ignored incomplete record in task list journal \"" + file.getAbsolutePath() + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
+				RandomAccessFile out = new RandomAccessFile(file, "rw"); //$NON-NLS-1$
+				try {
+					out.setLength(validLength);
+				} finally {
+					out.close();
+				}
+			}
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Failed to read task list journal", e)); //$NON-NLS-1$
+		} catch (SAXException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Failed to read task list journal", e)); //$NON-NLS-1$
+		} catch (ParserConfigurationException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Failed to read task list journal", e)); //$NON-NLS-1$
+		}
+		return elementByKey;
+	}
+
+	private void read(Element record, Map<String, Element> elementByKey) {
+		NodeList children = record.getChildNodes();
+		for (int i = 0; i < children.getLength(); i++) {
+			Node child = children.item(i);
+			if (!(child instanceof Element)) {
+				continue;
+			}
+			Element element = (Element) child;
+			if (ELEMENT_REMOVED.equals(element.getNodeName())) {
+				elementByKey.put(getKey(element.getAttribute(ATTRIBUTE_TYPE), element), null);
+			} else {
+				elementByKey.put(getKey(element), element);
+			}
+		}
+	}
+
+	/**
+	 * Returns the next record or null, if the end of the journal or an incomplete record was reached.
+	 */
+	private byte[] readRecord(DataInputStream in) throws IOException {
+		byte[] header = new byte[HEADER_LENGTH];
+		try {
+			in.readFully(header);
+		} catch (EOFException e) {
+			return null;
+		}
+		int length = readInt(header, 0);
+		long expectedChecksum = readLong(header, 4);
+		if (length < 0 || length > MAX_RECORD_LENGTH) {
+			return null;
+		}
+		byte[] record = new byte[length];
+		try {
+			in.readFully(record);
+		} catch (EOFException e) {
+			return null;
+		}
+		CRC32 checksum = new CRC32();
+		checksum.update(record);
+		return (checksum.getValue() == expectedChecksum) ? record : null;
+	}
+
+}
@@ -28,12 +28,14 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.commons.net.Policy;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.ITaskListRunnable;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants.ObjectSchedulingRule;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
@@ -44,6 +46,7 @@ import org.eclipse.mylyn.tasks.core.IRepositoryModel;
 import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.ITask.SynchronizationState;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.StreamingTaskDataCollector;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
 import org.eclipse.mylyn.tasks.core.data.TaskRelation;
@@ -58,49 +61,66 @@ import org.eclipse.osgi.util.NLS;
  */
 public class SynchronizeQueriesJob extends SynchronizationJob {
 
-	private class TaskCollector extends TaskDataCollector {
+	/**
+	 * Processes query results on a separate thread so that parsing of large results is not stalled by updates of the
+	 * task list and writes of task data.
+	 */
+	private class TaskCollector extends StreamingTaskDataCollector {
 
-		private final Set<ITask> removedQueryResults;
+		private final Set<ITask> queryResults;
 
 		private final RepositoryQuery repositoryQuery;
 
-		private int resultCount;
-
 		private final SynchronizationSession session;
 
 		public TaskCollector(RepositoryQuery repositoryQuery, SynchronizationSession session) {
 			this.repositoryQuery = repositoryQuery;
 			this.session = session;
-			this.removedQueryResults = new HashSet<ITask>(repositoryQuery.getChildren());
+			this.queryResults = new HashSet<ITask>();
 		}
 
 		@Override
-		public void accept(TaskData taskData) {
-			ITask task = taskList.getTask(taskData.getRepositoryUrl(), taskData.getTaskId());
-			if (task == null) {
-				task = tasksModel.createTask(repository, taskData.getTaskId());
-				((AbstractTask) task).setSynchronizationState(SynchronizationState.INCOMING_NEW);
-				if (taskData.isPartial() && connector.canSynchronizeTask(repository, task)) {
-					session.markStale(task);
+		protected void process(final List<TaskData> batch) throws CoreException {
+			final ITask[] tasks = new ITask[batch.size()];
+			taskList.run(new ITaskListRunnable() {
+				public void execute(IProgressMonitor monitor) throws CoreException {
+					for (int i = 0; i < tasks.length; i++) {
+						TaskData taskData = batch.get(i);
+						ITask task = taskList.getTask(taskData.getRepositoryUrl(), taskData.getTaskId());
+						if (task == null) {
+							task = tasksModel.createTask(repository, taskData.getTaskId());
+							((AbstractTask) task).setSynchronizationState(SynchronizationState.INCOMING_NEW);
+							if (taskData.isPartial() && connector.canSynchronizeTask(repository, task)) {
+								session.markStale(task);
+							}
+						}
+						queryResults.add(task);
+						taskList.addTask(task, repositoryQuery);
+						tasks[i] = task;
+					}
+				}
+			});
+			for (int i = 0; i < tasks.length; i++) {
+				try {
+					session.putTaskData(tasks[i], batch.get(i));
+				} catch (CoreException e) {
+					StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Failed to save task", e)); //$NON-NLS-1$
 				}
-			} else {
-				removedQueryResults.remove(task);
-			}
-			taskList.addTask(task, repositoryQuery);
-			try {
-				session.putTaskData(task, taskData);
-			} catch (CoreException e) {
-				StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Failed to save task", e)); //$NON-NLS-1$
 			}
-			resultCount++;
 		}
 
 		public Set<ITask> getRemovedChildren() {
-			return removedQueryResults;
+			Set<ITask> removedChildren = new HashSet<ITask>();
+			for (ITask task : repositoryQuery.getChildren()) {
+				if (!queryResults.contains(task)) {
+					removedChildren.add(task);
+				}
+			}
+			return removedChildren;
 		}
 
 		public int getResultCount() {
-			return resultCount;
+			return getAcceptedCount();
 		}
 
 		@Override
@@ -118,6 +138,8 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 
 	}
 
+	private static final boolean TRACE_ENABLED = Boolean.valueOf(Platform.getDebugOption("org.eclipse.mylyn.tasks.core/debug/synchronization")); //$NON-NLS-1$
+
 	public static final String MAX_HITS_REACHED = Messages.SynchronizeQueriesJob_Max_allowed_number_of_hits_returned_exceeded;
 
 	private final AbstractRepositoryConnector connector;
@@ -161,7 +183,7 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 						allTasks.addAll(query.getChildren());
 					}
 				} else {
-					allTasks = taskList.getTasks(repository.getRepositoryUrl());
+					allTasks = new HashSet<ITask>(taskList.getTasks(repository.getRepositoryUrl()));
 				}
 
 				ObjectSchedulingRule rule = new ObjectSchedulingRule(repository);
@@ -308,8 +330,40 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 		if (!isUser()) {
 			monitor = Policy.backgroundMonitorFor(monitor);
 		}
-		IStatus result = connector.performQuery(repository, repositoryQuery, collector, event, monitor);
-		if (result == null || result.isOK()) {
+		IStatus result = null;
+		IStatus processingStatus = null;
+		boolean completed = false;
+		try {
+			result = connector.performQuery(repository, repositoryQuery, collector, event, monitor);
+			completed = result == null || result.getSeverity() != IStatus.CANCEL;
+		} finally {
+			if (!completed) {
+				collector.abort();
+			}
+			try {
+				// wait for pending results to be processed
+				collector.done();
+			} catch (CoreException e) {
+				processingStatus = new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, NLS.bind(
+						"Failed to process results of query ''{0}''", repositoryQuery.getSummary()), e); //$NON-NLS-1$
+			}
+		}
+		if (TRACE_ENABLED) {
+			System.err.println("[" + new Date() + "] Processed " + collector.getProcessedCount() //$NON-NLS-1$ //$NON-NLS-2$
+					+ " results of query '" + repositoryQuery.getSummary() + "' in " + collector.getElapsedTime() //$NON-NLS-1$ //$NON-NLS-2$
+					+ " ms (" + (int) collector.getThroughput() + " tasks/s, " + collector.getBatchCount() //$NON-NLS-1$ //$NON-NLS-2$
+					+ " batches, blocked " + collector.getWaitTime() + " ms)"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (result != null && result.getSeverity() == IStatus.CANCEL) {
+			throw new OperationCanceledException();
+		} else if (processingStatus != null) {
+			// results were only partially processed, keep the existing query hits
+			repositoryQuery.setStatus(processingStatus);
+			statuses.add(processingStatus);
+		} else if (collector.isAborted()) {
+			// processing was canceled on the consumer thread
+			throw new OperationCanceledException();
+		} else if (result == null || result.isOK()) {
 			if (collector.getResultCount() >= TaskDataCollector.MAX_HITS) {
 				StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN, MAX_HITS_REACHED + "\n" //$NON-NLS-1$
 						+ repositoryQuery.getSummary()));
@@ -321,8 +375,6 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 			}
 
 			repositoryQuery.setLastSynchronizedStamp(new SimpleDateFormat("MMM d, H:mm:ss").format(new Date())); //$NON-NLS-1$
-		} else if (result.getSeverity() == IStatus.CANCEL) {
-			throw new OperationCanceledException();
 		} else {
 			repositoryQuery.setStatus(result);
 			statuses.add(result);
@@ -20,17 +20,26 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.commons.net.Policy;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTaskContainer;
+import org.eclipse.mylyn.internal.tasks.core.IRepositoryConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants.MutexSchedulingRule;
 import org.eclipse.mylyn.internal.tasks.core.TaskList;
@@ -58,6 +67,90 @@ import org.eclipse.osgi.util.NLS;
  */
 public class SynchronizeTasksJob extends SynchronizationJob {
 
+	/**
+	 * Forwards progress from a worker thread while holding a lock that is shared by all workers.
+	 */
+	private static class SynchronizedProgressMonitor extends ProgressMonitorWrapper {
+
+		private final Object lock;
+
+		public SynchronizedProgressMonitor(IProgressMonitor monitor, Object lock) {
+			super(monitor);
+			this.lock = lock;
+		}
+
+		@Override
+		public void beginTask(String name, int totalWork) {
+			synchronized (lock) {
+				super.beginTask(name, totalWork);
+			}
+		}
+
+		@Override
+		public void done() {
+			synchronized (lock) {
+				super.done();
+			}
+		}
+
+		@Override
+		public void internalWorked(double work) {
+			synchronized (lock) {
+				super.internalWorked(work);
+			}
+		}
+
+		@Override
+		public void setTaskName(String name) {
+			synchronized (lock) {
+				super.setTaskName(name);
+			}
+		}
+
+		@Override
+		public void subTask(String name) {
+			synchronized (lock) {
+				super.subTask(name);
+			}
+		}
+
+		@Override
+		public void worked(int work) {
+			synchronized (lock) {
+				super.worked(work);
+			}
+		}
+
+	}
+
+	private static class SynchronizationThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		private final String name;
+
+		public SynchronizationThreadFactory(TaskRepository repository) {
+			this.name = "Synchronizing Tasks (" + repository.getRepositoryUrl() + ") "; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, name + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+	/**
+	 * Upper bound for {@link IRepositoryConstants#PROPERTY_SYNC_CONCURRENCY}.
+	 */
+	public static final int MAX_CONCURRENCY = 8;
+
+	/**
+	 * Tasks are not split into slices that are smaller than this to avoid sending requests for few tasks.
+	 */
+	private static final int MIN_TASKS_PER_SLICE = 50;
+
 	private final AbstractRepositoryConnector connector;
 
 	private final TaskDataManager taskDataManager;
@@ -283,26 +376,128 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 			idToTask.put(task.getTaskId(), task);
 		}
 
+		// serializes access to the collector and the job state when slices are retrieved concurrently
+		final Object lock = new Object();
 		TaskDataCollector collector = new TaskDataCollector() {
 			@Override
 			public void accept(TaskData taskData) {
-				ITask task = idToTask.remove(taskData.getTaskId());
-				if (task != null) {
-					updateFromTaskData(repository, task, taskData, monitor);
+				synchronized (lock) {
+					ITask task = idToTask.remove(taskData.getTaskId());
+					if (task != null) {
+						updateFromTaskData(repository, task, taskData, monitor);
+					}
 				}
 			}
 
 			@Override
 			public void failed(String taskId, IStatus status) {
-				ITask task = idToTask.get(taskId);
-				if (task != null) {
-					updateStatus(taskRepository, task, status);
+				synchronized (lock) {
+					ITask task = idToTask.get(taskId);
+					if (task != null) {
+						updateStatus(taskRepository, task, status);
+					}
 				}
 			}
 		};
 
 		Set<String> taskIds = Collections.unmodifiableSet(new HashSet<String>(idToTask.keySet()));
-		connector.getTaskDataHandler().getMultiTaskData(repository, taskIds, collector, monitor);
+		int sliceCount = Math.min(getConcurrency(repository), (taskIds.size() + MIN_TASKS_PER_SLICE - 1)
+				/ MIN_TASKS_PER_SLICE);
+		if (sliceCount > 1) {
+			getMultiTaskData(repository, taskIds, sliceCount, collector, monitor, lock);
+		} else {
+			connector.getTaskDataHandler().getMultiTaskData(repository, taskIds, collector, monitor);
+		}
+	}
+
+	/**
+	 * Splits <code>taskIds</code> into <code>sliceCount</code> slices that are retrieved and parsed concurrently. Task
+	 * data is passed to <code>collector</code> as it arrives. If retrieving a slice fails all tasks of that slice that
+	 * were not received are marked as failed.
+	 */
+	private void getMultiTaskData(final TaskRepository repository, Set<String> taskIds, int sliceCount,
+			final TaskDataCollector collector, IProgressMonitor monitor, Object lock) throws CoreException {
+		final List<Set<String>> slices = new ArrayList<Set<String>>(sliceCount);
+		for (int i = 0; i < sliceCount; i++) {
+			slices.add(new HashSet<String>());
+		}
+		int i = 0;
+		for (String taskId : taskIds) {
+			slices.get(i++ % sliceCount).add(taskId);
+		}
+
+		// slice monitors only report progress if the parent monitor was started
+		monitor.beginTask(Messages.SynchronizeTasksJob_Processing, taskIds.size() * 100);
+		ExecutorService executor = Executors.newFixedThreadPool(sliceCount, new SynchronizationThreadFactory(
+				repository));
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>(sliceCount);
+			for (final Set<String> slice : slices) {
+				final IProgressMonitor sliceMonitor = new SynchronizedProgressMonitor(new SubProgressMonitor(monitor,
+						slice.size() * 100), lock);
+				futures.add(executor.submit(new Callable<Object>() {
+					public Object call() throws Exception {
+						try {
+							connector.getTaskDataHandler().getMultiTaskData(repository,
+									Collections.unmodifiableSet(slice), collector, sliceMonitor);
+						} finally {
+							sliceMonitor.done();
+						}
+						return null;
+					}
+				}));
+			}
+
+			OperationCanceledException canceled = null;
+			for (int j = 0; j < futures.size(); j++) {
+				try {
+					futures.get(j).get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof OperationCanceledException) {
+						canceled = (OperationCanceledException) cause;
+					} else {
+						IStatus status = (cause instanceof CoreException)
+								? ((CoreException) cause).getStatus()
+								: new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Synchronization failed", //$NON-NLS-1$
+										cause);
+						for (String taskId : slices.get(j)) {
+							collector.failed(taskId, status);
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+			}
+			if (canceled != null) {
+				throw canceled;
+			}
+		} finally {
+			executor.shutdownNow();
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of concurrent requests for synchronizing tasks of <code>repository</code>.
+	 * 
+	 * @see IRepositoryConstants#PROPERTY_SYNC_CONCURRENCY
+	 */
+	public static int getConcurrency(TaskRepository repository) {
+		String value = repository.getProperty(IRepositoryConstants.PROPERTY_SYNC_CONCURRENCY);
+		if (value != null) {
+			try {
+				return Math.max(1, Math.min(MAX_CONCURRENCY, Integer.parseInt(value)));
+			} catch (NumberFormatException e) {
+				// use default
+			}
+		}
+		return 1;
+	}
+
+	public static void setConcurrency(TaskRepository repository, int concurrency) {
+		repository.setProperty(IRepositoryConstants.PROPERTY_SYNC_CONCURRENCY, Integer.toString(concurrency));
 	}
 
 	private void updateFromTaskData(TaskRepository taskRepository, ITask task, TaskData taskData,
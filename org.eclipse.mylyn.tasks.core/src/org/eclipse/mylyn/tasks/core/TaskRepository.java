@@ -17,13 +17,16 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -151,7 +154,10 @@ public final class TaskRepository extends PlatformObject {
 	// Platform.add/get/flushAuthorizationInfo()
 	private static final Object LOCK = new Object();
 
-	private final Set<PropertyChangeListener> propertyChangeListeners = new HashSet<PropertyChangeListener>();
+	// incremented whenever credentials are stored or flushed, credentials are shared by repositories with the same url
+	private static final AtomicInteger credentialsGeneration = new AtomicInteger();
+
+	private final Set<PropertyChangeListener> propertyChangeListeners = new CopyOnWriteArraySet<PropertyChangeListener>();
 
 	// HACK: private credentials for headless operation
 	private static Map<String, Map<String, String>> credentials = new HashMap<String, Map<String, String>>();
@@ -182,11 +188,39 @@ public final class TaskRepository extends PlatformObject {
 		throw new IllegalArgumentException("Unknown authentication type: " + type); //$NON-NLS-1$
 	}
 
-	private boolean isCachedUserName;
+	private volatile boolean isCachedUserName;
+
+	private volatile String cachedUserName;
+
+	/**
+	 * An immutable snapshot of the properties that is replaced on every change while holding {@link #propertiesLock}.
+	 * This allows reading properties without synchronization.
+	 */
+	private volatile Map<String, String> properties = Collections.emptyMap();
+
+	private final Object propertiesLock = new Object();
+
+	/**
+	 * Caches the result of {@link #getCredentials(AuthenticationType)} for each authentication type.
+	 */
+	private final Map<AuthenticationType, CachedCredentials> cachedCredentials = new ConcurrentHashMap<AuthenticationType, CachedCredentials>();
+
+	private static class CachedCredentials {
 
-	private String cachedUserName;
+		private final Map<String, String> properties;
 
-	private final Map<String, String> properties = new LinkedHashMap<String, String>();
+		private final int generation;
+
+		private final AuthenticationCredentials credentials;
+
+		public CachedCredentials(Map<String, String> properties, int generation,
+				AuthenticationCredentials credentials) {
+			this.properties = properties;
+			this.generation = generation;
+			this.credentials = credentials;
+		}
+
+	}
 
 	/**
 	 * Stores properties that are not persisted. Note that this map is currently cleared when flushCredentials() is
@@ -212,7 +246,11 @@ public final class TaskRepository extends PlatformObject {
 	public TaskRepository(String kind, String serverUrl, Map<String, String> properties) {
 		setProperty(IRepositoryConstants.PROPERTY_CONNECTOR_KIND, kind);
 		setProperty(IRepositoryConstants.PROPERTY_URL, serverUrl);
-		this.properties.putAll(properties);
+		synchronized (propertiesLock) {
+			Map<String, String> newProperties = new LinkedHashMap<String, String>(this.properties);
+			newProperties.putAll(properties);
+			this.properties = Collections.unmodifiableMap(newProperties);
+		}
 		// use platform proxy by default (headless will need to set this to false)
 		this.setProperty(TaskRepository.PROXY_USEDEFAULT, new Boolean(true).toString());
 	}
@@ -252,6 +290,14 @@ public final class TaskRepository extends PlatformObject {
 	}
 
 	private void addAuthInfo(String username, String password, String userProperty, String passwordProperty) {
+		try {
+			storeAuthInfo(username, password, userProperty, passwordProperty);
+		} finally {
+			credentialsGeneration.incrementAndGet();
+		}
+	}
+
+	private void storeAuthInfo(String username, String password, String userProperty, String passwordProperty) {
 		if (Platform.isRunning()) {
 			if (useSecureStorage()) {
 				try {
@@ -354,6 +400,14 @@ public final class TaskRepository extends PlatformObject {
 			isCachedUserName = false;
 		}
 
+		try {
+			flushAuthInfo();
+		} finally {
+			credentialsGeneration.incrementAndGet();
+		}
+	}
+
+	private void flushAuthInfo() {
 		synchronized (LOCK) {
 			if (Platform.isRunning()) {
 				if (useSecureStorage()) {
@@ -450,7 +504,7 @@ public final class TaskRepository extends PlatformObject {
 	}
 
 	public String getCharacterEncoding() {
-		final String encoding = properties.get(IRepositoryConstants.PROPERTY_ENCODING);
+		final String encoding = getProperty(IRepositoryConstants.PROPERTY_ENCODING);
 		return encoding == null || "".equals(encoding) ? DEFAULT_CHARACTER_ENCODING : encoding; //$NON-NLS-1$
 	}
 
@@ -475,7 +529,7 @@ public final class TaskRepository extends PlatformObject {
 	 * @return "<unknown>" if kind is unknown
 	 */
 	public String getConnectorKind() {
-		String kind = properties.get(IRepositoryConstants.PROPERTY_CONNECTOR_KIND);
+		String kind = getProperty(IRepositoryConstants.PROPERTY_CONNECTOR_KIND);
 		if (kind != null) {
 			return kind;
 		} else {
@@ -491,7 +545,24 @@ public final class TaskRepository extends PlatformObject {
 	 * @return null, if no credentials are set for <code>authType</code>
 	 * @since 3.0
 	 */
-	public synchronized AuthenticationCredentials getCredentials(AuthenticationType authType) {
+	public AuthenticationCredentials getCredentials(AuthenticationType authType) {
+		CachedCredentials cached = cachedCredentials.get(authType);
+		if (cached != null && cached.properties == properties && cached.generation == credentialsGeneration.get()) {
+			return cached.credentials;
+		}
+		return retrieveCredentials(authType);
+	}
+
+	private synchronized AuthenticationCredentials retrieveCredentials(AuthenticationType authType) {
+		// capture the state before credentials are retrieved, a concurrent change invalidates the cached result
+		Map<String, String> properties = this.properties;
+		int generation = credentialsGeneration.get();
+		AuthenticationCredentials credentials = readCredentials(authType);
+		cachedCredentials.put(authType, new CachedCredentials(properties, generation, credentials));
+		return credentials;
+	}
+
+	private AuthenticationCredentials readCredentials(AuthenticationType authType) {
 		String key = getKeyPrefix(authType);
 
 		String enabled = getProperty(key + ENABLED);
@@ -556,6 +627,10 @@ public final class TaskRepository extends PlatformObject {
 		return (credentials != null) ? credentials.getPassword() : null;
 	}
 
+	/**
+	 * Returns a modifiable copy of the properties. Use {@link #getProperty(String)} to read individual properties
+	 * without copying.
+	 */
 	public Map<String, String> getProperties() {
 		return new LinkedHashMap<String, String>(this.properties);
 	}
@@ -584,7 +659,7 @@ public final class TaskRepository extends PlatformObject {
 	 * @return the URL if the label property is not set
 	 */
 	public String getRepositoryLabel() {
-		String label = properties.get(IRepositoryConstants.PROPERTY_LABEL);
+		String label = getProperty(IRepositoryConstants.PROPERTY_LABEL);
 		if (label != null && label.length() > 0) {
 			return label;
 		} else {
@@ -601,11 +676,11 @@ public final class TaskRepository extends PlatformObject {
 	}
 
 	public String getSynchronizationTimeStamp() {
-		return this.properties.get(IRepositoryConstants.PROPERTY_SYNCTIMESTAMP);
+		return getProperty(IRepositoryConstants.PROPERTY_SYNCTIMESTAMP);
 	}
 
 	public String getTimeZoneId() {
-		final String timeZoneId = properties.get(IRepositoryConstants.PROPERTY_TIMEZONE);
+		final String timeZoneId = getProperty(IRepositoryConstants.PROPERTY_TIMEZONE);
 		return timeZoneId == null || "".equals(timeZoneId) ? TimeZone.getDefault().getID() : timeZoneId; //$NON-NLS-1$
 	}
 
@@ -617,7 +692,7 @@ public final class TaskRepository extends PlatformObject {
 	 * @since 3.0
 	 */
 	public String getRepositoryUrl() {
-		return properties.get(IRepositoryConstants.PROPERTY_URL);
+		return getProperty(IRepositoryConstants.PROPERTY_URL);
 	}
 
 	/**
@@ -646,7 +721,7 @@ public final class TaskRepository extends PlatformObject {
 	}
 
 	public String getVersion() {
-		final String version = properties.get(IRepositoryConstants.PROPERTY_VERSION);
+		final String version = getProperty(IRepositoryConstants.PROPERTY_VERSION);
 		return version == null || "".equals(version) ? NO_VERSION_SPECIFIED : version; //$NON-NLS-1$
 	}
 
@@ -694,7 +769,13 @@ public final class TaskRepository extends PlatformObject {
 	}
 
 	public void removeProperty(String key) {
-		this.properties.remove(key);
+		synchronized (propertiesLock) {
+			if (properties.containsKey(key)) {
+				Map<String, String> newProperties = new LinkedHashMap<String, String>(properties);
+				newProperties.remove(key);
+				properties = Collections.unmodifiableMap(newProperties);
+			}
+		}
 	}
 
 	/**
@@ -710,7 +791,7 @@ public final class TaskRepository extends PlatformObject {
 	}
 
 	public void setCharacterEncoding(String characterEncoding) {
-		properties.put(IRepositoryConstants.PROPERTY_ENCODING, characterEncoding == null
+		putProperty(IRepositoryConstants.PROPERTY_ENCODING, characterEncoding == null
 				? DEFAULT_CHARACTER_ENCODING
 				: characterEncoding);
 	}
@@ -792,7 +873,7 @@ public final class TaskRepository extends PlatformObject {
 	}
 
 	public void setOffline(boolean offline) {
-		properties.put(OFFLINE, String.valueOf(offline));
+		putProperty(OFFLINE, String.valueOf(offline));
 	}
 
 	/**
@@ -817,10 +898,25 @@ public final class TaskRepository extends PlatformObject {
 
 	public void setProperty(String key, String newValue) {
 		Assert.isLegal(!key.matches(".*\\s.*")); //$NON-NLS-1$
-		String oldValue = this.properties.get(key);
-		if ((oldValue != null && !oldValue.equals(newValue)) || (oldValue == null && newValue != null)) {
-			this.properties.put(key.intern(), (newValue != null) ? newValue.intern() : null);
-			notifyChangeListeners(key, oldValue, newValue);
+		String oldValue;
+		synchronized (propertiesLock) {
+			oldValue = this.properties.get(key);
+			if ((oldValue != null && oldValue.equals(newValue)) || (oldValue == null && newValue == null)) {
+				return;
+			}
+			putProperty(key.intern(), (newValue != null) ? newValue.intern() : null);
+		}
+		notifyChangeListeners(key, oldValue, newValue);
+	}
+
+	/**
+	 * Replaces the properties by a copy that maps <code>key</code> to <code>value</code>. Does not notify listeners.
+	 */
+	private void putProperty(String key, String value) {
+		synchronized (propertiesLock) {
+			Map<String, String> newProperties = new LinkedHashMap<String, String>(properties);
+			newProperties.put(key, value);
+			properties = Collections.unmodifiableMap(newProperties);
 		}
 	}
 
@@ -850,11 +946,11 @@ public final class TaskRepository extends PlatformObject {
 	 */
 	public void setRepositoryUrl(String repositoryUrl) {
 		Assert.isNotNull(repositoryUrl);
-		properties.put(IRepositoryConstants.PROPERTY_URL, repositoryUrl.intern());
+		putProperty(IRepositoryConstants.PROPERTY_URL, repositoryUrl.intern());
 	}
 
 	public void setVersion(String ver) {
-		properties.put(IRepositoryConstants.PROPERTY_VERSION, ver == null ? NO_VERSION_SPECIFIED : ver);
+		putProperty(IRepositoryConstants.PROPERTY_VERSION, ver == null ? NO_VERSION_SPECIFIED : ver);
 	}
 
 	@Override
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.core.data;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An insertion ordered map with string keys that is optimized for the few entries that task attributes typically
+ * hold. Up to {@link #MAX_ARRAY_SIZE} entries are stored in a single array of alternating keys and values and looked up
+ * by a linear scan that compares identity first since keys are usually interned. Larger maps are backed by a
+ * {@link LinkedHashMap}.
+ * <p>
+ * Not thread safe, <code>null</code> keys are not supported.
+ */
+class CompactMap<V> extends AbstractMap<String, V> {
+
+	static final int MAX_ARRAY_SIZE = 8;
+
+	private static final Object[] EMPTY = new Object[0];
+
+	/**
+	 * Alternating keys and values, used while {@link #delegate} is <code>null</code>.
+	 */
+	private Object[] table;
+
+	private int size;
+
+	private LinkedHashMap<String, V> delegate;
+
+	private int modCount;
+
+	public CompactMap() {
+		this.table = EMPTY;
+	}
+
+	public CompactMap(Map<String, ? extends V> map) {
+		if (map.size() > MAX_ARRAY_SIZE) {
+			this.delegate = new LinkedHashMap<String, V>(map);
+		} else {
+			this.table = new Object[map.size() * 2];
+			for (Map.Entry<String, ? extends V> entry : map.entrySet()) {
+				table[size * 2] = entry.getKey();
+				table[size * 2 + 1] = entry.getValue();
+				size++;
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return (delegate != null) ? delegate.size() : size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return (delegate != null) ? delegate.containsKey(key) : indexOf(key) != -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		if (delegate != null) {
+			return delegate.get(key);
+		}
+		int index = indexOf(key);
+		return (index != -1) ? (V) table[index + 1] : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V put(String key, V value) {
+		if (key == null) {
+			throw new NullPointerException();
+		}
+		if (delegate != null) {
+			return delegate.put(key, value);
+		}
+		int index = indexOf(key);
+		if (index != -1) {
+			V oldValue = (V) table[index + 1];
+			table[index + 1] = value;
+			return oldValue;
+		}
+		if (size == MAX_ARRAY_SIZE) {
+			delegate = new LinkedHashMap<String, V>(MAX_ARRAY_SIZE * 4);
+			for (int i = 0; i < size * 2; i += 2) {
+				delegate.put((String) table[i], (V) table[i + 1]);
+			}
+			delegate.put(key, value);
+			table = null;
+			size = 0;
+		} else {
+			if (size * 2 == table.length) {
+				Object[] newTable = new Object[Math.min(Math.max(size * 2, 1), MAX_ARRAY_SIZE) * 2];
+				System.arraycopy(table, 0, newTable, 0, size * 2);
+				table = newTable;
+			}
+			table[size * 2] = key;
+			table[size * 2 + 1] = value;
+			size++;
+		}
+		modCount++;
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+		if (delegate != null) {
+			return delegate.remove(key);
+		}
+		int index = indexOf(key);
+		if (index == -1) {
+			return null;
+		}
+		V oldValue = (V) table[index + 1];
+		removeAt(index);
+		return oldValue;
+	}
+
+	@Override
+	public void clear() {
+		delegate = null;
+		table = EMPTY;
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public Set<Map.Entry<String, V>> entrySet() {
+		if (delegate != null) {
+			return delegate.entrySet();
+		}
+		return new AbstractSet<Map.Entry<String, V>>() {
+			@Override
+			public Iterator<Map.Entry<String, V>> iterator() {
+				return new ArrayIterator();
+			}
+
+			@Override
+			public int size() {
+				return CompactMap.this.size();
+			}
+		};
+	}
+
+	private int indexOf(Object key) {
+		for (int i = 0; i < size * 2; i += 2) {
+			if (table[i] == key) {
+				return i;
+			}
+		}
+		if (key != null) {
+			for (int i = 0; i < size * 2; i += 2) {
+				if (key.equals(table[i])) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private void removeAt(int index) {
+		int end = size * 2;
+		System.arraycopy(table, index + 2, table, index, end - index - 2);
+		table[end - 2] = null;
+		table[end - 1] = null;
+		size--;
+		modCount++;
+	}
+
+	private class ArrayIterator implements Iterator<Map.Entry<String, V>> {
+
+		private int next;
+
+		private int last = -1;
+
+		private int expectedModCount = modCount;
+
+		public boolean hasNext() {
+			return next < size * 2;
+		}
+
+		public Map.Entry<String, V> next() {
+			if (expectedModCount != modCount || delegate != null) {
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			last = next;
+			next += 2;
+			return new ArrayEntry(last);
+		}
+
+		public void remove() {
+			if (last == -1) {
+				throw new IllegalStateException();
+			}
+			if (expectedModCount != modCount || delegate != null) {
+				throw new ConcurrentModificationException();
+			}
+			removeAt(last);
+			next = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+
+	}
+
+	private class ArrayEntry implements Map.Entry<String, V> {
+
+		private final int index;
+
+		public ArrayEntry(int index) {
+			this.index = index;
+		}
+
+		public String getKey() {
+			return (String) table[index];
+		}
+
+		@SuppressWarnings("unchecked")
+		public V getValue() {
+			return (V) table[index + 1];
+		}
+
+		public V setValue(V value) {
+			V oldValue = getValue();
+			table[index + 1] = value;
+			return oldValue;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Map.Entry<?, ?>)) {
+				return false;
+			}
+			Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+			return getKey().equals(other.getKey())
+					&& (getValue() == null ? other.getValue() == null : getValue().equals(other.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return getKey().hashCode() ^ (getValue() == null ? 0 : getValue().hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue(); //$NON-NLS-1$
+		}
+
+	}
+
+}
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.core.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+
+/**
+ * A collector that decouples the thread that produces task data, typically a connector parsing a query result, from
+ * processing of the results. Accepted task data is handed to a consumer thread through a bounded queue and passed to
+ * {@link #process(List)} in batches. If processing falls behind the producer blocks in {@link #accept(TaskData)} until
+ * space becomes available.
+ * <p>
+ * Clients must invoke {@link #done()} after the last task data has been accepted to wait for pending results to be
+ * processed. Connectors pass task data to {@link #accept(TaskData)} as for any other collector and do not need to be
+ * aware of the streaming. {@link #accept(TaskData)} may be invoked concurrently from several producer threads.
+ *
+ * @since 3.9
+ */
+public abstract class StreamingTaskDataCollector extends TaskDataCollector {
+
+	/**
+	 * @since 3.9
+	 */
+	public static final int DEFAULT_CAPACITY = 500;
+
+	/**
+	 * @since 3.9
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 100;
+
+	private static final Object END_OF_STREAM = new Object();
+
+	private final BlockingQueue<Object> queue;
+
+	private final int batchSize;
+
+	private Thread consumer;
+
+	private volatile CoreException failure;
+
+	private volatile boolean aborted;
+
+	private final AtomicInteger acceptedCount = new AtomicInteger();
+
+	// only modified by the consumer thread
+	private volatile int processedCount;
+
+	private volatile int batchCount;
+
+	private final AtomicInteger maxQueueSize = new AtomicInteger();
+
+	private final AtomicLong waitTime = new AtomicLong();
+
+	private volatile long startTime;
+
+	private volatile long endTime;
+
+	/**
+	 * Constructs a collector with {@link #DEFAULT_CAPACITY} and {@link #DEFAULT_BATCH_SIZE}.
+	 */
+	public StreamingTaskDataCollector() {
+		this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param capacity
+	 *            the number of task data that may be pending before {@link #accept(TaskData)} blocks
+	 * @param batchSize
+	 *            the maximum number of task data passed to a single invocation of {@link #process(List)}
+	 */
+	public StreamingTaskDataCollector(int capacity, int batchSize) {
+		Assert.isLegal(capacity > 0);
+		Assert.isLegal(batchSize > 0);
+		this.queue = new ArrayBlockingQueue<Object>(capacity);
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public void accept(TaskData taskData) {
+		Assert.isNotNull(taskData);
+		if (aborted) {
+			// processing failed, drop remaining results
+			return;
+		}
+		start();
+		try {
+			if (!queue.offer(taskData)) {
+				long start = System.nanoTime();
+				while (!queue.offer(taskData, 100, TimeUnit.MILLISECONDS)) {
+					if (aborted) {
+						return;
+					}
+				}
+				waitTime.addAndGet(System.nanoTime() - start);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+		acceptedCount.incrementAndGet();
+		int size = queue.size();
+		int max;
+		while (size > (max = maxQueueSize.get())) {
+			if (maxQueueSize.compareAndSet(max, size)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Waits until all accepted task data has been processed.
+	 *
+	 * @throws CoreException
+	 *             if {@link #process(List)} failed
+	 * @throws OperationCanceledException
+	 *             if the calling thread was interrupted
+	 */
+	public void done() throws CoreException {
+		Thread thread;
+		synchronized (this) {
+			thread = consumer;
+			consumer = null;
+		}
+		if (thread != null) {
+			try {
+				while (thread.isAlive() && !queue.offer(END_OF_STREAM, 100, TimeUnit.MILLISECONDS)) {
+					// wait for the consumer to make room or exit
+				}
+				thread.join();
+			} catch (InterruptedException e) {
+				abort();
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} finally {
+				endTime = System.currentTimeMillis();
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Stops processing. Task data that is still queued is discarded and subsequent invocations of
+	 * {@link #accept(TaskData)} are ignored. A batch that is currently being processed is completed; the consumer
+	 * thread is not interrupted since that would close channels that {@link #process(List)} may be writing to.
+	 */
+	public void abort() {
+		aborted = true;
+		queue.clear();
+		// wake up the consumer if it is waiting for task data, if the queue is full it exits after the next batch
+		queue.offer(END_OF_STREAM);
+	}
+
+	/**
+	 * Returns true, if processing was stopped by {@link #abort()}, because {@link #process(List)} failed or because it
+	 * was canceled. Results that were accepted after processing stopped were discarded.
+	 *
+	 * @since 3.9
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * Invoked on the consumer thread for each batch of accepted task data in the order it was accepted.
+	 */
+	protected abstract void process(List<TaskData> batch) throws CoreException;
+
+	/**
+	 * Returns the number of task data passed to {@link #accept(TaskData)}.
+	 */
+	public int getAcceptedCount() {
+		return acceptedCount.get();
+	}
+
+	/**
+	 * Returns the number of task data that has been processed.
+	 */
+	public int getProcessedCount() {
+		return processedCount;
+	}
+
+	/**
+	 * Returns the number of invocations of {@link #process(List)}.
+	 */
+	public int getBatchCount() {
+		return batchCount;
+	}
+
+	/**
+	 * Returns the largest number of task data that was pending at any time.
+	 */
+	public int getMaxQueueSize() {
+		return maxQueueSize.get();
+	}
+
+	/**
+	 * Returns the time in milliseconds that {@link #accept(TaskData)} was blocked waiting for processing to catch up.
+	 */
+	public long getWaitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(waitTime.get());
+	}
+
+	/**
+	 * Returns the time in milliseconds between the first accepted task data and completion of {@link #done()}.
+	 */
+	public long getElapsedTime() {
+		if (startTime == 0) {
+			return 0;
+		}
+		return ((endTime != 0) ? endTime : System.currentTimeMillis()) - startTime;
+	}
+
+	/**
+	 * Returns the number of processed task data per second.
+	 */
+	public double getThroughput() {
+		long elapsed = getElapsedTime();
+		return (elapsed > 0) ? processedCount * 1000.0 / elapsed : processedCount;
+	}
+
+	private synchronized void start() {
+		if (consumer == null) {
+			startTime = System.currentTimeMillis();
+			endTime = 0;
+			consumer = new Thread(new Runnable() {
+				public void run() {
+					consume();
+				}
+			}, "Task Data Collector"); //$NON-NLS-1$
+			consumer.setDaemon(true);
+			consumer.start();
+		}
+	}
+
+	private void consume() {
+		List<Object> elements = new ArrayList<Object>(batchSize);
+		List<TaskData> batch = new ArrayList<TaskData>(batchSize);
+		try {
+			boolean endOfStream = false;
+			while (!endOfStream && !aborted) {
+				elements.add(queue.take());
+				queue.drainTo(elements, batchSize - 1);
+				for (Object element : elements) {
+					if (element == END_OF_STREAM) {
+						endOfStream = true;
+					} else {
+						batch.add((TaskData) element);
+					}
+				}
+				if (!batch.isEmpty() && !aborted) {
+					process(batch);
+					processedCount += batch.size();
+					batchCount++;
+				}
+				elements.clear();
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			aborted = true;
+		} catch (OperationCanceledException e) {
+			aborted = true;
+		} catch (CoreException e) {
+			fail(e);
+		} catch (RuntimeException e) {
+			fail(new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Unexpected error while processing task data", e))); //$NON-NLS-1$
+		}
+	}
+
+	private void fail(CoreException e) {
+		failure = e;
+		aborted = true;
+		queue.clear();
+	}
+
+}
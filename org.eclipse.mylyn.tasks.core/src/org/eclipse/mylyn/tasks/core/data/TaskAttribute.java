@@ -13,7 +13,6 @@ package org.eclipse.mylyn.tasks.core.data;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -350,7 +349,7 @@ public final class TaskAttribute {
 
 	private void add(TaskAttribute attribute) {
 		if (attributeById == null) {
-			attributeById = new LinkedHashMap<String, TaskAttribute>();
+			attributeById = new CompactMap<TaskAttribute>();
 		}
 		attributeById.put(attribute.getId(), attribute);
 	}
@@ -384,10 +383,10 @@ public final class TaskAttribute {
 		TaskAttribute target = createAttribute(source.getId());
 		target.values.addAll(source.values);
 		if (source.metaData != null) {
-			target.metaData = new LinkedHashMap<String, String>(source.metaData);
+			target.metaData = new CompactMap<String>(source.metaData);
 		}
 		if (source.optionByKey != null) {
-			target.optionByKey = new LinkedHashMap<String, String>(source.optionByKey);
+			target.optionByKey = new CompactMap<String>(source.optionByKey);
 		}
 		if (source.attributeById != null) {
 			for (TaskAttribute child : source.attributeById.values()) {
@@ -526,7 +525,7 @@ public final class TaskAttribute {
 		Assert.isNotNull(key);
 		Assert.isNotNull(value);
 		if (metaData == null) {
-			metaData = new LinkedHashMap<String, String>();
+			metaData = new CompactMap<String>();
 		}
 		metaData.put(key.intern(), value);
 	}
@@ -543,7 +542,7 @@ public final class TaskAttribute {
 		Assert.isNotNull(key);
 		Assert.isNotNull(value);
 		if (optionByKey == null) {
-			optionByKey = new LinkedHashMap<String, String>();
+			optionByKey = new CompactMap<String>();
 		}
 		optionByKey.put(key.intern(), value);
 	}
@@ -30,6 +30,8 @@ class Messages extends NLS {
 
 	public static String TaskListIndex_task_rebuilding_index;
 
+	public static String TaskListIndex_task_rebuilding_index_progress;
+
 	static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, Messages.class);
@@ -17,16 +17,27 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -37,6 +48,8 @@ import org.apache.lucene.document.DateTools.Resolution;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.MapFieldSelector;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
@@ -46,10 +59,12 @@ import org.apache.lucene.queryParser.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
@@ -62,6 +77,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
@@ -88,6 +104,7 @@ import org.eclipse.mylyn.tasks.core.data.DefaultTaskSchema;
 import org.eclipse.mylyn.tasks.core.data.ITaskDataManager;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.osgi.util.NLS;
 
 /**
  * An index on a task list, provides a way to {@link #find(String, TaskCollector, int) search for tasks}, and a way to
@@ -116,6 +133,10 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 	private static final Object COMMAND_RESET_INDEX = "index:reset"; //$NON-NLS-1$
 
+	private static final int MAX_CACHED_PATTERNS = 16;
+
+	private static final int MAX_REBUILD_THREADS = 4;
+
 	private static final String INDEX_TASK_ATTRIBUTE_PREFIX = "index:"; //$NON-NLS-1$
 
 	private static final String TASK_ATTRIBUTE_IDENTIFIER = INDEX_TASK_ATTRIBUTE_PREFIX + "handle-identifier"; //$NON-NLS-1$
@@ -126,6 +147,9 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 	private static final String TASK_ATTRIBUTE_PERSON = INDEX_TASK_ATTRIBUTE_PREFIX + "person"; //$NON-NLS-1$
 
+	private static final FieldSelector IDENTIFIER_FIELD_SELECTOR = new MapFieldSelector(
+			new String[] { TASK_ATTRIBUTE_IDENTIFIER });
+
 	public static final org.eclipse.mylyn.tasks.core.data.AbstractTaskSchema.Field FIELD_IDENTIFIER = new AbstractTaskSchema.Field(
 			TASK_ATTRIBUTE_IDENTIFIER, Messages.TaskListIndex_field_identifier, TaskAttribute.TYPE_SHORT_TEXT,
 			"identifier"); //$NON-NLS-1$
@@ -228,20 +252,56 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 	 */
 	private IndexReader indexReader;
 
+	/**
+	 * a searcher on {@link #indexReader} that is shared by all searches, do not access directly, instead use
+	 * {@link #getIndexSearcher()}. 'this' must be synchronized before accessing or modifying
+	 */
+	private IndexSearcher indexSearcher;
+
+	/**
+	 * the writer used for all index maintenance, opened on first use and kept open until the index is closed or moved.
+	 * Readers are obtained from the writer to see changes without waiting for a commit. 'this' must be synchronized
+	 * before accessing or modifying
+	 */
+	private IndexWriter indexWriter;
+
 	/**
 	 * indicate the need to rebuild the whole index
 	 */
 	private volatile boolean rebuildIndex = false;
 
 	/**
-	 * 'this' must be synchronized before accessing or modifying
+	 * results of recent calls to {@link #matches(ITask, String)} as bits set for the {@link #getOrdinal(String)
+	 * ordinals} of matching tasks, most recently used last. 'this' must be synchronized before accessing or modifying
 	 */
-	private String lastPatternString;
+	private final Map<String, BitSet> matchCache = new LinkedHashMap<String, BitSet>(MAX_CACHED_PATTERNS, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, BitSet> eldest) {
+			return size() > MAX_CACHED_PATTERNS;
+		}
+
+	};
+
+	/**
+	 * dense ordinals of task handle identifiers, valid for the current {@link #indexReader}. 'this' must be synchronized
+	 * before accessing or modifying
+	 */
+	private final Map<String, Integer> ordinalByHandle = new HashMap<String, Integer>();
 
 	/**
-	 * 'this' must be synchronized before accessing or modifying
+	 * ordinals by task identity to avoid hashing handle identifiers when matching tasks. 'this' must be synchronized
+	 * before accessing or modifying
 	 */
-	private Set<String> lastResults;
+	private final Map<ITask, Integer> ordinalByTask = new IdentityHashMap<ITask, Integer>();
+
+	/**
+	 * ordinals of documents in the current {@link #indexReader}, or -1 if not yet resolved. 'this' must be
+	 * synchronized before accessing or modifying
+	 */
+	private int[] ordinalByDocument;
 
 	private AbstractTaskSchema.Field defaultField = FIELD_SUMMARY;
 
@@ -255,7 +315,7 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 	private long reindexDelay = 3000L;
 
-	private int maxMatchSearchHits = 1500;
+	private int rebuildThreads = Math.min(Runtime.getRuntime().availableProcessors(), MAX_REBUILD_THREADS);
 
 	/**
 	 * must hold this lock as a read lock when accessing the index, and must hold this lock as a write lock when closing
@@ -380,6 +440,24 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		this.reindexDelay = reindexDelay;
 	}
 
+	/**
+	 * the number of threads used to load and index task data when the index is rebuilt completely
+	 */
+	public int getRebuildThreads() {
+		return rebuildThreads;
+	}
+
+	/**
+	 * the number of threads used to load and index task data when the index is rebuilt completely.
+	 * 
+	 * @param rebuildThreads
+	 *            the number of threads, specify 1 to rebuild the index on the thread that performs index maintenance
+	 */
+	public void setRebuildThreads(int rebuildThreads) {
+		Assert.isTrue(rebuildThreads >= 1);
+		this.rebuildThreads = rebuildThreads;
+	}
+
 	public void setLocation(File indexLocation) {
 		try {
 			waitUntilIdle();
@@ -404,14 +482,12 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		writeLock.lock();
 		try {
 			synchronized (this) {
-				if (indexReader != null) {
-					try {
-						indexReader.close();
-					} catch (IOException e) {
-						// ignore
-					}
-					indexReader = null;
+				try {
+					closeIndexReaderInternal();
+				} catch (IOException e) {
+					// ignore
 				}
+				closeIndexWriterInternal();
 
 				if (indexLocation.exists() && indexLocation.isDirectory()) {
 					if (directory != null) {
@@ -455,7 +531,7 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		Assert.isTrue(indexedFields.contains(defaultField));
 		this.defaultField = defaultField;
 		synchronized (this) {
-			lastResults = null;
+			matchCache.clear();
 		}
 	}
 
@@ -466,20 +542,6 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		return Collections.unmodifiableSet(indexedFields);
 	}
 
-	/**
-	 * the maximum number of search hits that should be provided when using {@link #matches(ITask, String)}
-	 */
-	public int getMaxMatchSearchHits() {
-		return maxMatchSearchHits;
-	}
-
-	/**
-	 * the maximum number of search hits that should be provided when using {@link #matches(ITask, String)}
-	 */
-	public void setMaxMatchSearchHits(int maxMatchSearchHits) {
-		this.maxMatchSearchHits = maxMatchSearchHits;
-	}
-
 	private void initialize() {
 		if (!rebuildIndex) {
 			IndexReader indexReader = null;
@@ -536,8 +598,8 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 	 * Indicates if the given task matches the given pattern string. Uses the backing index to detect a match by looking
 	 * for tasks that match the given pattern string. The results of the search are cached such that future calls to
 	 * this method using the same pattern string do not require use of the backing index, making this method very
-	 * efficient for multiple calls with the same pattern string. Cached results for a given pattern string are
-	 * discarded if this method is called with a different pattern string.
+	 * efficient for multiple calls with the same pattern string. Results are cached for the most recently used pattern
+	 * strings and discarded when the index changes.
 	 * 
 	 * @param task
 	 *            the task to match
@@ -551,59 +613,131 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		Lock readLock = indexReaderLock.readLock();
 		readLock.lock();
 		try {
-
-			IndexReader indexReader = getIndexReader();
-			if (indexReader != null) {
-				Set<String> hits;
-
-				final boolean needIndexHit;
+			IndexSearcher indexSearcher = getIndexSearcher();
+			if (indexSearcher != null) {
+				BitSet hits;
 				synchronized (this) {
-					needIndexHit = lastResults == null
-							|| (lastPatternString == null || !lastPatternString.equals(patternString));
+					hits = matchCache.get(patternString);
 				}
-				if (needIndexHit) {
-					this.lastPatternString = patternString;
-
-					hits = new HashSet<String>();
-
-					IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+				if (hits == null) {
 					try {
-						Query query = computeQuery(patternString);
-						TopDocs results = indexSearcher.search(query, maxMatchSearchHits);
-						for (ScoreDoc scoreDoc : results.scoreDocs) {
-							Document document = indexReader.document(scoreDoc.doc);
-							hits.add(document.get(FIELD_IDENTIFIER.getIndexKey()));
-						}
+						hits = computeMatches(indexSearcher, patternString);
 					} catch (IOException e) {
 						StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
 								"Unexpected failure within task list index", e)); //$NON-NLS-1$
-					} finally {
-						try {
-							indexSearcher.close();
-						} catch (IOException e) {
-							// ignore
+						return false;
+					}
+					synchronized (this) {
+						if (this.indexSearcher == indexSearcher) {
+							matchCache.put(patternString, hits);
 						}
 					}
-
-				} else {
-					hits = lastResults;
 				}
 				synchronized (this) {
-					if (this.indexReader == indexReader) {
-						this.lastPatternString = patternString;
-						this.lastResults = hits;
+					Integer ordinal = ordinalByTask.get(task);
+					if (ordinal == null) {
+						ordinal = getOrdinal(task.getHandleIdentifier());
+						ordinalByTask.put(task, ordinal);
 					}
+					return hits.get(ordinal);
 				}
-				String taskIdentifier = task.getHandleIdentifier();
-				return hits != null && hits.contains(taskIdentifier);
 			}
-
 		} finally {
 			readLock.unlock();
 		}
 		return false;
 	}
 
+	/**
+	 * must hold {@link #indexReaderLock} as a read lock when invoking this method
+	 */
+	private BitSet computeMatches(IndexSearcher indexSearcher, String patternString) throws IOException {
+		IndexReader indexReader = indexSearcher.getIndexReader();
+		final BitSet documents = new BitSet(indexReader.maxDoc());
+		indexSearcher.search(computeQuery(patternString), new Collector() {
+
+			private int docBase;
+
+			@Override
+			public void setScorer(Scorer scorer) throws IOException {
+				// ignore
+			}
+
+			@Override
+			public void collect(int doc) throws IOException {
+				documents.set(docBase + doc);
+			}
+
+			@Override
+			public void setNextReader(IndexReader reader, int docBase) throws IOException {
+				this.docBase = docBase;
+			}
+
+			@Override
+			public boolean acceptsDocsOutOfOrder() {
+				return true;
+			}
+
+		});
+
+		BitSet hits = new BitSet();
+		for (int doc = documents.nextSetBit(0); doc >= 0; doc = documents.nextSetBit(doc + 1)) {
+			int ordinal = getOrdinal(indexReader, doc);
+			if (ordinal != -1) {
+				hits.set(ordinal);
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * Returns the ordinal of the task that corresponds to the given document. Stored fields are only read the first
+	 * time a document is resolved.
+	 */
+	private int getOrdinal(IndexReader indexReader, int doc) throws IOException {
+		synchronized (this) {
+			if (ordinalByDocument == null) {
+				ordinalByDocument = new int[indexReader.maxDoc()];
+				Arrays.fill(ordinalByDocument, -1);
+			} else if (ordinalByDocument[doc] != -1) {
+				return ordinalByDocument[doc];
+			}
+		}
+		Document document = indexReader.document(doc, IDENTIFIER_FIELD_SELECTOR);
+		String taskIdentifier = document.get(FIELD_IDENTIFIER.getIndexKey());
+		if (taskIdentifier == null) {
+			return -1;
+		}
+		synchronized (this) {
+			int ordinal = getOrdinal(taskIdentifier);
+			ordinalByDocument[doc] = ordinal;
+			return ordinal;
+		}
+	}
+
+	/**
+	 * 'this' must be synchronized when invoking this method
+	 */
+	private int getOrdinal(String taskIdentifier) {
+		Integer ordinal = ordinalByHandle.get(taskIdentifier);
+		if (ordinal == null) {
+			ordinal = ordinalByHandle.size();
+			ordinalByHandle.put(taskIdentifier, ordinal);
+		}
+		return ordinal;
+	}
+
+	/**
+	 * discards cached matches, must be invoked when the index reader changes. 'this' must be synchronized when invoking
+	 * this method
+	 */
+	private void clearMatchCache() {
+		matchCache.clear();
+		ordinalByHandle.clear();
+		ordinalByTask.clear();
+		ordinalByDocument = null;
+	}
+
 	public void reindex() {
 		rebuildIndex = true;
 		scheduleIndexMaintenance(MaintainIndexType.REINDEX);
@@ -643,14 +777,13 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		Lock readLock = indexReaderLock.readLock();
 		readLock.lock();
 		try {
-			IndexReader indexReader = getIndexReader();
-			if (indexReader != null) {
-				IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+			IndexSearcher indexSearcher = getIndexSearcher();
+			if (indexSearcher != null) {
 				try {
 					Query query = computeQuery(patternString);
 					TopDocs results = indexSearcher.search(query, resultsLimit);
 					for (ScoreDoc scoreDoc : results.scoreDocs) {
-						Document document = indexReader.document(scoreDoc.doc);
+						Document document = indexSearcher.doc(scoreDoc.doc);
 						String taskIdentifier = document.get(FIELD_IDENTIFIER.getIndexKey());
 						AbstractTask task = taskList.getTask(taskIdentifier);
 						if (task != null) {
@@ -660,12 +793,6 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 				} catch (IOException e) {
 					StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
 							"Unexpected failure within task list index", e)); //$NON-NLS-1$
-				} finally {
-					try {
-						indexSearcher.close();
-					} catch (IOException e) {
-						// ignore
-					}
 				}
 			}
 		} finally {
@@ -731,14 +858,12 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		writeLock.lock();
 		try {
 			synchronized (this) {
-				if (indexReader != null) {
-					try {
-						indexReader.close();
-					} catch (IOException e) {
-						// ignore
-					}
-					indexReader = null;
+				try {
+					closeIndexReaderInternal();
+				} catch (IOException e) {
+					// ignore
 				}
+				closeIndexWriterInternal();
 			}
 			try {
 				directory.close();
@@ -751,12 +876,24 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		}
 	}
 
+	private IndexSearcher getIndexSearcher() {
+		synchronized (this) {
+			if (getIndexReader() != null) {
+				if (indexSearcher == null) {
+					indexSearcher = new IndexSearcher(indexReader);
+				}
+				return indexSearcher;
+			}
+			return null;
+		}
+	}
+
 	private IndexReader getIndexReader() {
 		try {
 			synchronized (this) {
 				if (indexReader == null) {
-					indexReader = IndexReader.open(directory, true);
-					lastResults = null;
+					indexReader = (indexWriter != null) ? indexWriter.getReader() : IndexReader.open(directory, true);
+					clearMatchCache();
 				}
 				return indexReader;
 			}
@@ -1004,7 +1141,8 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 	 * filter some tasks from the task list. This method may be called more than once per task, with some calls omitting
 	 * the task data. In this way implementations can avoid loading task data if the decision to filter tasks can be
 	 * based on the ITask alone. Implementations that must read the task data in order to determine eligibility for
-	 * indexing should return true for tasks where the provided task data is null.
+	 * indexing should return true for tasks where the provided task data is null. When the index is rebuilt this
+	 * method may be invoked concurrently from several threads.
 	 * 
 	 * @param task
 	 *            the task
@@ -1035,7 +1173,7 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		SubMonitor monitor = SubMonitor.convert(m, 2 * WORK_PER_SEGMENT);
 		try {
 			try {
-				if (!rebuildIndex) {
+				if (!rebuildIndex && !isIndexWriterOpen()) {
 					try {
 						IndexReader reader = IndexReader.open(directory, false);
 						reader.close();
@@ -1044,6 +1182,8 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 					}
 				}
 
+				boolean changed = rebuildIndex;
+
 				if (rebuildIndex) {
 					synchronized (reindexQueue) {
 						reindexQueue.clear();
@@ -1058,10 +1198,15 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 				}
 
 				// index any tasks that have been changed
-				indexQueuedTasks(monitor.newChild(WORK_PER_SEGMENT));
+				changed |= indexQueuedTasks(monitor.newChild(WORK_PER_SEGMENT));
 
-				// prevent new searches from reading the now-stale index
-				closeIndexReader();
+				if (changed) {
+					// changes of a maintenance round are committed together
+					getIndexWriter(false).commit();
+
+					// let new searches see the changes
+					refreshIndexReader();
+				}
 			} catch (IOException e) {
 				throw new CoreException(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
 						"Unexpected exception: " + e.getMessage(), e)); //$NON-NLS-1$
@@ -1071,14 +1216,27 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		}
 	}
 
-	private void closeIndexReader() throws IOException {
+	/**
+	 * Replaces the index reader by a reader that reflects all changes made through the index writer, including
+	 * uncommitted changes. The new reader is obtained before acquiring the write lock to keep the time that searches are
+	 * blocked short.
+	 */
+	private void refreshIndexReader() throws IOException {
+		IndexWriter writer;
+		synchronized (this) {
+			writer = indexWriter;
+		}
+		IndexReader newIndexReader = (writer != null) ? writer.getReader() : null;
+
 		Lock writeLock = indexReaderLock.writeLock();
 		writeLock.lock();
 		try {
 			synchronized (this) {
-				if (indexReader != null) {
-					indexReader.close();
-					indexReader = null;
+				try {
+					closeIndexReaderInternal();
+				} finally {
+					indexReader = newIndexReader;
+					clearMatchCache();
 				}
 			}
 		} finally {
@@ -1086,12 +1244,66 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		}
 	}
 
-	private void indexQueuedTasks(SubMonitor monitor) throws CorruptIndexException, LockObtainFailedException,
+	/**
+	 * must hold {@link #indexReaderLock} as a write lock and synchronize on 'this' when invoking this method
+	 */
+	private void closeIndexReaderInternal() throws IOException {
+		if (indexSearcher != null) {
+			indexSearcher.close();
+			indexSearcher = null;
+		}
+		if (indexReader != null) {
+			IndexReader reader = indexReader;
+			indexReader = null;
+			reader.close();
+		}
+	}
+
+	private synchronized boolean isIndexWriterOpen() {
+		return indexWriter != null;
+	}
+
+	/**
+	 * Returns the index writer, opening it if necessary.
+	 * 
+	 * @param create
+	 *            if true, all documents are removed from the index
+	 */
+	private synchronized IndexWriter getIndexWriter(boolean create) throws CorruptIndexException,
+			LockObtainFailedException, IOException {
+		if (indexWriter == null) {
+			indexWriter = new IndexWriter(directory, new TaskAnalyzer(), create, IndexWriter.MaxFieldLength.UNLIMITED);
+		} else if (create) {
+			indexWriter.deleteAll();
+		}
+		return indexWriter;
+	}
+
+	/**
+	 * 'this' must be synchronized when invoking this method
+	 */
+	private void closeIndexWriterInternal() {
+		if (indexWriter != null) {
+			try {
+				indexWriter.close();
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+						"Cannot close index writer: " + e.getMessage(), e)); //$NON-NLS-1$
+			} finally {
+				indexWriter = null;
+			}
+		}
+	}
+
+	/**
+	 * @return true, if any tasks were indexed
+	 */
+	private boolean indexQueuedTasks(SubMonitor monitor) throws CorruptIndexException, LockObtainFailedException,
 			IOException {
 
 		synchronized (reindexQueue) {
 			if (reindexQueue.isEmpty()) {
-				return;
+				return false;
 			}
 
 			monitor.beginTask(Messages.TaskListIndex_task_rebuilding_index, reindexQueue.size());
@@ -1099,46 +1311,40 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 		try {
 			IndexWriter writer = null;
-			try {
-				Map<ITask, TaskData> workingQueue = new HashMap<ITask, TaskData>();
+			Map<ITask, TaskData> workingQueue = new HashMap<ITask, TaskData>();
 
-				// reindex tasks that are in the reindexQueue, making multiple passes so that we catch anything
-				// added/changed while we were reindexing
-				for (;;) {
-					workingQueue.clear();
+			// reindex tasks that are in the reindexQueue, making multiple passes so that we catch anything
+			// added/changed while we were reindexing
+			for (;;) {
+				workingQueue.clear();
 
-					synchronized (reindexQueue) {
-						if (reindexQueue.isEmpty()) {
-							break;
-						}
-						// move items from the reindexQueue to the temporary working queue
-						workingQueue.putAll(reindexQueue);
-						reindexQueue.keySet().removeAll(workingQueue.keySet());
+				synchronized (reindexQueue) {
+					if (reindexQueue.isEmpty()) {
+						break;
 					}
+					// move items from the reindexQueue to the temporary working queue
+					workingQueue.putAll(reindexQueue);
+					reindexQueue.keySet().removeAll(workingQueue.keySet());
+				}
 
-					if (writer == null) {
-						writer = new IndexWriter(directory, new TaskAnalyzer(), false,
-								IndexWriter.MaxFieldLength.UNLIMITED);
-					}
+				if (writer == null) {
+					writer = getIndexWriter(false);
+				}
 
-					monitor.setWorkRemaining(workingQueue.size());
+				monitor.setWorkRemaining(workingQueue.size());
 
-					for (Entry<ITask, TaskData> entry : workingQueue.entrySet()) {
-						ITask task = entry.getKey();
-						TaskData taskData = entry.getValue();
+				for (Entry<ITask, TaskData> entry : workingQueue.entrySet()) {
+					ITask task = entry.getKey();
+					TaskData taskData = entry.getValue();
 
-						writer.deleteDocuments(new Term(FIELD_IDENTIFIER.getIndexKey(), task.getHandleIdentifier()));
+					writer.deleteDocuments(new Term(FIELD_IDENTIFIER.getIndexKey(), task.getHandleIdentifier()));
 
-						add(writer, task, taskData);
+					add(writer, task, taskData);
 
-						monitor.worked(1);
-					}
-				}
-			} finally {
-				if (writer != null) {
-					writer.close();
+					monitor.worked(1);
 				}
 			}
+			return writer != null;
 		} finally {
 			monitor.done();
 		}
@@ -1171,10 +1377,11 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 		monitor.beginTask(Messages.TaskListIndex_task_rebuilding_index, taskListState.indexableTasks.size());
 		try {
-			final IndexWriter writer = new IndexWriter(directory, new TaskAnalyzer(), true,
-					IndexWriter.MaxFieldLength.UNLIMITED);
-			try {
+			final IndexWriter writer = getIndexWriter(true);
 
+			if (rebuildThreads > 1 && taskListState.indexableTasks.size() > 1) {
+				rebuildIndexInParallel(writer, taskListState.indexableTasks, multiStatus, monitor);
+			} else {
 				for (ITask task : taskListState.indexableTasks) {
 					if (taskIsIndexable(task, null)) {
 						try {
@@ -1187,11 +1394,9 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 					}
 					monitor.worked(1);
 				}
-				synchronized (this) {
-					rebuildIndex = false;
-				}
-			} finally {
-				writer.close();
+			}
+			synchronized (this) {
+				rebuildIndex = false;
 			}
 		} finally {
 			monitor.done();
@@ -1199,6 +1404,98 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		return multiStatus;
 	}
 
+	/**
+	 * Loads task data and adds documents on {@link #rebuildThreads} threads. The index writer is thread-safe and analyzes
+	 * documents on the calling thread, hence both reading from disk and analysis are parallelized. Progress is reported
+	 * and cancellation is checked by the calling thread.
+	 */
+	private void rebuildIndexInParallel(final IndexWriter writer, final List<ITask> tasks, MultiStatus multiStatus,
+			SubMonitor monitor) throws IOException {
+		final AtomicInteger nextTask = new AtomicInteger();
+		final AtomicInteger processedTasks = new AtomicInteger();
+		final AtomicReference<IOException> failure = new AtomicReference<IOException>();
+		final AtomicBoolean canceled = new AtomicBoolean();
+		final List<IStatus> statuses = Collections.synchronizedList(new ArrayList<IStatus>());
+
+		int threads = Math.min(rebuildThreads, tasks.size());
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger();
+
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Task List Indexer-" + threadNumber.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			for (int i = 0; i < threads; i++) {
+				executor.execute(new Runnable() {
+					public void run() {
+						int index;
+						while (failure.get() == null && !canceled.get()
+								&& (index = nextTask.getAndIncrement()) < tasks.size()) {
+							ITask task = tasks.get(index);
+							try {
+								if (taskIsIndexable(task, null)) {
+									TaskData taskData = dataManager.getTaskData(task);
+									add(writer, task, taskData);
+								}
+							} catch (CoreException e) {
+								// an individual task data error should not prevent the index from updating
+								statuses.add(e.getStatus());
+							} catch (IOException e) {
+								failure.compareAndSet(null, e);
+							} catch (RuntimeException e) {
+								statuses.add(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN, NLS.bind(
+										"Failed to index task {0}", task.getHandleIdentifier()), e)); //$NON-NLS-1$
+							}
+							processedTasks.incrementAndGet();
+						}
+					}
+				});
+			}
+			executor.shutdown();
+
+			long startTime = System.currentTimeMillis();
+			int reportedTasks = 0;
+			try {
+				while (!executor.awaitTermination(250, TimeUnit.MILLISECONDS)) {
+					if (monitor.isCanceled()) {
+						// let workers complete the tasks they are processing
+						canceled.set(true);
+					}
+					reportedTasks = reportProgress(monitor, processedTasks.get(), reportedTasks, tasks.size(), startTime);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			}
+			reportProgress(monitor, processedTasks.get(), reportedTasks, tasks.size(), startTime);
+		} finally {
+			executor.shutdownNow();
+		}
+		if (canceled.get()) {
+			throw new OperationCanceledException();
+		}
+
+		for (IStatus status : statuses) {
+			multiStatus.add(status);
+		}
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+	}
+
+	private int reportProgress(SubMonitor monitor, int processedTasks, int reportedTasks, int totalTasks,
+			long startTime) {
+		long elapsed = System.currentTimeMillis() - startTime;
+		long rate = (elapsed > 0) ? processedTasks * 1000L / elapsed : processedTasks;
+		monitor.subTask(NLS.bind(Messages.TaskListIndex_task_rebuilding_index_progress, new Object[] { processedTasks,
+				totalTasks, rate }));
+		monitor.worked(processedTasks - reportedTasks);
+		return processedTasks;
+	}
+
 	/**
 	 * @param writer
 	 * @param task
@@ -25,8 +25,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -36,12 +38,18 @@ import java.util.concurrent.Future;
 
 import junit.framework.Assert;
 
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.NIOFSDirectory;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.mylyn.commons.core.DelegatingProgressMonitor;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
 import org.eclipse.mylyn.internal.tasks.core.LocalTask;
 import org.eclipse.mylyn.internal.tasks.index.core.TaskListIndex;
 import org.eclipse.mylyn.internal.tasks.index.core.TaskListIndex.TaskCollector;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
 import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.data.DefaultTaskSchema;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
@@ -414,6 +422,144 @@ public class TaskListIndexTest extends AbstractTaskListIndexTest {
 		}
 	}
 
+	@Test
+	public void testMatchesAfterRepeatedUpdates() throws InterruptedException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+
+		LocalTask task = (LocalTask) context.createLocalTask();
+		index.waitUntilIdle();
+
+		for (int i = 0; i < 20; i++) {
+			String summary = "updated" + i;
+			task.setSummary(summary);
+			context.getTaskList().notifyElementChanged(task);
+			index.waitUntilIdle();
+
+			assertTrue(index.matches(task, summary));
+			if (i > 0) {
+				assertFalse(index.matches(task, "updated" + (i - 1)));
+			}
+		}
+	}
+
+	@Test
+	public void testMatchesAllHits() throws InterruptedException {
+		List<ITask> tasks = new ArrayList<ITask>();
+		for (int i = 0; i < 2000; i++) {
+			tasks.add(context.createLocalTask());
+		}
+
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+		index.waitUntilIdle();
+
+		for (ITask task : tasks) {
+			assertTrue(index.matches(task, "summary"));
+		}
+	}
+
+	@Test
+	public void testMatchesAlternatingPatterns() throws InterruptedException {
+		setupIndex();
+		index.setDefaultField(TaskListIndex.FIELD_CONTENT);
+
+		LocalTask task1 = (LocalTask) context.createLocalTask();
+		LocalTask task2 = (LocalTask) context.createLocalTask();
+		index.waitUntilIdle();
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(index.matches(task1, task1.getNotes()));
+			assertFalse(index.matches(task2, task1.getNotes()));
+			assertTrue(index.matches(task2, task2.getNotes()));
+			assertFalse(index.matches(task1, task2.getNotes()));
+		}
+
+		// cached results must be discarded when the index changes
+		task1.setNotes(task2.getNotes());
+		context.getTaskList().notifyElementChanged(task1);
+		index.waitUntilIdle();
+
+		assertTrue(index.matches(task1, task2.getNotes()));
+	}
+
+	@Test
+	public void testChangesAreCommitted() throws InterruptedException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+
+		ITask task = context.createLocalTask();
+		index.waitUntilIdle();
+		assertCanFindTask(task);
+
+		disposeIndex();
+
+		// reopen the index without changing the task list, results must come from the committed index
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+		index.waitUntilIdle();
+		assertCanFindTask(task);
+	}
+
+	@Test
+	public void testParallelRebuildCreatesIdenticalIndex() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			context.createLocalTask();
+			context.createRepositoryTask();
+		}
+
+		Map<String, String> sequentialDocuments = rebuildIndex(1);
+		Map<String, String> parallelDocuments = rebuildIndex(4);
+
+		assertEquals(200, sequentialDocuments.size());
+		assertEquals(sequentialDocuments, parallelDocuments);
+	}
+
+	private Map<String, String> rebuildIndex(int threads) throws IOException, InterruptedException {
+		File location = createTempFolder(TaskListIndexTest.class.getSimpleName());
+		try {
+			TaskListIndex index = new TaskListIndex(context.getTaskList(), context.getDataManager(),
+					(IRepositoryManager) context.getRepositoryManager(), location, 0L);
+			try {
+				index.setReindexDelay(0L);
+				index.setRebuildThreads(threads);
+				index.reindex();
+				index.waitUntilIdle();
+			} finally {
+				index.close();
+			}
+			return readDocuments(location);
+		} finally {
+			deleteFolderRecursively(location);
+		}
+	}
+
+	private Map<String, String> readDocuments(File location) throws IOException {
+		Map<String, String> documents = new HashMap<String, String>();
+		Directory directory = new NIOFSDirectory(location);
+		try {
+			IndexReader reader = IndexReader.open(directory, true);
+			try {
+				for (int doc = 0; doc < reader.maxDoc(); doc++) {
+					if (!reader.isDeleted(doc)) {
+						Document document = reader.document(doc);
+						List<String> fields = new ArrayList<String>();
+						for (Object field : document.getFields()) {
+							fields.add(((Fieldable) field).name() + "=" + ((Fieldable) field).stringValue());
+						}
+						Collections.sort(fields);
+						documents.put(document.get(TaskListIndex.FIELD_IDENTIFIER.getIndexKey()), fields.toString());
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} finally {
+			directory.close();
+		}
+		return documents;
+	}
+
 	private void assertCanFindTask(ITask task) {
 		TestTaskCollector collector = new TestTaskCollector();
 		index.find(task.getSummary(), collector, 1000);
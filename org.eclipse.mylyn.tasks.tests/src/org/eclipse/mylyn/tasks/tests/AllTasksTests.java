@@ -19,11 +19,18 @@ import org.eclipse.mylyn.tasks.tests.core.FileTaskAttachmentSourceTest;
 import org.eclipse.mylyn.tasks.tests.core.ITasksCoreConstantsTest;
 import org.eclipse.mylyn.tasks.tests.core.PriorityLevelTest;
 import org.eclipse.mylyn.tasks.tests.core.RepositoryClientManagerTest;
+import org.eclipse.mylyn.tasks.tests.core.SaxParserPoolTest;
 import org.eclipse.mylyn.tasks.tests.core.SynchronizeTasksJobTest;
+import org.eclipse.mylyn.tasks.tests.core.TaskListExternalizerTest;
 import org.eclipse.mylyn.tasks.tests.core.TaskListUnmatchedContainerTest;
 import org.eclipse.mylyn.tasks.tests.core.TaskRepositoryLocationTest;
 import org.eclipse.mylyn.tasks.tests.core.TaskRepositoryTest;
+import org.eclipse.mylyn.tasks.tests.data.LogTaskDataStorageTest;
+import org.eclipse.mylyn.tasks.tests.data.StreamingTaskDataCollectorTest;
 import org.eclipse.mylyn.tasks.tests.data.TaskAttributeMapperTest;
+import org.eclipse.mylyn.tasks.tests.data.TaskAttributeTest;
+import org.eclipse.mylyn.tasks.tests.data.TaskDataBinaryCodecTest;
+import org.eclipse.mylyn.tasks.tests.data.TaskDataDiffTest;
 import org.eclipse.mylyn.tasks.tests.data.TaskDataExternalizerTest;
 import org.eclipse.mylyn.tasks.tests.data.Xml11InputStreamTest;
 import org.eclipse.mylyn.tasks.tests.ui.AbstractRepositoryConnectorUiTest;
@@ -81,6 +88,7 @@ public class AllTasksTests {
 		suite.addTestSuite(RepositorySettingsPageTest.class);
 		suite.addTestSuite(CommentQuoterTest.class);
 		suite.addTestSuite(TaskDataStoreTest.class);
+		suite.addTestSuite(LogTaskDataStorageTest.class);
 		suite.addTestSuite(TaskExportImportTest.class);
 		suite.addTestSuite(PersonProposalProviderTest.class);
 		suite.addTestSuite(TaskRepositoryLocationTest.class);
@@ -121,6 +129,12 @@ public class AllTasksTests {
 		suite.addTestSuite(AttachmentTableLabelProviderTest.class);
 		suite.addTestSuite(TaskDataExternalizerTest.class);
 		suite.addTestSuite(Xml11InputStreamTest.class);
+		suite.addTestSuite(TaskDataBinaryCodecTest.class);
+		suite.addTestSuite(TaskAttributeTest.class);
+		suite.addTestSuite(StreamingTaskDataCollectorTest.class);
+		suite.addTestSuite(SaxParserPoolTest.class);
+		suite.addTestSuite(TaskDataDiffTest.class);
+		suite.addTestSuite(TaskListExternalizerTest.class);
 		// XXX long running tests, put back?
 		//suite.addTestSuite(QueryExportImportTest.class);
 		//suite.addTestSuite(BackgroundSaveTest.class);
@@ -11,14 +11,22 @@
 
 package org.eclipse.mylyn.tasks.tests;
 
+import java.util.ArrayList;
+import java.util.Collections;
+
 import junit.framework.TestCase;
 
 import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiffCache;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiffSummary;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiffSummary.AttributeChange;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
 import org.eclipse.mylyn.internal.tasks.ui.TasksUiPlugin;
 import org.eclipse.mylyn.tasks.core.ITask.SynchronizationState;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.ui.TasksUi;
 
 /**
  * @author Rob Elves
@@ -33,6 +41,11 @@ public class TaskDataManagerTest extends TestCase {
 		taskDataManger = TasksUiPlugin.getTaskDataManager();
 	}
 
+	@Override
+	protected void tearDown() throws Exception {
+		TaskTestUtil.resetTaskListAndRepositories();
+	}
+
 	public void testPutUpdatedTaskData() throws Exception {
 		TaskRepository taskRepository = TaskTestUtil.createMockRepository();
 		TaskTask task = TaskTestUtil.createMockTask("1");
@@ -42,6 +55,71 @@ public class TaskDataManagerTest extends TestCase {
 		assertEquals(SynchronizationState.SYNCHRONIZED, task.getSynchronizationState());
 	}
 
+	public void testGetDiffCached() throws Exception {
+		TaskRepository taskRepository = TaskTestUtil.createMockRepository();
+		TasksUi.getRepositoryManager().addRepository(taskRepository);
+		TaskTask task = TaskTestUtil.createMockTask("1");
+		TaskData taskData = TaskTestUtil.createTaskData(taskRepository, "1");
+		taskData.getRoot().createMappedAttribute(TaskAttribute.SUMMARY).setValue("summary");
+		taskDataManger.putUpdatedTaskData(task, taskData, true, null);
+
+		TaskDataDiffSummary diff = taskDataManger.getDiff(task);
+		assertNotNull(diff);
+		int hitCount = taskDataManger.getDiffCache().getHitCount();
+		assertSame(diff, taskDataManger.getDiff(task));
+		assertEquals(hitCount + 1, taskDataManger.getDiffCache().getHitCount());
+	}
+
+	public void testGetDiffEvicted() throws Exception {
+		TaskRepository taskRepository = TaskTestUtil.createMockRepository();
+		TasksUi.getRepositoryManager().addRepository(taskRepository);
+		TaskTask task = TaskTestUtil.createMockTask("1");
+		TaskData taskData = TaskTestUtil.createTaskData(taskRepository, "1");
+		taskData.getRoot().createMappedAttribute(TaskAttribute.SUMMARY).setValue("summary");
+		taskDataManger.putUpdatedTaskData(task, taskData, true, null);
+
+		TaskDataDiffSummary diff = taskDataManger.getDiff(task);
+		taskDataManger.setTaskRead(task, false);
+		TaskDataDiffSummary unreadDiff = taskDataManger.getDiff(task);
+		assertNotSame(diff, unreadDiff);
+
+		taskDataManger.discardEdits(task);
+		assertNotSame(unreadDiff, taskDataManger.getDiff(task));
+
+		taskData = TaskTestUtil.createTaskData(taskRepository, "1");
+		TaskAttribute attribute = taskData.getRoot().createMappedAttribute(TaskAttribute.SUMMARY);
+		attribute.getMetaData().setLabel("Summary");
+		attribute.setValue("changed");
+		taskDataManger.putUpdatedTaskData(task, taskData, true, null);
+		diff = taskDataManger.getDiff(task);
+		assertEquals(1, diff.getChangedAttributes().size());
+		AttributeChange change = diff.getChangedAttributes().get(0);
+		assertEquals("Summary", change.getLabel());
+		assertEquals(Collections.singletonList("changed"), change.getAddedValues());
+	}
+
+	public void testDiffCacheVersion() throws Exception {
+		TaskDataDiffCache cache = new TaskDataDiffCache();
+		TaskDataDiffSummary summary = new TaskDataDiffSummary(true, new ArrayList<AttributeChange>(),
+				new ArrayList<String>(), null, null);
+
+		// modifications of other tasks do not discard the summary
+		long version = cache.getVersion("1");
+		cache.remove("2");
+		assertTrue(cache.put("1", summary, version));
+		assertSame(summary, cache.get("1"));
+
+		version = cache.getVersion("1");
+		cache.remove("1");
+		assertFalse(cache.put("1", summary, version));
+		assertNull(cache.get("1"));
+
+		version = cache.getVersion("1");
+		cache.clear();
+		assertFalse(cache.put("1", summary, version));
+		assertNull(cache.get("1"));
+	}
+
 //	public void testHasIncomingDateComparison() {
 //		final Stack<Date> dates = new Stack<Date>();
 //		MockTask task = new MockTask(MOCCK_ID);
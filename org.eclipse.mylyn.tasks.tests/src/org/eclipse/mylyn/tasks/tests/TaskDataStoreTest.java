@@ -12,14 +12,21 @@
 package org.eclipse.mylyn.tasks.tests;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import junit.framework.TestCase;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataFingerprint;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataState;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataStore;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataStoreExternalizationParticipant;
+import org.eclipse.mylyn.internal.tasks.core.externalization.IExternalizationContext;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.TaskAttachmentMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
@@ -63,6 +70,7 @@ public class TaskDataStoreTest extends TestCase {
 
 	@Override
 	protected void tearDown() throws Exception {
+		storage.close();
 		file.delete();
 	}
 
@@ -110,6 +118,232 @@ public class TaskDataStoreTest extends TestCase {
 		assertNull(storage.getTaskDataState(file));
 	}
 
+	public void testPutTaskDataUnchanged() throws Exception {
+		file.delete();
+		storage.putTaskData(file, createTaskData("summary"), false, false);
+		assertEquals(1, storage.getWriteCount());
+
+		TaskDataState state = storage.putTaskData(file, createTaskData("summary"), false, false);
+		assertEquals(1, storage.getWriteCount());
+		assertEquals(1, storage.getSkippedWriteCount());
+		assertEquals("summary", state.getRepositoryData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue());
+
+		storage.putTaskData(file, createTaskData("changed"), false, false);
+		assertEquals(2, storage.getWriteCount());
+		assertEquals(1, storage.getSkippedWriteCount());
+		state = storage.getTaskDataState(file);
+		assertEquals("changed", state.getRepositoryData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue());
+	}
+
+	public void testPutTaskDataUnchangedSetLastRead() throws Exception {
+		file.delete();
+		storage.putTaskData(file, createTaskData("summary"), false, false);
+
+		// last read data needs to be updated
+		TaskDataState state = storage.putTaskData(file, createTaskData("summary"), true, false);
+		assertEquals(2, storage.getWriteCount());
+		assertNotNull(state.getLastReadData());
+
+		state = storage.putTaskData(file, createTaskData("summary"), true, false);
+		assertEquals(2, storage.getWriteCount());
+		assertEquals(1, storage.getSkippedWriteCount());
+		assertEquals("summary", state.getLastReadData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue());
+	}
+
+	public void testFingerprint() throws Exception {
+		TaskData data1 = createTaskData("summary");
+		TaskData data2 = createTaskData("summary");
+		assertEquals(TaskDataFingerprint.compute(data1), TaskDataFingerprint.compute(data2));
+
+		data2.getRoot().getAttribute(TaskAttribute.SUMMARY).putOption("key", "value");
+		assertFalse(TaskDataFingerprint.compute(data1).equals(TaskDataFingerprint.compute(data2)));
+
+		data2 = createTaskData("summary");
+		data2.getRoot().getAttribute(TaskAttribute.SUMMARY).getMetaData().putValue("key", "value");
+		assertFalse(TaskDataFingerprint.compute(data1).equals(TaskDataFingerprint.compute(data2)));
+
+		data2 = createTaskData("summary");
+		data2.setVersion("1");
+		assertFalse(TaskDataFingerprint.compute(data1).equals(TaskDataFingerprint.compute(data2)));
+
+		// values must not be ambiguous when concatenated
+		data1.getRoot().createAttribute("attribute").setValues(Arrays.asList("ab", "c"));
+		data2 = createTaskData("summary");
+		data2.getRoot().createAttribute("attribute").setValues(Arrays.asList("a", "bc"));
+		assertFalse(TaskDataFingerprint.compute(data1).equals(TaskDataFingerprint.compute(data2)));
+
+		assertNull(TaskDataFingerprint.compute(null));
+	}
+
+	public void testPutTaskDataWriteDelay() throws Exception {
+		file.delete();
+		storage.setWriteDelay(60 * 1000);
+		storage.putTaskData(file, createTaskData("summary"), false, false);
+		TaskDataState queuedState = storage.putTaskData(file, createTaskData("changed"), false, false);
+		// the returned state is a copy of the queued state
+		queuedState.setEditsData(createTaskData("edit"));
+		assertEquals(0, storage.getWriteCount());
+		assertEquals(1, storage.getPendingWriteCount());
+		assertFalse(file.exists());
+		assertTrue(storage.hasTaskData(file));
+		TaskDataState state = storage.getTaskDataState(file);
+		assertEquals("changed", state.getRepositoryData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue());
+		assertNull(state.getEditsData());
+
+		storage.flush();
+		assertEquals(1, storage.getWriteCount());
+		assertEquals(0, storage.getPendingWriteCount());
+		assertTrue(file.exists());
+		storage.setWriteDelay(0);
+		state = storage.getTaskDataState(file);
+		assertEquals("changed", state.getRepositoryData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue());
+	}
+
+	public void testPutEditsWriteDelay() throws Exception {
+		file.delete();
+		storage.setWriteDelay(60 * 1000);
+		storage.putTaskData(file, createTaskData("summary"), false, false);
+		storage.putEdits(file, createTaskData("edit"));
+		assertEquals(1, storage.getWriteCount());
+		assertEquals(0, storage.getPendingWriteCount());
+
+		TaskDataState state = storage.getTaskDataState(file);
+		assertEquals("summary", state.getRepositoryData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue());
+		assertEquals("edit", state.getEditsData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue());
+
+		storage.putTaskData(file, createTaskData("changed"), false, false);
+		state = storage.getTaskDataState(file);
+		// edits of queued states are copied since clients may modify them
+		assertNotSame(state.getEditsData(), storage.getTaskDataState(file).getEditsData());
+		assertEquals("edit", state.getEditsData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue());
+
+		assertTrue(storage.deleteTaskData(file));
+		assertEquals(0, storage.getPendingWriteCount());
+		assertFalse(storage.hasTaskData(file));
+	}
+
+	public void testPutTaskDataWriteDelayExpires() throws Exception {
+		file.delete();
+		storage.setWriteDelay(10);
+		storage.putTaskData(file, createTaskData("summary"), false, false);
+		// the queued state is removed after it was written
+		for (int i = 0; i < 100 && storage.getPendingWriteCount() > 0; i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(0, storage.getPendingWriteCount());
+		assertEquals(1, storage.getWriteCount());
+		assertTrue(file.exists());
+	}
+
+	public void testClearPendingRestore() throws Exception {
+		file.delete();
+		storage.setWriteDelay(60 * 1000);
+		storage.putTaskData(file, createTaskData("queued"), false, false);
+		assertEquals(1, storage.getPendingWriteCount());
+
+		// restore a backup of the file
+		TaskDataStore restoreStorage = new TaskDataStore(new TaskRepositoryManager());
+		restoreStorage.setTaskData(file, createTaskData("restored"));
+		restoreStorage.close();
+
+		storage.clearPending();
+		assertEquals(0, storage.getPendingWriteCount());
+		TaskDataState state = storage.getTaskDataState(file);
+		assertEquals("restored", state.getRepositoryData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue());
+
+		storage.flush();
+		assertEquals(0, storage.getWriteCount());
+		state = storage.getTaskDataState(file);
+		assertEquals("restored", state.getRepositoryData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue());
+	}
+
+	public void testExternalizationParticipant() throws Exception {
+		file.delete();
+		storage.setWriteDelay(60 * 1000);
+		TaskDataStoreExternalizationParticipant participant = new TaskDataStoreExternalizationParticipant(storage);
+		assertFalse(participant.isDirty());
+		storage.putTaskData(file, createTaskData("summary"), false, false);
+		assertTrue(participant.isDirty(true));
+
+		participant.execute(new IExternalizationContext() {
+			public Kind getKind() {
+				return Kind.SAVE;
+			}
+
+			public String getRootPath() {
+				return file.getParent();
+			}
+		}, null);
+		assertFalse(participant.isDirty());
+		assertTrue(file.exists());
+	}
+
+	/**
+	 * Writes and reads states of several tasks from concurrent threads and verifies that each state that is read was
+	 * written completely by a single thread.
+	 */
+	public void testConcurrentReadWrite() throws Exception {
+		final File[] files = new File[4];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = File.createTempFile("mylyn", null);
+			files[i].delete();
+			files[i].deleteOnExit();
+			storage.putTaskData(files[i], createTaskData("0"), false, false);
+		}
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			final int threadNumber = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < 50; j++) {
+							File file = files[j % files.length];
+							if (threadNumber % 2 == 0) {
+								String value = threadNumber + "-" + j;
+								TaskData data = createTaskData(value);
+								for (int k = 0; k < 20; k++) {
+									data.getRoot().createAttribute("attribute" + k).setValue(value);
+								}
+								storage.putTaskData(file, data, false, false);
+							} else {
+								TaskData data = storage.getTaskDataState(file).getRepositoryData();
+								String value = data.getRoot().getAttribute(TaskAttribute.SUMMARY).getValue();
+								for (TaskAttribute attribute : data.getRoot().getAttributes().values()) {
+									if (attribute.getId().startsWith("attribute")) {
+										assertEquals(value, attribute.getValue());
+									}
+								}
+							}
+						}
+					} catch (Throwable e) {
+						failures.add(e);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (File file : files) {
+			file.delete();
+		}
+		assertEquals(Collections.emptyList(), failures);
+		assertEquals(files.length + threads.length / 2 * 50, storage.getWriteCount());
+	}
+
+	private TaskData createTaskData(String summary) {
+		TaskData data = new TaskData(new TaskAttributeMapper(taskRepository), MockRepositoryConnector.CONNECTOR_KIND,
+				MockRepositoryConnector.REPOSITORY_URL, MOCK_ID);
+		TaskAttribute attribute = data.getRoot().createAttribute(TaskAttribute.SUMMARY);
+		attribute.getMetaData().setLabel("Summary").setKind(TaskAttribute.KIND_DEFAULT);
+		attribute.setValue(summary);
+		data.getRoot().createAttribute(TaskAttribute.DESCRIPTION).setValue("description");
+		return data;
+	}
+
 	private void setupData() {
 		data = new TaskData(new TaskAttributeMapper(taskRepository), MockRepositoryConnector.CONNECTOR_KIND,
 				MockRepositoryConnector.REPOSITORY_URL, MOCK_ID);
@@ -11,8 +11,11 @@
 
 package org.eclipse.mylyn.tasks.tests;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,12 +28,15 @@ import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTaskCategory;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTaskContainer;
 import org.eclipse.mylyn.internal.tasks.core.DateRange;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.LocalRepositoryConnector;
 import org.eclipse.mylyn.internal.tasks.core.LocalTask;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
 import org.eclipse.mylyn.internal.tasks.core.TaskCategory;
 import org.eclipse.mylyn.internal.tasks.core.TaskList;
 import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListExternalizationParticipant;
+import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListJournal;
 import org.eclipse.mylyn.internal.tasks.ui.ITasksUiPreferenceConstants;
 import org.eclipse.mylyn.internal.tasks.ui.TasksUiPlugin;
 import org.eclipse.mylyn.internal.tasks.ui.util.TasksUiInternal;
@@ -70,6 +76,7 @@ public class TaskListExternalizationTest extends TestCase {
 
 	@Override
 	protected void tearDown() throws Exception {
+		TasksUiPlugin.getTaskListExternalizationParticipant().setIncremental(false);
 		TaskTestUtil.resetTaskList();
 	}
 
@@ -675,4 +682,80 @@ public class TaskListExternalizationTest extends TestCase {
 		assertEquals(1, TasksUiPlugin.getTaskList().getQueries().size());
 	}
 
+	public void testIncrementalSave() throws Exception {
+		TaskListExternalizationParticipant participant = TasksUiPlugin.getTaskListExternalizationParticipant();
+		participant.setIncremental(true);
+		TaskCategory category = new TaskCategory("cat");
+		taskList.addCategory(category);
+		TaskTask task1 = TaskTestUtil.createMockTask("1");
+		taskList.addTask(task1, category);
+		TaskTask task2 = TaskTestUtil.createMockTask("2");
+		taskList.addTask(task2, category);
+		// force full save
+		taskList.notifyElementsChanged(null);
+		TaskTestUtil.saveNow();
+		File journalFile = getJournalFile();
+		assertFalse(journalFile.exists());
+
+		task1.setSummary("changed");
+		taskList.notifyElementsChanged(Collections.singleton(task1));
+		taskList.deleteTask(task2);
+		TaskTask task3 = TaskTestUtil.createMockTask("3");
+		taskList.addTask(task3, category);
+		TaskTestUtil.saveNow();
+		assertTrue(journalFile.exists());
+
+		readTaskList();
+		assertEquals(2, taskList.getAllTasks().size());
+		assertEquals("changed", taskList.getTask(task1.getHandleIdentifier()).getSummary());
+		assertNull(taskList.getTask(task2.getHandleIdentifier()));
+		assertEquals(2, taskList.getContainerForHandle("cat").getChildren().size());
+		assertTrue(taskList.getContainerForHandle("cat").contains(task3.getHandleIdentifier()));
+
+		// the journal is compacted by the first save after loading
+		taskList.addTask(TaskTestUtil.createMockTask("4"), taskList.getContainerForHandle("cat"));
+		TaskTestUtil.saveNow();
+		assertFalse(journalFile.exists());
+	}
+
+	public void testIncrementalSaveIncompleteRecord() throws Exception {
+		TaskListExternalizationParticipant participant = TasksUiPlugin.getTaskListExternalizationParticipant();
+		participant.setIncremental(true);
+		TaskTask task1 = TaskTestUtil.createMockTask("1");
+		taskList.addTask(task1);
+		taskList.notifyElementsChanged(null);
+		TaskTestUtil.saveNow();
+
+		TaskTask task2 = TaskTestUtil.createMockTask("2");
+		taskList.addTask(task2);
+		TaskTestUtil.saveNow();
+		File journalFile = getJournalFile();
+		long length = journalFile.length();
+		assertTrue(length > 0);
+
+		// simulate a record that was not completely written
+		FileOutputStream out = new FileOutputStream(journalFile, true);
+		try {
+			out.write(new byte[] { 0, 0, 1, 0, 0, 0 });
+		} finally {
+			out.close();
+		}
+
+		readTaskList();
+		assertEquals(2, taskList.getAllTasks().size());
+		assertNotNull(taskList.getTask(task2.getHandleIdentifier()));
+		assertEquals(length, journalFile.length());
+	}
+
+	private File getJournalFile() {
+		return TaskListJournal.getJournalFile(new File(TasksUiPlugin.getDefault().getDataDirectory(),
+				ITasksCoreConstants.DEFAULT_TASK_LIST_FILE));
+	}
+
+	private void readTaskList() throws Exception {
+		TaskTestUtil.resetTaskList();
+		TasksUiPlugin.getDefault().initializeDataSources();
+		taskList = TasksUiPlugin.getTaskList();
+	}
+
 }
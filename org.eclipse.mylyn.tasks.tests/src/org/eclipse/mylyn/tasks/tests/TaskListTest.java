@@ -11,6 +11,7 @@
 
 package org.eclipse.mylyn.tasks.tests;
 
+import java.util.Collections;
 import java.util.Set;
 
 import junit.framework.TestCase;
@@ -20,6 +21,7 @@ import org.eclipse.mylyn.internal.tasks.core.AbstractTaskCategory;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTaskContainer;
 import org.eclipse.mylyn.internal.tasks.core.LocalRepositoryConnector;
 import org.eclipse.mylyn.internal.tasks.core.LocalTask;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
 import org.eclipse.mylyn.internal.tasks.core.TaskCategory;
 import org.eclipse.mylyn.internal.tasks.core.TaskList;
 import org.eclipse.mylyn.tasks.core.ITask;
@@ -552,4 +554,104 @@ public class TaskListTest extends TestCase {
 		assertTrue(tasksReturned.contains(task1));
 	}
 
+	public void testGetRepositoryTasksAfterDelete() {
+		String repositoryUrl = "https://bugs.eclipse.org/bugs";
+		MockTask task1 = new MockTask(repositoryUrl, "1");
+		taskList.addTask(task1);
+		MockTask task2 = new MockTask(repositoryUrl, "2");
+		taskList.addTask(task2);
+		assertEquals(2, taskList.getTasks(repositoryUrl).size());
+
+		taskList.deleteTask(task1);
+		Set<ITask> tasksReturned = taskList.getTasks(repositoryUrl);
+		assertEquals(1, tasksReturned.size());
+		assertTrue(tasksReturned.contains(task2));
+
+		taskList.deleteTask(task2);
+		assertEquals(0, taskList.getTasks(repositoryUrl).size());
+	}
+
+	public void testGetRepositoryTasksAfterRefactorRepositoryUrl() {
+		String oldRepositoryUrl = "https://old";
+		String newRepositoryUrl = "https://new";
+		MockTask task1 = new MockTask(oldRepositoryUrl, "1");
+		taskList.addTask(task1);
+		MockTask task2 = new MockTask("https://other", "1");
+		taskList.addTask(task2);
+
+		taskList.refactorRepositoryUrl(oldRepositoryUrl, newRepositoryUrl);
+
+		assertEquals(0, taskList.getTasks(oldRepositoryUrl).size());
+		Set<ITask> tasksReturned = taskList.getTasks(newRepositoryUrl);
+		assertEquals(1, tasksReturned.size());
+		assertTrue(tasksReturned.contains(task1));
+		assertEquals(1, taskList.getTasks("https://other").size());
+	}
+
+	public void testGetTaskByKey() {
+		String repositoryUrl = "https://bugs.eclipse.org/bugs";
+		MockTask task1 = new MockTask(repositoryUrl, "1");
+		task1.setTaskKey("KEY-1");
+		taskList.addTask(task1);
+		MockTask task2 = new MockTask("https://other", "1");
+		task2.setTaskKey("KEY-1");
+		taskList.addTask(task2);
+
+		assertSame(task1, taskList.getTaskByKey(repositoryUrl, "KEY-1"));
+		assertSame(task2, taskList.getTaskByKey("https://other", "KEY-1"));
+		assertNull(taskList.getTaskByKey(repositoryUrl, "KEY-2"));
+		assertNull(taskList.getTaskByKey("https://unknown", "KEY-1"));
+	}
+
+	public void testGetTaskByKeyAfterKeyChange() {
+		String repositoryUrl = "https://bugs.eclipse.org/bugs";
+		MockTask task = new MockTask(repositoryUrl, "1");
+		taskList.addTask(task);
+		assertSame(task, taskList.getTaskByKey(repositoryUrl, "1"));
+
+		task.setTaskKey("KEY-1");
+		assertNull(taskList.getTaskByKey(repositoryUrl, "1"));
+		assertSame(task, taskList.getTaskByKey(repositoryUrl, "KEY-1"));
+
+		taskList.deleteTask(task);
+		assertNull(taskList.getTaskByKey(repositoryUrl, "KEY-1"));
+	}
+
+	public void testGetRepositoryQueries() {
+		MockRepositoryQuery query1 = new MockRepositoryQuery("query1");
+		taskList.addQuery(query1);
+		Set<RepositoryQuery> queries = taskList.getRepositoryQueries(MockRepositoryConnector.REPOSITORY_URL);
+		assertEquals(1, queries.size());
+
+		MockRepositoryQuery query2 = new MockRepositoryQuery("query2");
+		taskList.addQuery(query2);
+		// returned sets are live views
+		assertEquals(2, queries.size());
+		assertEquals(2, taskList.getRepositoryQueries(MockRepositoryConnector.REPOSITORY_URL).size());
+		try {
+			queries.remove(query2);
+			fail("expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+		}
+
+		taskList.deleteQuery(query1);
+		assertEquals(Collections.singleton(query2),
+				taskList.getRepositoryQueries(MockRepositoryConnector.REPOSITORY_URL));
+		assertTrue(taskList.getRepositoryQueries("https://other").isEmpty());
+	}
+
+	public void testGetRootElements() {
+		Set<AbstractTaskContainer> roots = taskList.getRootElements();
+		assertSame(roots, taskList.getRootElements());
+
+		TaskCategory category = new TaskCategory("category");
+		taskList.addCategory(category);
+		Set<AbstractTaskContainer> rootsWithCategory = taskList.getRootElements();
+		assertEquals(roots.size() + 1, rootsWithCategory.size());
+		assertTrue(rootsWithCategory.contains(category));
+
+		taskList.deleteCategory(category);
+		assertEquals(roots.size(), taskList.getRootElements().size());
+	}
+
 }
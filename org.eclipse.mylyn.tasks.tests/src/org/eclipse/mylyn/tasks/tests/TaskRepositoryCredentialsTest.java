@@ -11,9 +11,13 @@
 
 package org.eclipse.mylyn.tasks.tests;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 import junit.framework.TestCase;
@@ -147,6 +151,53 @@ public class TaskRepositoryCredentialsTest extends TestCase {
 		}
 	}
 
+	public void testCredentialsCached() throws Exception {
+		TaskRepository taskRepository = new TaskRepository("kind", "http://cached");
+		TaskRepository otherRepository = new TaskRepository("kind", "http://cached");
+		try {
+			taskRepository.setCredentials(AuthenticationType.REPOSITORY, new AuthenticationCredentials("user", "pwd"),
+					true);
+			AuthenticationCredentials credentials = taskRepository.getCredentials(AuthenticationType.REPOSITORY);
+			assertEquals("user", credentials.getUserName());
+			assertSame(credentials, taskRepository.getCredentials(AuthenticationType.REPOSITORY));
+
+			// credentials are shared by repositories with the same url
+			otherRepository.setCredentials(AuthenticationType.REPOSITORY,
+					new AuthenticationCredentials("user2", "pwd2"), true);
+			credentials = taskRepository.getCredentials(AuthenticationType.REPOSITORY);
+			assertEquals("user2", credentials.getUserName());
+			assertEquals("pwd2", credentials.getPassword());
+
+			taskRepository.setProperty("org.eclipse.mylyn.tasklist.repositories.enabled", "false");
+			assertNull(taskRepository.getCredentials(AuthenticationType.REPOSITORY));
+		} finally {
+			taskRepository.flushAuthenticationCredentials();
+		}
+	}
+
+	public void testProperties() {
+		TaskRepository taskRepository = new TaskRepository("kind", "http://url");
+		final List<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+		taskRepository.addChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent evt) {
+				events.add(evt);
+			}
+		});
+		taskRepository.setProperty("key", "value");
+		taskRepository.setProperty("key", "value");
+		assertEquals(1, events.size());
+		assertEquals("key", events.get(0).getPropertyName());
+		assertEquals("value", events.get(0).getNewValue());
+
+		Map<String, String> properties = taskRepository.getProperties();
+		properties.put("key", "changed");
+		assertEquals("value", taskRepository.getProperty("key"));
+
+		taskRepository.removeProperty("key");
+		assertNull(taskRepository.getProperty("key"));
+		assertEquals("changed", properties.get("key"));
+	}
+
 	public void testConfigUpdateStoring() throws Exception {
 		URL url = new URL("http://url");
 		TaskRepository taskRepository = new TaskRepository("kind", url.toString());
@@ -344,4 +344,27 @@ public class TaskRepositoryManagerTest extends TestCase {
 		assertNull(manager.getRepository(MockRepositoryConnector.CONNECTOR_KIND));
 		assertEquals(Collections.emptySet(), manager.getRepositories(MockRepositoryConnector.CONNECTOR_KIND));
 	}
+
+	public void testGetRepositoryIndex() {
+		TaskRepository repository = new TaskRepository(MockRepositoryConnector.CONNECTOR_KIND, "http://a/");
+		manager.addRepository(repository);
+		assertSame(repository, manager.getRepository(MockRepositoryConnector.CONNECTOR_KIND, "http://a"));
+		assertSame(repository, manager.getRepository(MockRepositoryConnector.CONNECTOR_KIND, " http://a// "));
+		assertSame(repository, manager.getRepository("http://a"));
+		assertNull(manager.getRepository(LocalRepositoryConnector.CONNECTOR_KIND, "http://a"));
+
+		String oldUrl = repository.getRepositoryUrl();
+		repository.setRepositoryUrl("http://b");
+		manager.notifyRepositoryUrlChanged(repository, oldUrl);
+		assertNull(manager.getRepository("http://a"));
+		assertSame(repository, manager.getRepository(MockRepositoryConnector.CONNECTOR_KIND, "http://b"));
+
+		// changes that are not announced are detected on lookup
+		repository.setRepositoryUrl("http://c");
+		assertNull(manager.getRepository(MockRepositoryConnector.CONNECTOR_KIND, "http://b"));
+		assertSame(repository, manager.getRepository("http://c/"));
+
+		manager.removeRepository(repository);
+		assertNull(manager.getRepository("http://c"));
+	}
 }
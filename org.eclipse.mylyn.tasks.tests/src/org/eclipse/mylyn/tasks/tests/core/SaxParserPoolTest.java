@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.core;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.internal.tasks.core.SaxParserPool;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class SaxParserPoolTest extends TestCase {
+
+	private static class ElementCounter extends DefaultHandler {
+
+		int count;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes)
+				throws SAXException {
+			count++;
+		}
+
+	}
+
+	private SaxParserPool pool;
+
+	@Override
+	protected void setUp() throws Exception {
+		pool = new SaxParserPool(2);
+	}
+
+	public void testReuse() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			ElementCounter handler = new ElementCounter();
+			pool.parse(source("<a><b/><c/></a>"), handler);
+			assertEquals(3, handler.count);
+		}
+		assertEquals(1, pool.getCreatedCount());
+		assertEquals(9, pool.getReusedCount());
+		assertEquals(1, pool.getIdleCount());
+	}
+
+	public void testReleaseResetsHandlers() throws Exception {
+		XMLReader parser = pool.acquire();
+		ElementCounter handler = new ElementCounter();
+		parser.setContentHandler(handler);
+		parser.setErrorHandler(handler);
+		pool.release(parser);
+
+		assertSame(parser, pool.acquire());
+		assertNotSame(handler, parser.getContentHandler());
+		assertNotSame(handler, parser.getErrorHandler());
+		parser.parse(source("<a/>"));
+		assertEquals(0, handler.count);
+	}
+
+	public void testMaxIdle() throws Exception {
+		XMLReader parser1 = pool.acquire();
+		XMLReader parser2 = pool.acquire();
+		XMLReader parser3 = pool.acquire();
+		assertEquals(3, pool.getCreatedCount());
+		pool.release(parser1);
+		pool.release(parser2);
+		pool.release(parser3);
+		assertEquals(2, pool.getIdleCount());
+	}
+
+	public void testExternalEntitiesAreNotResolved() throws Exception {
+		ElementCounter handler = new ElementCounter();
+		pool.parse(source("<?xml version=\"1.0\"?>\n"
+				+ "<!DOCTYPE a SYSTEM \"http://invalid.mylyn.eclipse.org/a.dtd\">\n<a><b/></a>"), handler);
+		assertEquals(2, handler.count);
+	}
+
+	public void testParseFailureReleasesParser() throws Exception {
+		try {
+			pool.parse(source("<a>"), new ElementCounter());
+			fail("Expected SAXException");
+		} catch (SAXException e) {
+			// expected
+		}
+		assertEquals(1, pool.getIdleCount());
+		ElementCounter handler = new ElementCounter();
+		pool.parse(source("<a/>"), handler);
+		assertEquals(1, handler.count);
+		assertEquals(1, pool.getReusedCount());
+	}
+
+	public void testConcurrentParse() throws Exception {
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+		Thread[] threads = new Thread[4];
+		pool = new SaxParserPool(threads.length);
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < 100; j++) {
+							ElementCounter handler = new ElementCounter();
+							pool.parse(source("<a><b/></a>"), handler);
+							assertEquals(2, handler.count);
+						}
+					} catch (Throwable e) {
+						failures.add(e);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(Collections.emptyList(), failures);
+		assertEquals(400, pool.getCreatedCount() + pool.getReusedCount());
+		assertTrue(pool.getCreatedCount() <= threads.length);
+	}
+
+	private InputSource source(String xml) {
+		return new InputSource(new StringReader(xml));
+	}
+
+}
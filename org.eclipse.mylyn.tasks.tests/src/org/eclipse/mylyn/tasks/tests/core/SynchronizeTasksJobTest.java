@@ -17,6 +17,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -35,6 +37,7 @@ import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTaskContainer;
+import org.eclipse.mylyn.internal.tasks.core.IRepositoryConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITaskListChangeListener;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants.MutexSchedulingRule;
@@ -669,6 +672,118 @@ public class SynchronizeTasksJobTest extends TestCase {
 		((TaskRepositoryManager) TasksUi.getRepositoryManager()).removeRepository(firstRepository);
 	}
 
+	public void testGetMultiTaskDataConcurrently() throws Exception {
+		final List<Integer> sliceSizes = Collections.synchronizedList(new ArrayList<Integer>());
+		final AtomicBoolean concurrent = new AtomicBoolean(true);
+		final CountDownLatch started = new CountDownLatch(4);
+		final MockRepositoryConnector connector = new MockRepositoryConnectorWithTaskDataHandler() {
+			@Override
+			public AbstractTaskDataHandler getTaskDataHandler() {
+				return new MockTaskDataHandler(this) {
+					@Override
+					public boolean canGetMultiTaskData(TaskRepository repository) {
+						return true;
+					}
+
+					@Override
+					public void getMultiTaskData(TaskRepository repository, Set<String> taskIds,
+							TaskDataCollector collector, IProgressMonitor monitor) throws CoreException {
+						sliceSizes.add(taskIds.size());
+						started.countDown();
+						try {
+							// wait for all slices to be in flight
+							if (!started.await(5, TimeUnit.SECONDS)) {
+								concurrent.set(false);
+							}
+						} catch (InterruptedException e) {
+							throw new OperationCanceledException();
+						}
+						for (String taskId : taskIds) {
+							collector.accept(createTaskData(taskId));
+						}
+					}
+				};
+			}
+		};
+		Set<ITask> tasks = new HashSet<ITask>();
+		for (int i = 0; i < 400; i++) {
+			tasks.add(new MockTask(Integer.toString(i)));
+		}
+
+		final Set<String> putTaskIds = Collections.synchronizedSet(new HashSet<String>());
+		TaskDataManager customTaskDataManager = new TaskDataManager(taskDataStore, TasksUi.getRepositoryManager(),
+				taskList, (TaskActivityManager) TasksUi.getTaskActivityManager(), new SynchronizationManger(
+						(RepositoryModel) TasksUi.getRepositoryModel())) {
+			@Override
+			public void putUpdatedTaskData(ITask itask, TaskData taskData, boolean user, Object token,
+					IProgressMonitor monitor) throws CoreException {
+				assertTrue(putTaskIds.add(itask.getTaskId()));
+			}
+		};
+		SynchronizeTasksJob.setConcurrency(repository, 4);
+		SynchronizeTasksJob job = createSyncJobWithManager(connector, tasks, customTaskDataManager);
+		job.run(new NullProgressMonitor());
+
+		assertEquals(4, sliceSizes.size());
+		assertTrue(concurrent.get());
+		assertEquals(400, putTaskIds.size());
+		assertEquals(Collections.emptyList(), new ArrayList<IStatus>(job.getStatuses()));
+	}
+
+	public void testGetMultiTaskDataConcurrentlyFails() throws Exception {
+		final Status errorStatus = new Status(IStatus.ERROR, "bundle", "error");
+		final Set<String> failedTaskIds = Collections.synchronizedSet(new HashSet<String>());
+		AbstractRepositoryConnector connector = new MockRepositoryConnectorWithTaskDataHandler() {
+			@Override
+			public AbstractTaskDataHandler getTaskDataHandler() {
+				return new MockTaskDataHandler(this) {
+					@Override
+					public boolean canGetMultiTaskData(TaskRepository repository) {
+						return true;
+					}
+
+					@Override
+					public void getMultiTaskData(TaskRepository repository, Set<String> taskIds,
+							TaskDataCollector collector, IProgressMonitor monitor) throws CoreException {
+						if (taskIds.contains("0")) {
+							failedTaskIds.addAll(taskIds);
+							throw new CoreException(errorStatus);
+						}
+						for (String taskId : taskIds) {
+							collector.accept(createTaskData(taskId));
+						}
+					}
+				};
+			}
+		};
+		Set<ITask> tasks = new HashSet<ITask>();
+		for (int i = 0; i < 100; i++) {
+			tasks.add(new MockTask(Integer.toString(i)));
+		}
+		SynchronizeTasksJob.setConcurrency(repository, 2);
+		SynchronizeTasksJob job = createSyncJob(connector, tasks);
+		job.run(new NullProgressMonitor());
+
+		assertEquals(50, failedTaskIds.size());
+		for (ITask task : tasks) {
+			if (failedTaskIds.contains(task.getTaskId())) {
+				assertEquals(errorStatus, ((AbstractTask) task).getStatus());
+			} else {
+				assertNull(((AbstractTask) task).getStatus());
+			}
+		}
+	}
+
+	public void testGetConcurrency() throws Exception {
+		assertEquals(1, SynchronizeTasksJob.getConcurrency(repository));
+		SynchronizeTasksJob.setConcurrency(repository, 3);
+		assertEquals(3, SynchronizeTasksJob.getConcurrency(repository));
+		SynchronizeTasksJob.setConcurrency(repository, 100);
+		assertEquals(SynchronizeTasksJob.MAX_CONCURRENCY, SynchronizeTasksJob.getConcurrency(repository));
+		repository.setProperty(IRepositoryConstants.PROPERTY_SYNC_CONCURRENCY, "invalid");
+		assertEquals(1, SynchronizeTasksJob.getConcurrency(repository));
+	}
+
 	private SynchronizeTasksJob createSyncJob(AbstractRepositoryConnector connector, Set<ITask> tasks) {
 		return new SynchronizeTasksJob(taskList, taskDataManager, tasksModel, connector, repository, tasks);
 	}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryModel;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
+import org.eclipse.mylyn.internal.tasks.core.TaskCategory;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.internal.tasks.core.UnmatchedTaskContainer;
+import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListExternalizer;
+import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListJournal;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
+
+public class TaskListExternalizerTest extends TestCase {
+
+	private TaskRepositoryManager repositoryManager;
+
+	private TaskRepository repository;
+
+	private TaskList taskList;
+
+	private File file;
+
+	@Override
+	protected void setUp() throws Exception {
+		repositoryManager = new TaskRepositoryManager();
+		repositoryManager.addRepositoryConnector(new MockRepositoryConnector());
+		repository = new TaskRepository(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL);
+		repositoryManager.addRepository(repository);
+		taskList = createTaskList();
+		file = File.createTempFile("tasklist", ITasksCoreConstants.FILE_EXTENSION);
+		file.deleteOnExit();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+		TaskListJournal.getJournalFile(file).delete();
+	}
+
+	public void testWriteRead() throws Exception {
+		TaskTask task1 = createTask("1");
+		task1.setSummary("summary <1> & \"quoted\"");
+		task1.setAttribute("key", "value\nwith newline");
+		taskList.addTask(task1);
+		TaskTask task2 = createTask("2");
+		taskList.addTask(task2, task1);
+		TaskCategory category = new TaskCategory("category");
+		taskList.addCategory(category);
+		taskList.addTask(task1, category);
+		RepositoryQuery query = new RepositoryQuery(MockRepositoryConnector.CONNECTOR_KIND, "query");
+		query.setRepositoryUrl(MockRepositoryConnector.REPOSITORY_URL);
+		query.setSummary("Query");
+		taskList.addQuery(query);
+		taskList.addTask(task2, query);
+
+		TaskList readTaskList = writeAndRead();
+
+		assertEquals(2, readTaskList.getAllTasks().size());
+		AbstractTask readTask1 = readTaskList.getTask(task1.getHandleIdentifier());
+		assertEquals("summary <1> & \"quoted\"", readTask1.getSummary());
+		assertEquals("value\nwith newline", readTask1.getAttribute("key"));
+		assertEquals(1, readTask1.getChildren().size());
+		assertEquals(task2.getHandleIdentifier(), readTask1.getChildren().iterator().next().getHandleIdentifier());
+		assertTrue(readTaskList.getContainerForHandle("category").contains(task1.getHandleIdentifier()));
+		assertEquals(1, readTaskList.getQueries().size());
+		RepositoryQuery readQuery = readTaskList.getQueries().iterator().next();
+		assertEquals("Query", readQuery.getSummary());
+		assertTrue(readQuery.contains(task2.getHandleIdentifier()));
+	}
+
+	public void testReadJournal() throws Exception {
+		TaskTask task1 = createTask("1");
+		taskList.addTask(task1);
+		TaskTask task2 = createTask("2");
+		taskList.addTask(task2);
+		TaskListExternalizer externalizer = createExternalizer(taskList);
+		externalizer.writeTaskList(taskList, file);
+
+		task1.setSummary("changed");
+		taskList.deleteTask(task2);
+		TaskTask task3 = createTask("3");
+		taskList.addTask(task3);
+		externalizer.writeTaskListJournal(taskList, file, Arrays.asList(task1, task2));
+		externalizer.writeTaskListJournal(taskList, file, Collections.singleton(task3));
+
+		TaskList readTaskList = read();
+		assertEquals(2, readTaskList.getAllTasks().size());
+		assertEquals("changed", readTaskList.getTask(task1.getHandleIdentifier()).getSummary());
+		assertNull(readTaskList.getTask(task2.getHandleIdentifier()));
+		assertNotNull(readTaskList.getTask(task3.getHandleIdentifier()));
+
+		// a full write supersedes the journal
+		externalizer.writeTaskList(taskList, file);
+		assertFalse(TaskListJournal.getJournalFile(file).exists());
+	}
+
+	public void testReadJournalStale() throws Exception {
+		TaskTask task1 = createTask("1");
+		taskList.addTask(task1);
+		TaskListExternalizer externalizer = createExternalizer(taskList);
+		externalizer.writeTaskList(taskList, file);
+		taskList.deleteTask(task1);
+		externalizer.writeTaskListJournal(taskList, file, Collections.singleton(task1));
+		File journalFile = TaskListJournal.getJournalFile(file);
+		File staleJournalFile = new File(journalFile.getPath() + ".stale");
+		staleJournalFile.deleteOnExit();
+		copy(journalFile, staleJournalFile);
+
+		// simulate a crash after writing the task list file but before the journal was deleted
+		taskList.addTask(task1);
+		externalizer.writeTaskList(taskList, file);
+		assertTrue(staleJournalFile.renameTo(journalFile));
+
+		TaskList readTaskList = read();
+		assertNotNull(readTaskList.getTask(task1.getHandleIdentifier()));
+
+		// the next record replaces the stale journal
+		TaskTask task2 = createTask("2");
+		taskList.addTask(task2);
+		externalizer.writeTaskListJournal(taskList, file, Collections.singleton(task2));
+		readTaskList = read();
+		assertNotNull(readTaskList.getTask(task1.getHandleIdentifier()));
+		assertNotNull(readTaskList.getTask(task2.getHandleIdentifier()));
+	}
+
+	public void testReadJournalReplacedTaskList() throws Exception {
+		TaskTask task1 = createTask("1");
+		taskList.addTask(task1);
+		TaskListExternalizer externalizer = createExternalizer(taskList);
+		externalizer.writeTaskList(taskList, file);
+		task1.setSummary("journal");
+		externalizer.writeTaskListJournal(taskList, file, Collections.singleton(task1));
+
+		// replace the task list file, e.g. by restoring a backup, the journal does not apply to the new file
+		File backup = File.createTempFile("tasklist", ITasksCoreConstants.FILE_EXTENSION);
+		backup.deleteOnExit();
+		task1.setSummary("backup");
+		createExternalizer(taskList).writeTaskList(taskList, backup);
+		copy(backup, file);
+		backup.delete();
+
+		TaskList readTaskList = read();
+		assertEquals("backup", readTaskList.getTask(task1.getHandleIdentifier()).getSummary());
+	}
+
+	public void testWriteReplacesFile() throws Exception {
+		TaskTask task1 = createTask("1");
+		taskList.addTask(task1);
+		TaskListExternalizer externalizer = createExternalizer(taskList);
+		externalizer.writeTaskList(taskList, file);
+		task1.setSummary("changed");
+		externalizer.writeTaskList(taskList, file);
+
+		assertFalse(new File(file.getPath() + ".tmp").exists());
+		assertEquals("changed", read().getTask(task1.getHandleIdentifier()).getSummary());
+	}
+
+	private void copy(File source, File target) throws IOException {
+		InputStream in = new FileInputStream(source);
+		try {
+			OutputStream out = new FileOutputStream(target);
+			try {
+				byte[] buffer = new byte[8192];
+				int count;
+				while ((count = in.read(buffer)) != -1) {
+					out.write(buffer, 0, count);
+				}
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	private TaskTask createTask(String taskId) {
+		return new TaskTask(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL, taskId);
+	}
+
+	private TaskList createTaskList() {
+		TaskList taskList = new TaskList();
+		taskList.addUnmatchedContainer(new UnmatchedTaskContainer(repository.getConnectorKind(),
+				repository.getRepositoryUrl()));
+		return taskList;
+	}
+
+	private TaskListExternalizer createExternalizer(TaskList taskList) {
+		return new TaskListExternalizer(new RepositoryModel(taskList, repositoryManager), repositoryManager);
+	}
+
+	private TaskList writeAndRead() throws Exception {
+		createExternalizer(taskList).writeTaskList(taskList, file);
+		return read();
+	}
+
+	private TaskList read() throws Exception {
+		TaskList readTaskList = createTaskList();
+		createExternalizer(readTaskList).readTaskList(readTaskList, file);
+		return readTaskList;
+	}
+
+}
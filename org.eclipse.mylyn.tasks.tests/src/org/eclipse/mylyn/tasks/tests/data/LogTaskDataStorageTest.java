@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.commons.sdk.util.CommonTestUtil;
+import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.internal.tasks.core.data.LogTaskDataStorage;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataState;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataStore;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
+
+public class LogTaskDataStorageTest extends TestCase {
+
+	private TaskRepositoryManager repositoryManager;
+
+	private TaskRepository repository;
+
+	private File directory;
+
+	private LogTaskDataStorage storage;
+
+	private TaskDataStore store;
+
+	@Override
+	protected void setUp() throws Exception {
+		repositoryManager = new TaskRepositoryManager();
+		repositoryManager.addRepositoryConnector(new MockRepositoryConnector());
+		repository = new TaskRepository(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL);
+		repositoryManager.addRepository(repository);
+
+		directory = File.createTempFile("mylyn", null);
+		directory.delete();
+		directory.mkdirs();
+
+		storage = new LogTaskDataStorage(4096, 1024);
+		store = new TaskDataStore(repositoryManager, storage);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		storage.close();
+		CommonTestUtil.deleteFolderRecursively(directory);
+	}
+
+	public void testPutAndGet() throws Exception {
+		File file = new File(directory, "1.zip");
+		assertFalse(store.hasTaskData(file));
+		assertNull(store.getTaskDataState(file));
+
+		store.putTaskData(file, createState("1", "summary"));
+		assertTrue(store.hasTaskData(file));
+		assertFalse(file.exists());
+		assertEquals("summary", getSummary(store.getTaskDataState(file)));
+	}
+
+	public void testPutAndGetAfterReopen() throws Exception {
+		File file1 = new File(directory, "1.zip");
+		File file2 = new File(directory, "2.zip");
+		store.putTaskData(file1, createState("1", "summary1"));
+		store.putTaskData(file2, createState("2", "summary2"));
+		store.putTaskData(file1, createState("1", "summary1 changed"));
+		storage.close();
+
+		assertEquals("summary1 changed", getSummary(store.getTaskDataState(file1)));
+		assertEquals("summary2", getSummary(store.getTaskDataState(file2)));
+	}
+
+	public void testDelete() throws Exception {
+		File file = new File(directory, "1.zip");
+		store.putTaskData(file, createState("1", "summary"));
+		assertTrue(store.deleteTaskData(file));
+		assertFalse(store.hasTaskData(file));
+		assertFalse(store.deleteTaskData(file));
+
+		storage.close();
+		assertFalse(store.hasTaskData(file));
+		assertNull(store.getTaskDataState(file));
+	}
+
+	public void testMigrateZipFiles() throws Exception {
+		File file = new File(directory, "1.zip");
+		TaskDataStore zipStore = new TaskDataStore(repositoryManager);
+		zipStore.putTaskData(file, createState("1", "summary"));
+		assertTrue(file.exists());
+
+		assertEquals("summary", getSummary(store.getTaskDataState(file)));
+		assertFalse(file.exists());
+		// the imported file is kept as a backup
+		File migratedFile = new File(directory, "1.zip.migrated");
+		assertTrue(migratedFile.exists());
+
+		// the renamed file is not imported again
+		store.putTaskData(file, createState("1", "changed"));
+		storage.close();
+		assertEquals("changed", getSummary(store.getTaskDataState(file)));
+		assertTrue(migratedFile.exists());
+	}
+
+	public void testResetImportsRestoredZipFiles() throws Exception {
+		File file = new File(directory, "1.zip");
+		store.putTaskData(file, createState("1", "summary"));
+		assertEquals("summary", getSummary(store.getTaskDataState(file)));
+
+		// simulate a restore that adds a zip file to the directory of an open log
+		TaskDataStore zipStore = new TaskDataStore(repositoryManager);
+		zipStore.putTaskData(file, createState("1", "restored"));
+		assertEquals("summary", getSummary(store.getTaskDataState(file)));
+
+		store.reset();
+		assertEquals("restored", getSummary(store.getTaskDataState(file)));
+	}
+
+	public void testCompact() throws Exception {
+		File file1 = new File(directory, "1.zip");
+		File file2 = new File(directory, "2.zip");
+		store.putTaskData(file2, createState("2", "summary2"));
+		for (int i = 0; i < 50; i++) {
+			store.putTaskData(file1, createState("1", "summary" + i));
+		}
+		storage.compact();
+		assertEquals("summary49", getSummary(store.getTaskDataState(file1)));
+		assertEquals("summary2", getSummary(store.getTaskDataState(file2)));
+
+		storage.close();
+		assertEquals("summary49", getSummary(store.getTaskDataState(file1)));
+		assertEquals("summary2", getSummary(store.getTaskDataState(file2)));
+	}
+
+	public void testCompactSegmentNotDeleted() throws Exception {
+		File file1 = new File(directory, "1.zip");
+		File file2 = new File(directory, "2.zip");
+		store.putTaskData(file1, createState("1", "summary1"));
+		store.putTaskData(file2, createState("2", "summary2"));
+		assertTrue(store.deleteTaskData(file1));
+		storage.flush();
+		Map<String, byte[]> segments = readSegments();
+		assertFalse(segments.isEmpty());
+
+		storage.compact();
+		// simulate segments that could not be deleted after compaction, e.g. since they were still mapped
+		for (Map.Entry<String, byte[]> entry : segments.entrySet()) {
+			File segment = new File(directory, entry.getKey());
+			assertFalse(segment.exists());
+			write(segment, entry.getValue());
+		}
+		storage.close();
+
+		assertFalse(store.hasTaskData(file1));
+		assertEquals("summary2", getSummary(store.getTaskDataState(file2)));
+	}
+
+	private Map<String, byte[]> readSegments() throws IOException {
+		Map<String, byte[]> contentByName = new HashMap<String, byte[]>();
+		for (File file : directory.listFiles()) {
+			if (file.getName().endsWith(".log")) {
+				InputStream in = new FileInputStream(file);
+				try {
+					byte[] content = new byte[(int) file.length()];
+					int offset = 0;
+					while (offset < content.length) {
+						offset += in.read(content, offset, content.length - offset);
+					}
+					contentByName.put(file.getName(), content);
+				} finally {
+					in.close();
+				}
+			}
+		}
+		return contentByName;
+	}
+
+	private void write(File file, byte[] content) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+	}
+
+	private TaskDataState createState(String taskId, String summary) {
+		TaskData data = new TaskData(new TaskAttributeMapper(repository), MockRepositoryConnector.CONNECTOR_KIND,
+				MockRepositoryConnector.REPOSITORY_URL, taskId);
+		data.getRoot().createAttribute("summary").setValue(summary);
+		TaskDataState state = new TaskDataState(MockRepositoryConnector.CONNECTOR_KIND,
+				MockRepositoryConnector.REPOSITORY_URL, taskId);
+		state.setRepositoryData(data);
+		return state;
+	}
+
+	private String getSummary(TaskDataState state) {
+		assertNotNull(state);
+		return state.getRepositoryData().getRoot().getAttribute("summary").getValue();
+	}
+
+}
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.StreamingTaskDataCollector;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
+
+public class StreamingTaskDataCollectorTest extends TestCase {
+
+	private TaskRepository repository;
+
+	private List<Thread> threads;
+
+	private List<String> taskIds;
+
+	@Override
+	protected void setUp() throws Exception {
+		repository = new TaskRepository(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL);
+		threads = Collections.synchronizedList(new ArrayList<Thread>());
+		taskIds = Collections.synchronizedList(new ArrayList<String>());
+	}
+
+	public void testProcessInBatches() throws Exception {
+		StreamingTaskDataCollector collector = new StreamingTaskDataCollector(10, 4) {
+			@Override
+			protected void process(List<TaskData> batch) throws CoreException {
+				assertTrue(batch.size() <= 4);
+				threads.add(Thread.currentThread());
+				for (TaskData taskData : batch) {
+					taskIds.add(taskData.getTaskId());
+				}
+			}
+		};
+		List<String> expected = new ArrayList<String>();
+		for (int i = 0; i < 100; i++) {
+			collector.accept(createTaskData(i + ""));
+			expected.add(i + "");
+		}
+		collector.done();
+
+		assertEquals(expected, taskIds);
+		assertEquals(100, collector.getAcceptedCount());
+		assertEquals(100, collector.getProcessedCount());
+		assertTrue(collector.getBatchCount() >= 25);
+		assertTrue(collector.getMaxQueueSize() <= 10);
+		assertFalse(threads.contains(Thread.currentThread()));
+		assertFalse(collector.isAborted());
+	}
+
+	public void testDoneWithoutResults() throws Exception {
+		StreamingTaskDataCollector collector = new StreamingTaskDataCollector() {
+			@Override
+			protected void process(List<TaskData> batch) throws CoreException {
+				fail("Unexpected batch");
+			}
+		};
+		collector.done();
+		assertEquals(0, collector.getProcessedCount());
+		assertEquals(0, collector.getElapsedTime());
+	}
+
+	public void testAcceptBlocksWhenQueueIsFull() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final StreamingTaskDataCollector collector = new StreamingTaskDataCollector(2, 1) {
+			@Override
+			protected void process(List<TaskData> batch) throws CoreException {
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					throw new CoreException(Status.CANCEL_STATUS);
+				}
+			}
+		};
+		final CountDownLatch accepted = new CountDownLatch(1);
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 0; i < 10; i++) {
+					collector.accept(createTaskData(i + ""));
+				}
+				accepted.countDown();
+			}
+		};
+		producer.start();
+		assertFalse("Expected accept() to block", accepted.await(500, TimeUnit.MILLISECONDS));
+		assertTrue(collector.getAcceptedCount() < 10);
+
+		release.countDown();
+		assertTrue(accepted.await(10, TimeUnit.SECONDS));
+		collector.done();
+		assertEquals(10, collector.getProcessedCount());
+		assertTrue(collector.getWaitTime() > 0);
+	}
+
+	public void testProcessFails() throws Exception {
+		StreamingTaskDataCollector collector = new StreamingTaskDataCollector(4, 2) {
+			@Override
+			protected void process(List<TaskData> batch) throws CoreException {
+				throw new CoreException(new Status(IStatus.ERROR, "id", "failed"));
+			}
+		};
+		for (int i = 0; i < 100; i++) {
+			collector.accept(createTaskData(i + ""));
+		}
+		try {
+			collector.done();
+			fail("Expected CoreException");
+		} catch (CoreException e) {
+			assertEquals("failed", e.getStatus().getMessage());
+		}
+		assertEquals(0, collector.getProcessedCount());
+		assertTrue(collector.isAborted());
+	}
+
+	public void testProcessCanceled() throws Exception {
+		StreamingTaskDataCollector collector = new StreamingTaskDataCollector(4, 2) {
+			@Override
+			protected void process(List<TaskData> batch) throws CoreException {
+				throw new OperationCanceledException();
+			}
+		};
+		for (int i = 0; i < 100; i++) {
+			collector.accept(createTaskData(i + ""));
+		}
+		collector.done();
+		assertEquals(0, collector.getProcessedCount());
+		assertTrue(collector.isAborted());
+	}
+
+	public void testAbort() throws Exception {
+		StreamingTaskDataCollector collector = new StreamingTaskDataCollector(4, 2) {
+			@Override
+			protected void process(List<TaskData> batch) throws CoreException {
+				for (TaskData taskData : batch) {
+					taskIds.add(taskData.getTaskId());
+				}
+			}
+		};
+		collector.accept(createTaskData("1"));
+		collector.abort();
+		collector.accept(createTaskData("2"));
+		collector.done();
+		assertFalse(taskIds.contains("2"));
+		assertTrue(collector.isAborted());
+	}
+
+	public void testAcceptConcurrently() throws Exception {
+		final StreamingTaskDataCollector collector = new StreamingTaskDataCollector(10, 4) {
+			@Override
+			protected void process(List<TaskData> batch) throws CoreException {
+				threads.add(Thread.currentThread());
+				for (TaskData taskData : batch) {
+					taskIds.add(taskData.getTaskId());
+				}
+			}
+		};
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Thread> producers = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			final int producerId = i;
+			Thread producer = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int j = 0; j < 250; j++) {
+						collector.accept(createTaskData(producerId + "-" + j));
+					}
+				}
+			};
+			producer.start();
+			producers.add(producer);
+		}
+		start.countDown();
+		for (Thread producer : producers) {
+			producer.join();
+		}
+		collector.done();
+
+		assertEquals(1000, collector.getAcceptedCount());
+		assertEquals(1000, collector.getProcessedCount());
+		assertEquals(1000, new HashSet<String>(taskIds).size());
+		assertEquals("Expected a single consumer thread", 1, new HashSet<Thread>(threads).size());
+	}
+
+	public void testAbortCompletesBatch() throws Exception {
+		final CountDownLatch processing = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final boolean[] interrupted = new boolean[1];
+		StreamingTaskDataCollector collector = new StreamingTaskDataCollector(4, 1) {
+			@Override
+			protected void process(List<TaskData> batch) throws CoreException {
+				processing.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					interrupted[0] = true;
+				}
+				for (TaskData taskData : batch) {
+					taskIds.add(taskData.getTaskId());
+				}
+			}
+		};
+		collector.accept(createTaskData("1"));
+		collector.accept(createTaskData("2"));
+		assertTrue(processing.await(10, TimeUnit.SECONDS));
+		collector.abort();
+		release.countDown();
+		collector.done();
+
+		assertFalse("Expected consumer to complete batch without interruption", interrupted[0]);
+		assertEquals(Collections.singletonList("1"), taskIds);
+	}
+
+	private TaskData createTaskData(String taskId) {
+		return new TaskData(new TaskAttributeMapper(repository), repository.getConnectorKind(),
+				repository.getRepositoryUrl(), taskId);
+	}
+
+}
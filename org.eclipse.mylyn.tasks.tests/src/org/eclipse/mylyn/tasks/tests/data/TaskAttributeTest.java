@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.data;
+
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
+
+public class TaskAttributeTest extends TestCase {
+
+	private TaskRepository repository;
+
+	@Override
+	protected void setUp() throws Exception {
+		repository = new TaskRepository(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL);
+	}
+
+	public void testOptions() {
+		TaskAttribute attribute = createRoot();
+		for (int i = 0; i < 20; i++) {
+			attribute.putOption("key" + i, "value" + i);
+			assertEquals(i + 1, attribute.getOptions().size());
+		}
+		attribute.putOption("key0", "changed");
+		assertEquals(20, attribute.getOptions().size());
+		assertEquals("changed", attribute.getOption("key0"));
+		Iterator<String> it = attribute.getOptions().keySet().iterator();
+		for (int i = 0; i < 20; i++) {
+			assertEquals("key" + i, it.next());
+		}
+	}
+
+	public void testMetaData() {
+		TaskAttribute attribute = createRoot();
+		attribute.getMetaData().setType(TaskAttribute.TYPE_SHORT_TEXT);
+		attribute.getMetaData().setLabel("Label:");
+		attribute.getMetaData().setReadOnly(true);
+		assertEquals(TaskAttribute.TYPE_SHORT_TEXT, attribute.getMetaData().getType());
+		assertEquals("Label:", attribute.getMetaData().getLabel());
+		assertTrue(attribute.getMetaData().isReadOnly());
+
+		attribute.getMetaData().setLabel(null);
+		assertNull(attribute.getMetaData().getLabel());
+		assertEquals(2, attribute.getMetaData().getValues().size());
+		assertEquals(TaskAttribute.TYPE_SHORT_TEXT, attribute.getMetaData().getType());
+
+		attribute.getMetaData().clear();
+		assertEquals(0, attribute.getMetaData().getValues().size());
+	}
+
+	public void testAttributes() {
+		TaskAttribute root = createRoot();
+		for (int i = 0; i < 20; i++) {
+			root.createAttribute("attribute" + i);
+		}
+		root.removeAttribute("attribute0");
+		root.removeAttribute("attribute19");
+		assertEquals(18, root.getAttributes().size());
+		assertNull(root.getAttribute("attribute0"));
+		assertEquals("attribute1", root.getAttributes().keySet().iterator().next());
+
+		TaskAttribute attribute = root.getAttribute("attribute1");
+		attribute.createAttribute("child1");
+		attribute.createAttribute("child2");
+		attribute.removeAttribute("child1");
+		attribute.createAttribute("child3");
+		assertEquals("[child2, child3]", attribute.getAttributes().keySet().toString());
+	}
+
+	public void testDeepAddCopy() {
+		TaskAttribute root = createRoot();
+		for (int i = 0; i < 10; i++) {
+			TaskAttribute attribute = root.createAttribute("attribute" + i);
+			attribute.getMetaData().setType(TaskAttribute.TYPE_SINGLE_SELECT);
+			attribute.getMetaData().setLabel("Attribute " + i + ":");
+			attribute.setValue("value" + i);
+			for (int j = 0; j < i; j++) {
+				attribute.putOption("option" + j, "Option " + j);
+			}
+			attribute.createAttribute("child").addValue("child" + i);
+		}
+
+		TaskAttribute copy = createRoot();
+		for (TaskAttribute attribute : root.getAttributes().values()) {
+			copy.deepAddCopy(attribute);
+		}
+		assertEquals(root.toString(), copy.toString());
+	}
+
+	private TaskAttribute createRoot() {
+		return new TaskData(new TaskAttributeMapper(repository), repository.getConnectorKind(),
+				repository.getRepositoryUrl(), "1").getRoot();
+	}
+
+}
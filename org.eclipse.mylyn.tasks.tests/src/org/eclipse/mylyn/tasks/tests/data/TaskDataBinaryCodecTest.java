@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.data;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.commons.sdk.util.CommonTestUtil;
+import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataBinaryCodec;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataExternalizer;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataState;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataStore;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
+
+public class TaskDataBinaryCodecTest extends TestCase {
+
+	private TaskRepositoryManager repositoryManager;
+
+	private TaskRepository repository;
+
+	private TaskDataExternalizer externalizer;
+
+	@Override
+	protected void setUp() throws Exception {
+		repositoryManager = new TaskRepositoryManager();
+		repositoryManager.addRepositoryConnector(new MockRepositoryConnector());
+		repository = new TaskRepository(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL);
+		repositoryManager.addRepository(repository);
+		externalizer = new TaskDataExternalizer(repositoryManager);
+	}
+
+	public void testReadWrite() throws Exception {
+		TaskDataState state = createState();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		externalizer.writeBinaryState(out, state);
+		TaskDataState state2 = externalizer.readBinaryState(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(state.getConnectorKind(), state2.getConnectorKind());
+		assertEquals(state.getRepositoryUrl(), state2.getRepositoryUrl());
+		assertEquals(state.getTaskId(), state2.getTaskId());
+		assertEquals("1.1", state2.getRepositoryData().getVersion());
+		assertEquals(state.getRepositoryData().getRoot().toString(), state2.getRepositoryData().getRoot().toString());
+		assertEquals(state.getLastReadData().getRoot().toString(), state2.getLastReadData().getRoot().toString());
+		assertNull(state2.getEditsData());
+
+		TaskAttribute attribute = state2.getRepositoryData().getRoot().getAttribute(TaskAttribute.PRIORITY);
+		assertEquals(Arrays.asList("P1", "P2"), attribute.getValues());
+		assertEquals("Highest", attribute.getOption("P1"));
+		assertEquals(TaskAttribute.TYPE_MULTI_SELECT, attribute.getMetaData().getType());
+		assertEquals("Priority:", attribute.getMetaData().getLabel());
+	}
+
+	public void testReadWriteInvalidXmlCharacters() throws Exception {
+		String value = "\u0000\u0001\u001F\u0085\u00E4\u20AC\uD834\uDD1E";
+		TaskDataState state = createState();
+		state.getRepositoryData().getRoot().createAttribute("attribute").setValue(value);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		externalizer.writeBinaryState(out, state);
+		TaskDataState state2 = externalizer.readBinaryState(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(value, state2.getRepositoryData().getRoot().getAttribute("attribute").getValue());
+	}
+
+	public void testIsBinary() throws Exception {
+		TaskDataState state = createState();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		externalizer.writeBinaryState(out, state);
+		assertTrue(TaskDataBinaryCodec.isBinary(new BufferedInputStream(new ByteArrayInputStream(out.toByteArray()))));
+
+		out = new ByteArrayOutputStream();
+		externalizer.writeState(out, state);
+		assertFalse(TaskDataBinaryCodec.isBinary(new BufferedInputStream(new ByteArrayInputStream(out.toByteArray()))));
+	}
+
+	public void testReadTruncated() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		externalizer.writeBinaryState(out, createState());
+		byte[] data = out.toByteArray();
+		try {
+			externalizer.readBinaryState(new ByteArrayInputStream(data, 0, data.length / 2));
+			fail("Expected IOException");
+		} catch (IOException expected) {
+		}
+	}
+
+	public void testStoreReadsXmlAndBinary() throws Exception {
+		File directory = File.createTempFile("mylyn", null);
+		directory.delete();
+		directory.mkdirs();
+		try {
+			File file = new File(directory, "1.zip");
+			TaskDataStore store = new TaskDataStore(repositoryManager);
+			assertFalse(store.isBinaryFormat());
+			store.putTaskData(file, createState());
+			assertEquals("summary", getSummary(store.getTaskDataState(file)));
+
+			store.setBinaryFormat(true);
+			assertEquals("summary", getSummary(store.getTaskDataState(file)));
+			TaskDataState state = createState();
+			state.getRepositoryData().getRoot().getAttribute(TaskAttribute.SUMMARY).setValue("changed");
+			store.putTaskData(file, state);
+			assertEquals("changed", getSummary(store.getTaskDataState(file)));
+
+			store.setBinaryFormat(false);
+			assertEquals("changed", getSummary(store.getTaskDataState(file)));
+		} finally {
+			CommonTestUtil.deleteFolderRecursively(directory);
+		}
+	}
+
+	private TaskDataState createState() {
+		TaskData data = createTaskData();
+		data.setVersion("1.1");
+		TaskAttribute attribute = data.getRoot().createAttribute(TaskAttribute.SUMMARY);
+		attribute.setValue("summary");
+		attribute.getMetaData().defaults().setType(TaskAttribute.TYPE_SHORT_TEXT).setLabel("Summary:");
+		attribute = data.getRoot().createAttribute(TaskAttribute.PRIORITY);
+		attribute.setValues(Arrays.asList("P1", "P2"));
+		attribute.putOption("P1", "Highest");
+		attribute.putOption("P2", "High");
+		attribute.getMetaData().defaults().setType(TaskAttribute.TYPE_MULTI_SELECT).setLabel("Priority:");
+		for (int i = 0; i < 5; i++) {
+			TaskAttribute comment = data.getRoot().createAttribute(TaskAttribute.PREFIX_COMMENT + i);
+			comment.getMetaData().defaults().setType(TaskAttribute.TYPE_COMMENT);
+			comment.createAttribute(TaskAttribute.COMMENT_TEXT).setValue("comment " + i);
+			comment.createAttribute(TaskAttribute.COMMENT_AUTHOR).setValue("user@mylyn.eclipse.org");
+		}
+
+		TaskDataState state = new TaskDataState(repository.getConnectorKind(), repository.getRepositoryUrl(), "1");
+		state.setRepositoryData(data);
+		state.setLastReadData(createTaskData());
+		return state;
+	}
+
+	private TaskData createTaskData() {
+		return new TaskData(new TaskAttributeMapper(repository), repository.getConnectorKind(),
+				repository.getRepositoryUrl(), "1");
+	}
+
+	private String getSummary(TaskDataState state) {
+		assertNotNull(state);
+		return state.getRepositoryData().getRoot().getAttribute(TaskAttribute.SUMMARY).getValue();
+	}
+
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.internal.tasks.core.RepositoryModel;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskAttributeDiff;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiff;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.ITaskAttributeDiff;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
+
+public class TaskDataDiffTest extends TestCase {
+
+	/**
+	 * Maps common keys to repository keys through a series of comparisons like connector mappers do.
+	 */
+	private static class KeyMappingAttributeMapper extends TaskAttributeMapper {
+
+		private static final String[] KEYS = { TaskAttribute.SUMMARY, TaskAttribute.DESCRIPTION,
+				TaskAttribute.PRODUCT, TaskAttribute.COMPONENT, TaskAttribute.VERSION, TaskAttribute.PRIORITY,
+				TaskAttribute.SEVERITY, TaskAttribute.STATUS, TaskAttribute.RESOLUTION, TaskAttribute.USER_ASSIGNED,
+				TaskAttribute.USER_REPORTER, TaskAttribute.USER_CC, TaskAttribute.DATE_CREATION,
+				TaskAttribute.DATE_MODIFICATION, TaskAttribute.DATE_DUE, TaskAttribute.KEYWORDS,
+				TaskAttribute.COMMENT_TEXT, TaskAttribute.COMMENT_AUTHOR, TaskAttribute.COMMENT_DATE,
+				TaskAttribute.COMMENT_NUMBER, TaskAttribute.ATTACHMENT_FILENAME,
+				TaskAttribute.ATTACHMENT_DESCRIPTION };
+
+		public KeyMappingAttributeMapper(TaskRepository taskRepository) {
+			super(taskRepository);
+		}
+
+		@Override
+		public String mapToRepositoryKey(TaskAttribute parent, String key) {
+			for (String commonKey : KEYS) {
+				if (commonKey.equals(key)) {
+					return "repository." + key;
+				}
+			}
+			return key;
+		}
+
+	}
+
+	private TaskRepository repository;
+
+	private TaskAttributeMapper mapper;
+
+	private RepositoryModel model;
+
+	@Override
+	protected void setUp() throws Exception {
+		repository = new TaskRepository(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL);
+		mapper = new KeyMappingAttributeMapper(repository);
+		TaskRepositoryManager repositoryManager = new TaskRepositoryManager();
+		repositoryManager.addRepository(repository);
+		TaskList taskList = new TaskList();
+		taskList.addTask(new TaskTask(repository.getConnectorKind(), repository.getRepositoryUrl(), "1"));
+		model = new RepositoryModel(taskList, repositoryManager);
+	}
+
+	public void testChangedAttributes() {
+		TaskData oldData = createTaskData();
+		createAttribute(oldData, "a", "1");
+		createAttribute(oldData, "b", "1");
+		createAttribute(oldData, "c", "1");
+		TaskData newData = createTaskData();
+		createAttribute(newData, "d", "1");
+		createAttribute(newData, "b", "2");
+		createAttribute(newData, "a", "1");
+
+		TaskDataDiff diff = new TaskDataDiff(model, newData, oldData);
+		assertEquals(Arrays.asList("d", "b", "c"), getAttributeIds(diff));
+		assertTrue(diff.getNewComments().isEmpty());
+	}
+
+	public void testChangedAttributesWithoutOldData() {
+		TaskData newData = createTaskData();
+		createAttribute(newData, "a", "1");
+		newData.getRoot().createAttribute("b").setValue("1");
+
+		TaskDataDiff diff = new TaskDataDiff(model, newData, null);
+		assertEquals(Arrays.asList("a"), getAttributeIds(diff));
+	}
+
+	public void testChangedOptionLabel() {
+		TaskData oldData = createTaskData();
+		createAttribute(oldData, "a", "1").putOption("1", "One");
+		TaskData newData = createTaskData();
+		createAttribute(newData, "a", "1").putOption("1", "Eins");
+
+		TaskDataDiff diff = new TaskDataDiff(model, newData, oldData);
+		assertEquals(Arrays.asList("a"), getAttributeIds(diff));
+		TaskAttributeDiff attributeDiff = (TaskAttributeDiff) diff.getChangedAttributes().iterator().next();
+		assertEquals(Arrays.asList("One"), attributeDiff.getOldValues());
+		assertEquals(Arrays.asList("Eins"), attributeDiff.getNewValues());
+	}
+
+	public void testNewComments() {
+		TaskData oldData = createTaskData();
+		createComment(oldData, 1);
+		createComment(oldData, 2);
+		TaskData newData = createTaskData();
+		createComment(newData, 1);
+		createComment(newData, 2);
+		createComment(newData, 3);
+
+		TaskDataDiff diff = new TaskDataDiff(model, newData, oldData);
+		assertEquals(1, diff.getNewComments().size());
+		assertTrue(diff.getChangedAttributes().isEmpty());
+	}
+
+	/**
+	 * Compares the diff to looking up each attribute through the attribute mapper for a task with many comments and
+	 * attachments.
+	 */
+	public void testLargeTask() {
+		TaskData oldData = createLargeTaskData(1000, 300);
+		TaskData newData = createLargeTaskData(1010, 300);
+		newData.getRoot().getAttribute("attribute-10").setValue("changed");
+		newData.getRoot().removeAttribute("attribute-20");
+
+		TaskDataDiff diff = new TaskDataDiff(model, newData, oldData);
+		assertEquals(lookupChangedAttributeIds(newData, oldData), new LinkedHashSet<String>(getAttributeIds(diff)));
+		assertEquals(Arrays.asList("attribute-10", "attribute-20"), getAttributeIds(diff));
+		assertEquals(10, diff.getNewComments().size());
+	}
+
+	/**
+	 * Determines changed attributes by looking up the path of each attribute in the other task data, as diffs were
+	 * computed previously.
+	 */
+	private Set<String> lookupChangedAttributeIds(TaskData newData, TaskData oldData) {
+		Set<String> result = new LinkedHashSet<String>();
+		for (TaskAttribute newAttribute : newData.getRoot().getAttributes().values()) {
+			TaskAttribute oldAttribute = oldData.getRoot().getMappedAttribute(newAttribute.getPath());
+			addIfChanged(result, oldAttribute, newAttribute);
+		}
+		for (TaskAttribute oldAttribute : oldData.getRoot().getAttributes().values()) {
+			TaskAttribute newAttribute = newData.getRoot().getMappedAttribute(oldAttribute.getPath());
+			if (newAttribute == null) {
+				addIfChanged(result, oldAttribute, newAttribute);
+			}
+		}
+		return result;
+	}
+
+	private void addIfChanged(Set<String> result, TaskAttribute oldAttribute, TaskAttribute newAttribute) {
+		TaskAttribute attribute = (newAttribute != null) ? newAttribute : oldAttribute;
+		if (attribute.getMetaData().getKind() != null
+				&& !TaskAttribute.TYPE_COMMENT.equals(attribute.getMetaData().getType())) {
+			TaskAttributeDiff diff = new TaskAttributeDiff(oldAttribute, newAttribute);
+			if (diff.hasChanges()) {
+				result.add(diff.getAttributeId());
+			}
+		}
+	}
+
+	private TaskData createLargeTaskData(int comments, int attachments) {
+		TaskData taskData = createTaskData();
+		for (int i = 0; i < 50; i++) {
+			TaskAttribute attribute = createAttribute(taskData, "attribute-" + i, "value" + i);
+			for (int j = 0; j < 20; j++) {
+				attribute.putOption("value" + j, "Value " + j);
+			}
+		}
+		for (int i = 1; i <= comments; i++) {
+			createComment(taskData, i);
+		}
+		for (int i = 1; i <= attachments; i++) {
+			TaskAttribute attribute = taskData.getRoot().createAttribute(TaskAttribute.PREFIX_ATTACHMENT + i);
+			attribute.getMetaData().setType(TaskAttribute.TYPE_ATTACHMENT);
+			attribute.createAttribute(TaskAttribute.ATTACHMENT_FILENAME).setValue("file" + i + ".txt");
+			attribute.createAttribute(TaskAttribute.ATTACHMENT_DESCRIPTION).setValue("Attachment " + i);
+		}
+		return taskData;
+	}
+
+	private TaskData createTaskData() {
+		return new TaskData(mapper, repository.getConnectorKind(), repository.getRepositoryUrl(), "1");
+	}
+
+	private TaskAttribute createAttribute(TaskData taskData, String id, String value) {
+		TaskAttribute attribute = taskData.getRoot().createAttribute(id);
+		attribute.getMetaData().setKind(TaskAttribute.KIND_DEFAULT);
+		attribute.setValue(value);
+		return attribute;
+	}
+
+	private void createComment(TaskData taskData, int number) {
+		TaskAttribute attribute = taskData.getRoot().createAttribute(TaskAttribute.PREFIX_COMMENT + number);
+		attribute.getMetaData().setType(TaskAttribute.TYPE_COMMENT);
+		attribute.createAttribute(TaskAttribute.COMMENT_NUMBER).setValue(number + "");
+		attribute.createAttribute(TaskAttribute.COMMENT_TEXT).setValue("Comment " + number);
+		attribute.createAttribute(TaskAttribute.COMMENT_AUTHOR).setValue("tests@mylyn.eclipse.org");
+	}
+
+	private List<String> getAttributeIds(TaskDataDiff diff) {
+		List<String> ids = new ArrayList<String>();
+		for (ITaskAttributeDiff attributeDiff : diff.getChangedAttributes()) {
+			ids.add(attributeDiff.getAttributeId());
+		}
+		return ids;
+	}
+
+}
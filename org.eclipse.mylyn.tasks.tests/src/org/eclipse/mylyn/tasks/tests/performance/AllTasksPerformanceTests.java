@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.performance;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Benchmarks that measure time and memory. The tests report their results on the console and are not part of
+ * {@link org.eclipse.mylyn.tasks.tests.AllTasksTests} since the results depend on the JVM and the machine.
+ */
+public class AllTasksPerformanceTests {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite(AllTasksPerformanceTests.class.getName());
+		suite.addTestSuite(TaskListExternalizerPerformanceTest.class);
+		suite.addTestSuite(TaskRepositoryManagerPerformanceTest.class);
+		suite.addTestSuite(TaskAttributePerformanceTest.class);
+		return suite;
+	}
+
+}
@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.performance;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
+
+/**
+ * Compares the heap consumed by task data trees shaped like Bugzilla and Trac tasks against the same trees built from
+ * {@link LinkedHashMap}s.
+ */
+public class TaskAttributePerformanceTest extends TestCase {
+
+	/**
+	 * Receives the attribute tree of a generated task.
+	 */
+	private interface Builder {
+
+		Object root();
+
+		Object createAttribute(Object parent, String id);
+
+		void addValue(Object attribute, String value);
+
+		void putOption(Object attribute, String key, String value);
+
+		void putMetaDatum(Object attribute, String key, String value);
+
+	}
+
+	/**
+	 * Mirrors the layout task attributes used before maps were compacted.
+	 */
+	private static class LegacyAttribute {
+
+		Map<String, LegacyAttribute> attributeById;
+
+		Map<String, String> metaData;
+
+		Map<String, String> optionByKey;
+
+		final List<String> values = new ArrayList<String>(1);
+
+		final String id;
+
+		LegacyAttribute(String id) {
+			this.id = id.intern();
+		}
+
+	}
+
+	private static class LegacyBuilder implements Builder {
+
+		public Object root() {
+			return new LegacyAttribute("root");
+		}
+
+		public Object createAttribute(Object parent, String id) {
+			LegacyAttribute attribute = new LegacyAttribute(id);
+			LegacyAttribute parentAttribute = (LegacyAttribute) parent;
+			if (parentAttribute.attributeById == null) {
+				parentAttribute.attributeById = new LinkedHashMap<String, LegacyAttribute>();
+			}
+			parentAttribute.attributeById.put(attribute.id, attribute);
+			return attribute;
+		}
+
+		public void addValue(Object attribute, String value) {
+			((LegacyAttribute) attribute).values.add(value);
+		}
+
+		public void putOption(Object attribute, String key, String value) {
+			LegacyAttribute legacyAttribute = (LegacyAttribute) attribute;
+			if (legacyAttribute.optionByKey == null) {
+				legacyAttribute.optionByKey = new LinkedHashMap<String, String>();
+			}
+			legacyAttribute.optionByKey.put(key.intern(), value);
+		}
+
+		public void putMetaDatum(Object attribute, String key, String value) {
+			LegacyAttribute legacyAttribute = (LegacyAttribute) attribute;
+			if (legacyAttribute.metaData == null) {
+				legacyAttribute.metaData = new LinkedHashMap<String, String>();
+			}
+			legacyAttribute.metaData.put(key.intern(), value);
+		}
+
+	}
+
+	private class TaskAttributeBuilder implements Builder {
+
+		public Object root() {
+			return new TaskData(new TaskAttributeMapper(repository), repository.getConnectorKind(),
+					repository.getRepositoryUrl(), "1").getRoot();
+		}
+
+		public Object createAttribute(Object parent, String id) {
+			return ((TaskAttribute) parent).createAttribute(id);
+		}
+
+		public void addValue(Object attribute, String value) {
+			((TaskAttribute) attribute).addValue(value);
+		}
+
+		public void putOption(Object attribute, String key, String value) {
+			((TaskAttribute) attribute).putOption(key, value);
+		}
+
+		public void putMetaDatum(Object attribute, String key, String value) {
+			((TaskAttribute) attribute).getMetaData().putValue(key, value);
+		}
+
+	}
+
+	private static final int TASK_COUNT = 200;
+
+	private static final String[] BUGZILLA_SELECT_ATTRIBUTES = { "product", "component", "version", "rep_platform",
+			"op_sys", "bug_status", "resolution", "priority", "bug_severity", "target_milestone" };
+
+	private static final String[] BUGZILLA_TEXT_ATTRIBUTES = { "short_desc", "bug_file_loc", "status_whiteboard",
+			"keywords", "assigned_to", "reporter", "qa_contact", "creation_ts", "delta_ts", "dependson", "blocked",
+			"estimated_time", "remaining_time", "actual_time", "deadline", "votes", "token" };
+
+	private static final String[] TRAC_SELECT_ATTRIBUTES = { "type", "component", "priority", "milestone", "version",
+			"severity", "status", "resolution" };
+
+	private static final String[] TRAC_TEXT_ATTRIBUTES = { "summary", "description", "keywords", "cc", "owner",
+			"reporter", "time", "changetime" };
+
+	private TaskRepository repository;
+
+	@Override
+	protected void setUp() throws Exception {
+		repository = new TaskRepository(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL);
+	}
+
+	public void testHeapBugzilla() {
+		long legacy = measure(new LegacyBuilder(), true);
+		long compact = measure(new TaskAttributeBuilder(), true);
+		System.out.println(String.format("Bugzilla shaped tasks (%d): linked hash maps %d KB, task attributes %d KB",
+				TASK_COUNT, legacy / 1024, compact / 1024));
+		assertTrue("Expected less than " + legacy + " bytes, used " + compact + " bytes", compact < legacy);
+	}
+
+	public void testHeapTrac() {
+		long legacy = measure(new LegacyBuilder(), false);
+		long compact = measure(new TaskAttributeBuilder(), false);
+		System.out.println(String.format("Trac shaped tasks (%d): linked hash maps %d KB, task attributes %d KB",
+				TASK_COUNT, legacy / 1024, compact / 1024));
+		assertTrue("Expected less than " + legacy + " bytes, used " + compact + " bytes", compact < legacy);
+	}
+
+	/**
+	 * Returns the heap retained by {@link #TASK_COUNT} generated tasks.
+	 */
+	private long measure(Builder builder, boolean bugzilla) {
+		Object[] roots = new Object[TASK_COUNT];
+		long before = usedMemory();
+		for (int i = 0; i < roots.length; i++) {
+			roots[i] = builder.root();
+			if (bugzilla) {
+				createBugzillaTask(builder, roots[i], i);
+			} else {
+				createTracTask(builder, roots[i], i);
+			}
+		}
+		long after = usedMemory();
+		assertEquals(TASK_COUNT, roots.length);
+		return after - before;
+	}
+
+	private void createBugzillaTask(Builder builder, Object root, int id) {
+		for (String attributeId : BUGZILLA_SELECT_ATTRIBUTES) {
+			Object attribute = createAttribute(builder, root, attributeId, TaskAttribute.TYPE_SINGLE_SELECT);
+			builder.addValue(attribute, copy("value1"));
+			for (int i = 0; i < 12; i++) {
+				builder.putOption(attribute, copy("value" + i), copy("value" + i));
+			}
+		}
+		for (String attributeId : BUGZILLA_TEXT_ATTRIBUTES) {
+			Object attribute = createAttribute(builder, root, attributeId, TaskAttribute.TYPE_SHORT_TEXT);
+			builder.addValue(attribute, copy(attributeId + id));
+		}
+		Object cc = createAttribute(builder, root, "cc", TaskAttribute.TYPE_MULTI_SELECT);
+		for (int i = 0; i < 3; i++) {
+			builder.addValue(cc, copy("user" + i + "@eclipse.org"));
+		}
+		createComments(builder, root, 25);
+		for (int i = 0; i < 3; i++) {
+			Object attachment = createAttribute(builder, root, TaskAttribute.PREFIX_ATTACHMENT + i,
+					TaskAttribute.TYPE_ATTACHMENT);
+			builder.addValue(attachment, copy(Integer.toString(i)));
+			createAttribute(builder, attachment, TaskAttribute.ATTACHMENT_AUTHOR, TaskAttribute.TYPE_PERSON);
+			createAttribute(builder, attachment, TaskAttribute.ATTACHMENT_CONTENT_TYPE, TaskAttribute.TYPE_SHORT_TEXT);
+			createAttribute(builder, attachment, TaskAttribute.ATTACHMENT_DESCRIPTION, TaskAttribute.TYPE_SHORT_TEXT);
+			createAttribute(builder, attachment, TaskAttribute.ATTACHMENT_FILENAME, TaskAttribute.TYPE_SHORT_TEXT);
+			createAttribute(builder, attachment, TaskAttribute.ATTACHMENT_DATE, TaskAttribute.TYPE_DATETIME);
+			createAttribute(builder, attachment, TaskAttribute.ATTACHMENT_IS_PATCH, TaskAttribute.TYPE_BOOLEAN);
+		}
+		for (int i = 0; i < 6; i++) {
+			Object operation = createAttribute(builder, root, TaskAttribute.PREFIX_OPERATION + i,
+					TaskAttribute.TYPE_OPERATION);
+			builder.addValue(operation, copy("operation" + i));
+		}
+	}
+
+	private void createTracTask(Builder builder, Object root, int id) {
+		for (String attributeId : TRAC_SELECT_ATTRIBUTES) {
+			Object attribute = createAttribute(builder, root, attributeId, TaskAttribute.TYPE_SINGLE_SELECT);
+			builder.addValue(attribute, copy("value1"));
+			for (int i = 0; i < 6; i++) {
+				builder.putOption(attribute, copy("value" + i), copy("value" + i));
+			}
+		}
+		for (String attributeId : TRAC_TEXT_ATTRIBUTES) {
+			Object attribute = createAttribute(builder, root, attributeId, TaskAttribute.TYPE_SHORT_TEXT);
+			builder.addValue(attribute, copy(attributeId + id));
+		}
+		createComments(builder, root, 10);
+		for (int i = 0; i < 4; i++) {
+			Object operation = createAttribute(builder, root, TaskAttribute.PREFIX_OPERATION + i,
+					TaskAttribute.TYPE_OPERATION);
+			builder.addValue(operation, copy("operation" + i));
+		}
+	}
+
+	private void createComments(Builder builder, Object root, int count) {
+		for (int i = 0; i < count; i++) {
+			Object comment = createAttribute(builder, root, TaskAttribute.PREFIX_COMMENT + i,
+					TaskAttribute.TYPE_COMMENT);
+			builder.addValue(comment, copy(Integer.toString(i)));
+			builder.addValue(createAttribute(builder, comment, TaskAttribute.COMMENT_AUTHOR, TaskAttribute.TYPE_PERSON),
+					copy("user@eclipse.org"));
+			builder.addValue(
+					createAttribute(builder, comment, TaskAttribute.COMMENT_DATE, TaskAttribute.TYPE_DATETIME),
+					copy("2013-01-01 12:00:00"));
+			builder.addValue(
+					createAttribute(builder, comment, TaskAttribute.COMMENT_NUMBER, TaskAttribute.TYPE_INTEGER),
+					copy(Integer.toString(i)));
+			builder.addValue(
+					createAttribute(builder, comment, TaskAttribute.COMMENT_TEXT, TaskAttribute.TYPE_LONG_RICH_TEXT),
+					copy("comment " + i));
+		}
+	}
+
+	private Object createAttribute(Builder builder, Object parent, String id, String type) {
+		// simulate parsed data where every string is a separate instance
+		Object attribute = builder.createAttribute(parent, copy(id));
+		builder.putMetaDatum(attribute, copy(TaskAttribute.META_ATTRIBUTE_TYPE), copy(type));
+		builder.putMetaDatum(attribute, copy(TaskAttribute.META_LABEL), copy(id + ":"));
+		builder.putMetaDatum(attribute, copy(TaskAttribute.META_READ_ONLY), copy("false"));
+		return attribute;
+	}
+
+	private static String copy(String value) {
+		return new String(value.toCharArray());
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			System.runFinalization();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
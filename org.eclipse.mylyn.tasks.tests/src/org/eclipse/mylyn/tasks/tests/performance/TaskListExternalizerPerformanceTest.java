@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.performance;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryModel;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.internal.tasks.core.UnmatchedTaskContainer;
+import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListExternalizer;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
+
+/**
+ * Measures the time and heap required to write and read a large task list.
+ */
+public class TaskListExternalizerPerformanceTest extends TestCase {
+
+	private static final int TASK_COUNT = 100000;
+
+	private TaskRepositoryManager repositoryManager;
+
+	private TaskRepository repository;
+
+	private File file;
+
+	@Override
+	protected void setUp() throws Exception {
+		repositoryManager = new TaskRepositoryManager();
+		repositoryManager.addRepositoryConnector(new MockRepositoryConnector());
+		repository = new TaskRepository(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL);
+		repositoryManager.addRepository(repository);
+		file = File.createTempFile("tasklist", ITasksCoreConstants.FILE_EXTENSION);
+		file.deleteOnExit();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+	}
+
+	public void testReadLargeTaskList() throws Exception {
+		TaskList taskList = createTaskList();
+		for (int i = 0; i < TASK_COUNT; i++) {
+			TaskTask task = new TaskTask(MockRepositoryConnector.CONNECTOR_KIND,
+					MockRepositoryConnector.REPOSITORY_URL, i + "");
+			task.setSummary("Task " + i);
+			task.setAttribute("key", "value " + i);
+			taskList.addTask(task);
+		}
+		long start = System.nanoTime();
+		createExternalizer(taskList).writeTaskList(taskList, file);
+		long writeTime = System.nanoTime() - start;
+		taskList = null;
+
+		gc();
+		long usedMemory = getUsedMemory();
+		start = System.nanoTime();
+		TaskList readTaskList = createTaskList();
+		createExternalizer(readTaskList).readTaskList(readTaskList, file);
+		long readTime = System.nanoTime() - start;
+		gc();
+		long taskListMemory = getUsedMemory() - usedMemory;
+		assertEquals(TASK_COUNT, readTaskList.getAllTasks().size());
+
+		System.out.println(String.format(
+				"Task list with %d tasks (%d KB): write %.0f ms, read %.0f ms, retained heap after read %d KB",
+				TASK_COUNT, file.length() / 1024, writeTime / 1e6, readTime / 1e6, taskListMemory / 1024));
+	}
+
+	private void gc() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+	}
+
+	private long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private TaskList createTaskList() {
+		TaskList taskList = new TaskList();
+		taskList.addUnmatchedContainer(new UnmatchedTaskContainer(repository.getConnectorKind(),
+				repository.getRepositoryUrl()));
+		return taskList;
+	}
+
+	private TaskListExternalizer createExternalizer(TaskList taskList) {
+		return new TaskListExternalizer(new RepositoryModel(taskList, repositoryManager), repositoryManager);
+	}
+
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.performance;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
+
+/**
+ * Measures the cost of repository lookups.
+ */
+public class TaskRepositoryManagerPerformanceTest extends TestCase {
+
+	private static final int REPOSITORY_COUNT = 50;
+
+	private static final int LOOKUP_COUNT = 1000000;
+
+	private TaskRepositoryManager manager;
+
+	@Override
+	protected void setUp() throws Exception {
+		manager = new TaskRepositoryManager();
+		manager.addRepositoryConnector(new MockRepositoryConnector());
+	}
+
+	public void testGetRepository() {
+		String[] urls = new String[REPOSITORY_COUNT];
+		for (int i = 0; i < REPOSITORY_COUNT; i++) {
+			urls[i] = "http://repository" + i + ".org/";
+			manager.addRepository(new TaskRepository(MockRepositoryConnector.CONNECTOR_KIND, urls[i]));
+		}
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			// warm up
+			assertNotNull(manager.getRepository(MockRepositoryConnector.CONNECTOR_KIND, urls[i % REPOSITORY_COUNT]));
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			manager.getRepository(MockRepositoryConnector.CONNECTOR_KIND, urls[i % REPOSITORY_COUNT]);
+		}
+		long kindAndUrlTime = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			manager.getRepository(urls[i % REPOSITORY_COUNT]);
+		}
+		long urlTime = System.nanoTime() - start;
+		System.out.println(String.format(
+				"Repository lookup with %d repositories: by kind and url %.1f ns, by url %.1f ns", REPOSITORY_COUNT,
+				(double) kindAndUrlTime / LOOKUP_COUNT, (double) urlTime / LOOKUP_COUNT));
+	}
+
+}
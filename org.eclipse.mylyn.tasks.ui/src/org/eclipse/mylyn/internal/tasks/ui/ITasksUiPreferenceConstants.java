@@ -107,4 +107,36 @@ public interface ITasksUiPreferenceConstants {
 	public static final String LAST_SERVICE_MESSAGE_LAST_MODIFIED = "org.eclipse.mylyn.tasks.ui.servicemessage.lastmodified"; //$NON-NLS-1$
 
 	public static final String LAST_SERVICE_MESSAGE_CHECKTIME = "org.eclipse.mylyn.tasks.ui.servicemessage.checktime"; //$NON-NLS-1$
+
+	/**
+	 * Storage format for offline task data, either {@link #TASK_DATA_STORAGE_ZIP} or {@link #TASK_DATA_STORAGE_LOG}.
+	 * Read on startup.
+	 * <p>
+	 * Switching to the log is a one-way migration: existing zip files are imported into the log and kept as
+	 * <code>*.zip.migrated</code> backups. The log is not exported when switching back to zip storage, changes that
+	 * were stored in the log, including outgoing edits, are then no longer visible.
+	 */
+	public static final String TASK_DATA_STORAGE = "org.eclipse.mylyn.tasks.ui.task.data.storage"; //$NON-NLS-1$
+
+	public static final String TASK_DATA_STORAGE_ZIP = "zip"; //$NON-NLS-1$
+
+	public static final String TASK_DATA_STORAGE_LOG = "log"; //$NON-NLS-1$
+
+	/**
+	 * If enabled offline task data is written in a compact binary format instead of XML. Data in either format is
+	 * always read.
+	 */
+	public static final String TASK_DATA_BINARY_FORMAT = "org.eclipse.mylyn.tasks.ui.task.data.binary"; //$NON-NLS-1$
+
+	/**
+	 * The maximum time in milliseconds that offline task data received during synchronization is queued before it is
+	 * written. Set to 0 to write task data immediately.
+	 */
+	public static final String TASK_DATA_WRITE_DELAY = "org.eclipse.mylyn.tasks.ui.task.data.write.delay"; //$NON-NLS-1$
+
+	/**
+	 * If enabled changes to the task list are appended to a journal on save instead of writing the entire task list.
+	 * Versions that do not read the journal lose changes that were not written to the task list file.
+	 */
+	public static final String TASK_LIST_INCREMENTAL_SAVE = "org.eclipse.mylyn.tasks.ui.task.list.incremental"; //$NON-NLS-1$
 }
@@ -75,9 +75,13 @@ import org.eclipse.mylyn.internal.tasks.core.TaskList;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryDelta;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryDelta.Type;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.internal.tasks.core.data.ITaskDataStorage;
+import org.eclipse.mylyn.internal.tasks.core.data.LogTaskDataStorage;
 import org.eclipse.mylyn.internal.tasks.core.data.SynchronizationManger;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataStore;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataStoreExternalizationParticipant;
+import org.eclipse.mylyn.internal.tasks.core.data.ZipTaskDataStorage;
 import org.eclipse.mylyn.internal.tasks.core.externalization.ExternalizationManager;
 import org.eclipse.mylyn.internal.tasks.core.externalization.IExternalizationParticipant;
 import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListExternalizationParticipant;
@@ -151,6 +155,8 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 
 	private static TaskDataManager taskDataManager;
 
+	private static TaskDataStore taskDataStore;
+
 	private static Map<String, AbstractRepositoryConnectorUi> repositoryConnectorUiMap = new HashMap<String, AbstractRepositoryConnectorUi>();
 
 	private TaskListNotificationManager taskListNotificationManager;
@@ -546,6 +552,8 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 
 			taskListExternalizationParticipant = new TaskListExternalizationParticipant(repositoryModel, taskList,
 					taskListExternalizer, externalizationManager, repositoryManager);
+			taskListExternalizationParticipant.setIncremental(getPreferenceStore().getBoolean(
+					ITasksUiPreferenceConstants.TASK_LIST_INCREMENTAL_SAVE));
 			//externalizationManager.load(taskListSaveParticipant);
 			externalizationManager.addParticipant(taskListExternalizationParticipant);
 			taskList.addChangeListener(taskListExternalizationParticipant);
@@ -583,7 +591,11 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 			TasksUiExtensionReader.initStartupExtensions(taskListExternalizer, repositoryManager);
 
 			// instantiate taskDataManager
-			TaskDataStore taskDataStore = new TaskDataStore(repositoryManager);
+			taskDataStore = new TaskDataStore(repositoryManager, createTaskDataStorage());
+			taskDataStore.setBinaryFormat(getPreferenceStore().getBoolean(
+					ITasksUiPreferenceConstants.TASK_DATA_BINARY_FORMAT));
+			taskDataStore.setWriteDelay(getPreferenceStore().getLong(ITasksUiPreferenceConstants.TASK_DATA_WRITE_DELAY));
+			externalizationManager.addParticipant(new TaskDataStoreExternalizationParticipant(taskDataStore));
 			synchronizationManger = new SynchronizationManger(repositoryModel);
 			taskDataManager = new TaskDataManager(taskDataStore, repositoryManager, taskList, taskActivityManager,
 					synchronizationManger);
@@ -607,6 +619,7 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 				public void saving(ISaveContext context) throws CoreException {
 					if (context.getKind() == ISaveContext.FULL_SAVE) {
 						externalizationManager.stop();
+						taskDataStore.flush();
 					}
 				}
 			};
@@ -762,6 +775,10 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 				ResourcesPlugin.getWorkspace().removeSaveParticipant(this);
 			}
 
+			if (taskDataStore != null) {
+				taskDataStore.close();
+			}
+
 			if (proxyServiceReference != null) {
 				IProxyService proxyService = (IProxyService) context.getService(proxyServiceReference);
 				if (proxyService != null) {
@@ -828,6 +845,12 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 
 					// set new preference in case of a change
 					if (!path.equals(getDataDirectory())) {
+						// write queued task data to the old directory before switching
+						try {
+							taskDataStore.flush();
+						} catch (CoreException e) {
+							throw new InvocationTargetException(e);
+						}
 						getPreferenceStore().setValue(ITasksUiPreferenceConstants.PREF_DATA_DIR, path);
 					}
 
@@ -852,7 +875,8 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 	}
 
 	public void reloadDataDirectory() throws CoreException {
-		// no save just load what is there
+		// no save just load what is there, queued task data would overwrite restored files
+		taskDataStore.clearPending();
 		setDataDirectory(getDataDirectory());
 	}
 
@@ -870,6 +894,12 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 		}
 
 		taskDataManager.setDataPath(getDataDirectory());
+		try {
+			// discard cached task data logs
+			taskDataStore.reset();
+		} catch (CoreException e) {
+			StatusHandler.log(e.getStatus());
+		}
 		externalizationManager.setRootFolderPath(getDataDirectory());
 		getContextStore().setDirectory(new File(getDataDirectory(), "tasks")); //$NON-NLS-1$
 
@@ -920,6 +950,14 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 		}
 	}
 
+	private ITaskDataStorage createTaskDataStorage() {
+		if (ITasksUiPreferenceConstants.TASK_DATA_STORAGE_LOG.equals(getPreferenceStore().getString(
+				ITasksUiPreferenceConstants.TASK_DATA_STORAGE))) {
+			return new LogTaskDataStorage();
+		}
+		return new ZipTaskDataStorage();
+	}
+
 	@SuppressWarnings("deprecation")
 	private void initializePreferences(IPreferenceStore store) {
 		store.setDefault(ITasksUiPreferenceConstants.PREF_DATA_DIR, getDefaultDataDirectory());
@@ -955,6 +993,12 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 		store.setDefault(ITasksUiPreferenceConstants.TASK_LIST_TOOL_TIPS_ENABLED, true);
 
 		store.setDefault(ITasksUiPreferenceConstants.SERVICE_MESSAGE_URL, "http://eclipse.org/mylyn/updates.xml"); //$NON-NLS-1$
+
+		store.setDefault(ITasksUiPreferenceConstants.TASK_DATA_STORAGE,
+				ITasksUiPreferenceConstants.TASK_DATA_STORAGE_ZIP);
+		store.setDefault(ITasksUiPreferenceConstants.TASK_DATA_BINARY_FORMAT, false);
+		store.setDefault(ITasksUiPreferenceConstants.TASK_DATA_WRITE_DELAY, 2000L);
+		store.setDefault(ITasksUiPreferenceConstants.TASK_LIST_INCREMENTAL_SAVE, false);
 	}
 
 	public static TaskActivityManager getTaskActivityManager() {
@@ -1118,6 +1162,10 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 		return taskDataManager;
 	}
 
+	public static TaskDataStore getTaskDataStore() {
+		return taskDataStore;
+	}
+
 	/**
 	 * @since 3.0
 	 */
@@ -1348,7 +1396,7 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 		try {
 			taskListNotificationManager.addNotificationProvider(REMINDER_NOTIFICATION_PROVIDER);
 //				taskListNotificationManager.addNotificationProvider(INCOMING_NOTIFICATION_PROVIDER);
-			TaskListNotifier taskListNotifier = new TaskListNotifier(getTaskDataManager(), getSynchronizationManger());
+			TaskListNotifier taskListNotifier = new TaskListNotifier(getTaskDataManager());
 			getTaskDataManager().addListener(taskListNotifier);
 			taskListNotificationManager.addNotificationProvider(taskListNotifier);
 			taskListNotificationManager.startNotification(NOTIFICATION_DELAY);
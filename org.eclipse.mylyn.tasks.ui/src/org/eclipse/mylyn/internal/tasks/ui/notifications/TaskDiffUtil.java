@@ -12,14 +12,14 @@
 package org.eclipse.mylyn.internal.tasks.ui.notifications;
 
 import java.text.MessageFormat;
-import java.util.Iterator;
 import java.util.List;
 
-import org.eclipse.mylyn.internal.tasks.core.data.TaskAttributeDiff;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiff;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiffSummary;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiffSummary.AttributeChange;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiffSummary.Comment;
 import org.eclipse.mylyn.tasks.core.IRepositoryPerson;
 import org.eclipse.mylyn.tasks.core.ITaskComment;
-import org.eclipse.mylyn.tasks.core.data.ITaskAttributeDiff;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Drawable;
 import org.eclipse.swt.graphics.GC;
@@ -41,22 +41,19 @@ public class TaskDiffUtil {
 		return toString(diff, 60, true);
 	}
 
-	// TODO implement trim based on text width
 	public static String toString(TaskDataDiff diff, int maxWidth, boolean includeNewest) {
+		return toString(TaskDataDiffSummary.create(diff), maxWidth, includeNewest);
+	}
+
+	// TODO implement trim based on text width
+	public static String toString(TaskDataDiffSummary diff, int maxWidth, boolean includeNewest) {
 		StringBuilder sb = new StringBuilder();
 		String sep = ""; //$NON-NLS-1$
 		// append first comment
-		int newCommentCount = diff.getNewComments().size();
+		int newCommentCount = diff.getNewCommentIds().size();
 		if (newCommentCount > 0) {
-			Iterator<ITaskComment> iter = diff.getNewComments().iterator();
-			ITaskComment comment = iter.next();
-			if (includeNewest) {
-				while (iter.hasNext()) {
-					comment = iter.next();
-				}
-			}
-
-			sb.append(TaskDiffUtil.trim(TaskDiffUtil.commentToString(comment), 60));
+			Comment comment = (includeNewest) ? diff.getNewestNewComment() : diff.getFirstNewComment();
+			sb.append(TaskDiffUtil.trim(TaskDiffUtil.commentToString(comment.getAuthor(), comment.getText()), 60));
 			if (newCommentCount > 1) {
 				sb.append(" (" + (newCommentCount - 1) + Messages.TaskDataDiff_more_); //$NON-NLS-1$
 			}
@@ -64,37 +61,38 @@ public class TaskDiffUtil {
 		}
 		// append changed attributes		
 		int n = 0;
-		for (ITaskAttributeDiff changedAttribute : diff.getChangedAttributes()) {
-			TaskAttributeDiff attributeDiff = (TaskAttributeDiff) changedAttribute;
-			String label = attributeDiff.getLabel();
-			if (label != null) {
-				sb.append(sep);
-				sb.append(" "); //$NON-NLS-1$
-				sb.append(label);
-				sb.append(" "); //$NON-NLS-1$
-				sb.append(TaskDiffUtil.trim(TaskDiffUtil.listToString(attributeDiff.getRemovedValues()), 28));
-				sb.append(" -> "); //$NON-NLS-1$
-				sb.append(TaskDiffUtil.trim(TaskDiffUtil.listToString(attributeDiff.getAddedValues()), 28));
-				if (++n == MAX_CHANGED_ATTRIBUTES) {
-					break;
-				}
-				sep = "\n"; //$NON-NLS-1$
+		for (AttributeChange attributeChange : diff.getChangedAttributes()) {
+			sb.append(sep);
+			sb.append(" "); //$NON-NLS-1$
+			sb.append(attributeChange.getLabel());
+			sb.append(" "); //$NON-NLS-1$
+			sb.append(TaskDiffUtil.trim(TaskDiffUtil.listToString(attributeChange.getRemovedValues()), 28));
+			sb.append(" -> "); //$NON-NLS-1$
+			sb.append(TaskDiffUtil.trim(TaskDiffUtil.listToString(attributeChange.getAddedValues()), 28));
+			if (++n == MAX_CHANGED_ATTRIBUTES) {
+				break;
 			}
+			sep = "\n"; //$NON-NLS-1$
 		}
 		return sb.toString();
 	}
 
 	public static String commentToString(ITaskComment comment) {
+		return commentToString(personToString(comment.getAuthor()), comment.getText());
+	}
+
+	private static String commentToString(String author, String text) {
 		StringBuilder sb = new StringBuilder();
-		sb.append(MessageFormat.format(Messages.TaskDiffUtil_Comment_by_X, personToString(comment.getAuthor())));
+		sb.append(MessageFormat.format(Messages.TaskDiffUtil_Comment_by_X,
+				(author != null) ? author : Messages.TaskDiffUtil_Unknown));
 		sb.append(": "); //$NON-NLS-1$
-		sb.append(cleanCommentText(comment.getText()));
+		sb.append(cleanCommentText(text));
 		return sb.toString();
 	}
 
 	private static String personToString(IRepositoryPerson author) {
 		if (author == null) {
-			return Messages.TaskDiffUtil_Unknown;
+			return null;
 		} else if (author.getName() != null) {
 			return author.getName();
 		}
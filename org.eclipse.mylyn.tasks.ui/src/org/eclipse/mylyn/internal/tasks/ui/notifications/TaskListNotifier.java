@@ -19,13 +19,11 @@ import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.commons.notifications.ui.AbstractUiNotification;
 import org.eclipse.mylyn.internal.tasks.core.data.ITaskDataManagerListener;
-import org.eclipse.mylyn.internal.tasks.core.data.SynchronizationManger;
-import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiff;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiffSummary;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManagerEvent;
 import org.eclipse.mylyn.internal.tasks.ui.ITaskListNotificationProvider;
@@ -33,7 +31,6 @@ import org.eclipse.mylyn.internal.tasks.ui.TasksUiPlugin;
 import org.eclipse.mylyn.internal.tasks.ui.views.PresentationFilter;
 import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.ITask.SynchronizationState;
-import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
 import org.eclipse.mylyn.tasks.ui.AbstractRepositoryConnectorUi;
 import org.eclipse.mylyn.tasks.ui.TasksUi;
 
@@ -48,11 +45,8 @@ public class TaskListNotifier implements ITaskDataManagerListener, ITaskListNoti
 
 	public boolean enabled;
 
-	private final SynchronizationManger synchronizationManger;
-
-	public TaskListNotifier(TaskDataManager taskDataManager, SynchronizationManger synchronizationManger) {
+	public TaskListNotifier(TaskDataManager taskDataManager) {
 		this.taskDataManager = taskDataManager;
-		this.synchronizationManger = synchronizationManger;
 	}
 
 	public TaskListNotification getNotification(ITask task, Object token) {
@@ -61,7 +55,7 @@ public class TaskListNotifier implements ITaskDataManagerListener, ITaskListNoti
 			notification.setDescription(Messages.TaskListNotifier_New_unread_task);
 			return notification;
 		} else if (task.getSynchronizationState() == SynchronizationState.INCOMING) {
-			TaskDataDiff diff = getDiff(task);
+			TaskDataDiffSummary diff = getDiff(task);
 			if (diff != null && diff.hasChanged()) {
 				TaskListNotification notification = new TaskListNotification(task, token);
 				notification.setDescription(TaskDiffUtil.toString(diff, 60, true));
@@ -71,14 +65,9 @@ public class TaskListNotifier implements ITaskDataManagerListener, ITaskListNoti
 		return null;
 	}
 
-	public TaskDataDiff getDiff(ITask task) {
-		ITaskDataWorkingCopy workingCopy;
+	public TaskDataDiffSummary getDiff(ITask task) {
 		try {
-			workingCopy = taskDataManager.getTaskDataState(task);
-			if (workingCopy != null) {
-				return synchronizationManger.createDiff(workingCopy.getRepositoryData(), workingCopy.getLastReadData(),
-						new NullProgressMonitor());
-			}
+			return taskDataManager.getDiff(task);
 		} catch (CoreException e) {
 			StatusHandler.log(new Status(IStatus.ERROR, TasksUiPlugin.ID_PLUGIN, "Failed to get task data for task: \"" //$NON-NLS-1$
 					+ task + "\"", e)); //$NON-NLS-1$
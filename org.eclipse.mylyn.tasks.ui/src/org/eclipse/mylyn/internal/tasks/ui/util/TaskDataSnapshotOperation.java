@@ -14,6 +14,8 @@ package org.eclipse.mylyn.internal.tasks.ui.util;
 import java.io.File;
 import java.util.Set;
 
+import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListJournal;
+
 /**
  * @author Robert Elves
  */
@@ -26,7 +28,13 @@ public class TaskDataSnapshotOperation extends TaskDataExportOperation {
 	@Override
 	protected void selectFiles(Set<File> filesToExport) {
 
-		filesToExport.add(new File(getSourceFolder(), "tasks.xml.zip")); //$NON-NLS-1$
+		File taskListFile = new File(getSourceFolder(), "tasks.xml.zip"); //$NON-NLS-1$
+		filesToExport.add(taskListFile);
+		// changes that were saved after the task list file was written
+		File journalFile = TaskListJournal.getJournalFile(taskListFile);
+		if (journalFile.exists()) {
+			filesToExport.add(journalFile);
+		}
 		filesToExport.add(new File(getSourceFolder(), "repositories.xml.zip")); //$NON-NLS-1$
 		filesToExport.add(new File(getSourceFolder(), "contexts/activity.xml.zip")); //$NON-NLS-1$
 	}
@@ -37,7 +37,7 @@ import org.eclipse.mylyn.internal.tasks.core.ScheduledTaskContainer;
 import org.eclipse.mylyn.internal.tasks.core.TaskCategory;
 import org.eclipse.mylyn.internal.tasks.core.UncategorizedTaskContainer;
 import org.eclipse.mylyn.internal.tasks.core.UnmatchedTaskContainer;
-import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiff;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiffSummary;
 import org.eclipse.mylyn.internal.tasks.ui.AbstractTaskListFilter;
 import org.eclipse.mylyn.internal.tasks.ui.ITasksUiPreferenceConstants;
 import org.eclipse.mylyn.internal.tasks.ui.TaskScalingHyperlink;
@@ -297,9 +297,8 @@ public class TaskListToolTip extends GradientToolTip {
 			ITask task = (ITask) element;
 			if (task.getSynchronizationState().isIncoming()) {
 				String text = null;
-				TaskListNotifier notifier = new TaskListNotifier(TasksUiPlugin.getTaskDataManager(),
-						TasksUiPlugin.getDefault().getSynchronizationManger());
-				TaskDataDiff diff = notifier.getDiff(task);
+				TaskListNotifier notifier = new TaskListNotifier(TasksUiPlugin.getTaskDataManager());
+				TaskDataDiffSummary diff = notifier.getDiff(task);
 				if (diff != null && diff.hasChanged()) {
 					text = TaskDiffUtil.toString(diff, MAX_TEXT_WIDTH, true);
 				}
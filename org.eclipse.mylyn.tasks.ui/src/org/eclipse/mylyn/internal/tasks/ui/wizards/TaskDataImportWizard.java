@@ -37,6 +37,7 @@ import org.eclipse.mylyn.commons.workbench.WorkbenchUtil;
 import org.eclipse.mylyn.internal.commons.core.ZipFileUtil;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.externalization.AbstractExternalizationParticipant;
+import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListJournal;
 import org.eclipse.mylyn.internal.tasks.ui.TasksUiPlugin;
 import org.eclipse.mylyn.internal.tasks.ui.util.TasksUiInternal;
 import org.eclipse.mylyn.internal.tasks.ui.workingsets.TaskWorkingSetUpdater;
@@ -176,6 +177,14 @@ public class TaskDataImportWizard extends Wizard implements IImportWizard {
 						return;
 					}
 
+					// the journal records changes to the current task list, the backup includes its own journal
+					deleteTaskListJournal();
+
+					// task data that is queued for writing must not overwrite the restored files
+					TasksUiPlugin.getTaskDataStore().clearPending();
+					// close open task data logs before they are replaced
+					TasksUiPlugin.getTaskDataStore().reset();
+
 					ZipFileUtil.unzipFiles(sourceZipFile, TasksUiPlugin.getDefault().getDataDirectory(), monitor);
 
 					if (!hasDefaultTaskList) {
@@ -209,6 +218,15 @@ public class TaskDataImportWizard extends Wizard implements IImportWizard {
 			}
 		}
 
+		private void deleteTaskListJournal() throws IOException {
+			File taskListFile = new File(TasksUiPlugin.getDefault().getDataDirectory(),
+					ITasksCoreConstants.DEFAULT_TASK_LIST_FILE);
+			File journalFile = TaskListJournal.getJournalFile(taskListFile);
+			if (journalFile.exists() && !journalFile.delete()) {
+				throw new IOException("Failed to delete task list journal \"" + journalFile.getAbsolutePath() + "\""); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+
 		/**
 		 * Rename existing task list file to avoid loading that instead of the restored old one.
 		 */
@@ -11,12 +11,17 @@
 
 package org.eclipse.mylyn.internal.trac.core;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,30 +32,43 @@ import org.eclipse.mylyn.commons.net.AbstractWebLocation;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient.Version;
 import org.eclipse.mylyn.internal.trac.core.client.TracClientData;
+import org.eclipse.mylyn.internal.trac.core.client.TracXmlRpcClient;
 import org.eclipse.mylyn.tasks.core.IRepositoryListener;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.TaskRepositoryLocationFactory;
 
 /**
  * Caches {@link ITracClient} objects.
+ * <p>
+ * The repository configuration of each client is persisted in a separate file in the cache directory. A file is read
+ * when the first client for its repository is requested and only rewritten when the configuration was updated.
  * 
  * @author Steffen Pingel
  */
 public class TracClientManager implements IRepositoryListener {
 
+	private static final String CACHE_FILE_SUFFIX = ".cache"; //$NON-NLS-1$
+
 	private final Map<String, ITracClient> clientByUrl = new HashMap<String, ITracClient>();
 
 	private final Map<String, TracClientData> clientDataByUrl = new HashMap<String, TracClientData>();
 
-	private final File cacheFile;
+	/**
+	 * The value of {@link TracClientData#getLastUpdate()} when the configuration was last read or written.
+	 */
+	private final Map<String, Long> cachedLastUpdateByUrl = new HashMap<String, Long>();
+
+	private final File cacheDirectory;
 
 	private volatile TaskRepositoryLocationFactory taskRepositoryLocationFactory;
 
-	public TracClientManager(File cacheFile, TaskRepositoryLocationFactory taskRepositoryLocationFactory) {
-		this.cacheFile = cacheFile;
+	public TracClientManager(File cacheDirectory, TaskRepositoryLocationFactory taskRepositoryLocationFactory) {
+		this.cacheDirectory = cacheDirectory;
 		this.taskRepositoryLocationFactory = taskRepositoryLocationFactory;
 
-		readCache();
+		if (cacheDirectory != null && cacheDirectory.isFile()) {
+			migrateCache();
+		}
 	}
 
 	public synchronized ITracClient getTracClient(TaskRepository taskRepository) {
@@ -62,14 +80,41 @@ public class TracClientManager implements IRepositoryListener {
 
 			TracClientData data = clientDataByUrl.get(taskRepository.getRepositoryUrl());
 			if (data == null) {
-				data = new TracClientData();
+				data = readCache(taskRepository.getRepositoryUrl());
+				if (data == null) {
+					data = new TracClientData();
+				}
 				clientDataByUrl.put(taskRepository.getRepositoryUrl(), data);
 			}
 			repository.setData(data);
+			if (repository instanceof TracXmlRpcClient) {
+				configureSearch((TracXmlRpcClient) repository, taskRepository);
+			}
 		}
 		return repository;
 	}
 
+	private void configureSearch(TracXmlRpcClient client, TaskRepository taskRepository) {
+		client.setSearchBatchSize(getIntProperty(taskRepository, TracRepositoryConnector.PROPERTY_SEARCH_BATCH_SIZE,
+				TracXmlRpcClient.DEFAULT_SEARCH_BATCH_SIZE));
+		client.setSearchConcurrentRequests(getIntProperty(taskRepository,
+				TracRepositoryConnector.PROPERTY_SEARCH_CONCURRENT_REQUESTS,
+				TracXmlRpcClient.DEFAULT_SEARCH_CONCURRENT_REQUESTS));
+	}
+
+	private int getIntProperty(TaskRepository taskRepository, String key, int defaultValue) {
+		String value = taskRepository.getProperty(key);
+		if (value != null) {
+			try {
+				return Integer.parseInt(value.trim());
+			} catch (NumberFormatException e) {
+				StatusHandler.log(new Status(IStatus.WARNING, TracCorePlugin.ID_PLUGIN, "Invalid value \"" + value //$NON-NLS-1$
+						+ "\" for repository property " + key, e)); //$NON-NLS-1$
+			}
+		}
+		return defaultValue;
+	}
+
 	public void repositoriesRead() {
 		// ignore
 	}
@@ -77,7 +122,7 @@ public class TracClientManager implements IRepositoryListener {
 	public synchronized void repositoryAdded(TaskRepository repository) {
 		// make sure there is no stale client still in the cache, bug #149939
 		removeClient(repository);
-		clientDataByUrl.remove(repository.getRepositoryUrl());
+		removeData(repository.getRepositoryUrl());
 	}
 
 	public synchronized void clearClients() {
@@ -90,7 +135,16 @@ public class TracClientManager implements IRepositoryListener {
 
 	public synchronized void repositoryRemoved(TaskRepository repository) {
 		removeClient(repository);
-		clientDataByUrl.remove(repository.getRepositoryUrl());
+		removeData(repository.getRepositoryUrl());
+	}
+
+	private void removeData(String url) {
+		clientDataByUrl.remove(url);
+		cachedLastUpdateByUrl.remove(url);
+		File file = getCacheFile(url);
+		if (file != null) {
+			file.delete();
+		}
 	}
 
 	public synchronized void repositorySettingsChanged(TaskRepository repository) {
@@ -99,62 +153,152 @@ public class TracClientManager implements IRepositoryListener {
 		// clientDataByUrl, bug #149939
 	}
 
-	public synchronized void readCache() {
-		if (cacheFile == null || !cacheFile.exists()) {
-			return;
+	private File getCacheFile(String url) {
+		if (cacheDirectory == null) {
+			return null;
+		}
+		String name;
+		try {
+			MessageDigest digest = MessageDigest.getInstance("MD5"); //$NON-NLS-1$
+			StringBuilder sb = new StringBuilder();
+			for (byte b : digest.digest(url.getBytes(ITracClient.CHARSET))) {
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+				sb.append(Character.forDigit(b & 0xF, 16));
+			}
+			name = sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			name = Integer.toHexString(url.hashCode());
+		} catch (IOException e) {
+			name = Integer.toHexString(url.hashCode());
+		}
+		return new File(cacheDirectory, name + CACHE_FILE_SUFFIX);
+	}
+
+	/**
+	 * Returns the cached configuration of the repository at <code>url</code> or null, if the configuration is not
+	 * cached or was cached in an incompatible format.
+	 */
+	private TracClientData readCache(String url) {
+		File file = getCacheFile(url);
+		if (file == null || !file.exists()) {
+			return null;
 		}
 
-		ObjectInputStream in = null;
 		try {
-			in = new ObjectInputStream(new FileInputStream(cacheFile));
-			int size = in.readInt();
-			for (int i = 0; i < size; i++) {
-				String url = (String) in.readObject();
-				TracClientData data = (TracClientData) in.readObject();
-				if (url != null && data != null) {
-					clientDataByUrl.put(url, data);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != TracClientData.FORMAT_VERSION || !url.equals(in.readUTF())) {
+					// the configuration is retrieved from the repository when needed
+					return null;
 				}
+				TracClientData data = TracClientData.read(in);
+				cachedLastUpdateByUrl.put(url, data.getLastUpdate());
+				return data;
+			} finally {
+				in.close();
 			}
-		} catch (Throwable e) {
+		} catch (IOException e) {
 			StatusHandler.log(new Status(IStatus.WARNING, TracCorePlugin.ID_PLUGIN,
-					"The Trac respository configuration cache could not be read", e)); //$NON-NLS-1$
-		} finally {
-			if (in != null) {
-				try {
-					in.close();
-				} catch (IOException e) {
-					// ignore
-				}
-			}
+					"The Trac respository configuration cache could not be read: " + url, e)); //$NON-NLS-1$
+		} catch (RuntimeException e) {
+			StatusHandler.log(new Status(IStatus.WARNING, TracCorePlugin.ID_PLUGIN,
+					"The Trac respository configuration cache could not be read: " + url, e)); //$NON-NLS-1$
 		}
-
+		return null;
 	}
 
+	/**
+	 * Writes the configuration of all repositories that was updated since it was last read or written.
+	 */
 	public synchronized void writeCache() {
-		if (cacheFile == null) {
+		for (Map.Entry<String, TracClientData> entry : clientDataByUrl.entrySet()) {
+			writeCache(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Writes the configuration of <code>repository</code> if it was updated since it was last read or written.
+	 */
+	public synchronized void writeCache(TaskRepository repository) {
+		TracClientData data = clientDataByUrl.get(repository.getRepositoryUrl());
+		if (data != null) {
+			writeCache(repository.getRepositoryUrl(), data);
+		}
+	}
+
+	private void writeCache(String url, TracClientData data) {
+		File file = getCacheFile(url);
+		long lastUpdate = data.getLastUpdate();
+		Long cachedLastUpdate = cachedLastUpdateByUrl.get(url);
+		if (file == null || lastUpdate == 0) {
+			return;
+		}
+		if (cachedLastUpdate != null && cachedLastUpdate.longValue() == lastUpdate) {
+			// unchanged
 			return;
 		}
 
-		ObjectOutputStream out = null;
+		File tempFile = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
 		try {
-			out = new ObjectOutputStream(new FileOutputStream(cacheFile));
-			out.writeInt(clientDataByUrl.size());
-			for (String url : clientDataByUrl.keySet()) {
-				out.writeObject(url);
-				out.writeObject(clientDataByUrl.get(url));
+			if (!cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+				throw new IOException("Failed to create directory " + cacheDirectory); //$NON-NLS-1$
+			}
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				out.writeInt(TracClientData.FORMAT_VERSION);
+				out.writeUTF(url);
+				data.write(out);
+			} finally {
+				out.close();
 			}
+			// replace the previous entry only after the new entry was written completely
+			if ((file.exists() && !file.delete()) || !tempFile.renameTo(file)) {
+				throw new IOException("Failed to rename " + tempFile + " to " + file); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			cachedLastUpdateByUrl.put(url, lastUpdate);
 		} catch (IOException e) {
+			tempFile.delete();
+			StatusHandler.log(new Status(IStatus.WARNING, TracCorePlugin.ID_PLUGIN,
+					"The Trac respository configuration cache could not be written: " + url, e)); //$NON-NLS-1$
+		} catch (RuntimeException e) {
+			tempFile.delete();
 			StatusHandler.log(new Status(IStatus.WARNING, TracCorePlugin.ID_PLUGIN,
-					"The Trac respository configuration cache could not be written", e)); //$NON-NLS-1$
-		} finally {
-			if (out != null) {
-				try {
-					out.close();
-				} catch (IOException e) {
-					// ignore
+					"The Trac respository configuration cache could not be written: " + url, e)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Converts a cache that was written by previous versions using Java serialization into a file per repository.
+	 */
+	private void migrateCache() {
+		if (cacheDirectory.length() > 0) {
+			ObjectInputStream in = null;
+			try {
+				in = new ObjectInputStream(new FileInputStream(cacheDirectory));
+				int size = in.readInt();
+				for (int i = 0; i < size; i++) {
+					String url = (String) in.readObject();
+					TracClientData data = (TracClientData) in.readObject();
+					if (url != null && data != null) {
+						clientDataByUrl.put(url, data);
+					}
+				}
+			} catch (Throwable e) {
+				StatusHandler.log(new Status(IStatus.WARNING, TracCorePlugin.ID_PLUGIN,
+						"The Trac respository configuration cache could not be read", e)); //$NON-NLS-1$
+			} finally {
+				if (in != null) {
+					try {
+						in.close();
+					} catch (IOException e) {
+						// ignore
+					}
 				}
 			}
 		}
+		if (cacheDirectory.delete()) {
+			writeCache();
+		}
 	}
 
 	public TaskRepositoryLocationFactory getTaskRepositoryLocationFactory() {
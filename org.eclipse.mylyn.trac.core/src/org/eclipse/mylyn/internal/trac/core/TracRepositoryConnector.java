@@ -34,6 +34,7 @@ import org.eclipse.mylyn.commons.net.Policy;
 import org.eclipse.mylyn.internal.trac.core.client.AbstractWikiHandler;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient.Version;
+import org.eclipse.mylyn.internal.trac.core.client.ITracTicketCollector;
 import org.eclipse.mylyn.internal.trac.core.client.ITracWikiClient;
 import org.eclipse.mylyn.internal.trac.core.model.TracComment;
 import org.eclipse.mylyn.internal.trac.core.model.TracPriority;
@@ -244,6 +245,16 @@ public class TracRepositoryConnector extends AbstractRepositoryConnector {
 
 	public static final String TASK_KEY_UPDATE_DATE = "UpdateDate"; //$NON-NLS-1$
 
+	/**
+	 * Repository property that specifies the number of tickets retrieved per XML-RPC request when searching.
+	 */
+	public static final String PROPERTY_SEARCH_BATCH_SIZE = "org.eclipse.mylyn.trac.search.batchSize"; //$NON-NLS-1$
+
+	/**
+	 * Repository property that specifies the maximum number of concurrent XML-RPC requests when searching.
+	 */
+	public static final String PROPERTY_SEARCH_CONCURRENT_REQUESTS = "org.eclipse.mylyn.trac.search.concurrentRequests"; //$NON-NLS-1$
+
 	public static String getDisplayUsername(TaskRepository repository) {
 		AuthenticationCredentials credentials = repository.getCredentials(AuthenticationType.REPOSITORY);
 		if (credentials != null && credentials.getUserName().length() > 0) {
@@ -443,8 +454,9 @@ public class TracRepositoryConnector extends AbstractRepositoryConnector {
 	}
 
 	@Override
-	public IStatus performQuery(TaskRepository repository, IRepositoryQuery query, TaskDataCollector resultCollector,
-			ISynchronizationSession session, IProgressMonitor monitor) {
+	public IStatus performQuery(final TaskRepository repository, IRepositoryQuery query,
+			final TaskDataCollector resultCollector, final ISynchronizationSession session,
+			final IProgressMonitor monitor) {
 		try {
 			monitor.beginTask(Messages.TracRepositoryConnector_Querying_repository, IProgressMonitor.UNKNOWN);
 
@@ -483,31 +495,35 @@ public class TracRepositoryConnector extends AbstractRepositoryConnector {
 						resultCollector.accept(taskData);
 					}
 				} else {
-					List<TracTicket> tickets = new ArrayList<TracTicket>();
-					client.search(search, tickets, monitor);
-
-					for (TracTicket ticket : tickets) {
-						TaskData taskData = taskDataHandler.createTaskDataFromTicket(client, repository, ticket,
-								monitor);
-						taskData.setPartial(true);
-						if (session != null && !session.isFullSynchronization() && hasRichEditor(repository)) {
-							if (taskById == null) {
-								taskById = new HashMap<String, ITask>();
-								for (ITask task : session.getTasks()) {
-									taskById.put(task.getTaskId(), task);
+					if (session != null && !session.isFullSynchronization() && hasRichEditor(repository)) {
+						taskById = new HashMap<String, ITask>();
+						for (ITask task : session.getTasks()) {
+							taskById.put(task.getTaskId(), task);
+						}
+					}
+					final ITracClient tracClient = client;
+					final Map<String, ITask> changedTaskById = taskById;
+					// convert tickets while the search is in progress to avoid holding all results in memory
+					client.search(search, new ITracTicketCollector() {
+						public void accept(TracTicket ticket) throws CoreException {
+							TaskData taskData = taskDataHandler.createTaskDataFromTicket(tracClient, repository,
+									ticket, monitor);
+							taskData.setPartial(true);
+							if (changedTaskById != null) {
+								// preSyncronization() only handles full synchronizations
+								ITask task = changedTaskById.get(ticket.getId() + ""); //$NON-NLS-1$
+								if (task != null && hasTaskChanged(repository, task, taskData)) {
+									session.markStale(task);
 								}
 							}
-							// preSyncronization() only handles full synchronizations
-							ITask task = taskById.get(ticket.getId() + ""); //$NON-NLS-1$
-							if (task != null && hasTaskChanged(repository, task, taskData)) {
-								session.markStale(task);
-							}
+							resultCollector.accept(taskData);
 						}
-						resultCollector.accept(taskData);
-					}
+					}, monitor);
 				}
 			} catch (OperationCanceledException e) {
 				throw e;
+			} catch (CoreException e) {
+				return e.getStatus();
 			} catch (Throwable e) {
 				return TracCorePlugin.toStatus(e, repository);
 			}
@@ -646,6 +662,7 @@ public class TracRepositoryConnector extends AbstractRepositoryConnector {
 		try {
 			ITracClient client = getClientManager().getTracClient(repository);
 			client.updateAttributes(monitor, true);
+			getClientManager().writeCache(repository);
 		} catch (Exception e) {
 			throw new CoreException(RepositoryStatus.createStatus(repository.getRepositoryUrl(), IStatus.WARNING,
 					TracCorePlugin.ID_PLUGIN, "Could not update attributes")); //$NON-NLS-1$
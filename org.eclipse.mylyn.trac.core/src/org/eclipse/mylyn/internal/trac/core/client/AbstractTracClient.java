@@ -15,7 +15,9 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import org.apache.commons.httpclient.Cookie;
 import org.apache.commons.httpclient.HostConfiguration;
@@ -23,6 +25,7 @@ import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.NameValuePair;
 import org.apache.commons.httpclient.cookie.CookiePolicy;
 import org.apache.commons.httpclient.methods.PostMethod;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.mylyn.commons.core.CoreUtil;
@@ -32,7 +35,9 @@ import org.eclipse.mylyn.commons.net.WebUtil;
 import org.eclipse.mylyn.internal.trac.core.model.TracComponent;
 import org.eclipse.mylyn.internal.trac.core.model.TracMilestone;
 import org.eclipse.mylyn.internal.trac.core.model.TracPriority;
+import org.eclipse.mylyn.internal.trac.core.model.TracSearch;
 import org.eclipse.mylyn.internal.trac.core.model.TracSeverity;
+import org.eclipse.mylyn.internal.trac.core.model.TracTicket;
 import org.eclipse.mylyn.internal.trac.core.model.TracTicketField;
 import org.eclipse.mylyn.internal.trac.core.model.TracTicketResolution;
 import org.eclipse.mylyn.internal.trac.core.model.TracTicketStatus;
@@ -213,12 +218,26 @@ public abstract class AbstractTracClient implements ITracClient {
 	public void updateAttributes(IProgressMonitor monitor, boolean force) throws TracException {
 		if (!hasAttributes() || force) {
 			updateAttributes(monitor);
-			data.lastUpdate = System.currentTimeMillis();
+			// ensure that each update changes the value to allow detecting updates
+			data.lastUpdate = Math.max(System.currentTimeMillis(), data.lastUpdate + 1);
 		}
 	}
 
 	public abstract void updateAttributes(IProgressMonitor monitor) throws TracException;
 
+	/**
+	 * Retrieves all results before passing them to <code>collector</code>. Subclasses may override to pass tickets
+	 * while the search is in progress.
+	 */
+	public void search(TracSearch query, ITracTicketCollector collector, IProgressMonitor monitor)
+			throws TracException, CoreException {
+		List<TracTicket> tickets = new ArrayList<TracTicket>();
+		search(query, tickets, monitor);
+		for (TracTicket ticket : tickets) {
+			collector.accept(ticket);
+		}
+	}
+
 	public void setData(TracClientData data) {
 		this.data = data;
 	}
@@ -16,6 +16,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.mylyn.internal.trac.core.model.TracComment;
 import org.eclipse.mylyn.internal.trac.core.model.TracComponent;
@@ -130,6 +131,21 @@ public interface ITracClient {
 	 */
 	void search(TracSearch query, List<TracTicket> result, IProgressMonitor monitor) throws TracException;
 
+	/**
+	 * Queries tickets from repository. Found tickets are passed to <code>collector</code> as they are retrieved.
+	 * 
+	 * @param query
+	 *            the search criteria
+	 * @param collector
+	 *            receives the found tickets
+	 * @throws TracException
+	 *             thrown in case of a connection error
+	 * @throws CoreException
+	 *             thrown if <code>collector</code> fails
+	 */
+	void search(TracSearch query, ITracTicketCollector collector, IProgressMonitor monitor) throws TracException,
+			CoreException;
+
 	/**
 	 * Queries ticket id from repository. All found tickets are added to <code>result</code>.
 	 * 
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.trac.core.client;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.mylyn.internal.trac.core.model.TracTicket;
+
+/**
+ * Receives the results of {@link ITracClient#search(org.eclipse.mylyn.internal.trac.core.model.TracSearch,
+ * ITracTicketCollector, org.eclipse.core.runtime.IProgressMonitor)} while the search is in progress.
+ */
+public interface ITracTicketCollector {
+
+	/**
+	 * Invoked for each ticket that matches the search in the order of the search results. Invocations are made from the
+	 * thread that invoked the search.
+	 *
+	 * @throws CoreException
+	 *             aborts the search
+	 */
+	void accept(TracTicket ticket) throws CoreException;
+
+}
@@ -11,7 +11,12 @@
 
 package org.eclipse.mylyn.internal.trac.core.client;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +24,7 @@ import org.eclipse.mylyn.internal.trac.core.model.TracComponent;
 import org.eclipse.mylyn.internal.trac.core.model.TracMilestone;
 import org.eclipse.mylyn.internal.trac.core.model.TracPriority;
 import org.eclipse.mylyn.internal.trac.core.model.TracSeverity;
+import org.eclipse.mylyn.internal.trac.core.model.TracTicketAttribute;
 import org.eclipse.mylyn.internal.trac.core.model.TracTicketField;
 import org.eclipse.mylyn.internal.trac.core.model.TracTicketResolution;
 import org.eclipse.mylyn.internal.trac.core.model.TracTicketStatus;
@@ -29,6 +35,16 @@ public class TracClientData implements Serializable {
 
 	private static final long serialVersionUID = 6891961984245981675L;
 
+	/**
+	 * The version of the format used by {@link #write(DataOutput)}. Needs to be incremented whenever the format
+	 * changes.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	private static final int MAX_LENGTH = 16 * 1024 * 1024;
+
+	private static final long NO_DATE = Long.MIN_VALUE;
+
 	List<TracComponent> components;
 
 	List<TracMilestone> milestones;
@@ -51,4 +67,267 @@ public class TracClientData implements Serializable {
 
 	transient Map<String, TracTicketField> ticketFieldByName;
 
+	/**
+	 * Returns the time of the last update of the attributes or 0, if attributes have not been retrieved.
+	 */
+	public long getLastUpdate() {
+		return lastUpdate;
+	}
+
+	/**
+	 * Reads data written by {@link #write(DataOutput)}.
+	 */
+	public static TracClientData read(DataInput in) throws IOException {
+		TracClientData data = new TracClientData();
+		data.lastUpdate = in.readLong();
+
+		int size = readSize(in);
+		if (size != -1) {
+			data.components = new ArrayList<TracComponent>(size);
+			for (int i = 0; i < size; i++) {
+				TracComponent component = new TracComponent(readName(in));
+				component.setOwner(readString(in));
+				component.setDescription(readString(in));
+				data.components.add(component);
+			}
+		}
+
+		size = readSize(in);
+		if (size != -1) {
+			data.milestones = new ArrayList<TracMilestone>(size);
+			for (int i = 0; i < size; i++) {
+				TracMilestone milestone = new TracMilestone(readName(in));
+				milestone.setDue(readDate(in));
+				milestone.setCompleted(readDate(in));
+				milestone.setDescription(readString(in));
+				data.milestones.add(milestone);
+			}
+		}
+
+		size = readSize(in);
+		if (size != -1) {
+			data.priorities = new ArrayList<TracPriority>(size);
+			for (int i = 0; i < size; i++) {
+				data.priorities.add(new TracPriority(readName(in), in.readInt()));
+			}
+		}
+
+		size = readSize(in);
+		if (size != -1) {
+			data.severities = new ArrayList<TracSeverity>(size);
+			for (int i = 0; i < size; i++) {
+				data.severities.add(new TracSeverity(readName(in), in.readInt()));
+			}
+		}
+
+		size = readSize(in);
+		if (size != -1) {
+			data.ticketFields = new ArrayList<TracTicketField>(size);
+			for (int i = 0; i < size; i++) {
+				data.ticketFields.add(readTicketField(in));
+			}
+		}
+
+		size = readSize(in);
+		if (size != -1) {
+			data.ticketResolutions = new ArrayList<TracTicketResolution>(size);
+			for (int i = 0; i < size; i++) {
+				data.ticketResolutions.add(new TracTicketResolution(readName(in), in.readInt()));
+			}
+		}
+
+		size = readSize(in);
+		if (size != -1) {
+			data.ticketStatus = new ArrayList<TracTicketStatus>(size);
+			for (int i = 0; i < size; i++) {
+				data.ticketStatus.add(new TracTicketStatus(readName(in), in.readInt()));
+			}
+		}
+
+		size = readSize(in);
+		if (size != -1) {
+			data.ticketTypes = new ArrayList<TracTicketType>(size);
+			for (int i = 0; i < size; i++) {
+				data.ticketTypes.add(new TracTicketType(readName(in), in.readInt()));
+			}
+		}
+
+		size = readSize(in);
+		if (size != -1) {
+			data.versions = new ArrayList<TracVersion>(size);
+			for (int i = 0; i < size; i++) {
+				TracVersion version = new TracVersion(readName(in));
+				version.setTime(readDate(in));
+				version.setDescription(readString(in));
+				data.versions.add(version);
+			}
+		}
+		return data;
+	}
+
+	private static TracTicketField readTicketField(DataInput in) throws IOException {
+		TracTicketField field = new TracTicketField(readString(in));
+		String type = readString(in);
+		if (type != null) {
+			try {
+				field.setType(TracTicketField.Type.valueOf(type));
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Invalid ticket field type: " + type); //$NON-NLS-1$
+			}
+		}
+		field.setLabel(readString(in));
+		int size = readSize(in);
+		if (size != -1) {
+			String[] options = new String[size];
+			for (int i = 0; i < size; i++) {
+				options[i] = readString(in);
+			}
+			field.setOptions(options);
+		}
+		field.setDefaultValue(readString(in));
+		field.setCustom(in.readBoolean());
+		field.setOrder(in.readInt());
+		field.setOptional(in.readBoolean());
+		field.setWidth(in.readInt());
+		field.setHeight(in.readInt());
+		return field;
+	}
+
+	private static int readSize(DataInput in) throws IOException {
+		int size = in.readInt();
+		if (size < -1 || size > MAX_LENGTH) {
+			throw new IOException("Invalid length: " + size); //$NON-NLS-1$
+		}
+		return size;
+	}
+
+	private static String readName(DataInput in) throws IOException {
+		String name = readString(in);
+		if (name == null) {
+			throw new IOException("Missing attribute name"); //$NON-NLS-1$
+		}
+		return name;
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		int length = readSize(in);
+		if (length == -1) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, ITracClient.CHARSET);
+	}
+
+	private static Date readDate(DataInput in) throws IOException {
+		long time = in.readLong();
+		return (time != NO_DATE) ? new Date(time) : null;
+	}
+
+	/**
+	 * Writes the attributes in a compact binary format that does not depend on Java serialization.
+	 * 
+	 * @see #FORMAT_VERSION
+	 * @see #read(DataInput)
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeLong(lastUpdate);
+
+		List<TracComponent> components = this.components;
+		writeSize(out, components);
+		if (components != null) {
+			for (TracComponent component : components) {
+				writeString(out, component.getName());
+				writeString(out, component.getOwner());
+				writeString(out, component.getDescription());
+			}
+		}
+
+		List<TracMilestone> milestones = this.milestones;
+		writeSize(out, milestones);
+		if (milestones != null) {
+			for (TracMilestone milestone : milestones) {
+				writeString(out, milestone.getName());
+				writeDate(out, milestone.getDue());
+				writeDate(out, milestone.getCompleted());
+				writeString(out, milestone.getDescription());
+			}
+		}
+
+		writeTicketAttributes(out, priorities);
+		writeTicketAttributes(out, severities);
+
+		List<TracTicketField> ticketFields = this.ticketFields;
+		writeSize(out, ticketFields);
+		if (ticketFields != null) {
+			for (TracTicketField field : ticketFields) {
+				writeTicketField(out, field);
+			}
+		}
+
+		writeTicketAttributes(out, ticketResolutions);
+		writeTicketAttributes(out, ticketStatus);
+		writeTicketAttributes(out, ticketTypes);
+
+		List<TracVersion> versions = this.versions;
+		writeSize(out, versions);
+		if (versions != null) {
+			for (TracVersion version : versions) {
+				writeString(out, version.getName());
+				writeDate(out, version.getTime());
+				writeString(out, version.getDescription());
+			}
+		}
+	}
+
+	private static void writeTicketField(DataOutput out, TracTicketField field) throws IOException {
+		writeString(out, field.getName());
+		writeString(out, (field.getType() != null) ? field.getType().name() : null);
+		writeString(out, field.getLabel());
+		String[] options = field.getOptions();
+		if (options != null) {
+			out.writeInt(options.length);
+			for (String option : options) {
+				writeString(out, option);
+			}
+		} else {
+			out.writeInt(-1);
+		}
+		writeString(out, field.getDefaultValue());
+		out.writeBoolean(field.isCustom());
+		out.writeInt(field.getOrder());
+		out.writeBoolean(field.isOptional());
+		out.writeInt(field.getWidth());
+		out.writeInt(field.getHeight());
+	}
+
+	private static void writeTicketAttributes(DataOutput out, List<? extends TracTicketAttribute> attributes)
+			throws IOException {
+		writeSize(out, attributes);
+		if (attributes != null) {
+			for (TracTicketAttribute attribute : attributes) {
+				writeString(out, attribute.getName());
+				out.writeInt(attribute.getValue());
+			}
+		}
+	}
+
+	private static void writeSize(DataOutput out, List<?> list) throws IOException {
+		out.writeInt((list != null) ? list.size() : -1);
+	}
+
+	private static void writeString(DataOutput out, String value) throws IOException {
+		if (value != null) {
+			byte[] bytes = value.getBytes(ITracClient.CHARSET);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		} else {
+			out.writeInt(-1);
+		}
+	}
+
+	private static void writeDate(DataOutput out, Date date) throws IOException {
+		out.writeLong((date != null) ? date.getTime() : NO_DATE);
+	}
+
 }
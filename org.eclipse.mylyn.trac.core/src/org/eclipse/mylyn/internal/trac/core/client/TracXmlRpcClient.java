@@ -12,20 +12,30 @@
 
 package org.eclipse.mylyn.internal.trac.core.client;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 
 import org.apache.commons.httpclient.Credentials;
@@ -42,9 +52,10 @@ import org.apache.commons.httpclient.auth.DigestScheme;
 import org.apache.commons.httpclient.auth.NTLMScheme;
 import org.apache.commons.httpclient.methods.HeadMethod;
 import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.XmlRpcRequestConfig;
 import org.apache.xmlrpc.client.XmlRpcClient;
-import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
 import org.apache.xmlrpc.serializer.CharSetXmlWriterFactory;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -80,10 +91,13 @@ import org.eclipse.mylyn.internal.trac.core.model.TracVersion;
 import org.eclipse.mylyn.internal.trac.core.model.TracWikiPage;
 import org.eclipse.mylyn.internal.trac.core.model.TracWikiPageInfo;
 import org.eclipse.mylyn.internal.trac.core.util.HttpMethodInterceptor;
+import org.eclipse.mylyn.internal.trac.core.util.TemporaryFileInputStream;
 import org.eclipse.mylyn.internal.trac.core.util.TracHttpClientTransportFactory;
 import org.eclipse.mylyn.internal.trac.core.util.TracHttpClientTransportFactory.TracHttpException;
 import org.eclipse.mylyn.internal.trac.core.util.TracUtil;
+import org.eclipse.mylyn.internal.trac.core.util.TracXmlRpcClientConfig;
 import org.eclipse.mylyn.internal.trac.core.util.TracXmlRpcClientRequest;
+import org.eclipse.mylyn.internal.trac.core.util.TracXmlRpcTypeFactory;
 import org.eclipse.osgi.util.NLS;
 
 /**
@@ -106,9 +120,12 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 
 		private final Object[] parameters;
 
-		public XmlRpcRequest(String method, Object[] parameters) {
+		private final boolean streaming;
+
+		public XmlRpcRequest(String method, Object[] parameters, boolean streaming) {
 			this.method = method;
 			this.parameters = parameters;
+			this.streaming = streaming;
 		}
 
 		public Object execute(IProgressMonitor monitor) throws TracException {
@@ -157,6 +174,8 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 		}
 
 		private Object executeCallInternal(IProgressMonitor monitor) throws TracException {
+			TracXmlRpcClientConfig streamingConfig = null;
+			Object result = null;
 			try {
 				if (isTracd && digestScheme != null) {
 					probeAuthenticationScheme(monitor);
@@ -164,9 +183,15 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 				if (DEBUG_XMLRPC) {
 					System.err.println("Calling " + location.getUrl() + ": " + method + " " + CoreUtil.toString(parameters)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 				}
-				TracXmlRpcClientRequest request = new TracXmlRpcClientRequest(xmlrpc.getClientConfig(), method,
-						parameters, monitor);
-				return xmlrpc.execute(request);
+				XmlRpcRequestConfig requestConfig = xmlrpc.getClientConfig();
+				if (streaming) {
+					streamingConfig = config.createStreamingConfig();
+					requestConfig = streamingConfig;
+				}
+				TracXmlRpcClientRequest request = new TracXmlRpcClientRequest(requestConfig, method, parameters,
+						monitor);
+				result = xmlrpc.execute(request);
+				return result;
 			} catch (TracHttpException e) {
 				handleAuthenticationException(e.code, e.getAuthScheme());
 				// if not handled, throw generic exception
@@ -188,6 +213,11 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 				throw e;
 			} catch (Exception e) {
 				throw new TracException(e);
+			} finally {
+				if (streamingConfig != null) {
+					// delete files of responses that failed or are retried, the returned file is owned by the caller
+					streamingConfig.deleteTemporaryFiles(result);
+				}
 			}
 		}
 
@@ -268,13 +298,17 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 
 	public static final int REQUIRED_WIKI_RPC_VERSION = 2;
 
+	public static final int DEFAULT_SEARCH_BATCH_SIZE = 100;
+
+	public static final int DEFAULT_SEARCH_CONCURRENT_REQUESTS = 3;
+
 	private XmlRpcClient xmlrpc;
 
 	private TracHttpClientTransportFactory factory;
 
 	private boolean accountMangerAuthenticationFailed;
 
-	private XmlRpcClientConfigImpl config;
+	private TracXmlRpcClientConfig config;
 
 	private final HttpClient httpClient;
 
@@ -288,6 +322,10 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 
 	private TracRepositoryInfo info = new TracRepositoryInfo();
 
+	private volatile int searchBatchSize = DEFAULT_SEARCH_BATCH_SIZE;
+
+	private volatile int searchConcurrentRequests = DEFAULT_SEARCH_CONCURRENT_REQUESTS;
+
 	public TracXmlRpcClient(AbstractWebLocation location, Version version) {
 		super(location, version);
 		this.httpClient = createHttpClient();
@@ -297,7 +335,7 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 
 	public synchronized XmlRpcClient getClient() throws TracException {
 		if (xmlrpc == null) {
-			config = new XmlRpcClientConfigImpl();
+			config = new TracXmlRpcClientConfig();
 			config.setEncoding(ITracClient.CHARSET);
 			config.setTimeZone(TimeZone.getTimeZone(ITracClient.TIME_ZONE));
 			config.setContentLengthOptional(false);
@@ -308,6 +346,8 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 			xmlrpc.setConfig(config);
 			// bug 307200: force factory that supports proper UTF-8 encoding
 			xmlrpc.setXmlWriterFactory(new CharSetXmlWriterFactory());
+			// transfer attachments without holding them in memory
+			xmlrpc.setTypeFactory(new TracXmlRpcTypeFactory(xmlrpc));
 
 			factory = new TracHttpClientTransportFactory(xmlrpc, httpClient);
 			factory.setLocation(location);
@@ -442,6 +482,20 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 	}
 
 	private Object call(IProgressMonitor monitor, String method, Object... parameters) throws TracException {
+		return call(monitor, new XmlRpcRequest(method, parameters, false));
+	}
+
+	/**
+	 * Invokes <code>method</code> without buffering the request or response in memory. {@link File} parameters are
+	 * sent as base64 values and base64 values in the response are returned as temporary files.
+	 * 
+	 * @see TracXmlRpcTypeFactory
+	 */
+	private Object streamingCall(IProgressMonitor monitor, String method, Object... parameters) throws TracException {
+		return call(monitor, new XmlRpcRequest(method, parameters, true));
+	}
+
+	private Object call(IProgressMonitor monitor, XmlRpcRequest request) throws TracException {
 		monitor = Policy.monitorFor(monitor);
 		TracException lastException = null;
 		for (int attempt = 0; attempt < 3; attempt++) {
@@ -456,7 +510,6 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 			getClient();
 
 			try {
-				XmlRpcRequest request = new XmlRpcRequest(method, parameters);
 				return request.execute(monitor);
 			} catch (TracLoginException e) {
 				try {
@@ -644,6 +697,9 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 	/* public for testing */
 	@SuppressWarnings("unchecked")
 	public List<TracTicket> getTickets(int[] ids, IProgressMonitor monitor) throws TracException {
+		if (ids.length == 0) {
+			return new ArrayList<TracTicket>(0);
+		}
 		Map<String, Object>[] calls = new Map[ids.length];
 		for (int i = 0; i < calls.length; i++) {
 			calls[i] = createMultiCall("ticket.get", ids[i]); //$NON-NLS-1$
@@ -663,32 +719,143 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 
 	public void searchForTicketIds(TracSearch query, List<Integer> tickets, IProgressMonitor monitor)
 			throws TracException {
-		// an empty query string is not valid, therefore prepend order
-		Object[] result = (Object[]) call(monitor,
-				"ticket.query", "order=id" + query.toQuery(supportsMaxSearchResults(monitor))); //$NON-NLS-1$ //$NON-NLS-2$
-		for (Object item : result) {
-			tickets.add((Integer) item);
+		for (int id : queryTicketIds(query, monitor)) {
+			tickets.add(id);
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	public void search(TracSearch query, List<TracTicket> tickets, IProgressMonitor monitor) throws TracException {
+	private int[] queryTicketIds(TracSearch query, IProgressMonitor monitor) throws TracException {
 		// an empty query string is not valid, therefore prepend order
 		Object[] result = (Object[]) call(monitor,
 				"ticket.query", "order=id" + query.toQuery(supportsMaxSearchResults(monitor))); //$NON-NLS-1$ //$NON-NLS-2$
+		int[] ids = new int[result.length];
+		for (int i = 0; i < result.length; i++) {
+			ids[i] = (Integer) result[i];
+		}
+		return ids;
+	}
 
-		Map<String, Object>[] calls = new Map[result.length];
-		for (int i = 0; i < calls.length; i++) {
-			calls[i] = createMultiCall("ticket.get", result[i]); //$NON-NLS-1$
+	public void search(TracSearch query, final List<TracTicket> tickets, IProgressMonitor monitor)
+			throws TracException {
+		try {
+			search(query, new ITracTicketCollector() {
+				public void accept(TracTicket ticket) {
+					tickets.add(ticket);
+				}
+			}, monitor);
+		} catch (CoreException e) {
+			// not thrown by collector
+			throw new TracException(e);
 		}
-		result = multicall(monitor, calls);
+	}
 
-		for (Object item : result) {
-			Object[] ticketResult = (Object[]) getMultiCallResult(item);
-			tickets.add(parseTicket(ticketResult));
+	/**
+	 * Retrieves the tickets that match <code>query</code> in batches of {@link #getSearchBatchSize()} tickets using up
+	 * to {@link #getSearchConcurrentRequests()} concurrent requests. Tickets are passed to <code>collector</code> in
+	 * the order of the search results as soon as the batch that contains them has been retrieved, which limits the
+	 * number of tickets held in memory.
+	 */
+	@Override
+	public void search(TracSearch query, ITracTicketCollector collector, IProgressMonitor monitor)
+			throws TracException, CoreException {
+		final IProgressMonitor progress = Policy.monitorFor(monitor);
+		int[] ids = queryTicketIds(query, progress);
+		int batchSize = (searchBatchSize > 0) ? searchBatchSize : Math.max(ids.length, 1);
+		int batchCount = (ids.length + batchSize - 1) / batchSize;
+		int concurrentRequests = Math.min(Math.max(searchConcurrentRequests, 1), batchCount);
+		if (concurrentRequests <= 1) {
+			for (int offset = 0; offset < ids.length; offset += batchSize) {
+				for (TracTicket ticket : getTickets(getBatch(ids, offset, batchSize), progress)) {
+					collector.accept(ticket);
+				}
+			}
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(concurrentRequests);
+		try {
+			LinkedList<Future<List<TracTicket>>> pending = new LinkedList<Future<List<TracTicket>>>();
+			int offset = 0;
+			while (offset < ids.length || !pending.isEmpty()) {
+				while (offset < ids.length && pending.size() < concurrentRequests) {
+					final int[] batch = getBatch(ids, offset, batchSize);
+					pending.add(executor.submit(new Callable<List<TracTicket>>() {
+						public List<TracTicket> call() throws Exception {
+							return getTickets(batch, progress);
+						}
+					}));
+					offset += batch.length;
+				}
+				for (TracTicket ticket : waitForBatch(pending.removeFirst(), progress)) {
+					collector.accept(ticket);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
 		}
 	}
 
+	private int[] getBatch(int[] ids, int offset, int batchSize) {
+		int[] batch = new int[Math.min(batchSize, ids.length - offset)];
+		System.arraycopy(ids, offset, batch, 0, batch.length);
+		return batch;
+	}
+
+	private List<TracTicket> waitForBatch(Future<List<TracTicket>> future, IProgressMonitor monitor)
+			throws TracException {
+		try {
+			while (true) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				try {
+					return future.get(100, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// check for cancellation
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof TracException) {
+				throw (TracException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new TracException(cause);
+		}
+	}
+
+	/**
+	 * Returns the number of tickets that are retrieved per request when searching.
+	 */
+	public int getSearchBatchSize() {
+		return searchBatchSize;
+	}
+
+	/**
+	 * Sets the number of tickets that are retrieved per request when searching. If <code>searchBatchSize</code> is not
+	 * positive, all tickets are retrieved with a single request.
+	 */
+	public void setSearchBatchSize(int searchBatchSize) {
+		this.searchBatchSize = searchBatchSize;
+	}
+
+	/**
+	 * Returns the maximum number of requests that are in progress at the same time when searching.
+	 */
+	public int getSearchConcurrentRequests() {
+		return searchConcurrentRequests;
+	}
+
+	public void setSearchConcurrentRequests(int searchConcurrentRequests) {
+		this.searchConcurrentRequests = searchConcurrentRequests;
+	}
+
 	private boolean supportsWorkFlow(IProgressMonitor monitor) throws TracException {
 		return isApiVersionOrHigher(1, 0, 1, monitor);
 	}
@@ -911,36 +1078,57 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 	}
 
 	public InputStream getAttachmentData(int ticketId, String filename, IProgressMonitor monitor) throws TracException {
-		byte[] data = (byte[]) call(monitor, "ticket.getAttachment", ticketId, filename); //$NON-NLS-1$
-		return new ByteArrayInputStream(data);
+		File file = (File) streamingCall(monitor, "ticket.getAttachment", ticketId, filename); //$NON-NLS-1$
+		return openData(file);
 	}
 
 	public void putAttachmentData(int ticketId, String filename, String description, InputStream in,
 			IProgressMonitor monitor, boolean replace) throws TracException {
-		byte[] data;
+		File file;
 		try {
-			data = readData(in, new NullProgressMonitor());
+			file = writeData(in, new NullProgressMonitor());
 		} catch (IOException e) {
 			throw new TracException(e);
 		}
-		call(monitor, "ticket.putAttachment", ticketId, filename, description, data, replace); //$NON-NLS-1$
+		try {
+			streamingCall(monitor, "ticket.putAttachment", ticketId, filename, description, file, replace); //$NON-NLS-1$
+		} finally {
+			file.delete();
+		}
 	}
 
-	private byte[] readData(InputStream in, IProgressMonitor monitor) throws IOException {
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private InputStream openData(File file) throws TracException {
 		try {
-			byte[] buffer = new byte[512];
-			while (true) {
-				int count = in.read(buffer);
-				if (count == -1) {
-					return out.toByteArray();
-				}
-				if (monitor.isCanceled()) {
-					throw new OperationCanceledException();
+			return new TemporaryFileInputStream(file);
+		} catch (FileNotFoundException e) {
+			throw new TracException(e);
+		}
+	}
+
+	/**
+	 * Copies <code>in</code> to a temporary file which is sent by {@link #streamingCall(IProgressMonitor, String,
+	 * Object...)} and can be resent if the request needs to be repeated.
+	 */
+	private File writeData(InputStream in, IProgressMonitor monitor) throws IOException {
+		try {
+			File file = TracUtil.createTemporaryFile();
+			boolean success = false;
+			OutputStream out = new FileOutputStream(file);
+			try {
+				byte[] buffer = new byte[8192];
+				int count;
+				while ((count = in.read(buffer)) != -1) {
+					if (monitor.isCanceled()) {
+						throw new OperationCanceledException();
+					}
+					out.write(buffer, 0, count);
 				}
-				out.write(buffer, 0, count);
-				if (monitor.isCanceled()) {
-					throw new OperationCanceledException();
+				success = true;
+				return file;
+			} finally {
+				out.close();
+				if (!success) {
+					file.delete();
 				}
 			}
 		} finally {
@@ -1208,8 +1396,8 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 	public InputStream getWikiPageAttachmentData(String pageName, String fileName, IProgressMonitor monitor)
 			throws TracException {
 		String attachmentName = pageName + "/" + fileName; //$NON-NLS-1$
-		byte[] data = (byte[]) call(monitor, "wiki.getAttachment", attachmentName); //$NON-NLS-1$
-		return new ByteArrayInputStream(data);
+		File file = (File) streamingCall(monitor, "wiki.getAttachment", attachmentName); //$NON-NLS-1$
+		return openData(file);
 	}
 
 	/**
@@ -1235,13 +1423,17 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 	 */
 	public String putWikiPageAttachmentData(String pageName, String fileName, String description, InputStream in,
 			boolean replace, IProgressMonitor monitor) throws TracException {
-		byte[] data;
+		File file;
 		try {
-			data = readData(in, new NullProgressMonitor());
+			file = writeData(in, new NullProgressMonitor());
 		} catch (IOException e) {
 			throw new TracException(e);
 		}
-		return (String) call(monitor, "wiki.putAttachmentEx", pageName, fileName, description, data, replace); //$NON-NLS-1$
+		try {
+			return (String) streamingCall(monitor, "wiki.putAttachmentEx", pageName, fileName, description, file, replace); //$NON-NLS-1$
+		} finally {
+			file.delete();
+		}
 	}
 
 	public void deleteTicket(int ticketId, IProgressMonitor monitor) throws TracException {
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.trac.core.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+/**
+ * Reads a temporary file and deletes it when the stream is closed.
+ */
+public class TemporaryFileInputStream extends FileInputStream {
+
+	private final File file;
+
+	public TemporaryFileInputStream(File file) throws FileNotFoundException {
+		super(file);
+		this.file = file;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			super.close();
+		} finally {
+			file.delete();
+		}
+	}
+
+}
@@ -35,7 +35,9 @@ import org.apache.xmlrpc.client.XmlRpcHttpClientConfig;
 import org.apache.xmlrpc.client.XmlRpcHttpTransport;
 import org.apache.xmlrpc.client.XmlRpcTransport;
 import org.apache.xmlrpc.client.XmlRpcTransportFactory;
+import org.apache.xmlrpc.common.XmlRpcStreamConfig;
 import org.apache.xmlrpc.common.XmlRpcStreamRequestConfig;
+import org.apache.xmlrpc.serializer.XmlRpcWriter;
 import org.apache.xmlrpc.util.HttpUtil;
 import org.apache.xmlrpc.util.XmlRpcIOException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -43,6 +45,7 @@ import org.eclipse.mylyn.commons.net.AbstractWebLocation;
 import org.eclipse.mylyn.commons.net.SslCertificateException;
 import org.eclipse.mylyn.commons.net.WebUtil;
 import org.eclipse.mylyn.internal.trac.core.client.AbstractTracClient;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
 /**
@@ -57,6 +60,26 @@ public class TracHttpClientTransportFactory implements XmlRpcTransportFactory {
 	 */
 	public static class TracHttpClientTransport extends XmlRpcHttpTransport {
 
+		/**
+		 * Serializes a request each time it is written.
+		 */
+		private class StreamingReqWriter implements ReqWriter {
+
+			private final XmlRpcRequest request;
+
+			public StreamingReqWriter(XmlRpcRequest request) {
+				this.request = request;
+			}
+
+			public void write(OutputStream out) throws XmlRpcException, IOException, SAXException {
+				XmlRpcStreamConfig config = (XmlRpcStreamConfig) request.getConfig();
+				ContentHandler handler = getClient().getXmlWriterFactory().getXmlWriter(config, out);
+				new XmlRpcWriter(config, handler, getClient().getTypeFactory()).write(request);
+				out.close();
+			}
+
+		}
+
 		private final HttpClient httpClient;
 
 		private final AbstractWebLocation location;
@@ -153,6 +176,22 @@ public class TracHttpClientTransportFactory implements XmlRpcTransportFactory {
 			return header != null && HttpUtil.isUsingGzipEncoding(header.getValue());
 		}
 
+		@Override
+		protected ReqWriter newReqWriter(XmlRpcRequest request) throws XmlRpcException, IOException, SAXException {
+			if (TracXmlRpcClientConfig.isStreaming(request.getConfig())) {
+				// determine the content length without buffering the request, it is serialized again when it is sent
+				ReqWriter writer = new StreamingReqWriter(request);
+				CountingOutputStream out = new CountingOutputStream();
+				writer.write(out);
+				if (out.getCount() > Integer.MAX_VALUE) {
+					throw new XmlRpcClientException("Request exceeds maximum size: " + out.getCount(), null); //$NON-NLS-1$
+				}
+				setContentLength((int) out.getCount());
+				return writer;
+			}
+			return super.newReqWriter(request);
+		}
+
 		@Override
 		protected void setContentLength(int contentLength) {
 			this.contentLength = contentLength;
@@ -189,7 +228,7 @@ public class TracHttpClientTransportFactory implements XmlRpcTransportFactory {
 						 * own BufferedOutputStream.
 						 */
 						OutputStream ostream;
-						if (isUsingByteArrayOutput(config)) {
+						if (isUsingByteArrayOutput(config) && !TracXmlRpcClientConfig.isStreaming(config)) {
 							// No need to buffer the output.
 							ostream = new FilterOutputStream(pOut) {
 								@Override
@@ -234,6 +273,26 @@ public class TracHttpClientTransportFactory implements XmlRpcTransportFactory {
 		}
 	}
 
+	private static class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		public long getCount() {
+			return count;
+		}
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+
+	}
+
 	public static class TracHttpException extends XmlRpcException {
 
 		private static final long serialVersionUID = 9032521978140685830L;
@@ -12,6 +12,8 @@
 
 package org.eclipse.mylyn.internal.trac.core.util;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.Date;
@@ -83,6 +85,13 @@ public class TracUtil {
 				RepositoryStatus.ERROR_PERMISSION_DENIED, Messages.TracUtil_Permission_denied);
 	}
 
+	/**
+	 * Creates a temporary file. Callers are responsible for deleting the file.
+	 */
+	public static File createTemporaryFile() throws IOException {
+		return File.createTempFile("mylyn-trac", ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	public static String encodeUrl(String string) {
 		try {
 			return URLEncoder.encode(string, ITracClient.CHARSET).replaceAll("\\+", "%20"); //$NON-NLS-1$ //$NON-NLS-2$
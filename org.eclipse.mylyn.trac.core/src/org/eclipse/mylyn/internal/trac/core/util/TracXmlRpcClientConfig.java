@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.trac.core.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+
+/**
+ * Configuration of XML-RPC requests. Streaming requests are written to the connection without buffering them in memory
+ * and transfer base64 values from and to files.
+ *
+ * @see TracXmlRpcTypeFactory
+ */
+public class TracXmlRpcClientConfig extends XmlRpcClientConfigImpl {
+
+	private static final long serialVersionUID = -1851728291418296498L;
+
+	public static boolean isStreaming(Object config) {
+		return config instanceof TracXmlRpcClientConfig && ((TracXmlRpcClientConfig) config).isStreaming();
+	}
+
+	private boolean streaming;
+
+	private transient List<File> temporaryFiles;
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/**
+	 * Returns a copy of this configuration that enables streaming.
+	 */
+	public TracXmlRpcClientConfig createStreamingConfig() {
+		TracXmlRpcClientConfig config = (TracXmlRpcClientConfig) cloneMe();
+		config.setStreaming(true);
+		config.temporaryFiles = new ArrayList<File>();
+		return config;
+	}
+
+	/**
+	 * Records a temporary file that was created while parsing the response of a streaming request.
+	 */
+	public void addTemporaryFile(File file) {
+		if (temporaryFiles != null) {
+			temporaryFiles.add(file);
+		}
+	}
+
+	/**
+	 * Deletes the temporary files that were created for the response of a streaming request except for
+	 * <code>result</code> which is owned by the caller.
+	 */
+	public void deleteTemporaryFiles(Object result) {
+		if (temporaryFiles != null) {
+			for (File file : temporaryFiles) {
+				if (file != result) {
+					file.delete();
+				}
+			}
+			temporaryFiles.clear();
+		}
+	}
+
+}
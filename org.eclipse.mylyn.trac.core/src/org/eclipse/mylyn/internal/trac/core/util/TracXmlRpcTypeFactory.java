@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.trac.core.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.ws.commons.util.Base64;
+import org.apache.ws.commons.util.NamespaceContextImpl;
+import org.apache.xmlrpc.common.TypeFactoryImpl;
+import org.apache.xmlrpc.common.XmlRpcController;
+import org.apache.xmlrpc.common.XmlRpcStreamConfig;
+import org.apache.xmlrpc.parser.TypeParser;
+import org.apache.xmlrpc.parser.TypeParserImpl;
+import org.apache.xmlrpc.serializer.ByteArraySerializer;
+import org.apache.xmlrpc.serializer.TypeSerializer;
+import org.apache.xmlrpc.serializer.TypeSerializerImpl;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Encodes and decodes base64 values on the fly. {@link File} parameters are sent as the base64 encoded content of the
+ * file and base64 values in responses to streaming requests are decoded into temporary files which are returned in
+ * place of byte arrays.
+ *
+ * @see TracXmlRpcClientConfig#isStreaming()
+ */
+public class TracXmlRpcTypeFactory extends TypeFactoryImpl {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static class FileSerializer extends TypeSerializerImpl {
+
+		public void write(ContentHandler handler, Object object) throws SAXException {
+			handler.startElement("", VALUE_TAG, VALUE_TAG, ZERO_ATTRIBUTES); //$NON-NLS-1$
+			handler.startElement("", ByteArraySerializer.BASE_64_TAG, ByteArraySerializer.BASE_64_TAG, ZERO_ATTRIBUTES); //$NON-NLS-1$
+			try {
+				InputStream in = new FileInputStream((File) object);
+				try {
+					Base64.Encoder encoder = new Base64.SAXEncoder(new char[BUFFER_SIZE], 0, null, handler);
+					byte[] buffer = new byte[BUFFER_SIZE];
+					int count;
+					while ((count = in.read(buffer)) != -1) {
+						encoder.write(buffer, 0, count);
+					}
+					encoder.flush();
+				} finally {
+					in.close();
+				}
+			} catch (Base64.SAXIOException e) {
+				throw e.getSAXException();
+			} catch (IOException e) {
+				throw new SAXException(e);
+			}
+			handler.endElement("", ByteArraySerializer.BASE_64_TAG, ByteArraySerializer.BASE_64_TAG); //$NON-NLS-1$
+			handler.endElement("", VALUE_TAG, VALUE_TAG); //$NON-NLS-1$
+		}
+
+	}
+
+	private static class FileParser extends TypeParserImpl {
+
+		private final TracXmlRpcClientConfig config;
+
+		private int level;
+
+		private File file;
+
+		private OutputStream out;
+
+		private Base64.Decoder decoder;
+
+		public FileParser(TracXmlRpcClientConfig config) {
+			this.config = config;
+		}
+
+		@Override
+		public void startDocument() throws SAXException {
+			level = 0;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes)
+				throws SAXException {
+			if (level++ != 0) {
+				throw new SAXParseException("Unexpected start tag in atomic element: " + qName, getDocumentLocator()); //$NON-NLS-1$
+			}
+			try {
+				file = TracUtil.createTemporaryFile();
+				// deleted by the client if the response is discarded
+				config.addTemporaryFile(file);
+				out = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+			} catch (IOException e) {
+				throw new SAXException(e);
+			}
+			decoder = new Base64.Decoder(BUFFER_SIZE) {
+				@Override
+				protected void writeBuffer(byte[] bytes, int offset, int length) throws IOException {
+					out.write(bytes, offset, length);
+				}
+			};
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) throws SAXException {
+			if (decoder == null) {
+				for (int i = start; i < start + length; i++) {
+					if (!Character.isWhitespace(ch[i])) {
+						throw new SAXParseException("Unexpected non-whitespace character data", getDocumentLocator()); //$NON-NLS-1$
+					}
+				}
+				return;
+			}
+			try {
+				decoder.write(ch, start, length);
+			} catch (Base64.DecodingException e) {
+				dispose();
+				throw new SAXParseException("Failed to decode base64 stream", getDocumentLocator(), e); //$NON-NLS-1$
+			} catch (IOException e) {
+				dispose();
+				throw new SAXException(e);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			if (--level != 0) {
+				throw new SAXParseException("Unexpected end tag in atomic element: " + qName, getDocumentLocator()); //$NON-NLS-1$
+			}
+			try {
+				decoder.flush();
+				out.close();
+			} catch (Base64.DecodingException e) {
+				dispose();
+				throw new SAXParseException("Failed to decode base64 stream", getDocumentLocator(), e); //$NON-NLS-1$
+			} catch (IOException e) {
+				dispose();
+				throw new SAXException(e);
+			}
+			setResult(file);
+		}
+
+		private void dispose() {
+			try {
+				out.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			file.delete();
+		}
+
+	}
+
+	public TracXmlRpcTypeFactory(XmlRpcController controller) {
+		super(controller);
+	}
+
+	@Override
+	public TypeSerializer getSerializer(XmlRpcStreamConfig config, Object object) throws SAXException {
+		if (object instanceof File) {
+			return new FileSerializer();
+		}
+		return super.getSerializer(config, object);
+	}
+
+	@Override
+	public TypeParser getParser(XmlRpcStreamConfig config, NamespaceContextImpl context, String uri, String localName) {
+		if (TracXmlRpcClientConfig.isStreaming(config) && (uri == null || uri.length() == 0)
+				&& ByteArraySerializer.BASE_64_TAG.equals(localName)) {
+			return new FileParser((TracXmlRpcClientConfig) config);
+		}
+		return super.getParser(config, context, uri, localName);
+	}
+
+}
@@ -22,6 +22,7 @@ import org.eclipse.mylyn.trac.tests.client.TracClientTest;
 import org.eclipse.mylyn.trac.tests.client.TracRepositoryInfoTest;
 import org.eclipse.mylyn.trac.tests.client.TracSearchTest;
 import org.eclipse.mylyn.trac.tests.client.TracTicketTest;
+import org.eclipse.mylyn.trac.tests.client.TracXmlRpcClientStubTest;
 import org.eclipse.mylyn.trac.tests.client.TracXmlRpcClientTest;
 import org.eclipse.mylyn.trac.tests.core.TracClientManagerTest;
 import org.eclipse.mylyn.trac.tests.support.TracFixture;
@@ -42,6 +43,7 @@ public class AllTracHeadlessStandaloneTests {
 		suite.addTestSuite(TracTicketTest.class);
 		suite.addTestSuite(TracRepositoryInfoTest.class);
 		suite.addTestSuite(TracClientProxyTest.class);
+		suite.addTestSuite(TracXmlRpcClientStubTest.class);
 		// core tests
 		suite.addTestSuite(TracClientManagerTest.class);
 		// network tests
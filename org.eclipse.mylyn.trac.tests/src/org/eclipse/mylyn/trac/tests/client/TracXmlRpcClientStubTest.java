@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.trac.tests.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.internal.trac.core.client.ITracTicketCollector;
+import org.eclipse.mylyn.internal.trac.core.client.TracXmlRpcClient;
+import org.eclipse.mylyn.internal.trac.core.model.TracSearch;
+import org.eclipse.mylyn.internal.trac.core.model.TracTicket;
+import org.eclipse.mylyn.internal.trac.core.model.TracTicket.Key;
+import org.eclipse.mylyn.trac.tests.support.TracXmlRpcStubServer;
+import org.eclipse.mylyn.trac.tests.support.TracXmlRpcStubServer.Attachment;
+import org.eclipse.mylyn.trac.tests.support.TracXmlRpcStubServer.SyntheticInputStream;
+
+/**
+ * Tests {@link TracXmlRpcClient} against a local stand-in server.
+ */
+public class TracXmlRpcClientStubTest extends TestCase {
+
+	private static final long ATTACHMENT_SIZE = 32 * 1024 * 1024;
+
+	/**
+	 * Samples the retained heap while an operation is in progress.
+	 */
+	private static class HeapSampler extends Thread {
+
+		private final long baseline;
+
+		private volatile boolean done;
+
+		private long maxRetained;
+
+		public HeapSampler() {
+			super("HeapSampler");
+			setDaemon(true);
+			baseline = getRetainedHeap();
+		}
+
+		@Override
+		public void run() {
+			while (!done) {
+				maxRetained = Math.max(maxRetained, getRetainedHeap() - baseline);
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Stops sampling and returns the maximum growth of the retained heap in bytes.
+		 */
+		public long finish() throws InterruptedException {
+			done = true;
+			join();
+			return maxRetained;
+		}
+
+		private static long getRetainedHeap() {
+			for (int i = 0; i < 2; i++) {
+				System.gc();
+			}
+			Runtime runtime = Runtime.getRuntime();
+			return runtime.totalMemory() - runtime.freeMemory();
+		}
+
+	}
+
+	private TracXmlRpcStubServer server;
+
+	private TracXmlRpcClient client;
+
+	@Override
+	protected void setUp() throws Exception {
+		server = new TracXmlRpcStubServer();
+		server.start();
+		client = server.connect();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop();
+		assertTrue("Unexpected server errors: " + server.getErrors(), server.getErrors().isEmpty());
+	}
+
+	public void testSearchBatches() throws Exception {
+		for (int i = 1; i <= 25; i++) {
+			server.addTicket(i, "summary" + i);
+		}
+		server.setRequestDelay(100);
+		client.setSearchBatchSize(10);
+		client.setSearchConcurrentRequests(3);
+
+		final List<TracTicket> tickets = new ArrayList<TracTicket>();
+		client.search(new TracSearch(), new ITracTicketCollector() {
+			public void accept(TracTicket ticket) {
+				tickets.add(ticket);
+			}
+		}, new NullProgressMonitor());
+
+		assertEquals(25, tickets.size());
+		for (int i = 0; i < tickets.size(); i++) {
+			assertEquals(i + 1, tickets.get(i).getId());
+			assertEquals("summary" + (i + 1), tickets.get(i).getValue(Key.SUMMARY));
+		}
+		assertEquals(Arrays.asList(10, 10, 5), server.getMulticallSizes());
+		assertTrue("Expected concurrent requests", server.getMaxActiveRequestCount() > 1);
+	}
+
+	public void testSearchSingleRequest() throws Exception {
+		for (int i = 1; i <= 25; i++) {
+			server.addTicket(i, "summary" + i);
+		}
+		client.setSearchBatchSize(0);
+
+		List<TracTicket> tickets = new ArrayList<TracTicket>();
+		client.search(new TracSearch(), tickets, new NullProgressMonitor());
+
+		assertEquals(25, tickets.size());
+		assertEquals(Arrays.asList(25), server.getMulticallSizes());
+	}
+
+	public void testSearchCollectorFails() throws Exception {
+		for (int i = 1; i <= 25; i++) {
+			server.addTicket(i, "summary" + i);
+		}
+		client.setSearchBatchSize(5);
+
+		final List<TracTicket> tickets = new ArrayList<TracTicket>();
+		try {
+			client.search(new TracSearch(), new ITracTicketCollector() {
+				public void accept(TracTicket ticket) throws CoreException {
+					tickets.add(ticket);
+					throw new CoreException(Status.CANCEL_STATUS);
+				}
+			}, new NullProgressMonitor());
+			fail("Expected CoreException");
+		} catch (CoreException e) {
+			assertEquals(IStatus.CANCEL, e.getStatus().getSeverity());
+		}
+		assertEquals(1, tickets.size());
+	}
+
+	public void testSearchEmpty() throws Exception {
+		List<TracTicket> tickets = new ArrayList<TracTicket>();
+		client.search(new TracSearch(), tickets, new NullProgressMonitor());
+		assertEquals(0, tickets.size());
+		assertEquals(0, server.getMulticallSizes().size());
+	}
+
+	public void testGetAttachmentData() throws Exception {
+		server.addAttachment(1, "large.log", ATTACHMENT_SIZE);
+
+		HeapSampler sampler = new HeapSampler();
+		sampler.start();
+		InputStream in = client.getAttachmentData(1, "large.log", null);
+		long checksum;
+		long size;
+		try {
+			CRC32 crc = new CRC32();
+			size = read(in, crc);
+			checksum = crc.getValue();
+		} finally {
+			in.close();
+		}
+		long retained = sampler.finish();
+
+		assertEquals(ATTACHMENT_SIZE, size);
+		assertEquals(server.getAttachment(1, "large.log").getChecksum(), checksum);
+		assertTrue("Expected flat memory, retained " + retained + " bytes", retained < ATTACHMENT_SIZE / 4);
+	}
+
+	public void testGetAttachmentDataEmpty() throws Exception {
+		server.addAttachment(1, "empty.txt", 0);
+
+		InputStream in = client.getAttachmentData(1, "empty.txt", null);
+		try {
+			assertEquals(-1, in.read());
+		} finally {
+			in.close();
+		}
+	}
+
+	public void testPutAttachmentData() throws Exception {
+		SyntheticInputStream in = new SyntheticInputStream(ATTACHMENT_SIZE);
+
+		HeapSampler sampler = new HeapSampler();
+		sampler.start();
+		client.putAttachmentData(1, "large.log", "description", in, null, false);
+		long retained = sampler.finish();
+
+		Attachment attachment = server.getAttachment(1, "large.log");
+		assertNotNull(attachment);
+		assertEquals(ATTACHMENT_SIZE, attachment.getSize());
+		assertEquals(in.getChecksum(), attachment.getChecksum());
+		assertTrue("Expected flat memory, retained " + retained + " bytes", retained < ATTACHMENT_SIZE / 4);
+	}
+
+	private long read(InputStream in, CRC32 crc) throws IOException {
+		byte[] buffer = new byte[8192];
+		long size = 0;
+		int count;
+		while ((count = in.read(buffer)) != -1) {
+			crc.update(buffer, 0, count);
+			size += count;
+		}
+		return size;
+	}
+
+}
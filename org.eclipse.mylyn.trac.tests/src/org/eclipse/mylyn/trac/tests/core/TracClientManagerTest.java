@@ -12,7 +12,12 @@
 package org.eclipse.mylyn.trac.tests.core;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import junit.framework.TestCase;
 
@@ -22,16 +27,52 @@ import org.eclipse.mylyn.internal.trac.core.TracClientManager;
 import org.eclipse.mylyn.internal.trac.core.TracCorePlugin;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient.Version;
+import org.eclipse.mylyn.internal.trac.core.client.TracClientData;
 import org.eclipse.mylyn.internal.trac.core.model.TracMilestone;
+import org.eclipse.mylyn.internal.trac.core.model.TracRepositoryAttribute;
+import org.eclipse.mylyn.internal.trac.core.model.TracTicketField;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.TaskRepositoryLocationFactory;
 import org.eclipse.mylyn.trac.tests.support.TracTestConstants;
+import org.eclipse.mylyn.trac.tests.support.TracXmlRpcStubServer;
 
 /**
  * @author Steffen Pingel
  */
 public class TracClientManagerTest extends TestCase {
 
+	private TracXmlRpcStubServer server;
+
+	private File cacheDirectory;
+
+	@Override
+	protected void setUp() throws Exception {
+		server = new TracXmlRpcStubServer();
+		server.start();
+		server.addAttribute("ticket.component", "component1");
+		server.addAttribute("ticket.milestone", "milestone1");
+		server.addAttribute("ticket.milestone", "milestone2");
+		server.addAttribute("ticket.priority", "major");
+		server.addAttribute("ticket.status", "new");
+		server.addAttribute("ticket.version", "1.0");
+
+		cacheDirectory = File.createTempFile("mylyn", null);
+		cacheDirectory.delete();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop();
+		File[] files = cacheDirectory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		cacheDirectory.delete();
+		assertTrue("Unexpected server errors: " + server.getErrors(), server.getErrors().isEmpty());
+	}
+
 	public void testNullCache() throws Exception {
 		TaskRepository taskRepository = new TaskRepository(TracCorePlugin.CONNECTOR_KIND,
 				TracTestConstants.TEST_TRAC_010_URL);
@@ -80,4 +121,151 @@ public class TracClientManagerTest extends TestCase {
 		assertEquals(Arrays.asList(milestones), Arrays.asList(client.getMilestones()));
 	}
 
+	public void testWriteCacheLazy() throws Exception {
+		TaskRepository repository1 = createStubRepository("/one");
+		TaskRepository repository2 = createStubRepository("/two");
+
+		TracClientManager manager = new TracClientManager(cacheDirectory, new TaskRepositoryLocationFactory());
+		manager.getTracClient(repository1).updateAttributes(new NullProgressMonitor(), false);
+		manager.getTracClient(repository2).updateAttributes(new NullProgressMonitor(), false);
+		manager.writeCache();
+		assertEquals(2, cacheDirectory.listFiles().length);
+
+		manager = new TracClientManager(cacheDirectory, new TaskRepositoryLocationFactory());
+		ITracClient client = manager.getTracClient(repository1);
+		assertTrue(client.hasAttributes());
+		assertEquals(Arrays.asList("component1"), getNames(client.getComponents()));
+		assertEquals(Arrays.asList("milestone1", "milestone2"), getNames(client.getMilestones()));
+		assertEquals("Description of milestone1", client.getMilestones()[0].getDescription());
+		assertEquals(0, client.getMilestones()[0].getDue().getTime());
+		assertEquals(Arrays.asList("major"), getNames(client.getPriorities()));
+		assertEquals(1, client.getPriorities()[0].getValue());
+		assertEquals(Arrays.asList("1.0"), getNames(client.getVersions()));
+		TracTicketField field = client.getTicketFieldByName("milestone");
+		assertEquals(TracTicketField.Type.SELECT, field.getType());
+		assertEquals(Arrays.asList("milestone1", "milestone2"), Arrays.asList(field.getOptions()));
+		assertTrue(field.isOptional());
+	}
+
+	public void testWriteCacheUpdated() throws Exception {
+		TaskRepository repository1 = createStubRepository("/one");
+		TaskRepository repository2 = createStubRepository("/two");
+
+		TracClientManager manager = new TracClientManager(cacheDirectory, new TaskRepositoryLocationFactory());
+		ITracClient client1 = manager.getTracClient(repository1);
+		client1.updateAttributes(new NullProgressMonitor(), false);
+		manager.getTracClient(repository2).updateAttributes(new NullProgressMonitor(), false);
+		manager.writeCache();
+		for (File file : cacheDirectory.listFiles()) {
+			assertTrue(file.delete());
+		}
+
+		// unchanged entries are not written again
+		manager.writeCache();
+		assertEquals(0, cacheDirectory.listFiles().length);
+
+		server.addAttribute("ticket.milestone", "milestone3");
+		client1.updateAttributes(new NullProgressMonitor(), true);
+		manager.writeCache(repository1);
+		assertEquals(1, cacheDirectory.listFiles().length);
+
+		manager = new TracClientManager(cacheDirectory, new TaskRepositoryLocationFactory());
+		assertEquals(Arrays.asList("milestone1", "milestone2", "milestone3"),
+				getNames(manager.getTracClient(repository1).getMilestones()));
+		assertFalse(manager.getTracClient(repository2).hasAttributes());
+	}
+
+	public void testReadCacheIncompatibleVersion() throws Exception {
+		TaskRepository repository = createStubRepository("");
+
+		TracClientManager manager = new TracClientManager(cacheDirectory, new TaskRepositoryLocationFactory());
+		manager.getTracClient(repository).updateAttributes(new NullProgressMonitor(), false);
+		manager.writeCache();
+		File file = cacheDirectory.listFiles()[0];
+		RandomAccessFile out = new RandomAccessFile(file, "rw");
+		try {
+			out.writeInt(Integer.MAX_VALUE);
+		} finally {
+			out.close();
+		}
+
+		manager = new TracClientManager(cacheDirectory, new TaskRepositoryLocationFactory());
+		ITracClient client = manager.getTracClient(repository);
+		assertFalse(client.hasAttributes());
+		assertNull(client.getMilestones());
+	}
+
+	public void testRepositoryRemoved() throws Exception {
+		TaskRepository repository = createStubRepository("");
+
+		TracClientManager manager = new TracClientManager(cacheDirectory, new TaskRepositoryLocationFactory());
+		manager.getTracClient(repository).updateAttributes(new NullProgressMonitor(), false);
+		manager.writeCache();
+		assertEquals(1, cacheDirectory.listFiles().length);
+
+		manager.repositoryRemoved(repository);
+		assertEquals(0, cacheDirectory.listFiles().length);
+	}
+
+	public void testMigrateCache() throws Exception {
+		TaskRepository repository1 = createStubRepository("/one");
+		TaskRepository repository2 = createStubRepository("/two");
+
+		TracClientManager manager = new TracClientManager(null, new TaskRepositoryLocationFactory());
+		TracClientData data1 = new TracClientData();
+		ITracClient client1 = manager.getTracClient(repository1);
+		client1.setData(data1);
+		client1.updateAttributes(new NullProgressMonitor(), false);
+		server.addAttribute("ticket.milestone", "milestone3");
+		TracClientData data2 = new TracClientData();
+		ITracClient client2 = manager.getTracClient(repository2);
+		client2.setData(data2);
+		client2.updateAttributes(new NullProgressMonitor(), false);
+
+		// write a cache file in the format used by previous versions
+		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(cacheDirectory));
+		try {
+			out.writeInt(2);
+			out.writeObject(repository1.getRepositoryUrl());
+			out.writeObject(data1);
+			out.writeObject(repository2.getRepositoryUrl());
+			out.writeObject(data2);
+		} finally {
+			out.close();
+		}
+		assertTrue(cacheDirectory.isFile());
+
+		manager = new TracClientManager(cacheDirectory, new TaskRepositoryLocationFactory());
+		assertTrue(cacheDirectory.isDirectory());
+		assertEquals(2, cacheDirectory.listFiles().length);
+
+		// entries are read from the migrated files
+		manager = new TracClientManager(cacheDirectory, new TaskRepositoryLocationFactory());
+		client1 = manager.getTracClient(repository1);
+		assertTrue(client1.hasAttributes());
+		assertEquals(Arrays.asList("milestone1", "milestone2"), getNames(client1.getMilestones()));
+		assertEquals(Arrays.asList("component1"), getNames(client1.getComponents()));
+		client2 = manager.getTracClient(repository2);
+		assertTrue(client2.hasAttributes());
+		assertEquals(Arrays.asList("milestone1", "milestone2", "milestone3"), getNames(client2.getMilestones()));
+	}
+
+	private TaskRepository createStubRepository(String path) {
+		TaskRepository repository = new TaskRepository(TracCorePlugin.CONNECTOR_KIND, server.getUrl() + path);
+		repository.setVersion(Version.XML_RPC.name());
+		return repository;
+	}
+
+	private List<String> getNames(Object[] attributes) {
+		List<String> names = new ArrayList<String>();
+		for (Object attribute : attributes) {
+			if (attribute instanceof TracRepositoryAttribute) {
+				names.add(((TracRepositoryAttribute) attribute).getName());
+			} else {
+				names.add(attribute.toString());
+			}
+		}
+		return names;
+	}
+
 }
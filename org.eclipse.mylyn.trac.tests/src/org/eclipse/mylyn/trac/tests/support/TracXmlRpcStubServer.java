@@ -0,0 +1,642 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.trac.tests.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.ws.commons.util.Base64;
+import org.eclipse.mylyn.commons.net.WebLocation;
+import org.eclipse.mylyn.internal.trac.core.client.ITracClient.Version;
+import org.eclipse.mylyn.internal.trac.core.client.TracXmlRpcClient;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * A minimal stand-in for the XML-RPC interface of a Trac repository that runs on a local port. Supports the calls
+ * required for searching tickets, transferring attachments and retrieving ticket attributes and keeps track of the
+ * number of requests that are processed concurrently.
+ * <p>
+ * Attachments are not retained. Only the size and checksum of uploaded attachments is recorded and downloads return
+ * synthetic content of the recorded size that is generated while the response is written.
+ * <p>
+ * Failures while processing requests are recorded and returned by {@link #getErrors()}.
+ */
+public class TracXmlRpcStubServer implements Runnable {
+
+	/**
+	 * Records the size and checksum of an attachment.
+	 */
+	public static class Attachment {
+
+		private final long size;
+
+		private final long checksum;
+
+		public Attachment(long size, long checksum) {
+			this.size = size;
+			this.checksum = checksum;
+		}
+
+		public long getChecksum() {
+			return checksum;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+	}
+
+	/**
+	 * Generates <code>size</code> bytes of synthetic content and computes the checksum of the content that was read.
+	 */
+	public static class SyntheticInputStream extends InputStream {
+
+		private final long size;
+
+		private long position;
+
+		private final CRC32 checksum = new CRC32();
+
+		public SyntheticInputStream(long size) {
+			this.size = size;
+		}
+
+		public long getChecksum() {
+			return checksum.getValue();
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (position >= size) {
+				return -1;
+			}
+			int b = getByte(position++);
+			checksum.update(b);
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (position >= size) {
+				return -1;
+			}
+			int count = (int) Math.min(len, size - position);
+			for (int i = 0; i < count; i++) {
+				b[off + i] = (byte) getByte(position++);
+			}
+			checksum.update(b, off, count);
+			return count;
+		}
+
+		private static int getByte(long position) {
+			return (int) ((position * 31 + position / 251) & 0xFF);
+		}
+
+		/**
+		 * Returns the checksum of synthetic content of <code>size</code> bytes.
+		 */
+		public static long getChecksum(long size) throws IOException {
+			SyntheticInputStream in = new SyntheticInputStream(size);
+			byte[] buffer = new byte[8192];
+			while (in.read(buffer) != -1) {
+			}
+			return in.getChecksum();
+		}
+
+	}
+
+	private final Map<Integer, Map<String, String>> tickets = new TreeMap<Integer, Map<String, String>>();
+
+	private final Map<String, Attachment> attachments = new HashMap<String, Attachment>();
+
+	private final Map<String, List<String>> attributesByType = new HashMap<String, List<String>>();
+
+	private ServerSocket serverSocket;
+
+	private Thread runner;
+
+	private volatile long requestDelay;
+
+	private int requestCount;
+
+	private int activeRequestCount;
+
+	private int maxActiveRequestCount;
+
+	private final List<Integer> multicallSizes = new ArrayList<Integer>();
+
+	private final List<Exception> errors = new ArrayList<Exception>();
+
+	public int start() throws IOException {
+		serverSocket = new ServerSocket(0);
+		runner = new Thread(this, "TracXmlRpcStubServer :" + serverSocket.getLocalPort());
+		runner.setDaemon(true);
+		runner.start();
+		return serverSocket.getLocalPort();
+	}
+
+	public void stop() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			// ignore
+		}
+		try {
+			runner.join(500);
+			// wait for requests in progress to record failures
+			synchronized (this) {
+				long deadline = System.currentTimeMillis() + 5000;
+				long timeout;
+				while (activeRequestCount > 0 && (timeout = deadline - System.currentTimeMillis()) > 0) {
+					wait(timeout);
+				}
+			}
+		} catch (InterruptedException e) {
+			// ignore
+		}
+	}
+
+	public String getUrl() {
+		return "http://localhost:" + serverSocket.getLocalPort();
+	}
+
+	public TracXmlRpcClient connect() {
+		return new TracXmlRpcClient(new WebLocation(getUrl()), Version.XML_RPC);
+	}
+
+	public synchronized void addTicket(int id, String summary) {
+		Map<String, String> attributes = new LinkedHashMap<String, String>();
+		attributes.put("summary", summary);
+		attributes.put("status", "new");
+		tickets.put(id, attributes);
+	}
+
+	/**
+	 * Adds a value to a ticket attribute such as <code>ticket.milestone</code> or <code>ticket.priority</code>.
+	 */
+	public synchronized void addAttribute(String type, String name) {
+		List<String> names = attributesByType.get(type);
+		if (names == null) {
+			names = new ArrayList<String>();
+			attributesByType.put(type, names);
+		}
+		names.add(name);
+	}
+
+	private synchronized List<String> getAttributes(String type) {
+		List<String> names = attributesByType.get(type);
+		return (names != null) ? new ArrayList<String>(names) : new ArrayList<String>();
+	}
+
+	/**
+	 * Adds an attachment with <code>size</code> bytes of synthetic content.
+	 * 
+	 * @see SyntheticInputStream
+	 */
+	public void addAttachment(int ticketId, String filename, long size) throws IOException {
+		Attachment attachment = new Attachment(size, SyntheticInputStream.getChecksum(size));
+		synchronized (this) {
+			attachments.put(ticketId + "/" + filename, attachment);
+		}
+	}
+
+	public synchronized Attachment getAttachment(int ticketId, String filename) {
+		return attachments.get(ticketId + "/" + filename);
+	}
+
+	/**
+	 * Delays the response to each multicall to make concurrent requests observable.
+	 */
+	public void setRequestDelay(long requestDelay) {
+		this.requestDelay = requestDelay;
+	}
+
+	public synchronized int getRequestCount() {
+		return requestCount;
+	}
+
+	public synchronized int getMaxActiveRequestCount() {
+		return maxActiveRequestCount;
+	}
+
+	/**
+	 * Returns the exceptions that occurred while requests were processed.
+	 */
+	public synchronized List<Exception> getErrors() {
+		return new ArrayList<Exception>(errors);
+	}
+
+	/**
+	 * Returns the number of calls of each multicall that was received.
+	 */
+	public synchronized List<Integer> getMulticallSizes() {
+		return new ArrayList<Integer>(multicallSizes);
+	}
+
+	public void run() {
+		while (!serverSocket.isClosed()) {
+			try {
+				final Socket socket = serverSocket.accept();
+				Thread thread = new Thread(new Runnable() {
+					public void run() {
+						handle(socket);
+					}
+				}, "TracXmlRpcStubServer Request");
+				thread.setDaemon(true);
+				thread.start();
+			} catch (IOException e) {
+				// closed
+			}
+		}
+	}
+
+	private void handle(Socket socket) {
+		synchronized (this) {
+			requestCount++;
+			activeRequestCount++;
+			maxActiveRequestCount = Math.max(maxActiveRequestCount, activeRequestCount);
+		}
+		try {
+			try {
+				InputStream in = new BufferedInputStream(socket.getInputStream());
+				long contentLength = readHeaders(in);
+				MethodCall call = parse(new BoundedInputStream(in, contentLength));
+				Object result = invoke(call.methodName, call.params);
+				writeResponse(socket.getOutputStream(), result);
+			} finally {
+				socket.close();
+			}
+		} catch (Exception e) {
+			synchronized (this) {
+				errors.add(e);
+			}
+		} finally {
+			synchronized (this) {
+				activeRequestCount--;
+				notifyAll();
+			}
+		}
+	}
+
+	private long readHeaders(InputStream in) throws IOException {
+		long contentLength = -1;
+		String line;
+		while ((line = readLine(in)) != null && line.length() > 0) {
+			int i = line.indexOf(':');
+			if (i != -1 && line.substring(0, i).trim().equalsIgnoreCase("Content-Length")) {
+				contentLength = Long.parseLong(line.substring(i + 1).trim());
+			}
+		}
+		return contentLength;
+	}
+
+	private String readLine(InputStream in) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		int c;
+		while ((c = in.read()) != -1 && c != '\n') {
+			if (c != '\r') {
+				sb.append((char) c);
+			}
+		}
+		return (c == -1 && sb.length() == 0) ? null : sb.toString();
+	}
+
+	protected Object invoke(String methodName, List<Object> params) throws Exception {
+		if ("system.getAPIVersion".equals(methodName)) {
+			return new Object[] { 1, 1, 0 };
+		} else if ("ticket.query".equals(methodName)) {
+			synchronized (this) {
+				return tickets.keySet().toArray();
+			}
+		} else if ("ticket.get".equals(methodName)) {
+			int id = (Integer) params.get(0);
+			synchronized (this) {
+				return new Object[] { id, 0, 0, new HashMap<String, String>(tickets.get(id)) };
+			}
+		} else if ("system.multicall".equals(methodName)) {
+			List<?> calls = (List<?>) params.get(0);
+			synchronized (this) {
+				multicallSizes.add(calls.size());
+			}
+			if (requestDelay > 0) {
+				Thread.sleep(requestDelay);
+			}
+			List<Object> results = new ArrayList<Object>(calls.size());
+			for (Object item : calls) {
+				Map<?, ?> call = (Map<?, ?>) item;
+				@SuppressWarnings("unchecked")
+				List<Object> callParams = (List<Object>) call.get("params");
+				results.add(new Object[] { invoke((String) call.get("methodName"), callParams) });
+			}
+			return results;
+		} else if (methodName.startsWith("ticket.") && methodName.endsWith(".getAll")) {
+			return getAttributes(methodName.substring(0, methodName.length() - ".getAll".length()));
+		} else if (methodName.startsWith("ticket.") && methodName.endsWith(".get")) {
+			return getAttribute(methodName.substring(0, methodName.length() - ".get".length()), (String) params.get(0));
+		} else if ("ticket.getTicketFields".equals(methodName)) {
+			List<Object> fields = new ArrayList<Object>();
+			Map<String, Object> field = new HashMap<String, Object>();
+			field.put("name", "summary");
+			field.put("type", "text");
+			field.put("label", "Summary");
+			fields.add(field);
+			field = new HashMap<String, Object>();
+			field.put("name", "milestone");
+			field.put("type", "select");
+			field.put("label", "Milestone");
+			field.put("options", getAttributes("ticket.milestone"));
+			field.put("optional", Boolean.TRUE);
+			fields.add(field);
+			return fields;
+		} else if ("ticket.getAttachment".equals(methodName)) {
+			Attachment attachment = getAttachment((Integer) params.get(0), (String) params.get(1));
+			if (attachment == null) {
+				throw new IllegalArgumentException("Attachment not found: " + params);
+			}
+			return attachment;
+		} else if ("ticket.putAttachment".equals(methodName)) {
+			synchronized (this) {
+				attachments.put(params.get(0) + "/" + params.get(1), (Attachment) params.get(3));
+			}
+			return params.get(1);
+		}
+		throw new IllegalArgumentException("Unsupported method: " + methodName);
+	}
+
+	private Object getAttribute(String type, String name) {
+		List<String> names = getAttributes(type);
+		if (!names.contains(name)) {
+			throw new IllegalArgumentException("Attribute not found: " + type + " " + name);
+		}
+		if ("ticket.component".equals(type) || "ticket.milestone".equals(type) || "ticket.version".equals(type)) {
+			Map<String, Object> attribute = new HashMap<String, Object>();
+			attribute.put("name", name);
+			attribute.put("description", "Description of " + name);
+			if ("ticket.component".equals(type)) {
+				attribute.put("owner", "owner");
+			} else if ("ticket.milestone".equals(type)) {
+				attribute.put("due", 0);
+				attribute.put("completed", 0);
+			} else {
+				attribute.put("time", 0);
+			}
+			return attribute;
+		}
+		return String.valueOf(names.indexOf(name) + 1);
+	}
+
+	private void writeResponse(OutputStream out, Object result) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+		writer.write("HTTP/1.0 200 OK\r\n");
+		writer.write("Content-Type: text/xml\r\n");
+		writer.write("Connection: close\r\n");
+		writer.write("\r\n");
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+		writer.write("<methodResponse><params><param>");
+		writeValue(writer, result);
+		writer.write("</param></params></methodResponse>");
+		writer.flush();
+	}
+
+	protected void writeValue(Writer writer, Object value) throws IOException {
+		writer.write("<value>");
+		if (value instanceof Integer) {
+			writer.write("<int>" + value + "</int>");
+		} else if (value instanceof String) {
+			writer.write("<string>");
+			writer.write(((String) value).replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"));
+			writer.write("</string>");
+		} else if (value instanceof Boolean) {
+			writer.write("<boolean>" + (((Boolean) value).booleanValue() ? "1" : "0") + "</boolean>");
+		} else if (value instanceof Object[] || value instanceof List<?>) {
+			List<?> list = (value instanceof List<?>) ? (List<?>) value : Arrays.asList((Object[]) value);
+			writer.write("<array><data>");
+			for (Object item : list) {
+				writeValue(writer, item);
+			}
+			writer.write("</data></array>");
+		} else if (value instanceof Map<?, ?>) {
+			writer.write("<struct>");
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				writer.write("<member><name>" + entry.getKey() + "</name>");
+				writeValue(writer, entry.getValue());
+				writer.write("</member>");
+			}
+			writer.write("</struct>");
+		} else if (value instanceof Attachment) {
+			writer.write("<base64>");
+			writeBase64(writer, new SyntheticInputStream(((Attachment) value).getSize()));
+			writer.write("</base64>");
+		} else {
+			throw new IllegalArgumentException("Unsupported value: " + value);
+		}
+		writer.write("</value>");
+	}
+
+	private void writeBase64(final Writer writer, InputStream in) throws IOException {
+		Base64.Encoder encoder = new Base64.Encoder(new char[4096], 0, null) {
+			@Override
+			protected void writeBuffer(char[] chars, int offset, int length) throws IOException {
+				writer.write(chars, offset, length);
+			}
+		};
+		byte[] buffer = new byte[3072];
+		int count;
+		while ((count = in.read(buffer)) != -1) {
+			encoder.write(buffer, 0, count);
+		}
+		encoder.flush();
+	}
+
+	private MethodCall parse(InputStream in) throws Exception {
+		MethodCall call = new MethodCall();
+		SAXParserFactory.newInstance().newSAXParser().parse(new InputSource(in), call);
+		return call;
+	}
+
+	/**
+	 * Parses an XML-RPC method call. Base64 values are decoded while they are parsed and passed as {@link Attachment}.
+	 */
+	protected class MethodCall extends DefaultHandler {
+
+		String methodName;
+
+		final List<Object> params = new ArrayList<Object>();
+
+		private final List<Object> containers = new ArrayList<Object>();
+
+		private final List<String> memberNames = new ArrayList<String>();
+
+		private final StringBuilder text = new StringBuilder();
+
+		private boolean typed;
+
+		private Base64.Decoder decoder;
+
+		private final CRC32 checksum = new CRC32();
+
+		private long size;
+
+		@Override
+		public void startElement(String uri, String localName, String name, Attributes attributes)
+				throws SAXException {
+			text.setLength(0);
+			if ("value".equals(name)) {
+				typed = false;
+			} else if ("array".equals(name)) {
+				typed = true;
+				containers.add(new ArrayList<Object>());
+			} else if ("struct".equals(name)) {
+				typed = true;
+				containers.add(new HashMap<String, Object>());
+			} else if ("base64".equals(name)) {
+				typed = true;
+				checksum.reset();
+				size = 0;
+				decoder = new Base64.Decoder(4096) {
+					@Override
+					protected void writeBuffer(byte[] bytes, int offset, int length) throws IOException {
+						checksum.update(bytes, offset, length);
+						size += length;
+					}
+				};
+			} else if (!"param".equals(name) && !"params".equals(name) && !"data".equals(name)
+					&& !"member".equals(name) && !"name".equals(name) && !"methodCall".equals(name)
+					&& !"methodName".equals(name)) {
+				typed = true;
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) throws SAXException {
+			if (decoder != null) {
+				try {
+					decoder.write(ch, start, length);
+				} catch (IOException e) {
+					throw new SAXException(e);
+				}
+			} else {
+				text.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String name) throws SAXException {
+			if ("methodName".equals(name)) {
+				methodName = text.toString();
+			} else if ("name".equals(name)) {
+				memberNames.add(text.toString());
+			} else if ("int".equals(name) || "i4".equals(name)) {
+				addValue(Integer.valueOf(text.toString().trim()));
+			} else if ("string".equals(name)) {
+				addValue(text.toString());
+			} else if ("boolean".equals(name)) {
+				addValue(Boolean.valueOf("1".equals(text.toString().trim())));
+			} else if ("base64".equals(name)) {
+				try {
+					decoder.flush();
+				} catch (IOException e) {
+					throw new SAXException(e);
+				}
+				decoder = null;
+				addValue(new Attachment(size, checksum.getValue()));
+			} else if ("array".equals(name) || "struct".equals(name)) {
+				addValue(containers.remove(containers.size() - 1));
+			} else if ("value".equals(name) && !typed) {
+				addValue(text.toString());
+			} else {
+				endValue(name, text);
+			}
+			text.setLength(0);
+		}
+
+		/**
+		 * Invoked for elements that are not handled by default.
+		 */
+		protected void endValue(String name, StringBuilder text) throws SAXException {
+		}
+
+		@SuppressWarnings("unchecked")
+		protected void addValue(Object value) {
+			typed = true;
+			if (containers.isEmpty()) {
+				params.add(value);
+			} else {
+				Object container = containers.get(containers.size() - 1);
+				if (container instanceof List<?>) {
+					((List<Object>) container).add(value);
+				} else {
+					((Map<String, Object>) container).put(memberNames.remove(memberNames.size() - 1), value);
+				}
+			}
+		}
+
+	}
+
+	private static class BoundedInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		public BoundedInputStream(InputStream in, long length) {
+			super(in);
+			this.remaining = (length < 0) ? Long.MAX_VALUE : length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int c = super.read();
+			if (c != -1) {
+				remaining--;
+			}
+			return c;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int n = super.read(b, off, (int) Math.min(len, remaining));
+			if (n > 0) {
+				remaining -= n;
+			}
+			return n;
+		}
+
+	}
+
+}